@@ -0,0 +1,56 @@
+package com.example.bank.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import java.time.Duration;
+
+/**
+ * Connection pool and reactive transactions for the R2DBC balance path, active only with
+ * {@code account.data-access.mode=reactive}. Everything else keeps using JPA.
+ *
+ * <p>The {@link R2dbcTransactionManager} is deliberately not a bean: a second
+ * {@code TransactionManager} in the context would make every {@code @Transactional}
+ * method ambiguous. R2DBC code uses the {@link TransactionalOperator} instead.
+ */
+@Configuration
+@ConditionalOnProperty(name = "account.data-access.mode", havingValue = "reactive")
+public class R2dbcConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool r2dbcConnectionPool(@Value("${account.r2dbc.url}") String url,
+                                              @Value("${spring.datasource.username}") String username,
+                                              @Value("${spring.datasource.password}") String password,
+                                              @Value("${account.r2dbc.pool.max-size:50}") int maxSize,
+                                              @Value("${account.r2dbc.pool.max-acquire-time:PT5S}") Duration maxAcquireTime) {
+        ConnectionFactory connectionFactory = ConnectionFactories.get(ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build());
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(connectionFactory)
+                .initialSize(Math.min(10, maxSize))
+                .maxSize(maxSize)
+                .maxAcquireTime(maxAcquireTime)
+                .build());
+    }
+
+    @Bean
+    public DatabaseClient r2dbcDatabaseClient(ConnectionPool r2dbcConnectionPool) {
+        return DatabaseClient.create(r2dbcConnectionPool);
+    }
+
+    @Bean
+    public TransactionalOperator r2dbcTransactionalOperator(ConnectionPool r2dbcConnectionPool) {
+        return TransactionalOperator.create(new R2dbcTransactionManager(r2dbcConnectionPool));
+    }
+}
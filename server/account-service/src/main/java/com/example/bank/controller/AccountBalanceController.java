@@ -0,0 +1,66 @@
+package com.example.bank.controller;
+
+import com.example.bank.common.ApiResponse;
+import com.example.bank.dto.Account.AccountDto;
+import com.example.bank.dto.Account.AmountRequest;
+import com.example.bank.dto.ApplyPaymentRequest;
+import com.example.bank.dto.ApplyPaymentResult;
+import com.example.bank.service.AccountService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Balance-changing endpoints on the default JPA data path. See
+ * {@link ReactiveAccountBalanceController} for {@code account.data-access.mode=reactive},
+ * {@link LedgerAccountBalanceController} for {@code ledger} and
+ * {@link JournalAccountBalanceController} for {@code journal}.
+ */
+@RestController
+@ConditionalOnProperty(name = "account.data-access.mode", havingValue = "jdbc", matchIfMissing = true)
+public class AccountBalanceController {
+
+    private final AccountService accountService;
+
+    public AccountBalanceController(AccountService accountService) {
+        this.accountService = accountService;
+    }
+
+    // EP-AC-04: Deposit (owner only)
+    @PostMapping("/api/v1/accounts/{id:\\d+}/deposit")
+    @PreAuthorize("@accountServiceImpl.isAccountOwner(principal.name, #id)")
+    public ResponseEntity<ApiResponse<AccountDto>> deposit(
+            @PathVariable Long id,
+            @Valid @RequestBody AmountRequest body,
+            HttpServletRequest req) {
+        return ResponseEntity.ok(ApiResponse.success(
+                accountService.deposit(id, body.getAmount()), req.getHeader("X-Request-Id")));
+    }
+
+    // EP-AC-05: Withdraw (owner only)
+    @PostMapping("/api/v1/accounts/{id:\\d+}/withdraw")
+    @PreAuthorize("@accountServiceImpl.isAccountOwner(principal.name, #id)")
+    public ResponseEntity<ApiResponse<AccountDto>> withdraw(
+            @PathVariable Long id,
+            @Valid @RequestBody AmountRequest body,
+            HttpServletRequest req) {
+        return ResponseEntity.ok(ApiResponse.success(
+                accountService.withdraw(id, body.getAmount()), req.getHeader("X-Request-Id")));
+    }
+
+    @PostMapping("/internal/accounts/apply-payment")
+    public ResponseEntity<Void> applyPayment(@RequestBody ApplyPaymentRequest request) {
+        accountService.applyPayment(request.getSourceId(), request.getTargetId(), request.getAmount());
+        return ResponseEntity.ok().build();
+    }
+
+    @PostMapping("/internal/accounts/apply-payments")
+    public ResponseEntity<List<ApplyPaymentResult>> applyPayments(@RequestBody List<ApplyPaymentRequest> requests) {
+        return ResponseEntity.ok(accountService.applyPayments(requests));
+    }
+}
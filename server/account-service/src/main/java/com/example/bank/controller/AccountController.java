@@ -1,11 +1,10 @@
 package com.example.bank.controller;
 
 import com.example.bank.common.ApiResponse;
+import com.example.bank.common.CursorPage;
 import com.example.bank.common.PaginationMeta;
 import com.example.bank.dto.Account.AccountCreateDto;
 import com.example.bank.dto.Account.AccountDto;
-import com.example.bank.dto.Account.AmountRequest;
-import com.example.bank.dto.ApplyPaymentRequest;
 import com.example.bank.enums.ErrorCode;
 import com.example.bank.exception.AccountException;
 import com.example.bank.service.AccountService;
@@ -15,12 +14,15 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.security.Principal;
+import java.time.LocalDateTime;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1")
@@ -43,13 +45,15 @@ public class AccountController {
                 .body(ApiResponse.success(created, req.getHeader("X-Request-Id")));
     }
 
-    // EP-AC-02: Get account by ID (owner only)
+    // EP-AC-02: Get account by ID (owner only); ?asOf= returns the balance at that time (journal mode)
     @GetMapping("/accounts/{id:\\d+}")
     @PreAuthorize("@accountServiceImpl.isAccountOwner(principal.name, #id)")
     public ResponseEntity<ApiResponse<AccountDto>> getAccountById(
-            @PathVariable Long id, HttpServletRequest req) {
-        return ResponseEntity.ok(ApiResponse.success(
-                accountService.getAccountById(id), req.getHeader("X-Request-Id")));
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf,
+            HttpServletRequest req) {
+        AccountDto account = asOf == null ? accountService.getAccountById(id) : accountService.getAccountById(id, asOf);
+        return ResponseEntity.ok(ApiResponse.success(account, req.getHeader("X-Request-Id")));
     }
 
     // EP-AC-03: List accounts for the authenticated user
@@ -67,27 +71,20 @@ public class AccountController {
         return ResponseEntity.ok(ApiResponse.successPaginated(result, req.getHeader("X-Request-Id"), pagination));
     }
 
-    // EP-AC-04: Deposit (owner only)
-    @PostMapping("/accounts/{id:\\d+}/deposit")
-    @PreAuthorize("@accountServiceImpl.isAccountOwner(principal.name, #id)")
-    public ResponseEntity<ApiResponse<AccountDto>> deposit(
-            @PathVariable Long id,
-            @Valid @RequestBody AmountRequest body,
+    // EP-AC-03b: List accounts, keyset paginated (pass an empty cursor for the first page)
+    @GetMapping(value = "/accounts", params = "cursor")
+    public ResponseEntity<ApiResponse<List<AccountDto>>> getAllAccountsByCursor(
+            Principal principal,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "20") int size,
             HttpServletRequest req) {
-        return ResponseEntity.ok(ApiResponse.success(
-                accountService.deposit(id, body.getAmount()), req.getHeader("X-Request-Id")));
+        CursorPage<AccountDto> result = accountService.getAllAccounts(principal.getName(), cursor, size);
+        return ResponseEntity.ok(ApiResponse.successCursorPaginated(result, req.getHeader("X-Request-Id")));
     }
 
-    // EP-AC-05: Withdraw (owner only)
-    @PostMapping("/accounts/{id:\\d+}/withdraw")
-    @PreAuthorize("@accountServiceImpl.isAccountOwner(principal.name, #id)")
-    public ResponseEntity<ApiResponse<AccountDto>> withdraw(
-            @PathVariable Long id,
-            @Valid @RequestBody AmountRequest body,
-            HttpServletRequest req) {
-        return ResponseEntity.ok(ApiResponse.success(
-                accountService.withdraw(id, body.getAmount()), req.getHeader("X-Request-Id")));
-    }
+    // EP-AC-04 / EP-AC-05 (deposit, withdraw) live in AccountBalanceController,
+    // ReactiveAccountBalanceController, LedgerAccountBalanceController or
+    // JournalAccountBalanceController, depending on account.data-access.mode.
 
     // EP-AC-06: Delete account (owner only)
     @DeleteMapping("/accounts/{id:\\d+}")
@@ -1,33 +1,55 @@
 package com.example.bank.controller;
 
-import com.example.bank.dto.ApplyPaymentRequest;
+import com.example.bank.dto.Account.AccountOwnerDto;
 import com.example.bank.service.AccountService;
+import com.example.bank.service.AccountStripes;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 @RestController
 public class InternalAccountController {
 
     private final AccountService accountService;
+    private final AccountStripes accountStripes;
 
-    public InternalAccountController(AccountService accountService) {
+    public InternalAccountController(AccountService accountService, AccountStripes accountStripes) {
         this.accountService = accountService;
+        this.accountStripes = accountStripes;
     }
 
-    @PostMapping("/internal/accounts/apply-payment")
-    public ResponseEntity<Void> applyPayment(@RequestBody ApplyPaymentRequest request) {
-        accountService.applyPayment(request.getSourceId(), request.getTargetId(), request.getAmount());
-        return ResponseEntity.ok().build();
-    }
+    // "/internal/accounts/apply-payment" and "/internal/accounts/apply-payments" are served
+    // by the balance controller for the configured account.data-access.mode.
 
     @GetMapping("/internal/accounts/{id:\\d+}/owner")
     public ResponseEntity<Boolean> isAccountOwner(
             @PathVariable Long id, @RequestParam String username) {
         return ResponseEntity.ok(accountService.isAccountOwner(username, id));
     }
+
+    /**
+     * Bulk ownership lookup for payment-service's ownership index. Takes the ids in the
+     * body so a warm-up batch is not bounded by URL length.
+     */
+    @PostMapping("/internal/accounts/owners")
+    public ResponseEntity<List<AccountOwnerDto>> getOwners(@RequestBody List<Long> accountIds) {
+        return ResponseEntity.ok(accountService.getOwners(accountIds));
+    }
+
+    /**
+     * Designates a hot account by splitting its credits over {@code count} stripes
+     * (0 turns striping off). See {@link AccountStripes}.
+     */
+    @PutMapping("/internal/accounts/{id:\\d+}/stripes")
+    public ResponseEntity<Void> restripe(@PathVariable Long id, @RequestParam int count) {
+        accountStripes.restripe(id, count);
+        return ResponseEntity.noContent().build();
+    }
 }
@@ -0,0 +1,63 @@
+package com.example.bank.controller;
+
+import com.example.bank.common.ApiResponse;
+import com.example.bank.dto.Account.AccountDto;
+import com.example.bank.dto.Account.AmountRequest;
+import com.example.bank.dto.ApplyPaymentRequest;
+import com.example.bank.dto.ApplyPaymentResult;
+import com.example.bank.service.JournalAccountService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Balance-changing endpoints on the double-entry journal ({@code account.data-access.mode=journal}).
+ */
+@RestController
+@ConditionalOnProperty(name = "account.data-access.mode", havingValue = "journal")
+public class JournalAccountBalanceController {
+
+    private final JournalAccountService journalAccountService;
+
+    public JournalAccountBalanceController(JournalAccountService journalAccountService) {
+        this.journalAccountService = journalAccountService;
+    }
+
+    // EP-AC-04: Deposit (owner only)
+    @PostMapping("/api/v1/accounts/{id:\\d+}/deposit")
+    @PreAuthorize("@accountServiceImpl.isAccountOwner(principal.name, #id)")
+    public ResponseEntity<ApiResponse<AccountDto>> deposit(
+            @PathVariable Long id,
+            @Valid @RequestBody AmountRequest body,
+            HttpServletRequest req) {
+        return ResponseEntity.ok(ApiResponse.success(
+                journalAccountService.deposit(id, body.getAmount()), req.getHeader("X-Request-Id")));
+    }
+
+    // EP-AC-05: Withdraw (owner only)
+    @PostMapping("/api/v1/accounts/{id:\\d+}/withdraw")
+    @PreAuthorize("@accountServiceImpl.isAccountOwner(principal.name, #id)")
+    public ResponseEntity<ApiResponse<AccountDto>> withdraw(
+            @PathVariable Long id,
+            @Valid @RequestBody AmountRequest body,
+            HttpServletRequest req) {
+        return ResponseEntity.ok(ApiResponse.success(
+                journalAccountService.withdraw(id, body.getAmount()), req.getHeader("X-Request-Id")));
+    }
+
+    @PostMapping("/internal/accounts/apply-payment")
+    public ResponseEntity<Void> applyPayment(@RequestBody ApplyPaymentRequest request) {
+        journalAccountService.applyPayment(request.getSourceId(), request.getTargetId(), request.getAmount());
+        return ResponseEntity.ok().build();
+    }
+
+    @PostMapping("/internal/accounts/apply-payments")
+    public ResponseEntity<List<ApplyPaymentResult>> applyPayments(@RequestBody List<ApplyPaymentRequest> requests) {
+        return ResponseEntity.ok(journalAccountService.applyPayments(requests));
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.bank.controller;
+
+import com.example.bank.common.ApiResponse;
+import com.example.bank.dto.Account.AccountDto;
+import com.example.bank.dto.Account.AmountRequest;
+import com.example.bank.dto.ApplyPaymentRequest;
+import com.example.bank.dto.ApplyPaymentResult;
+import com.example.bank.ledger.LedgerEngine;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Balance-changing endpoints on the in-memory ledger ({@code account.data-access.mode=ledger}).
+ * Handlers return the {@link LedgerEngine}'s futures, so the Tomcat thread is released
+ * while the mutation waits for its write-ahead log force.
+ */
+@RestController
+@ConditionalOnProperty(name = "account.data-access.mode", havingValue = "ledger")
+public class LedgerAccountBalanceController {
+
+    private final LedgerEngine ledgerEngine;
+
+    public LedgerAccountBalanceController(LedgerEngine ledgerEngine) {
+        this.ledgerEngine = ledgerEngine;
+    }
+
+    // EP-AC-04: Deposit (owner only)
+    @PostMapping("/api/v1/accounts/{id:\\d+}/deposit")
+    @PreAuthorize("@accountServiceImpl.isAccountOwner(principal.name, #id)")
+    public CompletableFuture<ResponseEntity<ApiResponse<AccountDto>>> deposit(
+            @PathVariable Long id,
+            @Valid @RequestBody AmountRequest body,
+            HttpServletRequest req) {
+        String requestId = req.getHeader("X-Request-Id");
+        return ledgerEngine.deposit(id, body.getAmount())
+                .thenApply(account -> ResponseEntity.ok(ApiResponse.success(account, requestId)));
+    }
+
+    // EP-AC-05: Withdraw (owner only)
+    @PostMapping("/api/v1/accounts/{id:\\d+}/withdraw")
+    @PreAuthorize("@accountServiceImpl.isAccountOwner(principal.name, #id)")
+    public CompletableFuture<ResponseEntity<ApiResponse<AccountDto>>> withdraw(
+            @PathVariable Long id,
+            @Valid @RequestBody AmountRequest body,
+            HttpServletRequest req) {
+        String requestId = req.getHeader("X-Request-Id");
+        return ledgerEngine.withdraw(id, body.getAmount())
+                .thenApply(account -> ResponseEntity.ok(ApiResponse.success(account, requestId)));
+    }
+
+    @PostMapping("/internal/accounts/apply-payment")
+    public CompletableFuture<ResponseEntity<Void>> applyPayment(@RequestBody ApplyPaymentRequest request) {
+        return ledgerEngine.applyPayment(request.getSourceId(), request.getTargetId(), request.getAmount())
+                .thenApply(done -> ResponseEntity.ok().<Void>build());
+    }
+
+    @PostMapping("/internal/accounts/apply-payments")
+    public CompletableFuture<ResponseEntity<List<ApplyPaymentResult>>> applyPayments(
+            @RequestBody List<ApplyPaymentRequest> requests) {
+        return ledgerEngine.applyPayments(requests).thenApply(ResponseEntity::ok);
+    }
+}
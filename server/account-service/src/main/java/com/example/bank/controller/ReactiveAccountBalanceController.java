@@ -0,0 +1,74 @@
+package com.example.bank.controller;
+
+import com.example.bank.common.ApiResponse;
+import com.example.bank.dto.Account.AccountDto;
+import com.example.bank.dto.Account.AmountRequest;
+import com.example.bank.dto.ApplyPaymentRequest;
+import com.example.bank.dto.ApplyPaymentResult;
+import com.example.bank.service.AccountService;
+import com.example.bank.service.ReactiveAccountService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Balance-changing endpoints on the R2DBC data path ({@code account.data-access.mode=reactive}).
+ * Handlers return {@link Mono}, so Spring MVC completes them asynchronously and the
+ * Tomcat thread is released while the operation waits on MySQL row locks.
+ */
+@RestController
+@ConditionalOnProperty(name = "account.data-access.mode", havingValue = "reactive")
+public class ReactiveAccountBalanceController {
+
+    private final ReactiveAccountService reactiveAccountService;
+    private final AccountService accountService;
+
+    public ReactiveAccountBalanceController(ReactiveAccountService reactiveAccountService,
+                                            AccountService accountService) {
+        this.reactiveAccountService = reactiveAccountService;
+        this.accountService = accountService;
+    }
+
+    // EP-AC-04: Deposit (owner only)
+    @PostMapping("/api/v1/accounts/{id:\\d+}/deposit")
+    @PreAuthorize("@accountServiceImpl.isAccountOwner(principal.name, #id)")
+    public Mono<ResponseEntity<ApiResponse<AccountDto>>> deposit(
+            @PathVariable Long id,
+            @Valid @RequestBody AmountRequest body,
+            HttpServletRequest req) {
+        String requestId = req.getHeader("X-Request-Id");
+        return reactiveAccountService.deposit(id, body.getAmount())
+                .map(account -> ResponseEntity.ok(ApiResponse.success(account, requestId)));
+    }
+
+    // EP-AC-05: Withdraw (owner only)
+    @PostMapping("/api/v1/accounts/{id:\\d+}/withdraw")
+    @PreAuthorize("@accountServiceImpl.isAccountOwner(principal.name, #id)")
+    public Mono<ResponseEntity<ApiResponse<AccountDto>>> withdraw(
+            @PathVariable Long id,
+            @Valid @RequestBody AmountRequest body,
+            HttpServletRequest req) {
+        String requestId = req.getHeader("X-Request-Id");
+        return reactiveAccountService.withdraw(id, body.getAmount())
+                .map(account -> ResponseEntity.ok(ApiResponse.success(account, requestId)));
+    }
+
+    @PostMapping("/internal/accounts/apply-payment")
+    public Mono<ResponseEntity<Void>> applyPayment(@RequestBody ApplyPaymentRequest request) {
+        return reactiveAccountService.applyPayment(request.getSourceId(), request.getTargetId(), request.getAmount())
+                .then(Mono.just(ResponseEntity.ok().<Void>build()));
+    }
+
+    // Batches stay on JPA: they lock every account once up front, which the row locks of
+    // the R2DBC path are compatible with.
+    @PostMapping("/internal/accounts/apply-payments")
+    public ResponseEntity<List<ApplyPaymentResult>> applyPayments(@RequestBody List<ApplyPaymentRequest> requests) {
+        return ResponseEntity.ok(accountService.applyPayments(requests));
+    }
+}
@@ -16,7 +16,9 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Getter
 @Setter
-@Table(name = "accounts")
+@Table(name = "accounts", indexes = {
+        @Index(name = "idx_accounts_user_id", columnList = "user_id, id")
+})
 @Entity
 public class Account {
 
@@ -37,6 +39,10 @@ public class Account {
     @Column(name = "user_id", nullable = false)
     private Long userId;
 
+    /** Number of credit stripes ({@link AccountStripe}); 0 for an ordinary account. */
+    @Column(nullable = false)
+    private int stripes;
+
     @Version
     private Long version;
 
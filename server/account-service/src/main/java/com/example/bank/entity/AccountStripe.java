@@ -0,0 +1,51 @@
+package com.example.bank.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One credit stripe of a hot account. An account with {@code stripes = K} has stripe rows
+ * {@code 0..K-1}; credits land on one of them instead of the account row, and the account's
+ * balance is {@code accounts.balance} plus the sum of its stripes.
+ */
+@Entity
+@Table(name = "account_stripes", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_account_stripes_account_stripe", columnNames = {"account_id", "stripe_no"})
+})
+@Data
+@NoArgsConstructor
+public class AccountStripe {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @Column(name = "stripe_no", nullable = false)
+    private int stripeNo;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal balance = BigDecimal.ZERO;
+
+    @UpdateTimestamp
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    public AccountStripe(Long accountId, int stripeNo) {
+        this.accountId = accountId;
+        this.stripeNo = stripeNo;
+    }
+}
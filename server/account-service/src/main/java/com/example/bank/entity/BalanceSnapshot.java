@@ -0,0 +1,56 @@
+package com.example.bank.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * An account's balance folded over every {@link LedgerEntry} of the account with
+ * {@code id <= lastEntryId}, none of which was created after {@code asOf}. The current
+ * balance is the latest snapshot plus the entries after it; a historical balance starts
+ * from the latest snapshot taken at or before the requested time.
+ *
+ * <p>Each account starts with a baseline snapshot ({@code lastEntryId = 0}) holding its
+ * opening balance.
+ */
+@Entity
+@Table(name = "balance_snapshots", indexes = {
+        @Index(name = "idx_balance_snapshots_account_entry", columnList = "account_id, last_entry_id"),
+        @Index(name = "idx_balance_snapshots_account_as_of", columnList = "account_id, as_of")
+})
+@Data
+@NoArgsConstructor
+public class BalanceSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @Column(name = "last_entry_id", nullable = false)
+    private Long lastEntryId;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal balance;
+
+    @Column(name = "as_of", nullable = false)
+    private LocalDateTime asOf;
+
+    public BalanceSnapshot(Long accountId, Long lastEntryId, BigDecimal balance, LocalDateTime asOf) {
+        this.accountId = accountId;
+        this.lastEntryId = lastEntryId;
+        this.balance = balance;
+        this.asOf = asOf;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.bank.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * How far the ledger engine's write-ahead log has been projected into {@code accounts} and
+ * {@code outbox_events}: every WAL record with {@code lsn <= lastProjectedLsn} is reflected
+ * in MySQL. Advanced in the same transaction as the rows it covers.
+ */
+@Entity
+@Table(name = "ledger_checkpoints")
+@Data
+@NoArgsConstructor
+public class LedgerCheckpoint {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(nullable = false)
+    private Long lastProjectedLsn = 0L;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    public LedgerCheckpoint(String name) {
+        this.name = name;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.bank.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One line of the append-only double-entry journal. Every balance change writes a pair of
+ * entries with the same {@code journalId} whose amounts sum to zero: a negative (debit)
+ * amount on the account money leaves and a positive (credit) amount on the account it
+ * reaches. Deposits and withdrawals are posted against the cash clearing account
+ * ({@code JournalAccountServiceImpl.CASH_ACCOUNT_ID}). Rows are never updated or deleted.
+ */
+@Entity
+@Table(name = "ledger_entries", indexes = {
+        @Index(name = "idx_ledger_entries_account_id", columnList = "account_id, id"),
+        @Index(name = "idx_ledger_entries_created_at", columnList = "created_at")
+})
+@Data
+@NoArgsConstructor
+public class LedgerEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "journal_id", nullable = false, length = 36)
+    private String journalId;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    /** Positive for a credit, negative for a debit. */
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal amount;
+
+    @Column(name = "entry_type", nullable = false, length = 20)
+    private String entryType;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public LedgerEntry(String journalId, Long accountId, BigDecimal amount, String entryType) {
+        this.journalId = journalId;
+        this.accountId = accountId;
+        this.amount = amount;
+        this.entryType = entryType;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.bank.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Per-lane high-water mark of the outbox relay: every {@link OutboxEvent} in the lane with
+ * {@code id <= lastRelayedId} has been acknowledged by Kafka. The lease columns record which
+ * relay instance currently owns the lane and until when.
+ */
+@Entity
+@Table(name = "outbox_checkpoints")
+@Data
+@NoArgsConstructor
+public class OutboxCheckpoint {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(nullable = false)
+    private Long lastRelayedId = 0L;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    @Column(length = 128)
+    private String leaseOwner;
+
+    private LocalDateTime leaseExpiresAt;
+
+    public OutboxCheckpoint(String name) {
+        this.name = name;
+    }
+}
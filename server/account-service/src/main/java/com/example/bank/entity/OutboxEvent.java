@@ -5,13 +5,16 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "outbox_events")
+@Table(name = "outbox_events", indexes = {
+        @Index(name = "idx_outbox_events_lane_id", columnList = "lane, id")
+})
 @Data
 @NoArgsConstructor
 public class OutboxEvent {
@@ -26,11 +29,20 @@ public class OutboxEvent {
     @Column(nullable = false)
     private String routingKey;
 
+    /** Relay lane, derived from {@code routingKey} by {@code OutboxLanes}. */
+    private Integer lane;
+
     @Column(columnDefinition = "TEXT", nullable = false)
     private String payload;
 
+    /**
+     * Fully-qualified class name of the serialized event. Sent as the {@code __TypeId__}
+     * header so consumers' JsonDeserializer can map the raw JSON back to the event type.
+     */
+    private String payloadType;
+
     @Column(nullable = false)
-    private String status = "PENDING"; // PENDING or COMPLETED
+    private String status = "PENDING"; // legacy; relay progress is tracked in OutboxCheckpoint
 
     @Column(nullable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
@@ -0,0 +1,28 @@
+package com.example.bank.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Heartbeat of a running outbox relay instance. Live members are counted to work out each
+ * instance's fair share of lanes, including instances that do not own a lane yet.
+ */
+@Entity
+@Table(name = "outbox_relay_members")
+@Data
+@NoArgsConstructor
+public class OutboxRelayMember {
+
+    @Id
+    @Column(length = 128)
+    private String ownerId;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,74 @@
+package com.example.bank.job;
+
+import com.example.bank.repository.BalanceSnapshotRepository;
+import com.example.bank.repository.LedgerEntryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Keeps journal balance reads cheap by periodically folding new {@code ledger_entries}
+ * into {@code balance_snapshots}, so a balance only ever sums the entries since the last
+ * run. Snapshots are kept, which is what makes {@code ?asOf=} reads a single snapshot
+ * lookup plus a short range sum.
+ *
+ * <h3>Frontier</h3>
+ * A run only covers entries created more than {@code account.journal.snapshot.lag} ago.
+ * Entry ids are assigned at insert but become visible at commit, so a younger id may
+ * still have uncommitted neighbours below it; the lag must exceed the longest journal
+ * write transaction.
+ *
+ * <p>Also refreshes {@code accounts.balance} from each new snapshot, so the column is a
+ * recent (not live) figure and the service can be switched back to the {@code jdbc} mode
+ * after a final run with the journal quiesced.
+ */
+@Component
+@ConditionalOnProperty(name = "account.data-access.mode", havingValue = "journal")
+public class BalanceSnapshotJob {
+
+    private static final Logger log = LoggerFactory.getLogger(BalanceSnapshotJob.class);
+
+    private final BalanceSnapshotRepository balanceSnapshotRepository;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final Duration lag;
+    private volatile long lastFrontier;
+
+    public BalanceSnapshotJob(BalanceSnapshotRepository balanceSnapshotRepository,
+                              LedgerEntryRepository ledgerEntryRepository,
+                              @Value("${account.journal.snapshot.lag:PT1M}") Duration lag) {
+        this.balanceSnapshotRepository = balanceSnapshotRepository;
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.lag = lag;
+    }
+
+    /** Gives accounts that predate the journal their opening snapshot from {@code accounts.balance}. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void insertBaselines() {
+        int inserted = balanceSnapshotRepository.insertMissingBaselines();
+        if (inserted > 0) {
+            log.info("Created {} baseline balance snapshots", inserted);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${account.journal.snapshot.interval-ms:300000}")
+    public void snapshot() {
+        Long frontier = ledgerEntryRepository.findMaxIdCreatedBefore(LocalDateTime.now().minus(lag));
+        if (frontier == null || frontier <= lastFrontier) {
+            return;
+        }
+        int snapshots = balanceSnapshotRepository.snapshotUpTo(frontier);
+        balanceSnapshotRepository.materializeBalances(lastFrontier);
+        lastFrontier = frontier;
+        if (snapshots > 0) {
+            log.info("Snapshotted {} account balances (entries <= {})", snapshots, frontier);
+        }
+    }
+}
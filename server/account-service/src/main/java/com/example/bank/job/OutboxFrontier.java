@@ -0,0 +1,208 @@
+package com.example.bank.job;
+
+import com.example.bank.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Tracks which outbox_events ids each lane may relay up to, and the ids that are still missing.
+ *
+ * <p>AUTO_INCREMENT ids are handed out at insert but become visible at commit, so id 11 may
+ * be visible while id 10 is still in flight, and until it commits nobody can tell which lane
+ * id 10 belongs to.
+ *
+ * <h3>Per-lane frontier</h3>
+ * Every id up to the highest one scanned is either visible or held in a missing set. A missing
+ * id younger than the gap timeout may still turn out to be an earlier event of any lane. So a
+ * lane with a visible event after the oldest such gap relays only up to just before that
+ * event. A lane with nothing after the gap is not held back. One slow transaction therefore
+ * delays only the lanes that have something to order behind it.
+ *
+ * <h3>Late events</h3>
+ * After the gap timeout, lanes stop waiting for a missing id, but the id stays in the missing
+ * set and is re-checked on every refresh. If it commits, it is handed to its lane as a late
+ * event, and the lane relays it even though its mark has moved past it
+ * ({@link #takeLate}). Only after the abandon timeout is a missing id assumed rolled back and
+ * forgotten, with a warning.
+ */
+class OutboxFrontier {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxFrontier.class);
+
+    /** A jump wider than this is not tracked id by id (e.g. a manually raised AUTO_INCREMENT). */
+    static final int MAX_TRACKED_GAP = 10_000;
+    private static final int RECHECK_CHUNK = 1000;
+    private static final int LOGGED_IDS = 10;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final long gapTimeoutMs;
+    private final long abandonAfterMs;
+    private final int scanSize;
+    private final LongSupplier clock;
+
+    private long scannedUpTo;
+    private final NavigableMap<Long, Gap> missing = new TreeMap<>();
+    private final NavigableMap<Long, Late> late = new TreeMap<>();
+
+    private static final class Gap {
+        final long seenAtMs;
+        boolean expired;
+
+        Gap(long seenAtMs) {
+            this.seenAtMs = seenAtMs;
+        }
+    }
+
+    private record Late(int lane, long foundAtMs) {
+    }
+
+    OutboxFrontier(OutboxEventRepository outboxEventRepository, long start, long gapTimeoutMs, long abandonAfterMs,
+                   int scanSize, LongSupplier clock) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.scannedUpTo = start;
+        this.gapTimeoutMs = gapTimeoutMs;
+        this.abandonAfterMs = abandonAfterMs;
+        this.scanSize = scanSize;
+        this.clock = clock;
+    }
+
+    /** Scans newly committed ids and re-checks the missing ones. */
+    synchronized void refresh() {
+        long now = clock.getAsLong();
+        List<Long> ids = outboxEventRepository.findIdsAfter(scannedUpTo, Limit.of(scanSize));
+        long expected = scannedUpTo + 1;
+        for (Long id : ids) {
+            if (id - expected > MAX_TRACKED_GAP) {
+                log.warn("Outbox ids jumped from {} to {}; the ids in between are not tracked", expected - 1, id);
+            } else {
+                for (long gap = expected; gap < id; gap++) {
+                    missing.put(gap, new Gap(now));
+                }
+            }
+            expected = id + 1;
+        }
+        if (!ids.isEmpty()) {
+            scannedUpTo = ids.get(ids.size() - 1);
+        }
+        recheckMissing(now);
+    }
+
+    /**
+     * Highest id {@code lane} may relay up to: everything scanned, unless the lane has a
+     * visible event after a missing id that is still within the gap timeout.
+     */
+    long laneFrontier(int lane) {
+        long upTo;
+        Long youngGap;
+        synchronized (this) {
+            upTo = scannedUpTo;
+            youngGap = oldestYoungGap();
+        }
+        if (youngGap == null) {
+            return upTo;
+        }
+        Long next = outboxEventRepository.findFirstIdInLaneAfter(lane, youngGap);
+        return next == null ? upTo : Math.min(next - 1, upTo);
+    }
+
+    /**
+     * Removes and returns the late events of {@code lane} at or below its mark {@code hwm},
+     * in id order. Late events above the mark are dropped, since the lane's next batch will
+     * relay them anyway.
+     */
+    synchronized List<Long> takeLate(int lane, long hwm) {
+        List<Long> due = new ArrayList<>();
+        Iterator<Map.Entry<Long, Late>> it = late.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Long, Late> entry = it.next();
+            if (entry.getValue().lane() == lane) {
+                if (entry.getKey() <= hwm) {
+                    due.add(entry.getKey());
+                }
+                it.remove();
+            }
+        }
+        return due;
+    }
+
+    /** Puts back late events whose relay failed, to be retried. */
+    synchronized void returnLate(int lane, List<Long> ids) {
+        long now = clock.getAsLong();
+        ids.forEach(id -> late.put(id, new Late(lane, now)));
+    }
+
+    synchronized int missingCount() {
+        return missing.size();
+    }
+
+    private Long oldestYoungGap() {
+        for (Map.Entry<Long, Gap> entry : missing.entrySet()) {
+            if (!entry.getValue().expired) {
+                return entry.getKey();
+            }
+        }
+        return null;
+    }
+
+    private void recheckMissing(long now) {
+        if (missing.isEmpty()) {
+            expireLate(now);
+            return;
+        }
+        List<Long> pending = new ArrayList<>(missing.keySet());
+        for (int from = 0; from < pending.size(); from += RECHECK_CHUNK) {
+            List<Long> chunk = pending.subList(from, Math.min(from + RECHECK_CHUNK, pending.size()));
+            for (OutboxEventRepository.IdAndLane row : outboxEventRepository.findLanesByIdIn(chunk)) {
+                Gap gap = missing.remove(row.getId());
+                if (gap != null && gap.expired) {
+                    log.warn("Outbox id {} committed {} ms after it was first missed; relaying it late on lane {}",
+                            row.getId(), now - gap.seenAtMs, row.getLane());
+                }
+                late.put(row.getId(), new Late(row.getLane(), now));
+            }
+        }
+
+        List<Long> expired = new ArrayList<>();
+        List<Long> abandoned = new ArrayList<>();
+        Iterator<Map.Entry<Long, Gap>> it = missing.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Long, Gap> entry = it.next();
+            Gap gap = entry.getValue();
+            long age = now - gap.seenAtMs;
+            if (age >= abandonAfterMs) {
+                abandoned.add(entry.getKey());
+                it.remove();
+            } else if (!gap.expired && age >= gapTimeoutMs) {
+                gap.expired = true;
+                expired.add(entry.getKey());
+            }
+        }
+        if (!expired.isEmpty()) {
+            log.info("{} outbox ids still uncommitted after {} ms (e.g. {}); lanes no longer wait for them",
+                    expired.size(), gapTimeoutMs, head(expired));
+        }
+        if (!abandoned.isEmpty()) {
+            log.warn("Gave up on {} outbox ids uncommitted after {} ms (e.g. {}); assuming they were rolled back",
+                    abandoned.size(), abandonAfterMs, head(abandoned));
+        }
+        expireLate(now);
+    }
+
+    /** Late events of lanes no worker here owns are relayed by their owner's own frontier. */
+    private void expireLate(long now) {
+        late.values().removeIf(l -> now - l.foundAtMs() >= abandonAfterMs);
+    }
+
+    private static List<Long> head(List<Long> ids) {
+        return ids.subList(0, Math.min(LOGGED_IDS, ids.size()));
+    }
+}
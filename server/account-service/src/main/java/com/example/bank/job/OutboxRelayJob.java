@@ -1,80 +1,457 @@
 package com.example.bank.job;
 
+import com.example.bank.entity.OutboxCheckpoint;
 import com.example.bank.entity.OutboxEvent;
+import com.example.bank.kafka.OutboxLanes;
+import com.example.bank.kafka.OutboxSignal;
+import com.example.bank.repository.OutboxCheckpointRepository;
 import com.example.bank.repository.OutboxEventRepository;
+import com.example.bank.repository.OutboxRelayMemberRepository;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.kafka.support.mapping.AbstractJavaTypeMapper;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Phase 2 of the Transactional Outbox Pattern.
- * 
- * This background daemon continuously polls the database for events that were
- * safely committed alongside business data, and reliably forwards them to Kafka.
- * This guarantees At-Least-Once delivery semantics even if Kafka experiences downtime.
+ *
+ * Tails outbox_events and forwards each event to Kafka, giving At-Least-Once delivery
+ * even if Kafka experiences downtime.
+ *
+ * <h3>Lanes</h3>
+ * Events are split into {@code outbox.relay.lanes} lanes by routing key (see
+ * {@link OutboxLanes}). Each lane has its own high-water mark in {@link OutboxCheckpoint}
+ * and is relayed in id order by exactly one worker thread cluster-wide, so per-account
+ * ordering on account-events-topic is preserved while lanes run in parallel.
+ *
+ * <h3>Leases</h3>
+ * Lane ownership is a lease on the lane's checkpoint row. A coordinator thread heartbeats
+ * this instance in outbox_relay_members, renews the leases it holds, and takes or gives
+ * back lanes until it owns its fair share, {@code ceil(lanes / live members)}. Checkpoint
+ * writes are fenced on the lease, so an instance that lost a lane cannot move its mark.
+ * Lanes are released only after their worker has stopped; a crashed instance's lanes are
+ * picked up once its leases expire.
+ *
+ * <h3>Id gaps</h3>
+ * Workers never read past their lane's {@link OutboxFrontier}. A lane waits behind an
+ * uncommitted id only while that id is younger than {@code outbox.relay.gap-timeout-ms} and
+ * only if the lane has a later event. An id that commits after its lane moved past it is
+ * relayed late rather than lost, for up to {@code outbox.relay.gap-abandon-ms}. A lane with
+ * nothing left below its frontier moves its mark up to the frontier, which keeps idle lanes
+ * from holding back the purge.
+ *
+ * <h3>Wake-ups and purging</h3>
+ * Workers relay back-to-back while backlog remains and otherwise sleep on their lane's
+ * {@link OutboxSignal}; a poll interval covers events written by other instances.
+ * Relayed rows are purged in bulk by {@link #purgeRelayed()}.
  */
 @Component
-public class OutboxRelayJob {
+@ConditionalOnProperty(name = "outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelayJob implements SmartLifecycle {
 
     private static final Logger log = LoggerFactory.getLogger(OutboxRelayJob.class);
+    private static final String LANE_PREFIX = "account-events-lane-";
+    private static final String LEGACY_CHECKPOINT = "account-events";
 
     private final OutboxEventRepository outboxEventRepository;
-    private final KafkaTemplate<String, Object> kafkaTemplate;
-    private final ObjectMapper objectMapper;
+    private final OutboxCheckpointRepository checkpointRepository;
+    private final OutboxRelayMemberRepository memberRepository;
+    private final KafkaTemplate<String, byte[]> outboxKafkaTemplate;
+    private final OutboxSignal outboxSignal;
+    private final OutboxLanes outboxLanes;
+    private final int batchSize;
+    private final long ackTimeoutMs;
+    private final long idleWaitMs;
+    private final long gapTimeoutMs;
+    private final long gapAbandonMs;
+    private final Duration leaseDuration;
+    private final int purgeChunkSize;
+    private final Duration purgeRetention;
+    private final String ownerId;
+
+    private final Map<Integer, LaneWorker> workers = new ConcurrentHashMap<>();
+    private volatile boolean running;
+    private volatile OutboxFrontier frontier;
+    private Thread coordinator;
 
     public OutboxRelayJob(OutboxEventRepository outboxEventRepository,
-                          KafkaTemplate<String, Object> kafkaTemplate,
-                          ObjectMapper objectMapper) {
+                          OutboxCheckpointRepository checkpointRepository,
+                          OutboxRelayMemberRepository memberRepository,
+                          KafkaTemplate<String, byte[]> outboxKafkaTemplate,
+                          OutboxSignal outboxSignal,
+                          OutboxLanes outboxLanes,
+                          @Value("${outbox.relay.batch-size:500}") int batchSize,
+                          @Value("${outbox.relay.ack-timeout-ms:10000}") long ackTimeoutMs,
+                          @Value("${outbox.relay.poll-interval-ms:1000}") long idleWaitMs,
+                          @Value("${outbox.relay.gap-timeout-ms:30000}") long gapTimeoutMs,
+                          @Value("${outbox.relay.gap-abandon-ms:600000}") long gapAbandonMs,
+                          @Value("${outbox.relay.lease-duration:PT30S}") Duration leaseDuration,
+                          @Value("${outbox.purge.chunk-size:5000}") int purgeChunkSize,
+                          @Value("${outbox.purge.retention:PT1H}") Duration purgeRetention) {
         this.outboxEventRepository = outboxEventRepository;
-        this.kafkaTemplate = kafkaTemplate;
-        this.objectMapper = objectMapper;
+        this.checkpointRepository = checkpointRepository;
+        this.memberRepository = memberRepository;
+        this.outboxKafkaTemplate = outboxKafkaTemplate;
+        this.outboxSignal = outboxSignal;
+        this.outboxLanes = outboxLanes;
+        this.batchSize = batchSize;
+        this.ackTimeoutMs = ackTimeoutMs;
+        this.idleWaitMs = idleWaitMs;
+        this.gapTimeoutMs = gapTimeoutMs;
+        this.gapAbandonMs = gapAbandonMs;
+        this.leaseDuration = leaseDuration;
+        this.purgeChunkSize = purgeChunkSize;
+        this.purgeRetention = purgeRetention;
+        this.ownerId = hostName() + "-" + UUID.randomUUID();
+    }
+
+    // ── Lifecycle ────────────────────────────────────────────────────────────
+
+    @Override
+    public void start() {
+        outboxEventRepository.backfillLanes(outboxLanes.count());
+        ensureLaneCheckpoints();
+        Long start = checkpointRepository.findMinLastRelayedId(LANE_PREFIX);
+        frontier = new OutboxFrontier(outboxEventRepository, start == null ? 0L : start, gapTimeoutMs, gapAbandonMs,
+                batchSize * 4, System::currentTimeMillis);
+
+        running = true;
+        coordinator = new Thread(this::coordinate, "outbox-relay-coordinator");
+        coordinator.setDaemon(true);
+        coordinator.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (coordinator != null) {
+            coordinator.interrupt();
+        }
+        for (Integer lane : List.copyOf(workers.keySet())) {
+            releaseLane(lane);
+        }
+        memberRepository.deleteById(ownerId);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // ── Coordinator: membership and lane leases ─────────────────────────────
+
+    private void coordinate() {
+        long renewEveryMs = Math.max(leaseDuration.toMillis() / 3, 100);
+        while (running) {
+            try {
+                rebalance();
+                Thread.sleep(renewEveryMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Outbox lane rebalance failed", e);
+                try {
+                    Thread.sleep(renewEveryMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void rebalance() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plus(leaseDuration);
+        memberRepository.heartbeat(ownerId, expiresAt);
+        memberRepository.deleteExpired(now.minus(leaseDuration));
+
+        long members = Math.max(1, memberRepository.countByExpiresAtAfter(now));
+        int lanes = outboxLanes.count();
+        int fairShare = (int) ((lanes + members - 1) / members);
+
+        // Renew what we hold; anything we fail to renew has been taken over.
+        for (Map.Entry<Integer, LaneWorker> entry : workers.entrySet()) {
+            int lane = entry.getKey();
+            if (checkpointRepository.acquireLease(OutboxLanes.checkpointName(lane), ownerId, expiresAt, now) == 1) {
+                entry.getValue().leaseValidUntilMs = leaseDeadlineMs(expiresAt);
+            } else {
+                log.warn("Lost lease on outbox lane {}", lane);
+                stopWorker(lane);
+            }
+        }
+
+        // Give back surplus lanes so newly joined instances can take them.
+        for (Integer lane : List.copyOf(workers.keySet())) {
+            if (workers.size() <= fairShare) {
+                break;
+            }
+            releaseLane(lane);
+        }
+
+        // Pick up free or expired lanes up to our share.
+        for (int lane = 0; lane < lanes && workers.size() < fairShare; lane++) {
+            if (workers.containsKey(lane)) {
+                continue;
+            }
+            if (checkpointRepository.acquireLease(OutboxLanes.checkpointName(lane), ownerId, expiresAt, now) == 1) {
+                OutboxCheckpoint checkpoint = checkpointRepository.findById(OutboxLanes.checkpointName(lane)).orElseThrow();
+                LaneWorker worker = new LaneWorker(lane, checkpoint.getLastRelayedId(), leaseDeadlineMs(expiresAt));
+                workers.put(lane, worker);
+                worker.start();
+                log.info("Acquired outbox lane {} at id {}", lane, checkpoint.getLastRelayedId());
+            }
+        }
+    }
+
+    private void releaseLane(int lane) {
+        stopWorker(lane);
+        checkpointRepository.releaseLease(OutboxLanes.checkpointName(lane), ownerId);
+        log.info("Released outbox lane {}", lane);
+    }
+
+    private void stopWorker(int lane) {
+        LaneWorker worker = workers.remove(lane);
+        if (worker != null) {
+            worker.shutdown();
+        }
+    }
+
+    /** Stop relaying a little before the lease actually lapses, to leave room for clock skew. */
+    private long leaseDeadlineMs(LocalDateTime expiresAt) {
+        return System.currentTimeMillis() + Duration.between(LocalDateTime.now(), expiresAt).toMillis()
+                - leaseDuration.toMillis() / 5;
+    }
+
+    // ── Lane worker ──────────────────────────────────────────────────────────
+
+    private final class LaneWorker implements Runnable {
+        private final int lane;
+        private final String checkpointName;
+        private final Thread thread;
+        private long hwm;
+        private volatile long leaseValidUntilMs;
+        private volatile boolean active = true;
+
+        LaneWorker(int lane, long hwm, long leaseValidUntilMs) {
+            this.lane = lane;
+            this.checkpointName = OutboxLanes.checkpointName(lane);
+            this.hwm = hwm;
+            this.leaseValidUntilMs = leaseValidUntilMs;
+            this.thread = new Thread(this, "outbox-relay-lane-" + lane);
+            this.thread.setDaemon(true);
+        }
+
+        void start() {
+            thread.start();
+        }
+
+        void shutdown() {
+            active = false;
+            thread.interrupt();
+            try {
+                thread.join(ackTimeoutMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void run() {
+            while (active && running) {
+                try {
+                    if (System.currentTimeMillis() >= leaseValidUntilMs) {
+                        Thread.sleep(idleWaitMs);   // wait for the coordinator to renew or revoke
+                        continue;
+                    }
+                    if (relayBatch() < batchSize) {
+                        outboxSignal.await(lane, idleWaitMs);
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                } catch (Exception e) {
+                    log.error("Outbox lane {} batch failed. Retrying after {} ms.", lane, idleWaitMs, e);
+                    try {
+                        Thread.sleep(idleWaitMs);
+                    } catch (InterruptedException ie) {
+                        return;
+                    }
+                }
+            }
+        }
+
+        /** Relays one batch of this lane and returns how many events were acknowledged. */
+        private int relayBatch() {
+            frontier.refresh();
+            relayLate();
+            long upTo = frontier.laneFrontier(lane);
+            if (upTo <= hwm) {
+                return 0;
+            }
+            List<OutboxEvent> batch = outboxEventRepository.findByLaneAndIdGreaterThanAndIdLessThanEqualOrderByIdAsc(
+                    lane, hwm, upTo, Limit.of(batchSize));
+
+            int acked = sendAndAwait(batch);
+            long newHwm;
+            if (acked == batch.size() && batch.size() < batchSize) {
+                newHwm = upTo;      // nothing else in this lane at or below the frontier
+            } else if (acked > 0) {
+                newHwm = batch.get(acked - 1).getId();
+            } else {
+                return 0;
+            }
+
+            if (newHwm > hwm) {
+                if (checkpointRepository.advance(checkpointName, ownerId, newHwm, LocalDateTime.now()) == 0) {
+                    log.warn("Outbox lane {} checkpoint fenced off; lease lost", lane);
+                    active = false;
+                    return acked;
+                }
+                hwm = newHwm;
+            }
+            return acked;
+        }
+
+        /** Relays events of this lane that committed after the lane's mark had moved past them. */
+        private void relayLate() {
+            List<Long> ids = frontier.takeLate(lane, hwm);
+            if (ids.isEmpty()) {
+                return;
+            }
+            List<OutboxEvent> events = new ArrayList<>(outboxEventRepository.findAllById(ids));
+            events.sort(Comparator.comparing(OutboxEvent::getId));
+            int acked = sendAndAwait(events);
+            if (acked < events.size()) {
+                frontier.returnLate(lane, events.subList(acked, events.size()).stream().map(OutboxEvent::getId).toList());
+            }
+            if (acked > 0) {
+                log.warn("Relayed {} late outbox events on lane {} (ids {})", acked, lane,
+                        events.subList(0, acked).stream().map(OutboxEvent::getId).toList());
+            }
+        }
+    }
+
+    /**
+     * Sends the batch without waiting between records, then returns the length of the
+     * acknowledged prefix. Anything after the first failure is resent next time.
+     */
+    private int sendAndAwait(List<OutboxEvent> batch) {
+        List<CompletableFuture<SendResult<String, byte[]>>> futures = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            ProducerRecord<String, byte[]> record = new ProducerRecord<>(event.getTopic(), event.getRoutingKey(),
+                    event.getPayload().getBytes(StandardCharsets.UTF_8));
+            if (event.getPayloadType() != null) {
+                record.headers().add(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME,
+                        event.getPayloadType().getBytes(StandardCharsets.UTF_8));
+            }
+            futures.add(outboxKafkaTemplate.send(record));
+        }
+
+        int acked = 0;
+        for (CompletableFuture<SendResult<String, byte[]>> future : futures) {
+            try {
+                future.get(ackTimeoutMs, TimeUnit.MILLISECONDS);
+                acked++;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("Failed to relay outbox event {}. Will retry from here.", batch.get(acked).getId(), e);
+                break;
+            }
+        }
+        log.debug("Relayed {}/{} outbox events to Kafka", acked, batch.size());
+        return acked;
     }
 
+    // ── Purge ────────────────────────────────────────────────────────────────
+
     /**
-     * Polls the outbox_events table for PENDING events every 5 seconds.
-     * Processes them in batches of 100 to prevent memory exhaustion.
+     * Deletes events older than {@code outbox.purge.retention} that every lane has relayed,
+     * in chunks, so the outbox table holds only the unrelayed tail plus a short history.
      */
-    @Scheduled(fixedDelay = 5000)
-    @Transactional
-    public void relayOutboxEvents() {
-        List<OutboxEvent> pendingEvents = outboxEventRepository.findByStatusOrderByCreatedAtAsc(
-                "PENDING", PageRequest.of(0, 100)
-        );
-
-        if (pendingEvents.isEmpty()) {
+    @Scheduled(fixedDelayString = "${outbox.purge.interval-ms:60000}")
+    public void purgeRelayed() {
+        Long hwm = checkpointRepository.findMinLastRelayedId(LANE_PREFIX);
+        if (hwm == null || hwm == 0) {
             return;
         }
+        LocalDateTime before = LocalDateTime.now().minus(purgeRetention);
+        int total = 0;
+        int deleted;
+        do {
+            deleted = outboxEventRepository.purgeRelayed(hwm, before, purgeChunkSize);
+            total += deleted;
+        } while (deleted == purgeChunkSize);
+        if (total > 0) {
+            log.info("Purged {} relayed outbox events (id <= {})", total, hwm);
+        }
+    }
 
-        log.debug("Found {} pending outbox events to relay to Kafka", pendingEvents.size());
+    // ── Helpers ──────────────────────────────────────────────────────────────
 
-        for (OutboxEvent event : pendingEvents) {
+    private void ensureLaneCheckpoints() {
+        long base = -1;
+        for (int lane = 0; lane < outboxLanes.count(); lane++) {
+            String name = OutboxLanes.checkpointName(lane);
+            if (checkpointRepository.existsById(name)) {
+                continue;
+            }
+            if (base < 0) {
+                base = initialHighWaterMark();
+            }
+            OutboxCheckpoint checkpoint = new OutboxCheckpoint(name);
+            checkpoint.setLastRelayedId(base);
             try {
-                // Parse the raw JSON payload into a generic node so Spring Kafka's
-                // JsonSerializer will serialize it correctly (avoiding double-escaping).
-                Object payloadNode = objectMapper.readTree(event.getPayload());
-                
-                // Publish the parsed payload to Kafka.
-                // We use .get() to block until Kafka acknowledges receipt, ensuring
-                // we only mark it COMPLETED if the broker actually stored it.
-                kafkaTemplate.send(event.getTopic(), event.getRoutingKey(), payloadNode).get();
-                
-                event.setStatus("COMPLETED");
-                outboxEventRepository.save(event);
-                
-                log.debug("Successfully relayed outbox event {}", event.getId());
-            } catch (Exception e) {
-                log.error("Failed to relay outbox event {}. Will retry on next poll.", event.getId(), e);
-                // The exception stops processing the current batch (or just logs and continues).
-                // It's safe to break here because the transaction will roll back the COMPLETED status
-                // if we threw, but since we catch it, we just leave it as PENDING for the next run.
+                checkpointRepository.saveAndFlush(checkpoint);
+            } catch (DataIntegrityViolationException e) {
+                // Another instance created it first.
             }
         }
     }
+
+    /**
+     * Where new lanes start: the single checkpoint of the pre-lane relay if there is one,
+     * otherwise just before the oldest event the status-based relay left PENDING.
+     */
+    private long initialHighWaterMark() {
+        return checkpointRepository.findById(LEGACY_CHECKPOINT)
+                .map(OutboxCheckpoint::getLastRelayedId)
+                .orElseGet(() -> {
+                    Long minPending = outboxEventRepository.findMinIdByStatus("PENDING");
+                    Long maxId = outboxEventRepository.findMaxId();
+                    return minPending != null ? minPending - 1 : (maxId != null ? maxId : 0L);
+                });
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "account-service";
+        }
+    }
 }
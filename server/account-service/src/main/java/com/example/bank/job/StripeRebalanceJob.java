@@ -0,0 +1,43 @@
+package com.example.bank.job;
+
+import com.example.bank.service.AccountStripes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically sweeps the credit stripes of hot accounts onto their account rows (see
+ * {@link AccountStripes}), so debits can be served from the row without walking the
+ * stripes. Each account is swept in its own short transaction.
+ */
+@Component
+@ConditionalOnProperty(name = "account.data-access.mode", havingValue = "jdbc", matchIfMissing = true)
+public class StripeRebalanceJob {
+
+    private static final Logger log = LoggerFactory.getLogger(StripeRebalanceJob.class);
+
+    private final AccountStripes accountStripes;
+
+    public StripeRebalanceJob(AccountStripes accountStripes) {
+        this.accountStripes = accountStripes;
+    }
+
+    @Scheduled(fixedDelayString = "${account.hot-accounts.rebalance.interval-ms:10000}")
+    public void rebalance() {
+        int swept = 0;
+        for (Long accountId : accountStripes.accountsToRebalance()) {
+            try {
+                if (accountStripes.rebalance(accountId)) {
+                    swept++;
+                }
+            } catch (RuntimeException e) {
+                log.warn("Stripe rebalance of account {} failed; retrying next run", accountId, e);
+            }
+        }
+        if (swept > 0) {
+            log.debug("Swept the stripes of {} hot accounts", swept);
+        }
+    }
+}
@@ -1,11 +1,15 @@
 package com.example.bank.kafka;
 
 import com.example.bank.common.event.AccountBalanceChangedEvent;
+import com.example.bank.common.event.AccountLifecycleEvent;
 import com.example.bank.entity.OutboxEvent;
+import com.example.bank.enums.AccountType;
 import com.example.bank.repository.OutboxEventRepository;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -15,29 +19,76 @@ public class AccountEventProducer {
 
     private final OutboxEventRepository outboxEventRepository;
     private final ObjectMapper objectMapper;
+    private final OutboxSignal outboxSignal;
+    private final OutboxLanes outboxLanes;
 
-    public AccountEventProducer(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper) {
+    public AccountEventProducer(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper,
+                                OutboxSignal outboxSignal, OutboxLanes outboxLanes) {
         this.outboxEventRepository = outboxEventRepository;
         this.objectMapper = objectMapper;
+        this.outboxSignal = outboxSignal;
+        this.outboxLanes = outboxLanes;
     }
 
     public void publishBalanceChanged(Long accountId, Long userId, BigDecimal newBalance, String eventType) {
+        enqueue(balanceChanged(accountId, userId, newBalance, eventType));
+    }
+
+    /**
+     * Announces that an account was opened or closed. Keyed by account id like the balance
+     * events, so both land on the same outbox lane and relay in commit order.
+     */
+    public void publishLifecycle(Long accountId, Long userId, AccountType accountType, String eventType) {
+        AccountLifecycleEvent event = new AccountLifecycleEvent(
+                accountId, userId, accountType, eventType, LocalDateTime.now()
+        );
+        enqueue(toOutboxEvent("account-lifecycle-topic", accountId, event));
+    }
+
+    /**
+     * Builds, but does not save, the outbox row for a balance change. Used directly by
+     * callers that write the row through another transaction manager (the R2DBC data path);
+     * they must ring {@link OutboxSignal} for its lane themselves after commit.
+     */
+    public OutboxEvent balanceChanged(Long accountId, Long userId, BigDecimal newBalance, String eventType) {
         AccountBalanceChangedEvent event = new AccountBalanceChangedEvent(
                 accountId, userId, newBalance, eventType, LocalDateTime.now()
         );
+        return toOutboxEvent("account-events-topic", accountId, event);
+    }
 
+    private OutboxEvent toOutboxEvent(String topic, Long accountId, Object event) {
         OutboxEvent outboxEvent = new OutboxEvent();
-        outboxEvent.setTopic("account-events-topic");
+        outboxEvent.setTopic(topic);
         outboxEvent.setRoutingKey(String.valueOf(accountId));
-        
+        outboxEvent.setLane(outboxLanes.laneOf(outboxEvent.getRoutingKey()));
+        outboxEvent.setPayloadType(event.getClass().getName());
+
         try {
             outboxEvent.setPayload(objectMapper.writeValueAsString(event));
         } catch (JsonProcessingException e) {
-            throw new RuntimeException("Failed to serialize AccountBalanceChangedEvent to JSON", e);
+            throw new RuntimeException("Failed to serialize " + event.getClass().getSimpleName() + " to JSON", e);
         }
+        return outboxEvent;
+    }
+
+    private void enqueue(OutboxEvent outboxEvent) {
+        int lane = outboxEvent.getLane();
 
         // Phase 1 of the Outbox Pattern: Save the event in the exact same database
-        // transaction as the Account balance update.
+        // transaction as the Account change.
         outboxEventRepository.save(outboxEvent);
+
+        // Wake the relay as soon as the row is visible, instead of waiting for its next poll.
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    outboxSignal.signal(lane);
+                }
+            });
+        } else {
+            outboxSignal.signal(lane);
+        }
     }
 }
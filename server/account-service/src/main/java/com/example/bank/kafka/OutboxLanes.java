@@ -0,0 +1,40 @@
+package com.example.bank.kafka;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * Maps an outbox routing key to one of {@code outbox.relay.lanes} relay lanes. Every event
+ * for the same key lands in the same lane, and each lane is relayed in id order by a
+ * single worker, so per-key (per-account) ordering survives parallel relaying.
+ *
+ * <p>CRC32 is used because it matches MySQL's {@code CRC32()}, which lets rows written
+ * before the lane column existed be backfilled in SQL. Changing the lane count re-maps
+ * keys, so only change it with the outbox drained.
+ */
+@Component
+public class OutboxLanes {
+
+    private final int lanes;
+
+    public OutboxLanes(@Value("${outbox.relay.lanes:8}") int lanes) {
+        this.lanes = lanes;
+    }
+
+    public int count() {
+        return lanes;
+    }
+
+    public int laneOf(String routingKey) {
+        CRC32 crc = new CRC32();
+        crc.update(routingKey.getBytes(StandardCharsets.UTF_8));
+        return (int) (crc.getValue() % lanes);
+    }
+
+    public static String checkpointName(int lane) {
+        return "account-events-lane-" + lane;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.bank.kafka;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process doorbells between outbox writers and the relay, one per lane. Writers ring
+ * their event's lane after the transaction commits; a lane worker waits on its doorbell
+ * when the lane is drained. Multiple rings while the worker is busy collapse into a
+ * single wake-up.
+ */
+@Component
+public class OutboxSignal {
+
+    private final Semaphore[] doorbells;
+
+    public OutboxSignal(OutboxLanes lanes) {
+        this.doorbells = new Semaphore[lanes.count()];
+        for (int i = 0; i < doorbells.length; i++) {
+            doorbells[i] = new Semaphore(0);
+        }
+    }
+
+    public void signal(int lane) {
+        Semaphore doorbell = doorbells[lane];
+        if (doorbell.availablePermits() == 0) {
+            doorbell.release();
+        }
+    }
+
+    /** Waits until the lane is signalled or the timeout elapses. */
+    public void await(int lane, long timeoutMs) throws InterruptedException {
+        Semaphore doorbell = doorbells[lane];
+        if (doorbell.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)) {
+            doorbell.drainPermits();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.bank.kafka;
+
+import com.example.bank.dto.Event.AuditEvent;
+import com.example.bank.service.UserLookupCache;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Evicts {@link UserLookupCache} entries when user-service reports a change to a user.
+ *
+ * <p>Every replica must see every event, so each one joins with its own random consumer
+ * group and starts from the latest offset; anything missed while down is covered by the
+ * cache TTL.
+ */
+@Component
+public class UserChangeListener {
+
+    private static final Logger log = LoggerFactory.getLogger(UserChangeListener.class);
+    private static final Set<String> USER_CHANGES = Set.of("USER_UPDATED", "USER_DELETED");
+
+    private final UserLookupCache userLookupCache;
+    private final ObjectMapper objectMapper;
+
+    public UserChangeListener(UserLookupCache userLookupCache, ObjectMapper objectMapper) {
+        this.userLookupCache = userLookupCache;
+        this.objectMapper = objectMapper;
+    }
+
+    @KafkaListener(topics = "audit_events", groupId = "account-user-cache-${random.uuid}",
+            properties = "auto.offset.reset=latest")
+    public void onAuditEvent(AuditEvent event) {
+        if (!USER_CHANGES.contains(event.getEventType())) {
+            return;
+        }
+        userLookupCache.invalidate(event.getPrincipal());
+        if (event.getDetails() != null) {
+            try {
+                JsonNode details = objectMapper.readTree(event.getDetails());
+                userLookupCache.invalidate(details.path("newUsername").asText(null));
+            } catch (Exception e) {
+                log.warn("Could not read details of {} event for {}", event.getEventType(), event.getPrincipal());
+            }
+        }
+        log.debug("Evicted cached user {} after {}", event.getPrincipal(), event.getEventType());
+    }
+}
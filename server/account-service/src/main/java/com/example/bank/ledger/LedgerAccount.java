@@ -0,0 +1,60 @@
+package com.example.bank.ledger;
+
+import com.example.bank.dto.Account.AccountDto;
+import com.example.bank.enums.AccountType;
+import com.example.bank.enums.ErrorCode;
+import com.example.bank.exception.AccountException;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * In-memory state of one account. Owned by a single {@link LedgerShard} and only ever
+ * touched from that shard's thread.
+ */
+final class LedgerAccount {
+
+    final long id;
+    final long userId;
+    final String accountHolderName;
+    final AccountType accountType;
+    final LocalDateTime createdAt;
+
+    long balance;
+    /** Cross-shard payments debited from this account whose credit has not been logged yet. */
+    int outgoingInFlight;
+    /** Set once the account is being deleted; it rejects every further mutation. */
+    boolean closed;
+    /** Durability of the most recent WAL record touching this account. */
+    CompletableFuture<Long> lastWrite = CompletableFuture.completedFuture(0L);
+
+    LedgerAccount(long id, long userId, String accountHolderName, AccountType accountType,
+                  LocalDateTime createdAt, long balance) {
+        this.id = id;
+        this.userId = userId;
+        this.accountHolderName = accountHolderName;
+        this.accountType = accountType;
+        this.createdAt = createdAt;
+        this.balance = balance;
+    }
+
+    void debit(long amount, String insufficientMessage) {
+        if (balance < amount) {
+            throw new AccountException(ErrorCode.INSUFFICIENT_BALANCE, insufficientMessage);
+        }
+        balance -= amount;
+    }
+
+    void credit(long amount) {
+        balance = Math.addExact(balance, amount);
+    }
+
+    WalRecord.Leg leg(String eventType) {
+        return new WalRecord.Leg(id, userId, balance, eventType);
+    }
+
+    AccountDto toDto() {
+        return new AccountDto(id, accountHolderName, LedgerAmounts.toDecimal(balance),
+                accountType, userId, createdAt);
+    }
+}
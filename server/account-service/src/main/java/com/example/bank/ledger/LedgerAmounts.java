@@ -0,0 +1,42 @@
+package com.example.bank.ledger;
+
+import com.example.bank.enums.ErrorCode;
+import com.example.bank.exception.AccountException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Conversions between API amounts and the ledger's minor units. The ledger keeps balances
+ * as {@code long}s scaled by {@code 10^SCALE}, the scale of {@code accounts.balance}, so
+ * every value round-trips through MySQL exactly.
+ */
+final class LedgerAmounts {
+
+    static final int SCALE = 4;
+
+    private LedgerAmounts() {
+    }
+
+    /** A request amount in minor units; must be positive with at most {@link #SCALE} decimals. */
+    static long toMinor(BigDecimal amount) {
+        if (amount == null || amount.signum() <= 0) {
+            throw new AccountException(ErrorCode.NEGATIVE_AMOUNT, "Amount must be a positive number.");
+        }
+        try {
+            return fromDecimal(amount);
+        } catch (ArithmeticException e) {
+            throw new AccountException(ErrorCode.VALIDATION_FAILED,
+                    "Amount must have at most " + SCALE + " decimal places.");
+        }
+    }
+
+    /** A stored balance in minor units. */
+    static long fromDecimal(BigDecimal value) {
+        return value.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+
+    static BigDecimal toDecimal(long minor) {
+        return BigDecimal.valueOf(minor, SCALE);
+    }
+}
@@ -0,0 +1,453 @@
+package com.example.bank.ledger;
+
+import com.example.bank.dto.Account.AccountDto;
+import com.example.bank.dto.ApplyPaymentRequest;
+import com.example.bank.dto.ApplyPaymentResult;
+import com.example.bank.enums.AccountType;
+import com.example.bank.enums.ErrorCode;
+import com.example.bank.exception.AccountException;
+import com.example.bank.exception.BaseAppException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory, sharded ledger for account balances ({@code account.data-access.mode=ledger}).
+ *
+ * <h3>Why</h3>
+ * On the JPA path every balance change is a pessimistic row lock, a read-modify-write and an
+ * outbox insert in one MySQL transaction, so a hot merchant or payroll account serializes
+ * every payment on one row lock for a full round-trip. Here balances live in memory as
+ * {@code long} minor units, and a payment costs a few hash lookups plus a share of one
+ * group-committed log write.
+ *
+ * <h3>Shards</h3>
+ * Accounts are partitioned over {@code account.ledger.shards} {@link LedgerShard}s by
+ * {@code id mod shards}. Each shard is a single thread that owns its accounts outright, so
+ * no locks are taken anywhere on the write path.
+ *
+ * <h3>Durability</h3>
+ * A mutation is applied in memory, appended to the {@link WriteAheadLog}, and acknowledged
+ * only once the log has been forced. {@link LedgerProjector} then writes it to
+ * {@code accounts} and {@code outbox_events} asynchronously. On startup, before any request
+ * is served, records past the projection checkpoint are replayed into MySQL and
+ * half-finished cross-shard payments are completed, after which MySQL is exact again and
+ * shards reload accounts from it on demand.
+ *
+ * <h3>Cross-shard payments</h3>
+ * Deterministic and lock-free, in three steps: the target's shard confirms the target
+ * exists; the source's shard checks funds, debits and logs a {@code DEBIT} that carries the
+ * whole payment; the target's shard then credits and logs a {@code CREDIT}. The debit is the
+ * only step that can fail on funds, and the credit cannot be lost: it is never rejected for
+ * load, and a {@code DEBIT} without its {@code CREDIT} is finished by recovery. If the target
+ * was closed between steps one and three, a {@code REFUND} returns the money instead.
+ * Payments within one shard are a single {@code POST} record.
+ *
+ * <h3>Reads and deployment</h3>
+ * Balance-changing endpoints answer from memory; reads such as {@code GET /accounts/{id}}
+ * still come from MySQL and may trail by the projection lag. The engine assumes it is the
+ * only writer of {@code accounts.balance}: run a single account-service replica in this mode.
+ */
+@Service
+@ConditionalOnProperty(name = "account.data-access.mode", havingValue = "ledger")
+public class LedgerEngine implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerEngine.class);
+    private static final String LOAD_ACCOUNT = """
+            SELECT id, account_holder_name, balance, account_type, user_id, created_at
+            FROM accounts WHERE id = ?
+            """;
+    private static final String SELECT_BALANCE = "SELECT user_id, balance FROM accounts WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LedgerProjector projector;
+    private final LedgerShard[] shards;
+    private final Path walDirectory;
+    private final int walSegmentSize;
+    private final int walMaxBatch;
+    private final Duration projectionTimeout;
+    private final AtomicLong transferIds = new AtomicLong();
+
+    private WriteAheadLog wal;
+    private volatile boolean running;
+
+    public LedgerEngine(JdbcTemplate jdbcTemplate,
+                        LedgerProjector projector,
+                        @Value("${account.ledger.shards:8}") int shardCount,
+                        @Value("${account.ledger.queue-capacity:10000}") int queueCapacity,
+                        @Value("${account.ledger.wal.directory:./data/ledger-wal}") String walDirectory,
+                        @Value("${account.ledger.wal.segment-size:64MB}") DataSize walSegmentSize,
+                        @Value("${account.ledger.wal.max-batch:1024}") int walMaxBatch,
+                        @Value("${account.ledger.projection.await-timeout:PT10S}") Duration projectionTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.projector = projector;
+        this.walDirectory = Path.of(walDirectory);
+        this.walSegmentSize = Math.toIntExact(walSegmentSize.toBytes());
+        this.walMaxBatch = walMaxBatch;
+        this.projectionTimeout = projectionTimeout;
+        this.shards = new LedgerShard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new LedgerShard(i, queueCapacity, this::loadAccount);
+        }
+    }
+
+    // ── Lifecycle ────────────────────────────────────────────────────────────
+
+    /** Before the web server, so no request reaches a shard until recovery is done. */
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    @Override
+    public void start() {
+        long checkpoint = projector.loadCheckpoint();
+        wal = new WriteAheadLog(walDirectory, walSegmentSize, walMaxBatch, projector::enqueue);
+        List<WalRecord> recovered;
+        try {
+            recovered = wal.recover(checkpoint + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not recover the ledger write-ahead log", e);
+        }
+        projector.projectNow(recovered.stream().filter(r -> r.lsn() > checkpoint).toList());
+        wal.start();
+        projector.start(wal::release);
+
+        long maxTransferId = recovered.stream().mapToLong(WalRecord::transferId).max().orElse(0);
+        transferIds.set(Math.max(maxTransferId, System.currentTimeMillis() * 1000));
+        completeOpenTransfers(recovered);
+
+        for (LedgerShard shard : shards) {
+            shard.start();
+        }
+        running = true;
+        log.info("Ledger engine started with {} shards; MySQL projected through LSN {}",
+                shards.length, projector.projectedLsn());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        for (LedgerShard shard : shards) {
+            shard.stop();
+        }
+        // a credit queued to a shard that had already stopped is finished by the next recovery
+        wal.close();
+        projector.stop();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Logs the missing second half of every cross-shard payment whose {@code DEBIT} made it
+     * to disk but whose {@code CREDIT} or {@code REFUND} did not, based on the now exact
+     * balances in MySQL, and waits for it to be projected.
+     */
+    private void completeOpenTransfers(List<WalRecord> recovered) {
+        Map<Long, WalRecord> open = new HashMap<>();
+        for (WalRecord record : recovered) {
+            switch (record.type()) {
+                case DEBIT -> open.put(record.transferId(), record);
+                case CREDIT, REFUND -> open.remove(record.transferId());
+                default -> { }
+            }
+        }
+        for (WalRecord debit : open.values()) {
+            Map<String, Object> target = balanceRow(debit.counterpartyId());
+            WalRecord completion;
+            if (target != null) {
+                completion = WalRecord.credit(debit.transferId(), new WalRecord.Leg(debit.counterpartyId(),
+                        ((Number) target.get("user_id")).longValue(),
+                        LedgerAmounts.fromDecimal((BigDecimal) target.get("balance")) + debit.amount(),
+                        debit.counterpartyEventType()));
+            } else {
+                WalRecord.Leg source = debit.legs().get(0);
+                Map<String, Object> row = balanceRow(source.accountId());
+                long balance = row == null ? source.balanceAfter() : LedgerAmounts.fromDecimal((BigDecimal) row.get("balance"));
+                completion = WalRecord.refund(debit.transferId(), new WalRecord.Leg(source.accountId(),
+                        source.userId(), balance + debit.amount(), "PAYMENT_REVERSED"));
+            }
+            long lsn = await(wal.append(completion));
+            awaitProjected(lsn);
+            log.warn("Completed interrupted ledger transfer {} with {}", debit.transferId(), completion.type());
+        }
+    }
+
+    // ── Commands ─────────────────────────────────────────────────────────────
+
+    public CompletableFuture<AccountDto> deposit(Long id, BigDecimal amount) {
+        long minor = LedgerAmounts.toMinor(amount);
+        LedgerShard shard = shardOf(id);
+        CompletableFuture<AccountDto> result = new CompletableFuture<>();
+        shard.execute(result, () -> {
+            LedgerAccount account = shard.account(id);
+            account.credit(minor);
+            AccountDto snapshot = account.toDto();
+            append(account, WalRecord.post(List.of(account.leg("DEPOSIT"))))
+                    .whenComplete((lsn, ex) -> complete(result, snapshot, ex));
+        });
+        return result;
+    }
+
+    public CompletableFuture<AccountDto> withdraw(Long id, BigDecimal amount) {
+        long minor = LedgerAmounts.toMinor(amount);
+        LedgerShard shard = shardOf(id);
+        CompletableFuture<AccountDto> result = new CompletableFuture<>();
+        shard.execute(result, () -> {
+            LedgerAccount account = shard.account(id);
+            account.debit(minor, "Insufficient balance. Available: " + LedgerAmounts.toDecimal(account.balance));
+            AccountDto snapshot = account.toDto();
+            append(account, WalRecord.post(List.of(account.leg("WITHDRAWAL"))))
+                    .whenComplete((lsn, ex) -> complete(result, snapshot, ex));
+        });
+        return result;
+    }
+
+    public CompletableFuture<Void> applyPayment(Long sourceId, Long targetId, BigDecimal amount) {
+        if (sourceId.equals(targetId)) {
+            return CompletableFuture.failedFuture(new AccountException(ErrorCode.SELF_TRANSFER_NOT_ALLOWED,
+                    "Source and target accounts must be different."));
+        }
+        long minor = LedgerAmounts.toMinor(amount);
+        return checkExists(targetId).thenCompose(exists -> {
+            if (!exists) {
+                return CompletableFuture.failedFuture(notFound(targetId));
+            }
+            return pay(sourceId, targetId, minor);
+        });
+    }
+
+    /**
+     * Applies a batch of payments. All targets are checked up front; the payments are then
+     * submitted in request order without waiting for each other, so payments from the same
+     * source are still debited in request order while the batch shares WAL forces.
+     */
+    public CompletableFuture<List<ApplyPaymentResult>> applyPayments(List<ApplyPaymentRequest> requests) {
+        Map<Long, CompletableFuture<Boolean>> targets = new HashMap<>();
+        for (ApplyPaymentRequest r : requests) {
+            targets.computeIfAbsent(r.getTargetId(), this::checkExists);
+        }
+        return CompletableFuture.allOf(targets.values().toArray(CompletableFuture[]::new))
+                .handle((ignored, ex) -> null)
+                .thenCompose(ignored -> {
+                    List<CompletableFuture<ApplyPaymentResult>> results = new ArrayList<>(requests.size());
+                    for (ApplyPaymentRequest r : requests) {
+                        results.add(applyChecked(r, targets.get(r.getTargetId()))
+                                .handle((ok, ex) -> ex == null
+                                        ? ApplyPaymentResult.success(r.getPaymentId())
+                                        : failure(r.getPaymentId(), ex)));
+                    }
+                    return CompletableFuture.allOf(results.toArray(CompletableFuture[]::new))
+                            .thenApply(done -> results.stream().map(CompletableFuture::join).toList());
+                });
+    }
+
+    /**
+     * Marks the account closed after checking, from memory, that it holds no money and has
+     * no payment in flight, then waits until MySQL reflects its last write. After this the
+     * caller may delete the row; on failure it must call {@link #reopen}.
+     */
+    public void close(Long id) {
+        LedgerShard shard = shardOf(id);
+        CompletableFuture<Long> lastWrite = new CompletableFuture<>();
+        shard.execute(lastWrite, () -> {
+            LedgerAccount account = shard.account(id);
+            if (account.balance != 0 || account.outgoingInFlight > 0) {
+                throw new AccountException(ErrorCode.ACCOUNT_HAS_BALANCE,
+                        "Cannot delete an account with a non-zero balance. Please withdraw all funds first.");
+            }
+            account.closed = true;
+            account.lastWrite.whenComplete((lsn, ex) -> complete(lastWrite, lsn, ex));
+        });
+        awaitProjected(await(lastWrite));
+    }
+
+    /** Forgets the account so it is reloaded from MySQL, e.g. after a failed delete. */
+    public void reopen(Long id) {
+        LedgerShard shard = shardOf(id);
+        shard.enqueue(new CompletableFuture<>(), () -> shard.evict(id));
+    }
+
+    // ── Payment protocol ─────────────────────────────────────────────────────
+
+    private CompletableFuture<Void> applyChecked(ApplyPaymentRequest r, CompletableFuture<Boolean> targetExists) {
+        if (r.getSourceId().equals(r.getTargetId())) {
+            return CompletableFuture.failedFuture(new AccountException(ErrorCode.SELF_TRANSFER_NOT_ALLOWED,
+                    "Source and target accounts must be different."));
+        }
+        if (targetExists.isCompletedExceptionally()) {
+            return targetExists.thenApply(exists -> null);
+        }
+        if (!targetExists.join()) {
+            return CompletableFuture.failedFuture(notFound(r.getTargetId()));
+        }
+        try {
+            return pay(r.getSourceId(), r.getTargetId(), LedgerAmounts.toMinor(r.getAmount()));
+        } catch (AccountException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private CompletableFuture<Void> pay(long sourceId, long targetId, long amount) {
+        LedgerShard from = shardOf(sourceId);
+        LedgerShard to = shardOf(targetId);
+        CompletableFuture<Void> result = new CompletableFuture<>();
+
+        if (from == to) {
+            from.execute(result, () -> {
+                LedgerAccount source = from.account(sourceId);
+                LedgerAccount target = from.account(targetId);
+                source.debit(amount, "Insufficient balance for payment.");
+                target.credit(amount);
+                CompletableFuture<Long> durable = wal.append(WalRecord.post(List.of(
+                        source.leg("PAYMENT_SENT"), target.leg("PAYMENT_RECEIVED"))));
+                source.lastWrite = durable;
+                target.lastWrite = durable;
+                durable.whenComplete((lsn, ex) -> complete(result, null, ex));
+            });
+            return result;
+        }
+
+        long transferId = transferIds.incrementAndGet();
+        from.execute(result, () -> {
+            LedgerAccount source = from.account(sourceId);
+            source.debit(amount, "Insufficient balance for payment.");
+            source.outgoingInFlight++;
+            append(source, WalRecord.debit(transferId, targetId, amount, "PAYMENT_RECEIVED", source.leg("PAYMENT_SENT")));
+            // The CREDIT is queued after the DEBIT, so it gets a higher LSN and its
+            // durability covers the DEBIT as well.
+            to.enqueue(result, () -> credit(from, to, source, targetId, amount, transferId, result));
+        });
+        return result;
+    }
+
+    /** Second half of a cross-shard payment; runs on the target's shard. */
+    private void credit(LedgerShard from, LedgerShard to, LedgerAccount source, long targetId,
+                        long amount, long transferId, CompletableFuture<Void> result) {
+        LedgerAccount target = to.find(targetId);
+        if (target != null) {
+            target.credit(amount);
+            append(target, WalRecord.credit(transferId, target.leg("PAYMENT_RECEIVED")))
+                    .whenComplete((lsn, ex) -> complete(result, null, ex));
+            from.enqueue(result, () -> source.outgoingInFlight--);
+            return;
+        }
+        from.enqueue(result, () -> {
+            source.outgoingInFlight--;
+            source.credit(amount);
+            append(source, WalRecord.refund(transferId, source.leg("PAYMENT_REVERSED")))
+                    .whenComplete((lsn, ex) -> complete(result, null, ex != null ? ex : notFound(targetId)));
+        });
+    }
+
+    private CompletableFuture<Boolean> checkExists(Long id) {
+        LedgerShard shard = shardOf(id);
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        shard.execute(result, () -> result.complete(shard.find(id) != null));
+        return result;
+    }
+
+    // ── helpers ──────────────────────────────────────────────────────────────
+
+    private LedgerShard shardOf(long accountId) {
+        return shards[(int) Math.floorMod(accountId, (long) shards.length)];
+    }
+
+    /** Appends a record that touches one account and remembers it as that account's last write. */
+    private CompletableFuture<Long> append(LedgerAccount account, WalRecord record) {
+        CompletableFuture<Long> durable = wal.append(record);
+        account.lastWrite = durable;
+        return durable;
+    }
+
+    private LedgerAccount loadAccount(long id) {
+        try {
+            return jdbcTemplate.queryForObject(LOAD_ACCOUNT, (rs, n) -> new LedgerAccount(
+                    rs.getLong("id"),
+                    rs.getLong("user_id"),
+                    rs.getString("account_holder_name"),
+                    AccountType.valueOf(rs.getString("account_type")),
+                    rs.getTimestamp("created_at").toLocalDateTime(),
+                    LedgerAmounts.fromDecimal(rs.getBigDecimal("balance"))), id);
+        } catch (EmptyResultDataAccessException e) {
+            return null;
+        }
+    }
+
+    private Map<String, Object> balanceRow(long id) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(SELECT_BALANCE, id);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    private void awaitProjected(long lsn) {
+        try {
+            projector.awaitProjected(lsn, projectionTimeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AccountException(ErrorCode.SERVICE_UNAVAILABLE, "Interrupted while waiting for the ledger.");
+        } catch (IllegalStateException e) {
+            throw new AccountException(ErrorCode.SERVICE_UNAVAILABLE, e.getMessage());
+        }
+    }
+
+    private <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get(projectionTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new CompletionException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new AccountException(ErrorCode.SERVICE_UNAVAILABLE, "Timed out waiting for the ledger.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AccountException(ErrorCode.SERVICE_UNAVAILABLE, "Interrupted while waiting for the ledger.");
+        }
+    }
+
+    private static <T> void complete(CompletableFuture<T> result, T value, Throwable ex) {
+        if (ex != null) {
+            result.completeExceptionally(ex);
+        } else {
+            result.complete(value);
+        }
+    }
+
+    private static ApplyPaymentResult failure(String paymentId, Throwable ex) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        if (cause instanceof BaseAppException app) {
+            return ApplyPaymentResult.failure(paymentId, app.getErrorCode().name(), app.getMessage());
+        }
+        return ApplyPaymentResult.failure(paymentId, ErrorCode.INTERNAL_ERROR.name(), "Payment could not be applied.");
+    }
+
+    private static AccountException notFound(long id) {
+        return new AccountException(ErrorCode.ACCOUNT_NOT_FOUND, "Account with id " + id + " was not found.");
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.bank.ledger;
+
+import com.example.bank.entity.LedgerCheckpoint;
+import com.example.bank.entity.OutboxEvent;
+import com.example.bank.kafka.AccountEventProducer;
+import com.example.bank.kafka.OutboxSignal;
+import com.example.bank.repository.LedgerCheckpointRepository;
+import com.example.bank.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+/**
+ * Projects durable WAL records into MySQL, off the request path.
+ *
+ * <p>Records arrive in LSN order from the WAL writer. A single thread takes them in
+ * batches of up to {@code account.ledger.projection.batch-size} and, in one transaction,
+ * writes the latest after-image of every account in the batch, inserts the outbox events
+ * of every leg, and advances {@link LedgerCheckpoint}. A failed batch is retried as a
+ * whole; since balances are after-images and the checkpoint moves in the same transaction,
+ * a retry or a replay after restart cannot double-apply anything.
+ */
+@Component
+@ConditionalOnProperty(name = "account.data-access.mode", havingValue = "ledger")
+public class LedgerProjector {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerProjector.class);
+    static final String CHECKPOINT = "accounts";
+    private static final String UPDATE_BALANCE =
+            "UPDATE accounts SET balance = ?, version = version + 1, updated_at = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final LedgerCheckpointRepository checkpointRepository;
+    private final OutboxEventRepository outboxEventRepository;
+    private final AccountEventProducer accountEventProducer;
+    private final OutboxSignal outboxSignal;
+    private final int batchSize;
+    private final Duration retryBackoff;
+
+    private final BlockingQueue<WalRecord> queue = new LinkedBlockingQueue<>();
+    private final Object progress = new Object();
+    private volatile long projectedLsn;
+    private volatile boolean running;
+    private Thread thread;
+    private LongConsumer onProjected = lsn -> { };
+
+    public LedgerProjector(JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           LedgerCheckpointRepository checkpointRepository,
+                           OutboxEventRepository outboxEventRepository,
+                           AccountEventProducer accountEventProducer,
+                           OutboxSignal outboxSignal,
+                           @Value("${account.ledger.projection.batch-size:500}") int batchSize,
+                           @Value("${account.ledger.projection.retry-backoff:PT1S}") Duration retryBackoff) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.checkpointRepository = checkpointRepository;
+        this.outboxEventRepository = outboxEventRepository;
+        this.accountEventProducer = accountEventProducer;
+        this.outboxSignal = outboxSignal;
+        this.batchSize = batchSize;
+        this.retryBackoff = retryBackoff;
+    }
+
+    /** The LSN up to which MySQL is current, creating the checkpoint row on first start. */
+    long loadCheckpoint() {
+        LedgerCheckpoint checkpoint = checkpointRepository.findById(CHECKPOINT)
+                .orElseGet(() -> checkpointRepository.save(new LedgerCheckpoint(CHECKPOINT)));
+        projectedLsn = checkpoint.getLastProjectedLsn();
+        return projectedLsn;
+    }
+
+    long projectedLsn() {
+        return projectedLsn;
+    }
+
+    /** Projects records synchronously on the calling thread; used during recovery. */
+    void projectNow(List<WalRecord> records) {
+        for (int from = 0; from < records.size(); from += batchSize) {
+            project(records.subList(from, Math.min(records.size(), from + batchSize)));
+        }
+    }
+
+    void start(LongConsumer onProjected) {
+        this.onProjected = onProjected;
+        running = true;
+        thread = new Thread(this::run, "ledger-projector");
+        thread.start();
+    }
+
+    /** Stops after everything already handed over has been projected. */
+    void stop() {
+        running = false;
+        if (thread != null) {
+            try {
+                thread.join(TimeUnit.MINUTES.toMillis(1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /** Called by the WAL writer with each batch of newly durable records. */
+    void enqueue(List<WalRecord> records) {
+        queue.addAll(records);
+    }
+
+    /** Blocks until MySQL reflects every record up to {@code lsn}. */
+    void awaitProjected(long lsn, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        synchronized (progress) {
+            while (projectedLsn < lsn) {
+                long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMs <= 0) {
+                    throw new IllegalStateException("Ledger projection did not reach LSN " + lsn + " in " + timeout);
+                }
+                progress.wait(remainingMs);
+            }
+        }
+    }
+
+    private void run() {
+        List<WalRecord> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty() || !batch.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    WalRecord first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                }
+                project(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Ledger projection of {} records failed; retrying in {}", batch.size(), retryBackoff, e);
+                try {
+                    Thread.sleep(retryBackoff.toMillis());
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void project(List<WalRecord> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        long lastLsn = records.get(records.size() - 1).lsn();
+        Map<Long, WalRecord.Leg> latest = new LinkedHashMap<>();
+        List<OutboxEvent> events = new ArrayList<>();
+        for (WalRecord record : records) {
+            for (WalRecord.Leg leg : record.legs()) {
+                latest.put(leg.accountId(), leg);
+                if (leg.eventType() != null) {
+                    events.add(accountEventProducer.balanceChanged(leg.accountId(), leg.userId(),
+                            LedgerAmounts.toDecimal(leg.balanceAfter()), leg.eventType()));
+                }
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Object[]> updates = new ArrayList<>(latest.size());
+            for (WalRecord.Leg leg : latest.values()) {
+                updates.add(new Object[]{LedgerAmounts.toDecimal(leg.balanceAfter()), Timestamp.valueOf(now), leg.accountId()});
+            }
+            jdbcTemplate.batchUpdate(UPDATE_BALANCE, updates);
+            outboxEventRepository.saveAll(events);
+            checkpointRepository.advance(CHECKPOINT, lastLsn, now);
+        });
+
+        for (int lane : new TreeSet<>(events.stream().map(OutboxEvent::getLane).toList())) {
+            outboxSignal.signal(lane);
+        }
+        synchronized (progress) {
+            projectedLsn = Math.max(projectedLsn, lastLsn);
+            progress.notifyAll();
+        }
+        onProjected.accept(lastLsn);
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.bank.ledger;
+
+import com.example.bank.enums.ErrorCode;
+import com.example.bank.exception.AccountException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+
+/**
+ * A single-writer partition of the ledger. Every account hashes to exactly one shard, and
+ * all reads and writes of its in-memory state run as tasks on that shard's thread, in
+ * submission order. No locks are taken: two mutations of the same account can never run
+ * concurrently, and mutations of accounts on different shards never contend.
+ *
+ * <p>Accounts are loaded from MySQL the first time a task touches them and then stay
+ * resident; from that point the in-memory balance, not the table, is authoritative.
+ */
+final class LedgerShard {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerShard.class);
+
+    private final int index;
+    private final int capacity;
+    private final LongFunction<LedgerAccount> loader;
+    private final BlockingQueue<Runnable> inbox = new LinkedBlockingQueue<>();
+    private final Map<Long, LedgerAccount> accounts = new HashMap<>();
+
+    private Thread thread;
+    private volatile boolean running;
+
+    LedgerShard(int index, int capacity, LongFunction<LedgerAccount> loader) {
+        this.index = index;
+        this.capacity = capacity;
+        this.loader = loader;
+    }
+
+    void start() {
+        running = true;
+        thread = new Thread(this::run, "ledger-shard-" + index);
+        thread.start();
+    }
+
+    /** Stops after the tasks already queued have run. */
+    void stop() {
+        running = false;
+        if (thread != null) {
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Admits a new command. Rejected with {@code SERVICE_UNAVAILABLE} when the shard is
+     * {@code capacity} tasks behind; anything the task throws fails {@code result}.
+     */
+    void execute(CompletableFuture<?> result, Runnable task) {
+        if (!running || inbox.size() >= capacity) {
+            result.completeExceptionally(new AccountException(ErrorCode.SERVICE_UNAVAILABLE,
+                    "The ledger is busy. Please retry."));
+            return;
+        }
+        enqueue(result, task);
+    }
+
+    /**
+     * Queues the continuation of a command that already changed state on another shard
+     * (the credit or refund half of a payment). Never rejected, so a payment is never
+     * left half-applied because of load.
+     */
+    void enqueue(CompletableFuture<?> result, Runnable task) {
+        inbox.add(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+    }
+
+    // ── Account state (shard thread only) ────────────────────────────────────
+
+    /** The account, loading it on first use; fails if it does not exist or is closed. */
+    LedgerAccount account(long id) {
+        LedgerAccount account = find(id);
+        if (account == null) {
+            throw new AccountException(ErrorCode.ACCOUNT_NOT_FOUND, "Account with id " + id + " was not found.");
+        }
+        return account;
+    }
+
+    /** The account, or {@code null} if it does not exist or is closed. */
+    LedgerAccount find(long id) {
+        LedgerAccount account = accounts.get(id);
+        if (account == null) {
+            account = loader.apply(id);
+            if (account == null) {
+                return null;
+            }
+            accounts.put(id, account);
+        }
+        return account.closed ? null : account;
+    }
+
+    /** Drops the account so the next task reloads it from MySQL. */
+    void evict(long id) {
+        accounts.remove(id);
+    }
+
+    private void run() {
+        while (running || !inbox.isEmpty()) {
+            try {
+                Runnable task = inbox.poll(100, TimeUnit.MILLISECONDS);
+                if (task != null) {
+                    task.run();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Throwable t) {
+                log.error("Ledger shard {} task failed", index, t);
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.bank.ledger;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One entry of the ledger's write-ahead log.
+ *
+ * <p>Each {@link Leg} carries the account's balance <em>after</em> the mutation rather than
+ * a delta, so projecting a record to MySQL is a plain overwrite and replaying it twice is
+ * harmless. Legs with an {@code eventType} also become an outbox balance event.
+ *
+ * <h3>Types</h3>
+ * <ul>
+ *   <li>{@code POST}: a mutation that stayed on one shard (deposit, withdrawal, or a payment
+ *       between two accounts of the same shard); all legs in one record.</li>
+ *   <li>{@code DEBIT}: the first half of a cross-shard payment. Besides the source leg it
+ *       records the target, amount and target event type, so recovery can finish the
+ *       payment if the process died before the second half was logged.</li>
+ *   <li>{@code CREDIT}: the second half, written by the target's shard.</li>
+ *   <li>{@code REFUND}: written instead of {@code CREDIT} when the target was closed in
+ *       between; returns the amount to the source.</li>
+ * </ul>
+ */
+record WalRecord(long lsn, Type type, long transferId, long counterpartyId, long amount,
+                 String counterpartyEventType, List<Leg> legs) {
+
+    enum Type { POST, DEBIT, CREDIT, REFUND }
+
+    record Leg(long accountId, long userId, long balanceAfter, String eventType) {
+    }
+
+    static WalRecord post(List<Leg> legs) {
+        return new WalRecord(0, Type.POST, 0, 0, 0, null, legs);
+    }
+
+    static WalRecord debit(long transferId, long targetId, long amount, String targetEventType, Leg source) {
+        return new WalRecord(0, Type.DEBIT, transferId, targetId, amount, targetEventType, List.of(source));
+    }
+
+    static WalRecord credit(long transferId, Leg target) {
+        return new WalRecord(0, Type.CREDIT, transferId, 0, 0, null, List.of(target));
+    }
+
+    static WalRecord refund(long transferId, Leg source) {
+        return new WalRecord(0, Type.REFUND, transferId, 0, 0, null, List.of(source));
+    }
+
+    WalRecord withLsn(long lsn) {
+        return new WalRecord(lsn, type, transferId, counterpartyId, amount, counterpartyEventType, legs);
+    }
+
+    // ── Encoding ─────────────────────────────────────────────────────────────
+    // lsn:8 type:1 transferId:8 counterpartyId:8 amount:8 counterpartyEventType:str legCount:1
+    // then per leg: accountId:8 userId:8 balanceAfter:8 eventType:str
+    // str is a 2-byte length (-1 for null) followed by UTF-8 bytes.
+
+    int encodedSize() {
+        int size = 8 + 1 + 8 + 8 + 8 + stringSize(counterpartyEventType) + 1;
+        for (Leg leg : legs) {
+            size += 8 + 8 + 8 + stringSize(leg.eventType());
+        }
+        return size;
+    }
+
+    void encode(ByteBuffer out) {
+        out.putLong(lsn);
+        out.put((byte) type.ordinal());
+        out.putLong(transferId);
+        out.putLong(counterpartyId);
+        out.putLong(amount);
+        putString(out, counterpartyEventType);
+        out.put((byte) legs.size());
+        for (Leg leg : legs) {
+            out.putLong(leg.accountId());
+            out.putLong(leg.userId());
+            out.putLong(leg.balanceAfter());
+            putString(out, leg.eventType());
+        }
+    }
+
+    static WalRecord decode(ByteBuffer in) {
+        long lsn = in.getLong();
+        Type type = Type.values()[in.get()];
+        long transferId = in.getLong();
+        long counterpartyId = in.getLong();
+        long amount = in.getLong();
+        String counterpartyEventType = getString(in);
+        int legCount = in.get();
+        List<Leg> legs = new ArrayList<>(legCount);
+        for (int i = 0; i < legCount; i++) {
+            legs.add(new Leg(in.getLong(), in.getLong(), in.getLong(), getString(in)));
+        }
+        return new WalRecord(lsn, type, transferId, counterpartyId, amount, counterpartyEventType, legs);
+    }
+
+    private static int stringSize(String value) {
+        return 2 + (value == null ? 0 : value.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    private static void putString(ByteBuffer out, String value) {
+        if (value == null) {
+            out.putShort((short) -1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.putShort((short) bytes.length);
+        out.put(bytes);
+    }
+
+    private static String getString(ByteBuffer in) {
+        short length = in.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
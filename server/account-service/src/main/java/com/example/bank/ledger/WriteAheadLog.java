@@ -0,0 +1,346 @@
+package com.example.bank.ledger;
+
+import com.example.bank.enums.ErrorCode;
+import com.example.bank.exception.AccountException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only, memory-mapped log of {@link WalRecord}s with group commit.
+ *
+ * <h3>Group commit</h3>
+ * Shards hand records to {@link #append}; a single writer thread drains everything queued
+ * (up to {@code maxBatch}), assigns LSNs in queue order, copies the records into the mapped
+ * segment and forces the written range once for the whole batch. Only then are the
+ * callers' futures completed and the records passed on to {@code onDurable}. Under load
+ * one {@code msync} covers hundreds of mutations; when idle a record is forced on its own.
+ *
+ * <p>Because the log is a single sequence and forcing is prefix-wise, a record being
+ * durable implies every record queued before it is durable too.
+ *
+ * <h3>Segments</h3>
+ * Files are {@code wal-<first lsn>.log}, pre-sized to {@code segmentSize}. Each record is
+ * framed as {@code [length:4][crc32c:4][body]}; a zero length marks the end of the data.
+ * On recovery a torn or corrupt frame ends the last segment (a crash mid-write) and is an
+ * error anywhere else. {@link #release} deletes segments once every record in them has been
+ * projected, except while they still hold the {@code DEBIT} of a cross-shard payment whose
+ * second half has not been logged.
+ */
+final class WriteAheadLog {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteAheadLog.class);
+    private static final int FRAME_HEADER = 8;
+    private static final String PREFIX = "wal-";
+    private static final String SUFFIX = ".log";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxBatch;
+    private final Consumer<List<WalRecord>> onDurable;
+
+    private final BlockingQueue<PendingAppend> queue = new LinkedBlockingQueue<>();
+    /** First LSN of each segment on disk; the last entry is the segment being written. */
+    private final ConcurrentSkipListMap<Long, Path> segments = new ConcurrentSkipListMap<>();
+    /** transferId -> LSN of cross-shard DEBITs not yet followed by their CREDIT or REFUND. */
+    private final Map<Long, Long> openDebits = new ConcurrentHashMap<>();
+
+    // writer-thread state
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int forcedPosition;
+    private long nextLsn;
+
+    private Thread writer;
+    private volatile boolean running;
+    private volatile Throwable failure;
+
+    private record PendingAppend(WalRecord record, CompletableFuture<Long> durable) {
+    }
+
+    WriteAheadLog(Path directory, int segmentSize, int maxBatch, Consumer<List<WalRecord>> onDurable) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxBatch = maxBatch;
+        this.onDurable = onDurable;
+    }
+
+    // ── Recovery ─────────────────────────────────────────────────────────────
+
+    /**
+     * Reads every intact record on disk, in LSN order, and positions the writer after the
+     * last one. {@code minNextLsn} keeps LSNs moving forward past the projection checkpoint
+     * even if all segments holding earlier records were already released.
+     */
+    List<WalRecord> recover(long minNextLsn) throws IOException {
+        Files.createDirectories(directory);
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(p -> p.getFileName().toString().startsWith(PREFIX)
+                            && p.getFileName().toString().endsWith(SUFFIX))
+                    .sorted((a, b) -> Long.compare(firstLsnOf(a), firstLsnOf(b)))
+                    .toList();
+        }
+
+        List<WalRecord> records = new ArrayList<>();
+        int writePosition = 0;
+        for (int i = 0; i < files.size(); i++) {
+            Path file = files.get(i);
+            boolean last = i == files.size() - 1;
+            try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer data = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+                int end = readSegment(data, records, file, last);
+                if (last) {
+                    writePosition = end;
+                }
+            }
+            segments.put(firstLsnOf(file), file);
+        }
+
+        for (WalRecord record : records) {
+            switch (record.type()) {
+                case DEBIT -> openDebits.put(record.transferId(), record.lsn());
+                case CREDIT, REFUND -> openDebits.remove(record.transferId());
+                default -> { }
+            }
+        }
+
+        long lastLsn = records.isEmpty() ? 0 : records.get(records.size() - 1).lsn();
+        long segmentStart = segments.isEmpty() ? 0 : segments.lastKey();
+        nextLsn = Math.max(Math.max(lastLsn + 1, segmentStart), Math.max(minNextLsn, 1));
+
+        if (segments.isEmpty()) {
+            openSegment(nextLsn);
+        } else {
+            openExisting(segments.lastEntry().getValue(), writePosition, true);
+        }
+        log.info("Ledger WAL recovered {} records from {} segment(s); next LSN {}",
+                records.size(), segments.size(), nextLsn);
+        return records;
+    }
+
+    private int readSegment(ByteBuffer data, List<WalRecord> out, Path file, boolean last) {
+        int position = 0;
+        while (position + FRAME_HEADER <= data.limit()) {
+            int length = data.getInt(position);
+            if (length == 0) {
+                return position;
+            }
+            int crc = data.getInt(position + 4);
+            int bodyStart = position + FRAME_HEADER;
+            if (length < 0 || bodyStart + length > data.limit()
+                    || crc != crcOf(data, bodyStart, length)) {
+                if (!last) {
+                    throw new IllegalStateException("Corrupt ledger WAL record in " + file + " at offset " + position);
+                }
+                log.warn("Ledger WAL ends with a torn record in {} at offset {}; truncating", file, position);
+                return position;
+            }
+            out.add(WalRecord.decode(data.slice(bodyStart, length)));
+            position = bodyStart + length;
+        }
+        return position;
+    }
+
+    // ── Writing ──────────────────────────────────────────────────────────────
+
+    void start() {
+        running = true;
+        writer = new Thread(this::writeLoop, "ledger-wal-writer");
+        writer.start();
+    }
+
+    /** Queues a record; the future completes with its LSN once it is on disk. */
+    CompletableFuture<Long> append(WalRecord record) {
+        CompletableFuture<Long> durable = new CompletableFuture<>();
+        if (failure != null || !running) {
+            durable.completeExceptionally(unavailable());
+            return durable;
+        }
+        queue.add(new PendingAppend(record, durable));
+        return durable;
+    }
+
+    boolean isFailed() {
+        return failure != null;
+    }
+
+    private void writeLoop() {
+        List<PendingAppend> batch = new ArrayList<>(maxBatch);
+        List<WalRecord> written = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingAppend first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - 1);
+                for (PendingAppend pending : batch) {
+                    written.add(write(pending.record()));
+                }
+                force();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Throwable t) {
+                // The shards have already applied these mutations in memory; nothing more
+                // may be acknowledged once the log cannot keep up with them.
+                log.error("Ledger WAL write failed; the ledger stops accepting mutations", t);
+                failure = t;
+                running = false;
+                break;
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).durable().complete(written.get(i).lsn());
+            }
+            onDurable.accept(List.copyOf(written));
+            batch.clear();
+            written.clear();
+        }
+        batch.forEach(p -> p.durable().completeExceptionally(unavailable()));
+        PendingAppend rest;
+        while ((rest = queue.poll()) != null) {
+            rest.durable().completeExceptionally(unavailable());
+        }
+    }
+
+    private WalRecord write(WalRecord record) throws IOException {
+        WalRecord stamped = record.withLsn(nextLsn);
+        int frameSize = FRAME_HEADER + stamped.encodedSize();
+        // keep room for the zero length that terminates a segment
+        if (frameSize + 4 > segmentSize) {
+            throw new IllegalArgumentException("Ledger WAL record of " + frameSize + " bytes exceeds the segment size");
+        }
+        if (buffer.remaining() < frameSize + 4) {
+            force();
+            openSegment(stamped.lsn());
+        }
+        int start = buffer.position();
+        buffer.position(start + FRAME_HEADER);
+        stamped.encode(buffer);
+        int length = buffer.position() - start - FRAME_HEADER;
+        buffer.putInt(start + 4, crcOf(buffer, start + FRAME_HEADER, length));
+        buffer.putInt(start, length);
+
+        nextLsn++;
+        switch (stamped.type()) {
+            case DEBIT -> openDebits.put(stamped.transferId(), stamped.lsn());
+            case CREDIT, REFUND -> openDebits.remove(stamped.transferId());
+            default -> { }
+        }
+        return stamped;
+    }
+
+    private void force() {
+        int position = buffer.position();
+        if (position > forcedPosition) {
+            buffer.force(forcedPosition, position - forcedPosition);
+            forcedPosition = position;
+        }
+    }
+
+    private void openSegment(long firstLsn) throws IOException {
+        Path file = directory.resolve(String.format("%s%020d%s", PREFIX, firstLsn, SUFFIX));
+        openExisting(file, 0, false);
+        segments.put(firstLsn, file);
+    }
+
+    private void openExisting(Path file, int position, boolean clearTail) throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        if (clearTail) {
+            // clear whatever a torn write left behind the last intact record
+            byte[] zeros = new byte[64 * 1024];
+            for (int p = position; p < segmentSize; p += zeros.length) {
+                buffer.put(p, zeros, 0, Math.min(zeros.length, segmentSize - p));
+            }
+        }
+        buffer.position(position);
+        forcedPosition = position;
+    }
+
+    // ── Release and shutdown ─────────────────────────────────────────────────
+
+    /**
+     * Deletes sealed segments whose records all have {@code lsn <= projectedLsn}, stopping
+     * before the first segment that still holds an open cross-shard {@code DEBIT}.
+     */
+    void release(long projectedLsn) {
+        long bound = projectedLsn;
+        for (long debitLsn : openDebits.values()) {
+            bound = Math.min(bound, debitLsn - 1);
+        }
+        for (Map.Entry<Long, Path> segment : segments.entrySet()) {
+            Long nextFirst = segments.higherKey(segment.getKey());
+            if (nextFirst == null || nextFirst - 1 > bound) {
+                return;
+            }
+            try {
+                Files.deleteIfExists(segment.getValue());
+                segments.remove(segment.getKey());
+            } catch (IOException e) {
+                log.warn("Could not delete ledger WAL segment {}", segment.getValue(), e);
+                return;
+            }
+        }
+    }
+
+    /** Writes and forces everything already queued, then stops the writer. */
+    void close() {
+        running = false;
+        if (writer != null) {
+            try {
+                writer.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            log.warn("Could not close ledger WAL segment", e);
+        }
+    }
+
+    // ── helpers ──────────────────────────────────────────────────────────────
+
+    private static int crcOf(ByteBuffer data, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(data.slice(offset, length));
+        return (int) crc.getValue();
+    }
+
+    private static long firstLsnOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    private static AccountException unavailable() {
+        return new AccountException(ErrorCode.SERVICE_UNAVAILABLE, "The ledger is not accepting writes.");
+    }
+}
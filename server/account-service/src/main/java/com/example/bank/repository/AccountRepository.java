@@ -1,14 +1,19 @@
 package com.example.bank.repository;
 
+import com.example.bank.dto.Account.AccountOwnerDto;
 import com.example.bank.entity.Account;
 import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,7 +23,39 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
 
     Page<Account> findByUserId(Long userId, Pageable pageable);
 
+    /** Keyset page of a user's accounts, served by {@code idx_accounts_user_id}. */
+    List<Account> findByUserIdAndIdGreaterThanOrderByIdAsc(Long userId, Long afterId, Limit limit);
+
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("select a from Account a where a.id = :id")
     Optional<Account> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Shared lock, used by the journal for accounts being credited: it never waits on other
+     * shared holders, only on an exclusive lock (a debit or delete of the same account).
+     */
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("select a from Account a where a.id = :id")
+    Optional<Account> findByIdForShare(@Param("id") Long id);
+
+    /**
+     * Locks every account in {@code ids} with a single statement. Rows are locked in
+     * ascending id order so concurrent batches cannot deadlock against each other.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from Account a where a.id in :ids order by a.id")
+    List<Account> findAllByIdInForUpdate(@Param("ids") Collection<Long> ids);
+
+    /** Stripe count without loading (and so without caching an unlocked copy of) the entity. */
+    @Query("select a.stripes from Account a where a.id = :id")
+    Optional<Integer> findStripesById(@Param("id") Long id);
+
+    /** Credits the account row directly; the fallback for a credit whose stripe was removed. */
+    @Modifying
+    @Query("update versioned Account a set a.balance = a.balance + :amount where a.id = :id")
+    int addToBalance(@Param("id") Long id, @Param("amount") BigDecimal amount);
+
+    /** Owner of each account in {@code ids}; ids that do not exist are absent from the result. */
+    @Query("select new com.example.bank.dto.Account.AccountOwnerDto(a.id, a.userId, a.accountType) from Account a where a.id in :ids")
+    List<AccountOwnerDto> findOwnersByIdIn(@Param("ids") Collection<Long> ids);
 }
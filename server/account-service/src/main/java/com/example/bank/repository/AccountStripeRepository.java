@@ -0,0 +1,41 @@
+package com.example.bank.repository;
+
+import com.example.bank.entity.AccountStripe;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface AccountStripeRepository extends JpaRepository<AccountStripe, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from AccountStripe s where s.accountId = :accountId and s.stripeNo = :stripeNo")
+    Optional<AccountStripe> findForUpdate(@Param("accountId") Long accountId, @Param("stripeNo") int stripeNo);
+
+    /** Locks every stripe of the given accounts, in (account, stripe) order. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from AccountStripe s where s.accountId in :accountIds order by s.accountId, s.stripeNo")
+    List<AccountStripe> findAllByAccountIdInForUpdate(@Param("accountIds") Collection<Long> accountIds);
+
+    @Query("select coalesce(sum(s.balance), 0) from AccountStripe s where s.accountId = :accountId")
+    BigDecimal sumBalance(@Param("accountId") Long accountId);
+
+    /** Rows are {@code [accountId, sum]}; accounts without stripes are absent. */
+    @Query("select s.accountId, sum(s.balance) from AccountStripe s where s.accountId in :accountIds group by s.accountId")
+    List<Object[]> sumBalanceByAccountIdIn(@Param("accountIds") Collection<Long> accountIds);
+
+    /** Accounts with money on their stripes, for the rebalance job. */
+    @Query("select distinct s.accountId from AccountStripe s where s.balance <> 0")
+    List<Long> findAccountIdsWithStripedBalance();
+
+    @Modifying
+    @Query("delete from AccountStripe s where s.accountId = :accountId")
+    int deleteByAccountId(@Param("accountId") Long accountId);
+}
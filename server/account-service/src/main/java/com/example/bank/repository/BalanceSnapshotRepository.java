@@ -0,0 +1,68 @@
+package com.example.bank.repository;
+
+import com.example.bank.entity.BalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BalanceSnapshotRepository extends JpaRepository<BalanceSnapshot, Long> {
+
+    Optional<BalanceSnapshot> findFirstByAccountIdOrderByLastEntryIdDesc(Long accountId);
+
+    Optional<BalanceSnapshot> findFirstByAccountIdAndAsOfLessThanEqualOrderByAsOfDescLastEntryIdDesc(
+            Long accountId, LocalDateTime asOf);
+
+    @Query("select s from BalanceSnapshot s where s.accountId in :accountIds"
+            + " and s.lastEntryId = (select max(s2.lastEntryId) from BalanceSnapshot s2 where s2.accountId = s.accountId)")
+    List<BalanceSnapshot> findLatestByAccountIdIn(@Param("accountIds") Collection<Long> accountIds);
+
+    /** Baseline snapshots from {@code accounts.balance} for every account that has none yet. */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO balance_snapshots (account_id, last_entry_id, balance, as_of)
+            SELECT a.id, 0, a.balance, a.created_at FROM accounts a
+            WHERE NOT EXISTS (SELECT 1 FROM balance_snapshots s WHERE s.account_id = a.id)
+            """, nativeQuery = true)
+    int insertMissingBaselines();
+
+    /**
+     * Folds every account's entries between its latest snapshot and {@code frontier} into a
+     * new snapshot. Accounts without new entries get none.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO balance_snapshots (account_id, last_entry_id, balance, as_of)
+            SELECT s.account_id, MAX(e.id), s.balance + SUM(e.amount), GREATEST(s.as_of, MAX(e.created_at))
+            FROM balance_snapshots s
+            JOIN ledger_entries e ON e.account_id = s.account_id AND e.id > s.last_entry_id AND e.id <= :frontier
+            WHERE s.last_entry_id = (SELECT MAX(s2.last_entry_id) FROM balance_snapshots s2 WHERE s2.account_id = s.account_id)
+            GROUP BY s.account_id, s.balance, s.as_of
+            """, nativeQuery = true)
+    int snapshotUpTo(@Param("frontier") long frontier);
+
+    /**
+     * Copies the latest snapshot balance of accounts snapshotted past {@code afterEntryId}
+     * into {@code accounts.balance}, so the column stays a recent (not live) figure.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE accounts a
+            JOIN balance_snapshots s ON s.account_id = a.id
+            SET a.balance = s.balance
+            WHERE s.last_entry_id > :afterEntryId
+              AND s.last_entry_id = (SELECT MAX(s2.last_entry_id) FROM balance_snapshots s2 WHERE s2.account_id = a.id)
+            """, nativeQuery = true)
+    int materializeBalances(@Param("afterEntryId") long afterEntryId);
+}
@@ -0,0 +1,19 @@
+package com.example.bank.repository;
+
+import com.example.bank.entity.LedgerCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface LedgerCheckpointRepository extends JpaRepository<LedgerCheckpoint, String> {
+
+    @Modifying
+    @Query("update LedgerCheckpoint c set c.lastProjectedLsn = :lsn, c.updatedAt = :now"
+            + " where c.name = :name and c.lastProjectedLsn < :lsn")
+    int advance(@Param("name") String name, @Param("lsn") Long lsn, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,38 @@
+package com.example.bank.repository;
+
+import com.example.bank.entity.LedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long> {
+
+    /** Net of an account's entries after {@code afterId}, via {@code idx_ledger_entries_account_id}. */
+    @Query("select coalesce(sum(e.amount), 0) from LedgerEntry e where e.accountId = :accountId and e.id > :afterId")
+    BigDecimal sumAfter(@Param("accountId") Long accountId, @Param("afterId") Long afterId);
+
+    @Query("select coalesce(sum(e.amount), 0) from LedgerEntry e"
+            + " where e.accountId = :accountId and e.id > :afterId and e.createdAt <= :until")
+    BigDecimal sumAfterUntil(@Param("accountId") Long accountId, @Param("afterId") Long afterId,
+                             @Param("until") LocalDateTime until);
+
+    /**
+     * Per account, the net of its entries after its latest snapshot. Accounts with no such
+     * entries are absent. Rows are {@code [accountId, sum]}.
+     */
+    @Query("select e.accountId, sum(e.amount) from LedgerEntry e where e.accountId in :accountIds"
+            + " and e.id > (select max(s.lastEntryId) from BalanceSnapshot s where s.accountId = e.accountId)"
+            + " group by e.accountId")
+    List<Object[]> sumAfterLatestSnapshots(@Param("accountIds") Collection<Long> accountIds);
+
+    /** Highest entry id created before {@code before}; the snapshot job's frontier. */
+    @Query("select max(e.id) from LedgerEntry e where e.createdAt < :before")
+    Long findMaxIdCreatedBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,43 @@
+package com.example.bank.repository;
+
+import com.example.bank.entity.OutboxCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface OutboxCheckpointRepository extends JpaRepository<OutboxCheckpoint, String> {
+
+    /** Takes or renews the lane lease if it is free, expired, or already ours. */
+    @Modifying
+    @Transactional
+    @Query("update OutboxCheckpoint c set c.leaseOwner = :owner, c.leaseExpiresAt = :expiresAt"
+            + " where c.name = :name and (c.leaseOwner is null or c.leaseOwner = :owner or c.leaseExpiresAt < :now)")
+    int acquireLease(@Param("name") String name, @Param("owner") String owner,
+                     @Param("expiresAt") LocalDateTime expiresAt, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("update OutboxCheckpoint c set c.leaseOwner = null, c.leaseExpiresAt = null"
+            + " where c.name = :name and c.leaseOwner = :owner")
+    int releaseLease(@Param("name") String name, @Param("owner") String owner);
+
+    /**
+     * Moves the lane's high-water mark forward, fenced on the caller still holding an
+     * unexpired lease. Returns 0 if the lease was lost.
+     */
+    @Modifying
+    @Transactional
+    @Query("update OutboxCheckpoint c set c.lastRelayedId = :id, c.updatedAt = :now"
+            + " where c.name = :name and c.leaseOwner = :owner and c.leaseExpiresAt > :now and c.lastRelayedId <= :id")
+    int advance(@Param("name") String name, @Param("owner") String owner,
+                @Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Query("select min(c.lastRelayedId) from OutboxCheckpoint c where c.name like concat(:prefix, '%')")
+    Long findMinLastRelayedId(@Param("prefix") String prefix);
+}
@@ -1,13 +1,66 @@
 package com.example.bank.repository;
 
 import com.example.bank.entity.OutboxEvent;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
-    List<OutboxEvent> findByStatusOrderByCreatedAtAsc(String status, Pageable pageable);
+
+    /** Ids committed after {@code afterId}, used to find the contiguous committed frontier. */
+    @Query("select e.id from OutboxEvent e where e.id > :afterId order by e.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    /** Which of {@code ids} have committed by now, and their lanes. */
+    @Query("select e.id as id, e.lane as lane from OutboxEvent e where e.id in :ids")
+    List<IdAndLane> findLanesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /** First committed event of {@code lane} after {@code afterId}, via {@code idx_outbox_events_lane_id}. */
+    @Query("select min(e.id) from OutboxEvent e where e.lane = :lane and e.id > :afterId")
+    Long findFirstIdInLaneAfter(@Param("lane") Integer lane, @Param("afterId") Long afterId);
+
+    /** Next events of one lane between its high-water mark and the frontier, via {@code idx_outbox_events_lane_id}. */
+    List<OutboxEvent> findByLaneAndIdGreaterThanAndIdLessThanEqualOrderByIdAsc(
+            Integer lane, Long afterId, Long upToId, Limit limit);
+
+    /** Assigns lanes to rows written before the lane column existed (same CRC32 as OutboxLanes). */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE outbox_events SET lane = MOD(CRC32(routing_key), :lanes) WHERE lane IS NULL",
+            nativeQuery = true)
+    int backfillLanes(@Param("lanes") int lanes);
+
+    @Query("select min(e.id) from OutboxEvent e where e.status = :status")
+    Long findMinIdByStatus(@Param("status") String status);
+
+    @Query("select max(e.id) from OutboxEvent e")
+    Long findMaxId();
+
+    /**
+     * Deletes up to {@code limit} relayed events older than {@code before}, oldest first.
+     * Walks the primary key from the start, so each call only touches the rows it deletes.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM outbox_events WHERE id <= :maxId AND created_at < :before ORDER BY id LIMIT :limit",
+            nativeQuery = true)
+    int purgeRelayed(@Param("maxId") Long maxId,
+                     @Param("before") LocalDateTime before,
+                     @Param("limit") int limit);
+
+    /** Projection of {@link #findLanesByIdIn}. */
+    interface IdAndLane {
+        Long getId();
+
+        Integer getLane();
+    }
 }
@@ -0,0 +1,28 @@
+package com.example.bank.repository;
+
+import com.example.bank.entity.OutboxRelayMember;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface OutboxRelayMemberRepository extends JpaRepository<OutboxRelayMember, String> {
+
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO outbox_relay_members (owner_id, expires_at) VALUES (:ownerId, :expiresAt)"
+            + " ON DUPLICATE KEY UPDATE expires_at = :expiresAt", nativeQuery = true)
+    void heartbeat(@Param("ownerId") String ownerId, @Param("expiresAt") LocalDateTime expiresAt);
+
+    long countByExpiresAtAfter(LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("delete from OutboxRelayMember m where m.expiresAt < :before")
+    int deleteExpired(@Param("before") LocalDateTime before);
+}
@@ -1,11 +1,18 @@
 package com.example.bank.service;
 
+import com.example.bank.common.CursorPage;
 import com.example.bank.dto.Account.AccountCreateDto;
 import com.example.bank.dto.Account.AccountDto;
+import com.example.bank.dto.Account.AccountOwnerDto;
+import com.example.bank.dto.ApplyPaymentRequest;
+import com.example.bank.dto.ApplyPaymentResult;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 public interface AccountService {
 
@@ -13,17 +20,26 @@ public interface AccountService {
 
     AccountDto getAccountById(Long id);
 
+    /** The account with its balance as of {@code asOf}; requires the journal data path. */
+    AccountDto getAccountById(Long id, LocalDateTime asOf);
+
     AccountDto deposit(Long id, BigDecimal amount);
 
     AccountDto withdraw(Long id, BigDecimal amount);
 
     Page<AccountDto> getAllAccounts(String username, Pageable pageable);
 
+    CursorPage<AccountDto> getAllAccounts(String username, String cursor, int size);
+
     void deleteAccount(Long id);
 
     void transfer(Long fromId, Long toId, BigDecimal amount);
 
     boolean isAccountOwner(String username, Long accountId);
 
+    List<AccountOwnerDto> getOwners(Collection<Long> accountIds);
+
     void applyPayment(Long sourceId, Long targetId, BigDecimal amount);
+
+    List<ApplyPaymentResult> applyPayments(List<ApplyPaymentRequest> requests);
 }
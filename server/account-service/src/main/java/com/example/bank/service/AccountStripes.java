@@ -0,0 +1,181 @@
+package com.example.bank.service;
+
+import com.example.bank.entity.Account;
+import com.example.bank.entity.AccountStripe;
+import com.example.bank.enums.ErrorCode;
+import com.example.bank.exception.AccountException;
+import com.example.bank.repository.AccountRepository;
+import com.example.bank.repository.AccountStripeRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Split balances for hot accounts on the default JPA data path.
+ *
+ * <p>When many payers credit one account, locking its row for every credit serializes them
+ * all. An account striped with {@link #restripe} gets K {@link AccountStripe} rows: a credit
+ * locks one stripe chosen at random and leaves the account row alone, so up to K credits
+ * proceed in parallel. The account's balance is {@code accounts.balance} plus its stripes.
+ *
+ * <h3>Debits</h3>
+ * Debits still lock the account row, and are served from {@code accounts.balance} alone
+ * while it suffices. Only when it falls short does the debit {@link #sweep} the stripes
+ * into it, locking them in stripe order. The rebalance job ({@code StripeRebalanceJob})
+ * sweeps idle stripes in the background so that is rare.
+ *
+ * <h3>Reported balances</h3>
+ * A credit to a striped account does not lock the account row, so the balance it reports
+ * (and publishes) is read without locks and may miss credits committing concurrently.
+ */
+@Service
+public class AccountStripes {
+
+    private final AccountRepository accountRepository;
+    private final AccountStripeRepository accountStripeRepository;
+    private final String dataAccessMode;
+    private final int maxStripes;
+
+    public AccountStripes(AccountRepository accountRepository,
+                          AccountStripeRepository accountStripeRepository,
+                          @Value("${account.data-access.mode:jdbc}") String dataAccessMode,
+                          @Value("${account.hot-accounts.max-stripes:64}") int maxStripes) {
+        this.accountRepository = accountRepository;
+        this.accountStripeRepository = accountStripeRepository;
+        this.dataAccessMode = dataAccessMode;
+        this.maxStripes = maxStripes;
+    }
+
+    /** The account's stripe count, read without locking or loading the account. */
+    public int stripesOf(Long accountId) {
+        return accountRepository.findStripesById(accountId).orElse(0);
+    }
+
+    /**
+     * Credits one of the account's {@code stripes} stripes, chosen at random. Must run in the
+     * caller's transaction. Falls back to the account row if the stripe has been removed
+     * by a concurrent {@link #restripe}.
+     */
+    public void credit(Long accountId, int stripes, BigDecimal amount) {
+        int stripeNo = ThreadLocalRandom.current().nextInt(stripes);
+        accountStripeRepository.findForUpdate(accountId, stripeNo).ifPresentOrElse(
+                stripe -> stripe.setBalance(stripe.getBalance().add(amount)),
+                () -> {
+                    if (accountRepository.addToBalance(accountId, amount) == 0) {
+                        throw new AccountException(ErrorCode.ACCOUNT_NOT_FOUND,
+                                "Account with id " + accountId + " was not found.");
+                    }
+                });
+    }
+
+    /**
+     * Moves every stripe's balance onto the (locked) account, leaving the stripes at zero.
+     * Returns whether anything moved.
+     */
+    public boolean sweep(Account account) {
+        if (account.getStripes() == 0) {
+            return false;
+        }
+        return sweepAll(List.of(account));
+    }
+
+    /** {@link #sweep} for several locked accounts, with a single locking query. */
+    public boolean sweepAll(Collection<Account> accounts) {
+        Map<Long, Account> striped = new HashMap<>();
+        for (Account account : accounts) {
+            if (account.getStripes() > 0) {
+                striped.put(account.getId(), account);
+            }
+        }
+        if (striped.isEmpty()) {
+            return false;
+        }
+        boolean moved = false;
+        for (AccountStripe stripe : accountStripeRepository.findAllByAccountIdInForUpdate(striped.keySet())) {
+            if (stripe.getBalance().signum() != 0) {
+                Account account = striped.get(stripe.getAccountId());
+                account.setBalance(account.getBalance().add(stripe.getBalance()));
+                stripe.setBalance(BigDecimal.ZERO);
+                moved = true;
+            }
+        }
+        return moved;
+    }
+
+    /** The account's full balance: the row's balance plus its stripes. */
+    public BigDecimal balanceOf(Account account) {
+        if (account.getStripes() == 0) {
+            return account.getBalance();
+        }
+        return account.getBalance().add(accountStripeRepository.sumBalance(account.getId()));
+    }
+
+    /** Sum of the stripes of each striped account in {@code accountIds}; others are absent. */
+    public Map<Long, BigDecimal> stripedBalances(Collection<Long> accountIds) {
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        if (accountIds.isEmpty()) {
+            return balances;
+        }
+        for (Object[] row : accountStripeRepository.sumBalanceByAccountIdIn(accountIds)) {
+            balances.put((Long) row[0], (BigDecimal) row[1]);
+        }
+        return balances;
+    }
+
+    /**
+     * Gives the account {@code stripes} credit stripes (0 unstripes it). Existing stripe
+     * balances are swept onto the account first, so no money moves between stripes.
+     */
+    @Transactional
+    public void restripe(Long accountId, int stripes) {
+        if (!"jdbc".equals(dataAccessMode)) {
+            throw new AccountException(ErrorCode.VALIDATION_FAILED,
+                    "Account striping is only available in the jdbc data access mode.");
+        }
+        if (stripes < 0 || stripes > maxStripes) {
+            throw new AccountException(ErrorCode.VALIDATION_FAILED,
+                    "Stripe count must be between 0 and " + maxStripes + ".");
+        }
+        Account account = accountRepository.findByIdForUpdate(accountId)
+                .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND,
+                        "Account with id " + accountId + " was not found."));
+        sweep(account);
+        accountStripeRepository.flush();
+        accountStripeRepository.deleteByAccountId(accountId);
+        for (int stripeNo = 0; stripeNo < stripes; stripeNo++) {
+            accountStripeRepository.save(new AccountStripe(accountId, stripeNo));
+        }
+        account.setStripes(stripes);
+        accountRepository.save(account);
+    }
+
+    /** Sweeps one account's stripes in its own transaction; used by the rebalance job. */
+    @Transactional
+    public boolean rebalance(Long accountId) {
+        return accountRepository.findByIdForUpdate(accountId)
+                .map(account -> {
+                    boolean moved = sweep(account);
+                    if (moved) {
+                        accountRepository.save(account);
+                    }
+                    return moved;
+                })
+                .orElse(false);
+    }
+
+    /** Removes the stripes of an account being deleted; they must already have been swept. */
+    public void remove(Long accountId) {
+        accountStripeRepository.deleteByAccountId(accountId);
+    }
+
+    public List<Long> accountsToRebalance() {
+        return accountStripeRepository.findAccountIdsWithStripedBalance();
+    }
+}
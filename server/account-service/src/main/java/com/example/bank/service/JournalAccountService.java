@@ -0,0 +1,40 @@
+package com.example.bank.service;
+
+import com.example.bank.dto.Account.AccountDto;
+import com.example.bank.dto.ApplyPaymentRequest;
+import com.example.bank.dto.ApplyPaymentResult;
+import com.example.bank.entity.Account;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Balance operations on the double-entry journal ({@code account.data-access.mode=journal}).
+ * Balances are derived from {@code ledger_entries}; {@code accounts.balance} is not live.
+ */
+public interface JournalAccountService {
+
+    AccountDto deposit(Long id, BigDecimal amount);
+
+    AccountDto withdraw(Long id, BigDecimal amount);
+
+    void transfer(Long fromId, Long toId, BigDecimal amount);
+
+    void applyPayment(Long sourceId, Long targetId, BigDecimal amount);
+
+    List<ApplyPaymentResult> applyPayments(List<ApplyPaymentRequest> requests);
+
+    /** Records the opening balance of a newly created account. */
+    void open(Account account);
+
+    BigDecimal balanceOf(Long accountId);
+
+    /** Current balances of the given accounts, with two queries regardless of their number. */
+    Map<Long, BigDecimal> balancesOf(Collection<Long> accountIds);
+
+    /** The balance after every entry created at or before {@code asOf}. */
+    BigDecimal balanceAsOf(Long accountId, LocalDateTime asOf);
+}
@@ -0,0 +1,22 @@
+package com.example.bank.service;
+
+import com.example.bank.dto.Account.AccountDto;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+
+/**
+ * Non-blocking counterpart of the balance-changing operations of {@link AccountService},
+ * available with {@code account.data-access.mode=reactive}. Same validation, errors,
+ * lock ordering and outbox events as the JPA implementation.
+ */
+public interface ReactiveAccountService {
+
+    Mono<AccountDto> deposit(Long id, BigDecimal amount);
+
+    Mono<AccountDto> withdraw(Long id, BigDecimal amount);
+
+    Mono<Void> transfer(Long fromId, Long toId, BigDecimal amount);
+
+    Mono<Void> applyPayment(Long sourceId, Long targetId, BigDecimal amount);
+}
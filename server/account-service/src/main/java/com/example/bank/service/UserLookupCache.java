@@ -0,0 +1,54 @@
+package com.example.bank.service;
+
+import com.example.bank.dto.User.UserDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Near cache in front of {@link UserServiceClient#getUserByUsername}. Ownership checks run
+ * on every account request, so without it each one costs a Feign round trip to user-service.
+ *
+ * <p>Entries are bounded by {@code user-cache.maximum-size} and expire after
+ * {@code user-cache.ttl}; {@code UserChangeListener} evicts them early when user-service
+ * reports a rename or deletion. Unknown users are not cached. Hit, miss and eviction
+ * counts are published under {@code cache.*{cache="user-lookup"}}.
+ */
+@Service
+public class UserLookupCache {
+
+    private final UserServiceClient userServiceClient;
+    private final String internalSecret;
+    private final Cache<String, UserDto> cache;
+
+    public UserLookupCache(UserServiceClient userServiceClient,
+                           MeterRegistry meterRegistry,
+                           @Value("${internal.service-secret}") String internalSecret,
+                           @Value("${user-cache.maximum-size:10000}") long maximumSize,
+                           @Value("${user-cache.ttl:PT5M}") Duration ttl) {
+        this.userServiceClient = userServiceClient;
+        this.internalSecret = internalSecret;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "user-lookup");
+    }
+
+    /** Returns the user, or {@code null} if user-service does not know the username. */
+    public UserDto getUserByUsername(String username) {
+        return cache.get(username, u -> userServiceClient.getUserByUsername(u, internalSecret));
+    }
+
+    public void invalidate(String username) {
+        if (username != null) {
+            cache.invalidate(username);
+        }
+    }
+}
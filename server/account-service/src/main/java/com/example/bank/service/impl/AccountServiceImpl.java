@@ -1,64 +1,117 @@
 package com.example.bank.service.impl;
 
+import com.example.bank.common.CursorCodec;
+import com.example.bank.common.CursorPage;
 import com.example.bank.dto.Account.AccountCreateDto;
 import com.example.bank.dto.Account.AccountDto;
+import com.example.bank.dto.Account.AccountOwnerDto;
+import com.example.bank.dto.ApplyPaymentRequest;
+import com.example.bank.dto.ApplyPaymentResult;
 import com.example.bank.dto.User.UserDto;
 import com.example.bank.entity.Account;
 import com.example.bank.enums.ErrorCode;
 import com.example.bank.exception.AccountException;
+import com.example.bank.exception.PaginationException;
 import com.example.bank.exception.UserException;
 import com.example.bank.kafka.AccountEventProducer;
+import com.example.bank.ledger.LedgerEngine;
 import com.example.bank.mapper.AccountMapper;
 import com.example.bank.repository.AccountRepository;
 import com.example.bank.service.AccountService;
-import com.example.bank.service.UserServiceClient;
-import org.springframework.beans.factory.annotation.Value;
+import com.example.bank.service.AccountStripes;
+import com.example.bank.service.JournalAccountService;
+import com.example.bank.service.UserLookupCache;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class AccountServiceImpl implements AccountService {
 
     private final AccountRepository accountRepository;
-    private final UserServiceClient userServiceClient;
+    private final UserLookupCache userLookupCache;
     private final AccountEventProducer accountEventProducer;
-    private final String internalSecret;
+    private final AccountStripes accountStripes;
+    private final ObjectProvider<LedgerEngine> ledgerEngine;
+    private final ObjectProvider<JournalAccountService> journal;
 
     public AccountServiceImpl(AccountRepository accountRepository,
-                               UserServiceClient userServiceClient,
+                               UserLookupCache userLookupCache,
                                AccountEventProducer accountEventProducer,
-                               @Value("${internal.service-secret}") String internalSecret) {
+                               AccountStripes accountStripes,
+                               ObjectProvider<LedgerEngine> ledgerEngine,
+                               ObjectProvider<JournalAccountService> journal) {
         this.accountRepository = accountRepository;
-        this.userServiceClient = userServiceClient;
+        this.userLookupCache = userLookupCache;
         this.accountEventProducer = accountEventProducer;
-        this.internalSecret = internalSecret;
+        this.accountStripes = accountStripes;
+        this.ledgerEngine = ledgerEngine;
+        this.journal = journal;
     }
 
     @Override
     @Transactional
     public AccountDto createAccount(String username, AccountCreateDto dto) {
-        UserDto user = userServiceClient.getUserByUsername(username, internalSecret);
+        UserDto user = userLookupCache.getUserByUsername(username);
         if (user == null) {
             throw new UserException(ErrorCode.USER_NOT_FOUND, "User not found.");
         }
         Account account = AccountMapper.mapToAccount(dto);
         account.setUserId(user.getId());
-        return AccountMapper.mapToAccountDto(accountRepository.save(account));
+        Account saved = accountRepository.save(account);
+        journal.ifAvailable(j -> j.open(saved));
+        accountEventProducer.publishLifecycle(saved.getId(), saved.getUserId(), saved.getAccountType(), "ACCOUNT_OPENED");
+        return AccountMapper.mapToAccountDto(saved);
     }
 
     @Override
     public AccountDto getAccountById(Long id) {
-        return AccountMapper.mapToAccountDto(findOrThrow(id));
+        Account account = findOrThrow(id);
+        AccountDto dto = withBalance(account, accountStripes.balanceOf(account));
+        journal.ifAvailable(j -> dto.setBalance(j.balanceOf(id)));
+        return dto;
+    }
+
+    @Override
+    public AccountDto getAccountById(Long id, LocalDateTime asOf) {
+        JournalAccountService j = journal.getIfAvailable();
+        if (j == null) {
+            throw new AccountException(ErrorCode.VALIDATION_FAILED,
+                    "Balances as of a point in time are only available in the journal data access mode.");
+        }
+        AccountDto dto = AccountMapper.mapToAccountDto(findOrThrow(id));
+        dto.setBalance(j.balanceAsOf(id, asOf));
+        return dto;
     }
 
     @Override
     @Transactional
     public AccountDto deposit(Long id, BigDecimal amount) {
+        int stripes = accountStripes.stripesOf(id);
+        if (stripes > 0) {
+            // Hot account: credit a stripe without locking the account row
+            Account account = findOrThrow(id);
+            accountStripes.credit(id, stripes, amount);
+            BigDecimal balance = accountStripes.balanceOf(account);
+            accountEventProducer.publishBalanceChanged(id, account.getUserId(), balance, "DEPOSIT");
+            return withBalance(account, balance);
+        }
         Account account = findForUpdateOrThrow(id);
         account.setBalance(account.getBalance().add(amount));
         Account saved = accountRepository.save(account);
@@ -71,36 +124,82 @@ public class AccountServiceImpl implements AccountService {
     @Transactional
     public AccountDto withdraw(Long id, BigDecimal amount) {
         Account account = findForUpdateOrThrow(id);
-        if (account.getBalance().compareTo(amount) < 0) {
+        if (!hasFunds(account, amount)) {
             throw new AccountException(ErrorCode.INSUFFICIENT_BALANCE,
                     "Insufficient balance. Available: " + account.getBalance());
         }
         account.setBalance(account.getBalance().subtract(amount));
         Account saved = accountRepository.save(account);
+        BigDecimal balance = accountStripes.balanceOf(saved);
         accountEventProducer.publishBalanceChanged(saved.getId(), saved.getUserId(),
-                saved.getBalance(), "WITHDRAWAL");
-        return AccountMapper.mapToAccountDto(saved);
+                balance, "WITHDRAWAL");
+        return withBalance(saved, balance);
     }
 
     @Override
     public Page<AccountDto> getAllAccounts(String username, Pageable pageable) {
-        UserDto user = userServiceClient.getUserByUsername(username, internalSecret);
+        UserDto user = userLookupCache.getUserByUsername(username);
+        if (user == null) {
+            throw new UserException(ErrorCode.USER_NOT_FOUND, "User not found.");
+        }
+        Page<Account> accounts = accountRepository.findByUserId(user.getId(), pageable);
+        Page<AccountDto> page = accounts.map(toDtos(accounts.getContent()));
+        withJournalBalances(page.getContent());
+        return page;
+    }
+
+    @Override
+    public CursorPage<AccountDto> getAllAccounts(String username, String cursor, int size) {
+        CursorPage.requireValidSize(size);
+        UserDto user = userLookupCache.getUserByUsername(username);
         if (user == null) {
             throw new UserException(ErrorCode.USER_NOT_FOUND, "User not found.");
         }
-        return accountRepository.findByUserId(user.getId(), pageable)
-                .map(AccountMapper::mapToAccountDto);
+        String[] position = CursorCodec.decode(cursor, 1);
+        long afterId;
+        try {
+            afterId = position == null ? 0L : Long.parseLong(position[0]);
+        } catch (NumberFormatException e) {
+            throw new PaginationException(ErrorCode.INVALID_CURSOR);
+        }
+        List<Account> rows = accountRepository.findByUserIdAndIdGreaterThanOrderByIdAsc(
+                user.getId(), afterId, Limit.of(size + 1));
+        CursorPage<AccountDto> page = CursorPage.fromOverfetch(rows, size, last -> CursorCodec.encode(last.getId()))
+                .map(toDtos(rows));
+        withJournalBalances(page.getItems());
+        return page;
     }
 
     @Override
     @Transactional
     public void deleteAccount(Long id) {
-        Account account = findOrThrow(id);
-        if (account.getBalance().compareTo(BigDecimal.ZERO) != 0) {
-            throw new AccountException(ErrorCode.ACCOUNT_HAS_BALANCE,
-                    "Cannot delete an account with a non-zero balance. Please withdraw all funds first.");
+        // In ledger mode the row's balance may trail memory: close the account in the
+        // ledger first, which also waits for its last change to reach the row.
+        LedgerEngine ledger = ledgerEngine.getIfAvailable();
+        if (ledger != null) {
+            ledger.close(id);
+        }
+        // Locking the row waits for in-flight postings (journal mode) and debits; sweeping
+        // waits for in-flight stripe credits. In journal mode the row's balance is only a
+        // snapshot, so the balance is derived from the journal.
+        JournalAccountService j = journal.getIfAvailable();
+        try {
+            Account account = findForUpdateOrThrow(id);
+            accountStripes.sweep(account);
+            BigDecimal balance = j == null ? account.getBalance() : j.balanceOf(id);
+            if (balance.compareTo(BigDecimal.ZERO) != 0) {
+                throw new AccountException(ErrorCode.ACCOUNT_HAS_BALANCE,
+                        "Cannot delete an account with a non-zero balance. Please withdraw all funds first.");
+            }
+            accountStripes.remove(id);
+            accountRepository.deleteById(id);
+            accountEventProducer.publishLifecycle(id, account.getUserId(), account.getAccountType(), "ACCOUNT_CLOSED");
+        } catch (RuntimeException e) {
+            if (ledger != null) {
+                ledger.reopen(id);
+            }
+            throw e;
         }
-        accountRepository.deleteById(id);
     }
 
     @Override
@@ -110,6 +209,18 @@ public class AccountServiceImpl implements AccountService {
             throw new AccountException(ErrorCode.SELF_TRANSFER_NOT_ALLOWED,
                     "Source and target accounts must be different.");
         }
+        int targetStripes = accountStripes.stripesOf(toId);
+        if (targetStripes > 0) {
+            Account from = findForUpdateOrThrow(fromId);
+            if (!hasFunds(from, amount)) {
+                throw new AccountException(ErrorCode.INSUFFICIENT_BALANCE,
+                        "Insufficient balance for transfer.");
+            }
+            from.setBalance(from.getBalance().subtract(amount));
+            accountRepository.save(from);
+            accountStripes.credit(toId, targetStripes, amount);
+            return;
+        }
         Long first = Math.min(fromId, toId);
         Long second = Math.max(fromId, toId);
 
@@ -119,7 +230,7 @@ public class AccountServiceImpl implements AccountService {
         Account from = fromId.equals(a1.getId()) ? a1 : a2;
         Account to = from.equals(a1) ? a2 : a1;
 
-        if (from.getBalance().compareTo(amount) < 0) {
+        if (!hasFunds(from, amount)) {
             throw new AccountException(ErrorCode.INSUFFICIENT_BALANCE,
                     "Insufficient balance for transfer.");
         }
@@ -133,30 +244,134 @@ public class AccountServiceImpl implements AccountService {
     @Transactional
     public void applyPayment(Long sourceId, Long targetId, BigDecimal amount) {
         Account from = findForUpdateOrThrow(sourceId);
-        Account to = findForUpdateOrThrow(targetId);
-        if (from.getBalance().compareTo(amount) < 0) {
+        int targetStripes = accountStripes.stripesOf(targetId);
+        Account to = targetStripes > 0 ? findOrThrow(targetId) : findForUpdateOrThrow(targetId);
+        if (!hasFunds(from, amount)) {
             throw new AccountException(ErrorCode.INSUFFICIENT_BALANCE,
                     "Insufficient balance for payment.");
         }
         from.setBalance(from.getBalance().subtract(amount));
-        to.setBalance(to.getBalance().add(amount));
         accountRepository.save(from);
-        accountRepository.save(to);
-        accountEventProducer.publishBalanceChanged(from.getId(), from.getUserId(), from.getBalance(), "PAYMENT_SENT");
-        accountEventProducer.publishBalanceChanged(to.getId(), to.getUserId(), to.getBalance(), "PAYMENT_RECEIVED");
+        if (targetStripes > 0) {
+            accountStripes.credit(targetId, targetStripes, amount);
+        } else {
+            to.setBalance(to.getBalance().add(amount));
+            accountRepository.save(to);
+        }
+        accountEventProducer.publishBalanceChanged(from.getId(), from.getUserId(),
+                accountStripes.balanceOf(from), "PAYMENT_SENT");
+        accountEventProducer.publishBalanceChanged(to.getId(), to.getUserId(),
+                accountStripes.balanceOf(to), "PAYMENT_RECEIVED");
+    }
+
+    /**
+     * Applies a batch of payments in one transaction. Every account touched by the batch
+     * is locked exactly once (in id order) up front; payments are then applied in request
+     * order against the in-memory balances, so a payment that fails validation is reported
+     * back without affecting the rest of the batch. Striped accounts are swept onto their
+     * locked rows first, so their in-memory balances are complete.
+     */
+    @Override
+    @Transactional
+    public List<ApplyPaymentResult> applyPayments(List<ApplyPaymentRequest> requests) {
+        Set<Long> ids = new TreeSet<>();
+        for (ApplyPaymentRequest r : requests) {
+            ids.add(r.getSourceId());
+            ids.add(r.getTargetId());
+        }
+        Map<Long, Account> locked = accountRepository.findAllByIdInForUpdate(ids).stream()
+                .collect(Collectors.toMap(Account::getId, Function.identity()));
+        accountStripes.sweepAll(locked.values());
+
+        List<ApplyPaymentResult> results = new ArrayList<>(requests.size());
+        Set<Account> dirty = new LinkedHashSet<>();
+
+        for (ApplyPaymentRequest r : requests) {
+            Account from = locked.get(r.getSourceId());
+            Account to = locked.get(r.getTargetId());
+            if (from == null || to == null) {
+                Long missing = from == null ? r.getSourceId() : r.getTargetId();
+                results.add(ApplyPaymentResult.failure(r.getPaymentId(), ErrorCode.ACCOUNT_NOT_FOUND.name(),
+                        "Account with id " + missing + " was not found."));
+                continue;
+            }
+            if (from == to) {
+                results.add(ApplyPaymentResult.failure(r.getPaymentId(), ErrorCode.SELF_TRANSFER_NOT_ALLOWED.name(),
+                        "Source and target accounts must be different."));
+                continue;
+            }
+            if (from.getBalance().compareTo(r.getAmount()) < 0) {
+                results.add(ApplyPaymentResult.failure(r.getPaymentId(), ErrorCode.INSUFFICIENT_BALANCE.name(),
+                        "Insufficient balance for payment."));
+                continue;
+            }
+            from.setBalance(from.getBalance().subtract(r.getAmount()));
+            to.setBalance(to.getBalance().add(r.getAmount()));
+            dirty.add(from);
+            dirty.add(to);
+            accountEventProducer.publishBalanceChanged(from.getId(), from.getUserId(), from.getBalance(), "PAYMENT_SENT");
+            accountEventProducer.publishBalanceChanged(to.getId(), to.getUserId(), to.getBalance(), "PAYMENT_RECEIVED");
+            results.add(ApplyPaymentResult.success(r.getPaymentId()));
+        }
+
+        accountRepository.saveAll(dirty);
+        return results;
     }
 
     @Override
     public boolean isAccountOwner(String username, Long accountId) {
-        UserDto user = userServiceClient.getUserByUsername(username, internalSecret);
+        UserDto user = userLookupCache.getUserByUsername(username);
         if (user == null) return false;
         return accountRepository.findById(accountId)
                 .map(account -> Objects.equals(account.getUserId(), user.getId()))
                 .orElse(false);
     }
 
+    @Override
+    public List<AccountOwnerDto> getOwners(Collection<Long> accountIds) {
+        if (accountIds == null || accountIds.isEmpty()) {
+            return List.of();
+        }
+        return accountRepository.findOwnersByIdIn(accountIds);
+    }
+
     // --- helpers ---
 
+    /**
+     * Whether the locked account can pay {@code amount}, sweeping its stripes onto the row
+     * only if the row's own balance falls short.
+     */
+    private boolean hasFunds(Account account, BigDecimal amount) {
+        return account.getBalance().compareTo(amount) >= 0
+                || (accountStripes.sweep(account) && account.getBalance().compareTo(amount) >= 0);
+    }
+
+    /** Maps a page of accounts, adding the stripe balances of any striped ones with one query. */
+    private Function<Account, AccountDto> toDtos(List<Account> accounts) {
+        Map<Long, BigDecimal> striped = accountStripes.stripedBalances(accounts.stream()
+                .filter(account -> account.getStripes() > 0)
+                .map(Account::getId)
+                .toList());
+        return account -> withBalance(account,
+                account.getBalance().add(striped.getOrDefault(account.getId(), BigDecimal.ZERO)));
+    }
+
+    private static AccountDto withBalance(Account account, BigDecimal balance) {
+        AccountDto dto = AccountMapper.mapToAccountDto(account);
+        dto.setBalance(balance);
+        return dto;
+    }
+
+    /** In journal mode, replaces each DTO's stored balance with the one derived from the journal. */
+    private void withJournalBalances(List<AccountDto> accounts) {
+        JournalAccountService j = journal.getIfAvailable();
+        if (j == null || accounts.isEmpty()) {
+            return;
+        }
+        Map<Long, BigDecimal> balances = j.balancesOf(accounts.stream().map(AccountDto::getId).toList());
+        accounts.forEach(dto -> dto.setBalance(balances.get(dto.getId())));
+    }
+
     private Account findOrThrow(Long id) {
         return accountRepository.findById(id)
                 .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND,
@@ -0,0 +1,315 @@
+package com.example.bank.service.impl;
+
+import com.example.bank.dto.Account.AccountDto;
+import com.example.bank.dto.ApplyPaymentRequest;
+import com.example.bank.dto.ApplyPaymentResult;
+import com.example.bank.entity.Account;
+import com.example.bank.entity.BalanceSnapshot;
+import com.example.bank.entity.LedgerEntry;
+import com.example.bank.enums.ErrorCode;
+import com.example.bank.exception.AccountException;
+import com.example.bank.kafka.AccountEventProducer;
+import com.example.bank.mapper.AccountMapper;
+import com.example.bank.repository.AccountRepository;
+import com.example.bank.repository.BalanceSnapshotRepository;
+import com.example.bank.repository.LedgerEntryRepository;
+import com.example.bank.service.JournalAccountService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Double-entry journal implementation of {@link JournalAccountService}.
+ *
+ * <h3>Writes</h3>
+ * Every balance change inserts a pair of {@link LedgerEntry} rows that sum to zero; no
+ * balance column is updated. Deposits and withdrawals are posted against
+ * {@link #CASH_ACCOUNT_ID}.
+ *
+ * <h3>Locking</h3>
+ * Only the account money leaves is locked exclusively, so the overdraft check and the
+ * debit are serialized per source. Credited accounts take a shared lock, which concurrent
+ * credits never wait on: a hot merchant account receiving many payments at once has no
+ * lock queue. The shared lock only waits for an in-flight debit of the same account or
+ * for its deletion. Rows are always locked in ascending id order.
+ *
+ * <h3>Balances</h3>
+ * A balance is the latest {@link BalanceSnapshot} plus the entries after it, which the
+ * snapshot job ({@code BalanceSnapshotJob}) keeps short. Writers run at READ COMMITTED so
+ * the sum taken after the exclusive lock sees every committed debit of that account. The
+ * balance reported in a credited account's event is read the same way and may not yet
+ * include credits that are committing concurrently.
+ */
+@Service
+@ConditionalOnProperty(name = "account.data-access.mode", havingValue = "journal")
+public class JournalAccountServiceImpl implements JournalAccountService {
+
+    /** Contra account for money entering or leaving the bank. Has no row in {@code accounts}. */
+    public static final long CASH_ACCOUNT_ID = 0L;
+
+    private final AccountRepository accountRepository;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final BalanceSnapshotRepository balanceSnapshotRepository;
+    private final AccountEventProducer accountEventProducer;
+
+    public JournalAccountServiceImpl(AccountRepository accountRepository,
+                                     LedgerEntryRepository ledgerEntryRepository,
+                                     BalanceSnapshotRepository balanceSnapshotRepository,
+                                     AccountEventProducer accountEventProducer) {
+        this.accountRepository = accountRepository;
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.balanceSnapshotRepository = balanceSnapshotRepository;
+        this.accountEventProducer = accountEventProducer;
+    }
+
+    @Override
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public AccountDto deposit(Long id, BigDecimal amount) {
+        Account account = findForShareOrThrow(id);
+        post(CASH_ACCOUNT_ID, id, amount, "DEPOSIT");
+        BigDecimal balance = balanceOf(id);
+        accountEventProducer.publishBalanceChanged(id, account.getUserId(), balance, "DEPOSIT");
+        return withBalance(account, balance);
+    }
+
+    @Override
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public AccountDto withdraw(Long id, BigDecimal amount) {
+        Account account = findForUpdateOrThrow(id);
+        BigDecimal balance = balanceOf(id);
+        if (balance.compareTo(amount) < 0) {
+            throw new AccountException(ErrorCode.INSUFFICIENT_BALANCE,
+                    "Insufficient balance. Available: " + balance);
+        }
+        post(id, CASH_ACCOUNT_ID, amount, "WITHDRAWAL");
+        BigDecimal newBalance = balance.subtract(amount);
+        accountEventProducer.publishBalanceChanged(id, account.getUserId(), newBalance, "WITHDRAWAL");
+        return withBalance(account, newBalance);
+    }
+
+    @Override
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public void transfer(Long fromId, Long toId, BigDecimal amount) {
+        if (fromId.equals(toId)) {
+            throw new AccountException(ErrorCode.SELF_TRANSFER_NOT_ALLOWED,
+                    "Source and target accounts must be different.");
+        }
+        lockPair(fromId, toId);
+        BigDecimal balance = balanceOf(fromId);
+        if (balance.compareTo(amount) < 0) {
+            throw new AccountException(ErrorCode.INSUFFICIENT_BALANCE,
+                    "Insufficient balance for transfer.");
+        }
+        post(fromId, toId, amount, "TRANSFER");
+    }
+
+    @Override
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public void applyPayment(Long sourceId, Long targetId, BigDecimal amount) {
+        if (sourceId.equals(targetId)) {
+            throw new AccountException(ErrorCode.SELF_TRANSFER_NOT_ALLOWED,
+                    "Source and target accounts must be different.");
+        }
+        Map<Long, Account> locked = lockPair(sourceId, targetId);
+        BigDecimal sourceBalance = balanceOf(sourceId);
+        if (sourceBalance.compareTo(amount) < 0) {
+            throw new AccountException(ErrorCode.INSUFFICIENT_BALANCE,
+                    "Insufficient balance for payment.");
+        }
+        post(sourceId, targetId, amount, "PAYMENT");
+        accountEventProducer.publishBalanceChanged(sourceId, locked.get(sourceId).getUserId(),
+                sourceBalance.subtract(amount), "PAYMENT_SENT");
+        accountEventProducer.publishBalanceChanged(targetId, locked.get(targetId).getUserId(),
+                balanceOf(targetId), "PAYMENT_RECEIVED");
+    }
+
+    /**
+     * Applies a batch in one transaction. Every account in the batch is locked once, in id
+     * order: exclusively if it pays in the batch, shared if it only receives. Payments are
+     * then checked in request order against running balances, and all entries are inserted
+     * together at the end.
+     */
+    @Override
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public List<ApplyPaymentResult> applyPayments(List<ApplyPaymentRequest> requests) {
+        Set<Long> sources = new HashSet<>();
+        Map<Long, Boolean> exclusive = new TreeMap<>();
+        for (ApplyPaymentRequest r : requests) {
+            sources.add(r.getSourceId());
+        }
+        for (ApplyPaymentRequest r : requests) {
+            exclusive.put(r.getSourceId(), true);
+            exclusive.putIfAbsent(r.getTargetId(), sources.contains(r.getTargetId()));
+        }
+        Map<Long, Account> locked = new HashMap<>();
+        Map<Long, BigDecimal> running = new HashMap<>();
+        exclusive.forEach((id, forUpdate) -> {
+            (forUpdate ? accountRepository.findByIdForUpdate(id) : accountRepository.findByIdForShare(id))
+                    .ifPresent(account -> {
+                        locked.put(id, account);
+                        running.put(id, balanceOf(id));
+                    });
+        });
+
+        List<ApplyPaymentResult> results = new ArrayList<>(requests.size());
+        List<LedgerEntry> entries = new ArrayList<>();
+        for (ApplyPaymentRequest r : requests) {
+            Account from = locked.get(r.getSourceId());
+            Account to = locked.get(r.getTargetId());
+            if (from == null || to == null) {
+                Long missing = from == null ? r.getSourceId() : r.getTargetId();
+                results.add(ApplyPaymentResult.failure(r.getPaymentId(), ErrorCode.ACCOUNT_NOT_FOUND.name(),
+                        "Account with id " + missing + " was not found."));
+                continue;
+            }
+            if (from == to) {
+                results.add(ApplyPaymentResult.failure(r.getPaymentId(), ErrorCode.SELF_TRANSFER_NOT_ALLOWED.name(),
+                        "Source and target accounts must be different."));
+                continue;
+            }
+            BigDecimal fromBalance = running.get(from.getId());
+            if (fromBalance.compareTo(r.getAmount()) < 0) {
+                results.add(ApplyPaymentResult.failure(r.getPaymentId(), ErrorCode.INSUFFICIENT_BALANCE.name(),
+                        "Insufficient balance for payment."));
+                continue;
+            }
+            BigDecimal newFrom = fromBalance.subtract(r.getAmount());
+            BigDecimal newTo = running.get(to.getId()).add(r.getAmount());
+            running.put(from.getId(), newFrom);
+            running.put(to.getId(), newTo);
+            entries.addAll(pair(from.getId(), to.getId(), r.getAmount(), "PAYMENT"));
+            accountEventProducer.publishBalanceChanged(from.getId(), from.getUserId(), newFrom, "PAYMENT_SENT");
+            accountEventProducer.publishBalanceChanged(to.getId(), to.getUserId(), newTo, "PAYMENT_RECEIVED");
+            results.add(ApplyPaymentResult.success(r.getPaymentId()));
+        }
+
+        ledgerEntryRepository.saveAll(entries);
+        return results;
+    }
+
+    @Override
+    @Transactional
+    public void open(Account account) {
+        LocalDateTime openedAt = account.getCreatedAt() != null ? account.getCreatedAt() : LocalDateTime.now();
+        balanceSnapshotRepository.save(new BalanceSnapshot(account.getId(), 0L, account.getBalance(), openedAt));
+    }
+
+    @Override
+    public BigDecimal balanceOf(Long accountId) {
+        BalanceSnapshot snapshot = latestSnapshot(accountId);
+        return snapshot.getBalance().add(ledgerEntryRepository.sumAfter(accountId, snapshot.getLastEntryId()));
+    }
+
+    /**
+     * Runs both queries in one (repeatable-read) transaction so a snapshot taken in between
+     * cannot make the sums start from a different snapshot than the one returned.
+     */
+    @Override
+    @Transactional
+    public Map<Long, BigDecimal> balancesOf(Collection<Long> accountIds) {
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        if (accountIds.isEmpty()) {
+            return balances;
+        }
+        for (BalanceSnapshot snapshot : balanceSnapshotRepository.findLatestByAccountIdIn(accountIds)) {
+            balances.put(snapshot.getAccountId(), snapshot.getBalance());
+        }
+        for (Object[] row : ledgerEntryRepository.sumAfterLatestSnapshots(accountIds)) {
+            balances.merge((Long) row[0], (BigDecimal) row[1], BigDecimal::add);
+        }
+        for (Long id : accountIds) {
+            if (!balances.containsKey(id)) {
+                balances.put(id, balanceOf(id));
+            }
+        }
+        return balances;
+    }
+
+    @Override
+    public BigDecimal balanceAsOf(Long accountId, LocalDateTime asOf) {
+        BalanceSnapshot snapshot = balanceSnapshotRepository
+                .findFirstByAccountIdAndAsOfLessThanEqualOrderByAsOfDescLastEntryIdDesc(accountId, asOf)
+                .or(() -> balanceSnapshotRepository.findFirstByAccountIdOrderByLastEntryIdDesc(accountId).isPresent()
+                        ? Optional.empty()
+                        : accountRepository.findById(accountId).map(JournalAccountServiceImpl::baselineOf)
+                                .filter(baseline -> !baseline.getAsOf().isAfter(asOf)))
+                .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND,
+                        "Account with id " + accountId + " did not exist at " + asOf + "."));
+        return snapshot.getBalance().add(
+                ledgerEntryRepository.sumAfterUntil(accountId, snapshot.getLastEntryId(), asOf));
+    }
+
+    // --- helpers ---
+
+    /**
+     * Latest snapshot. An account that predates the journal and has not yet been given its
+     * baseline by {@code BalanceSnapshotJob} is read from an unsaved baseline: reads never write.
+     */
+    private BalanceSnapshot latestSnapshot(Long accountId) {
+        return balanceSnapshotRepository.findFirstByAccountIdOrderByLastEntryIdDesc(accountId)
+                .orElseGet(() -> baselineOf(accountRepository.findById(accountId)
+                        .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND,
+                                "Account with id " + accountId + " was not found."))));
+    }
+
+    /** The opening snapshot {@code insertMissingBaselines} creates for {@code account}. */
+    private static BalanceSnapshot baselineOf(Account account) {
+        return new BalanceSnapshot(account.getId(), 0L, account.getBalance(), account.getCreatedAt());
+    }
+
+    /** Locks the source exclusively and the target shared, in ascending id order. */
+    private Map<Long, Account> lockPair(Long sourceId, Long targetId) {
+        Map<Long, Account> locked = new HashMap<>();
+        if (sourceId < targetId) {
+            locked.put(sourceId, findForUpdateOrThrow(sourceId));
+            locked.put(targetId, findForShareOrThrow(targetId));
+        } else {
+            locked.put(targetId, findForShareOrThrow(targetId));
+            locked.put(sourceId, findForUpdateOrThrow(sourceId));
+        }
+        return locked;
+    }
+
+    private void post(Long debitAccountId, Long creditAccountId, BigDecimal amount, String entryType) {
+        ledgerEntryRepository.saveAll(pair(debitAccountId, creditAccountId, amount, entryType));
+    }
+
+    private static List<LedgerEntry> pair(Long debitAccountId, Long creditAccountId, BigDecimal amount, String entryType) {
+        String journalId = UUID.randomUUID().toString();
+        return List.of(
+                new LedgerEntry(journalId, debitAccountId, amount.negate(), entryType),
+                new LedgerEntry(journalId, creditAccountId, amount, entryType));
+    }
+
+    private static AccountDto withBalance(Account account, BigDecimal balance) {
+        AccountDto dto = AccountMapper.mapToAccountDto(account);
+        dto.setBalance(balance);
+        return dto;
+    }
+
+    private Account findForUpdateOrThrow(Long id) {
+        return accountRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND,
+                        "Account with id " + id + " was not found."));
+    }
+
+    private Account findForShareOrThrow(Long id) {
+        return accountRepository.findByIdForShare(id)
+                .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND,
+                        "Account with id " + id + " was not found."));
+    }
+}
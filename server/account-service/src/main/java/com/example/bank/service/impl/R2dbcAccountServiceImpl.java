@@ -0,0 +1,221 @@
+package com.example.bank.service.impl;
+
+import com.example.bank.dto.Account.AccountDto;
+import com.example.bank.entity.Account;
+import com.example.bank.entity.OutboxEvent;
+import com.example.bank.enums.AccountType;
+import com.example.bank.enums.ErrorCode;
+import com.example.bank.exception.AccountException;
+import com.example.bank.kafka.AccountEventProducer;
+import com.example.bank.kafka.OutboxLanes;
+import com.example.bank.kafka.OutboxSignal;
+import com.example.bank.mapper.AccountMapper;
+import com.example.bank.service.ReactiveAccountService;
+import io.r2dbc.spi.Row;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * R2DBC implementation of {@link ReactiveAccountService}.
+ *
+ * <h3>Why</h3>
+ * With JPA every request holds a Tomcat thread for as long as it waits on a MySQL row lock,
+ * so a contended account can exhaust the pool. Here a request waiting on a lock holds only
+ * a pooled connection ({@code account.r2dbc.pool.max-size}); the calling thread is released.
+ *
+ * <h3>Locking</h3>
+ * All rows an operation touches are locked by one {@code SELECT ... ORDER BY id FOR UPDATE},
+ * i.e. always in ascending id order, the same order {@code AccountServiceImpl.transfer}
+ * and {@code findAllByIdInForUpdate} use, so the two data paths can run side by side
+ * without deadlocking each other.
+ *
+ * <h3>Outbox</h3>
+ * Balance events are inserted into {@code outbox_events} inside the same R2DBC transaction,
+ * and the relay's lane is signalled once it has committed.
+ */
+@Service
+@ConditionalOnProperty(name = "account.data-access.mode", havingValue = "reactive")
+public class R2dbcAccountServiceImpl implements ReactiveAccountService {
+
+    private static final String LOCK_ACCOUNTS = """
+            SELECT id, account_holder_name, balance, account_type, user_id, created_at
+            FROM accounts WHERE id IN (:ids) ORDER BY id FOR UPDATE
+            """;
+    private static final String UPDATE_BALANCE = """
+            UPDATE accounts SET balance = :balance, version = version + 1, updated_at = :now
+            WHERE id = :id
+            """;
+    private static final String INSERT_OUTBOX = """
+            INSERT INTO outbox_events (topic, routing_key, lane, payload, payload_type, status, created_at)
+            VALUES (:topic, :routingKey, :lane, :payload, :payloadType, :status, :createdAt)
+            """;
+
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+    private final AccountEventProducer accountEventProducer;
+    private final OutboxSignal outboxSignal;
+    private final OutboxLanes outboxLanes;
+
+    public R2dbcAccountServiceImpl(DatabaseClient r2dbcDatabaseClient,
+                                   TransactionalOperator r2dbcTransactionalOperator,
+                                   AccountEventProducer accountEventProducer,
+                                   OutboxSignal outboxSignal,
+                                   OutboxLanes outboxLanes) {
+        this.databaseClient = r2dbcDatabaseClient;
+        this.transactionalOperator = r2dbcTransactionalOperator;
+        this.accountEventProducer = accountEventProducer;
+        this.outboxSignal = outboxSignal;
+        this.outboxLanes = outboxLanes;
+    }
+
+    @Override
+    public Mono<AccountDto> deposit(Long id, BigDecimal amount) {
+        return lockInOrder(List.of(id))
+                .flatMap(locked -> {
+                    Account account = locked.get(id);
+                    account.setBalance(account.getBalance().add(amount));
+                    return save(List.of(account), List.of(accountEventProducer.balanceChanged(
+                            account.getId(), account.getUserId(), account.getBalance(), "DEPOSIT")))
+                            .thenReturn(account);
+                })
+                .as(transactionalOperator::transactional)
+                .doOnNext(account -> signal(account.getId()))
+                .map(AccountMapper::mapToAccountDto);
+    }
+
+    @Override
+    public Mono<AccountDto> withdraw(Long id, BigDecimal amount) {
+        return lockInOrder(List.of(id))
+                .flatMap(locked -> {
+                    Account account = locked.get(id);
+                    if (account.getBalance().compareTo(amount) < 0) {
+                        return Mono.error(new AccountException(ErrorCode.INSUFFICIENT_BALANCE,
+                                "Insufficient balance. Available: " + account.getBalance()));
+                    }
+                    account.setBalance(account.getBalance().subtract(amount));
+                    return save(List.of(account), List.of(accountEventProducer.balanceChanged(
+                            account.getId(), account.getUserId(), account.getBalance(), "WITHDRAWAL")))
+                            .thenReturn(account);
+                })
+                .as(transactionalOperator::transactional)
+                .doOnNext(account -> signal(account.getId()))
+                .map(AccountMapper::mapToAccountDto);
+    }
+
+    @Override
+    public Mono<Void> transfer(Long fromId, Long toId, BigDecimal amount) {
+        if (fromId.equals(toId)) {
+            return Mono.error(new AccountException(ErrorCode.SELF_TRANSFER_NOT_ALLOWED,
+                    "Source and target accounts must be different."));
+        }
+        return lockInOrder(List.of(fromId, toId))
+                .flatMap(locked -> {
+                    Account from = locked.get(fromId);
+                    Account to = locked.get(toId);
+                    if (from.getBalance().compareTo(amount) < 0) {
+                        return Mono.error(new AccountException(ErrorCode.INSUFFICIENT_BALANCE,
+                                "Insufficient balance for transfer."));
+                    }
+                    from.setBalance(from.getBalance().subtract(amount));
+                    to.setBalance(to.getBalance().add(amount));
+                    return save(List.of(from, to), List.of());
+                })
+                .as(transactionalOperator::transactional);
+    }
+
+    @Override
+    public Mono<Void> applyPayment(Long sourceId, Long targetId, BigDecimal amount) {
+        if (sourceId.equals(targetId)) {
+            return Mono.error(new AccountException(ErrorCode.SELF_TRANSFER_NOT_ALLOWED,
+                    "Source and target accounts must be different."));
+        }
+        return lockInOrder(List.of(sourceId, targetId))
+                .flatMap(locked -> {
+                    Account from = locked.get(sourceId);
+                    Account to = locked.get(targetId);
+                    if (from.getBalance().compareTo(amount) < 0) {
+                        return Mono.error(new AccountException(ErrorCode.INSUFFICIENT_BALANCE,
+                                "Insufficient balance for payment."));
+                    }
+                    from.setBalance(from.getBalance().subtract(amount));
+                    to.setBalance(to.getBalance().add(amount));
+                    return save(List.of(from, to), List.of(
+                            accountEventProducer.balanceChanged(from.getId(), from.getUserId(),
+                                    from.getBalance(), "PAYMENT_SENT"),
+                            accountEventProducer.balanceChanged(to.getId(), to.getUserId(),
+                                    to.getBalance(), "PAYMENT_RECEIVED")));
+                })
+                .as(transactionalOperator::transactional)
+                .doOnSuccess(ignored -> {
+                    signal(sourceId);
+                    signal(targetId);
+                });
+    }
+
+    // --- helpers ---
+
+    /** Locks every account in {@code ids} in ascending id order; fails if any is missing. */
+    private Mono<Map<Long, Account>> lockInOrder(Collection<Long> ids) {
+        return databaseClient.sql(LOCK_ACCOUNTS)
+                .bind("ids", ids)
+                .map((row, metadata) -> toAccount(row))
+                .all()
+                .collectMap(Account::getId)
+                .flatMap(locked -> {
+                    for (Long id : new TreeSet<>(ids)) {
+                        if (!locked.containsKey(id)) {
+                            return Mono.error(new AccountException(ErrorCode.ACCOUNT_NOT_FOUND,
+                                    "Account with id " + id + " was not found."));
+                        }
+                    }
+                    return Mono.just(locked);
+                });
+    }
+
+    private Mono<Void> save(List<Account> accounts, List<OutboxEvent> events) {
+        LocalDateTime now = LocalDateTime.now();
+        return Flux.fromIterable(accounts)
+                .concatMap(account -> databaseClient.sql(UPDATE_BALANCE)
+                        .bind("balance", account.getBalance())
+                        .bind("now", now)
+                        .bind("id", account.getId())
+                        .fetch().rowsUpdated())
+                .thenMany(Flux.fromIterable(events)
+                        .concatMap(event -> databaseClient.sql(INSERT_OUTBOX)
+                                .bind("topic", event.getTopic())
+                                .bind("routingKey", event.getRoutingKey())
+                                .bind("lane", event.getLane())
+                                .bind("payload", event.getPayload())
+                                .bind("payloadType", event.getPayloadType())
+                                .bind("status", event.getStatus())
+                                .bind("createdAt", event.getCreatedAt())
+                                .fetch().rowsUpdated()))
+                .then();
+    }
+
+    private void signal(Long accountId) {
+        outboxSignal.signal(outboxLanes.laneOf(String.valueOf(accountId)));
+    }
+
+    private static Account toAccount(Row row) {
+        Account account = new Account();
+        account.setId(row.get("id", Long.class));
+        account.setAccountHolderName(row.get("account_holder_name", String.class));
+        account.setBalance(row.get("balance", BigDecimal.class));
+        account.setAccountType(AccountType.valueOf(row.get("account_type", String.class)));
+        account.setUserId(row.get("user_id", Long.class));
+        account.setCreatedAt(row.get("created_at", LocalDateTime.class));
+        return account;
+    }
+}
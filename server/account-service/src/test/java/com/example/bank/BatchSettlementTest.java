@@ -0,0 +1,166 @@
+package com.example.bank;
+
+import com.example.bank.dto.ApplyPaymentRequest;
+import com.example.bank.dto.ApplyPaymentResult;
+import com.example.bank.entity.Account;
+import com.example.bank.enums.AccountType;
+import com.example.bank.enums.ErrorCode;
+import com.example.bank.repository.AccountRepository;
+import com.example.bank.service.AccountService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration test for the bulk {@code applyPayments} path used by the batch settlement mode.
+ *
+ * <h3>What This Test Proves</h3>
+ * <ul>
+ *   <li>A batch is applied in request order against the running balance, and a payment
+ *       that would overdraw the source fails on its own without rolling back the others.</li>
+ *   <li>Two batches touching the same accounts in opposite directions, run concurrently,
+ *       neither deadlock nor lose money — all accounts are locked once, in id order.</li>
+ * </ul>
+ */
+@SpringBootTest(properties = {
+        "spring.cloud.compatibility-verifier.enabled=false",
+        "spring.kafka.bootstrap-servers=localhost:9999",
+        "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration",
+        "outbox.relay.enabled=false"
+})
+@Testcontainers
+class BatchSettlementTest {
+
+    @Container
+    static final MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0")
+            .withDatabaseName("bank_accounts")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void configure(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", mysql::getJdbcUrl);
+        registry.add("spring.datasource.username", mysql::getUsername);
+        registry.add("spring.datasource.password", mysql::getPassword);
+        registry.add("internal.service-secret", () -> "test-secret");
+        registry.add("user-service.url", () -> "http://localhost:9997");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+    }
+
+    @MockBean
+    com.example.bank.service.UserServiceClient userServiceClient;
+
+    @MockBean
+    com.example.bank.kafka.AccountEventProducer accountEventProducer;
+
+    @Autowired
+    AccountService accountService;
+
+    @Autowired
+    AccountRepository accountRepository;
+
+    private Long accountAId;
+    private Long accountBId;
+    private Long accountCId;
+
+    @BeforeEach
+    void setup() {
+        accountAId = newAccount("Alice", "300.00", 1L);
+        accountBId = newAccount("Bob", "100.00", 2L);
+        accountCId = newAccount("Carol", "0.00", 3L);
+    }
+
+    @AfterEach
+    void cleanup() {
+        accountRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Batch reports per-payment results and applies them in order")
+    void applyPayments_partialFailure() {
+        List<ApplyPaymentResult> results = accountService.applyPayments(List.of(
+                new ApplyPaymentRequest(accountAId, accountBId, new BigDecimal("200.00"), "p1"),
+                new ApplyPaymentRequest(accountAId, accountCId, new BigDecimal("200.00"), "p2"), // only 100 left
+                new ApplyPaymentRequest(accountBId, accountCId, new BigDecimal("250.00"), "p3"), // uses p1's credit
+                new ApplyPaymentRequest(accountAId, 999_999L, new BigDecimal("1.00"), "p4")
+        ));
+
+        assertThat(results).extracting(ApplyPaymentResult::getPaymentId).containsExactly("p1", "p2", "p3", "p4");
+        assertThat(results).extracting(ApplyPaymentResult::isSuccess).containsExactly(true, false, true, false);
+        assertThat(results.get(1).getErrorCode()).isEqualTo(ErrorCode.INSUFFICIENT_BALANCE.name());
+        assertThat(results.get(3).getErrorCode()).isEqualTo(ErrorCode.ACCOUNT_NOT_FOUND.name());
+
+        assertThat(balance(accountAId)).isEqualByComparingTo("100.00");
+        assertThat(balance(accountBId)).isEqualByComparingTo("50.00");
+        assertThat(balance(accountCId)).isEqualByComparingTo("250.00");
+    }
+
+    @Test
+    @DisplayName("Concurrent opposing batches do not deadlock and conserve money")
+    void concurrentOpposingBatches_conserveMoney() throws InterruptedException {
+        final int threadCount = 6;
+        CountDownLatch startGate = new CountDownLatch(1);
+        CountDownLatch endGate = new CountDownLatch(threadCount);
+        List<Throwable> errors = new ArrayList<>();
+        ExecutorService pool = Executors.newFixedThreadPool(threadCount);
+
+        for (int i = 0; i < threadCount; i++) {
+            final boolean forward = i % 2 == 0;
+            final int n = i;
+            pool.submit(() -> {
+                try {
+                    startGate.await();
+                    accountService.applyPayments(forward
+                            ? List.of(new ApplyPaymentRequest(accountAId, accountBId, BigDecimal.TEN, "f" + n),
+                                      new ApplyPaymentRequest(accountBId, accountCId, BigDecimal.ONE, "g" + n))
+                            : List.of(new ApplyPaymentRequest(accountCId, accountBId, BigDecimal.ZERO, "r" + n),
+                                      new ApplyPaymentRequest(accountBId, accountAId, BigDecimal.TEN, "s" + n)));
+                } catch (Throwable t) {
+                    synchronized (errors) { errors.add(t); }
+                } finally {
+                    endGate.countDown();
+                }
+            });
+        }
+
+        startGate.countDown();
+        endGate.await();
+        pool.shutdown();
+
+        assertThat(errors).as("No deadlocks or unexpected errors").isEmpty();
+        BigDecimal total = balance(accountAId).add(balance(accountBId)).add(balance(accountCId));
+        assertThat(total).isEqualByComparingTo("400.00");
+        assertThat(balance(accountCId)).isEqualByComparingTo("3.00");
+    }
+
+    private Long newAccount(String holder, String balance, Long userId) {
+        Account account = new Account();
+        account.setAccountHolderName(holder);
+        account.setBalance(new BigDecimal(balance));
+        account.setAccountType(AccountType.SAVINGS);
+        account.setUserId(userId);
+        return accountRepository.save(account).getId();
+    }
+
+    private BigDecimal balance(Long id) {
+        return accountRepository.findById(id).orElseThrow().getBalance();
+    }
+}
@@ -54,7 +54,8 @@ import static org.assertj.core.api.Assertions.assertThat;
 @SpringBootTest(properties = {
         "spring.cloud.compatibility-verifier.enabled=false",
         "spring.kafka.bootstrap-servers=localhost:9999",
-        "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration"
+        "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration",
+        "outbox.relay.enabled=false"
 })
 @Testcontainers
 class ConcurrentPaymentTest {
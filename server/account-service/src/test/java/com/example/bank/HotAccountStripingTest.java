@@ -0,0 +1,276 @@
+package com.example.bank;
+
+import com.example.bank.entity.Account;
+import com.example.bank.entity.AccountStripe;
+import com.example.bank.enums.AccountType;
+import com.example.bank.enums.ErrorCode;
+import com.example.bank.exception.AccountException;
+import com.example.bank.job.StripeRebalanceJob;
+import com.example.bank.repository.AccountRepository;
+import com.example.bank.repository.AccountStripeRepository;
+import com.example.bank.repository.OutboxEventRepository;
+import com.example.bank.service.AccountService;
+import com.example.bank.service.AccountStripes;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Hot-account striping ({@link AccountStripes}) on the default JPA data path.
+ *
+ * <h3>What This Test Proves</h3>
+ * <ul>
+ *   <li>Concurrent payments from many payers into one striped account conserve money;</li>
+ *   <li>A debit larger than the account row's balance walks the stripes;</li>
+ *   <li>The rebalance job sweeps stripes onto the row without changing the balance;</li>
+ *   <li>An account with money on its stripes cannot be deleted.</li>
+ * </ul>
+ * {@link #creditThroughput_scalesWithStripes()} is a benchmark, run with
+ * {@code -Dload.tests=true}.
+ */
+@SpringBootTest(properties = {
+        "spring.cloud.compatibility-verifier.enabled=false",
+        "spring.kafka.bootstrap-servers=localhost:9999",
+        "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration",
+        "outbox.relay.enabled=false",
+        // the test drives the rebalance job itself
+        "account.hot-accounts.rebalance.interval-ms=3600000",
+        "spring.datasource.hikari.maximum-pool-size=40"
+})
+@Testcontainers
+class HotAccountStripingTest {
+
+    @Container
+    static final MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0")
+            .withDatabaseName("bank_accounts")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void configure(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", mysql::getJdbcUrl);
+        registry.add("spring.datasource.username", mysql::getUsername);
+        registry.add("spring.datasource.password", mysql::getPassword);
+        registry.add("internal.service-secret", () -> "test-secret");
+        registry.add("user-service.url", () -> "http://localhost:9997");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+    }
+
+    @MockBean
+    com.example.bank.service.UserServiceClient userServiceClient;
+
+    @Autowired
+    AccountService accountService;
+
+    @Autowired
+    AccountStripes accountStripes;
+
+    @Autowired
+    StripeRebalanceJob stripeRebalanceJob;
+
+    @Autowired
+    AccountRepository accountRepository;
+
+    @Autowired
+    AccountStripeRepository accountStripeRepository;
+
+    @Autowired
+    OutboxEventRepository outboxEventRepository;
+
+    @AfterEach
+    void cleanup() {
+        outboxEventRepository.deleteAll();
+        accountStripeRepository.deleteAll();
+        accountRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("20 payers × 50 concurrent $1 payments into an 8-stripe account: money is conserved")
+    void concurrentPaymentsIntoStripedAccount_conservesMoney() throws InterruptedException {
+        final int payers = 20;
+        final int paymentsEach = 50;
+        Long merchantId = save("Merchant", BigDecimal.ZERO, 99L);
+        accountStripes.restripe(merchantId, 8);
+        List<Long> payerIds = new ArrayList<>();
+        for (int i = 0; i < payers; i++) {
+            payerIds.add(save("Payer " + i, new BigDecimal("100.00"), (long) i));
+        }
+
+        List<Runnable> tasks = new ArrayList<>();
+        for (Long payerId : payerIds) {
+            for (int i = 0; i < paymentsEach; i++) {
+                tasks.add(() -> accountService.applyPayment(payerId, merchantId, new BigDecimal("1.00")));
+            }
+        }
+        List<Throwable> errors = runConcurrently(tasks, 20);
+
+        assertThat(errors).as("No exceptions should occur during concurrent payments").isEmpty();
+        assertThat(accountService.getAccountById(merchantId).getBalance())
+                .isEqualByComparingTo(BigDecimal.valueOf((long) payers * paymentsEach));
+        assertThat(accountRepository.findById(merchantId).orElseThrow().getBalance())
+                .as("Credits land on the stripes, not the account row")
+                .isEqualByComparingTo(BigDecimal.ZERO);
+        for (Long payerId : payerIds) {
+            assertThat(accountService.getAccountById(payerId).getBalance())
+                    .isEqualByComparingTo(BigDecimal.valueOf(100 - paymentsEach));
+        }
+    }
+
+    @Test
+    @DisplayName("A withdrawal larger than the account row's balance walks the stripes")
+    void withdrawal_walksStripes() {
+        Long merchantId = save("Merchant", new BigDecimal("10.00"), 99L);
+        Long payerId = save("Payer", new BigDecimal("100.00"), 1L);
+        accountStripes.restripe(merchantId, 4);
+        for (int i = 0; i < 10; i++) {
+            accountService.applyPayment(payerId, merchantId, new BigDecimal("9.00"));
+        }
+
+        assertThat(accountService.withdraw(merchantId, new BigDecimal("80.00")).getBalance())
+                .isEqualByComparingTo("20.00");
+        assertThat(accountService.getAccountById(merchantId).getBalance()).isEqualByComparingTo("20.00");
+        assertThat(accountStripeRepository.findAll())
+                .hasSize(4)
+                .allSatisfy(stripe -> assertThat(stripe.getBalance()).isEqualByComparingTo(BigDecimal.ZERO));
+
+        assertThatThrownBy(() -> accountService.withdraw(merchantId, new BigDecimal("20.01")))
+                .isInstanceOf(AccountException.class)
+                .extracting(e -> ((AccountException) e).getErrorCode())
+                .isEqualTo(ErrorCode.INSUFFICIENT_BALANCE);
+    }
+
+    @Test
+    @DisplayName("The rebalance job sweeps stripes onto the account row; restriping keeps the balance")
+    void rebalance_sweepsStripes() {
+        Long merchantId = save("Merchant", BigDecimal.ZERO, 99L);
+        accountStripes.restripe(merchantId, 4);
+        for (int i = 0; i < 8; i++) {
+            accountService.deposit(merchantId, new BigDecimal("5.00"));
+        }
+        assertThat(stripeBalanceSum()).isEqualByComparingTo("40.00");
+
+        stripeRebalanceJob.rebalance();
+
+        assertThat(stripeBalanceSum()).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(accountRepository.findById(merchantId).orElseThrow().getBalance()).isEqualByComparingTo("40.00");
+        assertThat(accountService.getAccountById(merchantId).getBalance()).isEqualByComparingTo("40.00");
+
+        accountService.deposit(merchantId, new BigDecimal("2.00"));
+        accountStripes.restripe(merchantId, 0);
+        assertThat(accountStripeRepository.count()).isZero();
+        assertThat(accountService.getAccountById(merchantId).getBalance()).isEqualByComparingTo("42.00");
+    }
+
+    @Test
+    @DisplayName("An account with money on its stripes cannot be deleted")
+    void delete_countsStripeBalance() {
+        Long merchantId = save("Merchant", BigDecimal.ZERO, 99L);
+        accountStripes.restripe(merchantId, 2);
+        accountService.deposit(merchantId, new BigDecimal("1.00"));
+
+        assertThatThrownBy(() -> accountService.deleteAccount(merchantId))
+                .isInstanceOf(AccountException.class)
+                .extracting(e -> ((AccountException) e).getErrorCode())
+                .isEqualTo(ErrorCode.ACCOUNT_HAS_BALANCE);
+
+        accountService.withdraw(merchantId, new BigDecimal("1.00"));
+        accountService.deleteAccount(merchantId);
+        assertThat(accountRepository.existsById(merchantId)).isFalse();
+        assertThat(accountStripeRepository.count()).isZero();
+    }
+
+    /**
+     * Credit throughput into one account for K = 0 (row lock), 1, 4 and 16 stripes. With
+     * K = 0 every credit queues on the account row; with K stripes up to K commit at once.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "load.tests", matches = "true")
+    @DisplayName("Benchmark: credit throughput into one account scales with the stripe count")
+    void creditThroughput_scalesWithStripes() throws InterruptedException {
+        final int credits = 4000;
+        final int threads = 32;
+        double unstriped = 0;
+        double widest = 0;
+        for (int stripes : new int[]{0, 1, 4, 16}) {
+            Long merchantId = save("Merchant " + stripes, BigDecimal.ZERO, 99L);
+            accountStripes.restripe(merchantId, stripes);
+            List<Runnable> tasks = new ArrayList<>();
+            for (int i = 0; i < credits; i++) {
+                tasks.add(() -> accountService.deposit(merchantId, BigDecimal.ONE));
+            }
+            long start = System.nanoTime();
+            List<Throwable> errors = runConcurrently(tasks, threads);
+            double perSecond = credits / ((System.nanoTime() - start) / 1e9);
+            System.out.printf("stripes=%-3d credits/s=%.0f%n", stripes, perSecond);
+
+            assertThat(errors).isEmpty();
+            assertThat(accountService.getAccountById(merchantId).getBalance())
+                    .isEqualByComparingTo(BigDecimal.valueOf(credits));
+            if (stripes == 0) {
+                unstriped = perSecond;
+            }
+            widest = perSecond;
+        }
+        assertThat(widest).as("16 stripes should out-credit a single locked row").isGreaterThan(unstriped);
+    }
+
+    // --- helpers ---
+
+    private Long save(String holder, BigDecimal balance, Long userId) {
+        Account account = new Account();
+        account.setAccountHolderName(holder);
+        account.setBalance(balance);
+        account.setAccountType(AccountType.SAVINGS);
+        account.setUserId(userId);
+        return accountRepository.save(account).getId();
+    }
+
+    private BigDecimal stripeBalanceSum() {
+        return accountStripeRepository.findAll().stream()
+                .map(AccountStripe::getBalance)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    /** Runs the tasks on a pool of {@code threads}, released together, and returns what they threw. */
+    private static List<Throwable> runConcurrently(List<Runnable> tasks, int threads) throws InterruptedException {
+        CountDownLatch startGate = new CountDownLatch(1);
+        CountDownLatch endGate = new CountDownLatch(tasks.size());
+        List<Throwable> errors = new ArrayList<>();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (Runnable task : tasks) {
+            pool.submit(() -> {
+                try {
+                    startGate.await();
+                    task.run();
+                } catch (Throwable t) {
+                    synchronized (errors) { errors.add(t); }
+                } finally {
+                    endGate.countDown();
+                }
+            });
+        }
+        startGate.countDown();
+        endGate.await();
+        pool.shutdown();
+        return errors;
+    }
+}
@@ -0,0 +1,322 @@
+package com.example.bank;
+
+import com.example.bank.entity.Account;
+import com.example.bank.entity.LedgerEntry;
+import com.example.bank.enums.AccountType;
+import com.example.bank.enums.ErrorCode;
+import com.example.bank.exception.AccountException;
+import com.example.bank.job.BalanceSnapshotJob;
+import com.example.bank.repository.AccountRepository;
+import com.example.bank.repository.BalanceSnapshotRepository;
+import com.example.bank.repository.LedgerEntryRepository;
+import com.example.bank.repository.OutboxEventRepository;
+import com.example.bank.service.AccountService;
+import com.example.bank.service.JournalAccountService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The {@link ConcurrentPaymentTest} scenario on the double-entry journal
+ * ({@code account.data-access.mode=journal}).
+ *
+ * <h3>What This Test Proves</h3>
+ * <ul>
+ *   <li>Concurrent payments into one account (shared locks) and out of another (exclusive
+ *       locks) conserve money exactly;</li>
+ *   <li>Overdrafts are rejected exactly when the derived balance runs out;</li>
+ *   <li>Every journal posting is a pair of entries summing to zero;</li>
+ *   <li>{@code asOf} reads return the balance at that time, before and after a snapshot;</li>
+ *   <li>The snapshot job folds entries without changing any balance and refreshes
+ *       {@code accounts.balance}.</li>
+ *   <li>An account that predates the journal is read from {@code accounts.balance} until it
+ *       gets its baseline, and reading it writes nothing.</li>
+ * </ul>
+ */
+@SpringBootTest(properties = {
+        "spring.cloud.compatibility-verifier.enabled=false",
+        "spring.kafka.bootstrap-servers=localhost:9999",
+        "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration",
+        "outbox.relay.enabled=false",
+        "account.data-access.mode=journal",
+        // the test drives the snapshot job itself
+        "account.journal.snapshot.interval-ms=3600000",
+        "account.journal.snapshot.lag=PT0S"
+})
+@Testcontainers
+class JournalConcurrentPaymentTest {
+
+    @Container
+    static final MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0")
+            .withDatabaseName("bank_accounts")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void configure(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", mysql::getJdbcUrl);
+        registry.add("spring.datasource.username", mysql::getUsername);
+        registry.add("spring.datasource.password", mysql::getPassword);
+        registry.add("internal.service-secret", () -> "test-secret");
+        registry.add("user-service.url", () -> "http://localhost:9997");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+    }
+
+    @MockBean
+    com.example.bank.service.UserServiceClient userServiceClient;
+
+    @Autowired
+    JournalAccountService journalAccountService;
+
+    @Autowired
+    AccountService accountService;
+
+    @Autowired
+    BalanceSnapshotJob balanceSnapshotJob;
+
+    @Autowired
+    AccountRepository accountRepository;
+
+    @Autowired
+    LedgerEntryRepository ledgerEntryRepository;
+
+    @Autowired
+    BalanceSnapshotRepository balanceSnapshotRepository;
+
+    @Autowired
+    OutboxEventRepository outboxEventRepository;
+
+    private Long accountAId;
+    private Long accountBId;
+    private Long accountCId;
+
+    private static final BigDecimal INITIAL_BALANCE_A = new BigDecimal("1000.00");
+    private static final BigDecimal INITIAL_BALANCE_B = new BigDecimal("500.00");
+
+    @BeforeEach
+    void setup() {
+        accountAId = save("Alice", INITIAL_BALANCE_A, 1L);
+        accountBId = save("Bob", INITIAL_BALANCE_B, 2L);
+        accountCId = save("Carol", BigDecimal.ZERO, 3L);
+    }
+
+    @AfterEach
+    void cleanup() {
+        outboxEventRepository.deleteAll();
+        ledgerEntryRepository.deleteAll();
+        balanceSnapshotRepository.deleteAll();
+        accountRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Concurrent payments into and out of shared accounts: derived balances are exactly correct")
+    void concurrentPayments_conservesMoney() throws InterruptedException {
+        final int paymentsEach = 100;
+        final int deposits = 50;
+        final BigDecimal one = new BigDecimal("1.00");
+
+        List<Throwable> errors = runConcurrently(List.of(
+                repeat(paymentsEach, () -> journalAccountService.applyPayment(accountAId, accountCId, one)),
+                repeat(paymentsEach, () -> journalAccountService.applyPayment(accountBId, accountCId, one)),
+                repeat(deposits, () -> journalAccountService.deposit(accountCId, one))));
+
+        assertThat(errors).as("No exceptions should occur during concurrent payments").isEmpty();
+
+        BigDecimal finalA = journalAccountService.balanceOf(accountAId);
+        BigDecimal finalB = journalAccountService.balanceOf(accountBId);
+        BigDecimal finalC = journalAccountService.balanceOf(accountCId);
+        assertThat(finalA).isEqualByComparingTo(INITIAL_BALANCE_A.subtract(BigDecimal.valueOf(paymentsEach)));
+        assertThat(finalB).isEqualByComparingTo(INITIAL_BALANCE_B.subtract(BigDecimal.valueOf(paymentsEach)));
+        assertThat(finalC).isEqualByComparingTo(BigDecimal.valueOf(2L * paymentsEach + deposits));
+        assertThat(finalA.add(finalB).add(finalC))
+                .as("Total money in the system must be conserved, apart from the deposits")
+                .isEqualByComparingTo(INITIAL_BALANCE_A.add(INITIAL_BALANCE_B).add(BigDecimal.valueOf(deposits)));
+
+        assertPostingsBalance();
+        assertThat(journalAccountService.balancesOf(List.of(accountAId, accountBId, accountCId)))
+                .containsOnlyKeys(accountAId, accountBId, accountCId)
+                .allSatisfy((id, balance) -> assertThat(balance)
+                        .isEqualByComparingTo(journalAccountService.balanceOf(id)));
+    }
+
+    @Test
+    @DisplayName("1200 concurrent $1 payments from a $1000 account: exactly 1000 succeed")
+    void concurrentOverdraft_rejectsExactlyTheExcess() throws InterruptedException {
+        final int paymentCount = 1200;
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        List<Throwable> errors = runConcurrently(List.of(repeat(paymentCount, () -> {
+            Long target = next.getAndIncrement() % 2 == 0 ? accountBId : accountCId;
+            try {
+                journalAccountService.applyPayment(accountAId, target, new BigDecimal("1.00"));
+            } catch (AccountException e) {
+                assertThat(e.getErrorCode()).isEqualTo(ErrorCode.INSUFFICIENT_BALANCE);
+                rejected.incrementAndGet();
+            }
+        })));
+
+        assertThat(errors).isEmpty();
+        assertThat(rejected.get()).isEqualTo(paymentCount - 1000);
+        assertThat(journalAccountService.balanceOf(accountAId)).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(journalAccountService.balanceOf(accountBId).add(journalAccountService.balanceOf(accountCId)))
+                .isEqualByComparingTo(INITIAL_BALANCE_B.add(INITIAL_BALANCE_A));
+        assertPostingsBalance();
+    }
+
+    @Test
+    @DisplayName("asOf reads return the earlier balance, before and after a snapshot")
+    void asOf_returnsBalanceAtThatTime() throws InterruptedException {
+        journalAccountService.deposit(accountAId, new BigDecimal("100.00"));
+        Thread.sleep(20);
+        LocalDateTime between = LocalDateTime.now();
+        Thread.sleep(20);
+        journalAccountService.applyPayment(accountAId, accountBId, new BigDecimal("300.00"));
+
+        assertThat(accountService.getAccountById(accountAId, between).getBalance())
+                .isEqualByComparingTo("1100.00");
+        assertThat(accountService.getAccountById(accountAId).getBalance())
+                .isEqualByComparingTo("800.00");
+
+        Thread.sleep(20);
+        balanceSnapshotJob.snapshot();
+
+        assertThat(accountService.getAccountById(accountAId, between).getBalance())
+                .isEqualByComparingTo("1100.00");
+        assertThat(accountService.getAccountById(accountAId, LocalDateTime.now()).getBalance())
+                .isEqualByComparingTo("800.00");
+    }
+
+    @Test
+    @DisplayName("The snapshot job folds entries without changing balances and refreshes accounts.balance")
+    void snapshot_foldsEntries() throws InterruptedException {
+        for (int i = 0; i < 10; i++) {
+            journalAccountService.applyPayment(accountAId, accountCId, new BigDecimal("10.00"));
+        }
+        journalAccountService.withdraw(accountBId, new BigDecimal("50.00"));
+        Thread.sleep(20);
+
+        balanceSnapshotJob.snapshot();
+
+        Long lastEntryId = ledgerEntryRepository.findMaxIdCreatedBefore(LocalDateTime.now());
+        assertThat(balanceSnapshotRepository.findFirstByAccountIdOrderByLastEntryIdDesc(accountCId).orElseThrow()
+                .getLastEntryId()).isEqualTo(lastEntryId);
+        assertThat(journalAccountService.balanceOf(accountAId)).isEqualByComparingTo("900.00");
+        assertThat(journalAccountService.balanceOf(accountBId)).isEqualByComparingTo("450.00");
+        assertThat(journalAccountService.balanceOf(accountCId)).isEqualByComparingTo("100.00");
+        assertThat(accountRepository.findById(accountAId).orElseThrow().getBalance()).isEqualByComparingTo("900.00");
+        assertThat(accountRepository.findById(accountBId).orElseThrow().getBalance()).isEqualByComparingTo("450.00");
+        assertThat(accountRepository.findById(accountCId).orElseThrow().getBalance()).isEqualByComparingTo("100.00");
+
+        // postings after the snapshot are added on top of it
+        journalAccountService.applyPayment(accountCId, accountAId, new BigDecimal("25.00"));
+        assertThat(journalAccountService.balanceOf(accountAId)).isEqualByComparingTo("925.00");
+        assertThat(journalAccountService.balanceOf(accountCId)).isEqualByComparingTo("75.00");
+    }
+
+    @Test
+    @DisplayName("An account without a baseline is read from accounts.balance, and reads write nothing")
+    void accountWithoutBaseline_isReadWithoutWriting() throws InterruptedException {
+        Account legacy = new Account();
+        legacy.setAccountHolderName("Dave");
+        legacy.setBalance(new BigDecimal("200.00"));
+        legacy.setAccountType(AccountType.SAVINGS);
+        legacy.setUserId(4L);
+        Long legacyId = accountRepository.save(legacy).getId();
+        Thread.sleep(20);
+        LocalDateTime beforePayment = LocalDateTime.now();
+        journalAccountService.applyPayment(accountAId, legacyId, new BigDecimal("50.00"));
+
+        assertThat(journalAccountService.balanceOf(legacyId)).isEqualByComparingTo("250.00");
+        assertThat(journalAccountService.balancesOf(List.of(legacyId)).get(legacyId)).isEqualByComparingTo("250.00");
+        assertThat(accountService.getAccountById(legacyId, beforePayment).getBalance())
+                .isEqualByComparingTo("200.00");
+        assertThat(balanceSnapshotRepository.findFirstByAccountIdOrderByLastEntryIdDesc(legacyId)).isEmpty();
+
+        balanceSnapshotJob.insertBaselines();
+
+        assertThat(balanceSnapshotRepository.findFirstByAccountIdOrderByLastEntryIdDesc(legacyId)).isPresent();
+        assertThat(journalAccountService.balanceOf(legacyId)).isEqualByComparingTo("250.00");
+        assertThat(accountService.getAccountById(legacyId, beforePayment).getBalance())
+                .isEqualByComparingTo("200.00");
+    }
+
+    // --- helpers ---
+
+    private Long save(String holder, BigDecimal balance, Long userId) {
+        Account account = new Account();
+        account.setAccountHolderName(holder);
+        account.setBalance(balance);
+        account.setAccountType(AccountType.SAVINGS);
+        account.setUserId(userId);
+        Account saved = accountRepository.save(account);
+        journalAccountService.open(saved);
+        return saved.getId();
+    }
+
+    /** Every journal id has exactly two entries, and they cancel out. */
+    private void assertPostingsBalance() {
+        Map<String, List<LedgerEntry>> postings = ledgerEntryRepository.findAll().stream()
+                .collect(Collectors.groupingBy(LedgerEntry::getJournalId));
+        assertThat(postings).isNotEmpty();
+        assertThat(postings.values()).allSatisfy(entries -> {
+            assertThat(entries).hasSize(2);
+            assertThat(entries.get(0).getAmount().add(entries.get(1).getAmount())).isEqualByComparingTo(BigDecimal.ZERO);
+        });
+    }
+
+    private static List<Runnable> repeat(int times, Runnable task) {
+        List<Runnable> tasks = new ArrayList<>(times);
+        for (int i = 0; i < times; i++) {
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    /** Runs every task on its own pooled thread, released together, and returns what they threw. */
+    private static List<Throwable> runConcurrently(List<List<Runnable>> groups) throws InterruptedException {
+        List<Runnable> tasks = groups.stream().flatMap(List::stream).toList();
+        CountDownLatch startGate = new CountDownLatch(1);
+        CountDownLatch endGate = new CountDownLatch(tasks.size());
+        List<Throwable> errors = new ArrayList<>();
+        ExecutorService pool = Executors.newFixedThreadPool(20);
+        for (Runnable task : tasks) {
+            pool.submit(() -> {
+                try {
+                    startGate.await();
+                    task.run();
+                } catch (Throwable t) {
+                    synchronized (errors) { errors.add(t); }
+                } finally {
+                    endGate.countDown();
+                }
+            });
+        }
+        startGate.countDown();
+        endGate.await();
+        pool.shutdown();
+        return errors;
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.bank;
+
+import com.example.bank.entity.Account;
+import com.example.bank.enums.AccountType;
+import com.example.bank.enums.ErrorCode;
+import com.example.bank.exception.AccountException;
+import com.example.bank.ledger.LedgerEngine;
+import com.example.bank.repository.AccountRepository;
+import com.example.bank.repository.OutboxEventRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The {@link ConcurrentPaymentTest} scenario on the in-memory ledger
+ * ({@code account.data-access.mode=ledger}).
+ *
+ * <h3>What This Test Proves</h3>
+ * With two shards, A and C (ids of equal parity) share a shard and B is on the other, so
+ * payments A→C take the single-shard path and A→B the cross-shard DEBIT/CREDIT path.
+ * Once every command has been acknowledged and projected:
+ * <ul>
+ *   <li>MySQL balances are exactly right and total money is conserved;</li>
+ *   <li>Overdrafts are rejected exactly when the in-memory balance runs out;</li>
+ *   <li>Every balance change produced its outbox event;</li>
+ *   <li>The engine restarts from its write-ahead log and keeps going.</li>
+ * </ul>
+ */
+@SpringBootTest(properties = {
+        "spring.cloud.compatibility-verifier.enabled=false",
+        "spring.kafka.bootstrap-servers=localhost:9999",
+        "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration",
+        "outbox.relay.enabled=false",
+        "account.data-access.mode=ledger",
+        "account.ledger.shards=2",
+        "account.ledger.wal.segment-size=1MB"
+})
+@Testcontainers
+class LedgerConcurrentPaymentTest {
+
+    @Container
+    static final MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0")
+            .withDatabaseName("bank_accounts")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void configure(DynamicPropertyRegistry registry) throws IOException {
+        registry.add("spring.datasource.url", mysql::getJdbcUrl);
+        registry.add("spring.datasource.username", mysql::getUsername);
+        registry.add("spring.datasource.password", mysql::getPassword);
+        registry.add("internal.service-secret", () -> "test-secret");
+        registry.add("user-service.url", () -> "http://localhost:9997");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+        String walDirectory = Files.createTempDirectory("ledger-wal").toString();
+        registry.add("account.ledger.wal.directory", () -> walDirectory);
+    }
+
+    @MockBean
+    com.example.bank.service.UserServiceClient userServiceClient;
+
+    @Autowired
+    LedgerEngine ledgerEngine;
+
+    @Autowired
+    AccountRepository accountRepository;
+
+    @Autowired
+    OutboxEventRepository outboxEventRepository;
+
+    private Long accountAId;
+    private Long accountBId;
+    private Long accountCId;
+
+    private static final BigDecimal INITIAL_BALANCE_A = new BigDecimal("1000.00");
+    private static final BigDecimal INITIAL_BALANCE_B = new BigDecimal("500.00");
+
+    @BeforeEach
+    void setup() {
+        accountAId = save("Alice", INITIAL_BALANCE_A, 1L);
+        accountBId = save("Bob", INITIAL_BALANCE_B, 2L);
+        accountCId = save("Carol", BigDecimal.ZERO, 3L);
+    }
+
+    @AfterEach
+    void cleanup() {
+        outboxEventRepository.deleteAll();
+        accountRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Concurrent single- and cross-shard payments and deposits: MySQL converges to exact balances")
+    void concurrentPayments_conservesMoney() {
+        final int paymentsEach = 300;
+        final int deposits = 100;
+        final BigDecimal one = new BigDecimal("1.00");
+
+        List<CompletableFuture<?>> futures = new ArrayList<>();
+        for (int i = 0; i < paymentsEach; i++) {
+            futures.add(ledgerEngine.applyPayment(accountAId, accountBId, one));
+            futures.add(ledgerEngine.applyPayment(accountAId, accountCId, one));
+        }
+        for (int i = 0; i < deposits; i++) {
+            futures.add(ledgerEngine.deposit(accountBId, one));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).orTimeout(1, TimeUnit.MINUTES).join();
+
+        // PAYMENT_SENT + PAYMENT_RECEIVED per payment, DEPOSIT per deposit
+        awaitOutboxEvents(2L * 2 * paymentsEach + deposits);
+
+        BigDecimal finalA = balanceOf(accountAId);
+        BigDecimal finalB = balanceOf(accountBId);
+        BigDecimal finalC = balanceOf(accountCId);
+        assertThat(finalA).isEqualByComparingTo(INITIAL_BALANCE_A.subtract(BigDecimal.valueOf(2L * paymentsEach)));
+        assertThat(finalB).isEqualByComparingTo(INITIAL_BALANCE_B.add(BigDecimal.valueOf(paymentsEach + deposits)));
+        assertThat(finalC).isEqualByComparingTo(BigDecimal.valueOf(paymentsEach));
+        assertThat(finalA.add(finalB).add(finalC))
+                .as("Total money in the system must be conserved, apart from the deposits")
+                .isEqualByComparingTo(INITIAL_BALANCE_A.add(INITIAL_BALANCE_B).add(BigDecimal.valueOf(deposits)));
+    }
+
+    @Test
+    @DisplayName("1200 concurrent $1 payments from a $1000 account: exactly 1000 succeed")
+    void concurrentOverdraft_rejectsExactlyTheExcess() {
+        final int paymentCount = 1200;
+        AtomicInteger rejected = new AtomicInteger();
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < paymentCount; i++) {
+            Long target = i % 2 == 0 ? accountBId : accountCId;
+            futures.add(ledgerEngine.applyPayment(accountAId, target, new BigDecimal("1.00"))
+                    .exceptionally(ex -> {
+                        Throwable cause = ex instanceof CompletionException ? ex.getCause() : ex;
+                        assertThat(cause).isInstanceOf(AccountException.class);
+                        assertThat(((AccountException) cause).getErrorCode()).isEqualTo(ErrorCode.INSUFFICIENT_BALANCE);
+                        rejected.incrementAndGet();
+                        return null;
+                    }));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).orTimeout(1, TimeUnit.MINUTES).join();
+
+        assertThat(rejected.get()).isEqualTo(paymentCount - 1000);
+        awaitOutboxEvents(2L * 1000);
+        assertThat(balanceOf(accountAId)).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(balanceOf(accountBId).add(balanceOf(accountCId)))
+                .isEqualByComparingTo(INITIAL_BALANCE_B.add(INITIAL_BALANCE_A));
+    }
+
+    @Test
+    @DisplayName("Engine restart recovers from its WAL and keeps applying payments")
+    void restart_recoversAndContinues() {
+        final BigDecimal ten = new BigDecimal("10.00");
+        ledgerEngine.applyPayment(accountAId, accountBId, ten).join();
+        ledgerEngine.applyPayment(accountAId, accountCId, ten).join();
+
+        ledgerEngine.stop();
+        ledgerEngine.start();
+
+        ledgerEngine.applyPayment(accountBId, accountCId, ten).join();
+        awaitOutboxEvents(2L * 3);
+
+        assertThat(balanceOf(accountAId)).isEqualByComparingTo(INITIAL_BALANCE_A.subtract(new BigDecimal("20.00")));
+        assertThat(balanceOf(accountBId)).isEqualByComparingTo(INITIAL_BALANCE_B);
+        assertThat(balanceOf(accountCId)).isEqualByComparingTo(new BigDecimal("20.00"));
+    }
+
+    // --- helpers ---
+
+    private Long save(String holder, BigDecimal balance, Long userId) {
+        Account account = new Account();
+        account.setAccountHolderName(holder);
+        account.setBalance(balance);
+        account.setAccountType(AccountType.SAVINGS);
+        account.setUserId(userId);
+        return accountRepository.save(account).getId();
+    }
+
+    private BigDecimal balanceOf(Long id) {
+        return accountRepository.findById(id).orElseThrow().getBalance();
+    }
+
+    /** Projection is asynchronous; its outbox rows are written with the balances. */
+    private void awaitOutboxEvents(long expected) {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (outboxEventRepository.count() < expected && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        assertThat(outboxEventRepository.count()).isEqualTo(expected);
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.bank;
+
+import com.example.bank.entity.Account;
+import com.example.bank.enums.AccountType;
+import com.example.bank.enums.ErrorCode;
+import com.example.bank.exception.AccountException;
+import com.example.bank.repository.AccountRepository;
+import com.example.bank.repository.OutboxEventRepository;
+import com.example.bank.service.ReactiveAccountService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The {@link ConcurrentPaymentTest} scenario on the R2DBC data path
+ * ({@code account.data-access.mode=reactive}), at a concurrency the JPA path could only
+ * reach with one Tomcat thread per in-flight payment.
+ *
+ * <h3>What This Test Proves</h3>
+ * 500 payments A→B are all subscribed at once from a single test thread. Every one waits
+ * on the same two row locks without holding a thread, and after they complete:
+ * <ul>
+ *   <li>Both balances are exactly right and total money is conserved;</li>
+ *   <li>Each payment wrote its two outbox events in the same transaction.</li>
+ * </ul>
+ * A payment from an account to itself is rejected, as on the other data paths, without
+ * touching the balance or the outbox.
+ */
+@SpringBootTest(properties = {
+        "spring.cloud.compatibility-verifier.enabled=false",
+        "spring.kafka.bootstrap-servers=localhost:9999",
+        "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration",
+        "outbox.relay.enabled=false",
+        "account.data-access.mode=reactive",
+        "account.r2dbc.pool.max-size=20",
+        "account.r2dbc.pool.max-acquire-time=PT60S"
+})
+@Testcontainers
+class ReactiveConcurrentPaymentTest {
+
+    @Container
+    static final MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0")
+            .withDatabaseName("bank_accounts")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void configure(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", mysql::getJdbcUrl);
+        registry.add("spring.datasource.username", mysql::getUsername);
+        registry.add("spring.datasource.password", mysql::getPassword);
+        registry.add("account.r2dbc.url", () -> "r2dbc:mysql://" + mysql.getHost() + ":"
+                + mysql.getMappedPort(MySQLContainer.MYSQL_PORT) + "/bank_accounts");
+        registry.add("internal.service-secret", () -> "test-secret");
+        registry.add("user-service.url", () -> "http://localhost:9997");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+    }
+
+    @MockBean
+    com.example.bank.service.UserServiceClient userServiceClient;
+
+    @Autowired
+    ReactiveAccountService reactiveAccountService;
+
+    @Autowired
+    AccountRepository accountRepository;
+
+    @Autowired
+    OutboxEventRepository outboxEventRepository;
+
+    private Long accountAId;
+    private Long accountBId;
+
+    private static final BigDecimal INITIAL_BALANCE_A = new BigDecimal("1000.00");
+    private static final BigDecimal INITIAL_BALANCE_B = new BigDecimal("500.00");
+
+    @BeforeEach
+    void setup() {
+        Account a = new Account();
+        a.setAccountHolderName("Alice");
+        a.setBalance(INITIAL_BALANCE_A);
+        a.setAccountType(AccountType.SAVINGS);
+        a.setUserId(1L);
+        accountAId = accountRepository.save(a).getId();
+
+        Account b = new Account();
+        b.setAccountHolderName("Bob");
+        b.setBalance(INITIAL_BALANCE_B);
+        b.setAccountType(AccountType.SAVINGS);
+        b.setUserId(2L);
+        accountBId = accountRepository.save(b).getId();
+    }
+
+    @AfterEach
+    void cleanup() {
+        outboxEventRepository.deleteAll();
+        accountRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("500 concurrent $1 payments A→B on R2DBC: final balances are exactly correct")
+    void concurrentPayments_conservesMoney() {
+        final int paymentCount = 500;
+        final BigDecimal paymentAmount = new BigDecimal("1.00");
+        List<Throwable> errors = new ArrayList<>();
+
+        Flux.range(0, paymentCount)
+                .flatMap(i -> reactiveAccountService.applyPayment(accountAId, accountBId, paymentAmount)
+                        .doOnError(t -> { synchronized (errors) { errors.add(t); } })
+                        .onErrorResume(t -> Mono.empty()),
+                        paymentCount)
+                .blockLast(Duration.ofMinutes(2));
+
+        assertThat(errors)
+                .as("No exceptions should occur during concurrent payments")
+                .isEmpty();
+
+        // ── Money conservation assertions ────────────────────────────────────
+        BigDecimal finalA = accountRepository.findById(accountAId).orElseThrow().getBalance();
+        BigDecimal finalB = accountRepository.findById(accountBId).orElseThrow().getBalance();
+
+        BigDecimal moved = paymentAmount.multiply(BigDecimal.valueOf(paymentCount));
+        assertThat(finalA).isEqualByComparingTo(INITIAL_BALANCE_A.subtract(moved));
+        assertThat(finalB).isEqualByComparingTo(INITIAL_BALANCE_B.add(moved));
+        assertThat(finalA.add(finalB))
+                .as("Total money in the system must be conserved (no creation or loss)")
+                .isEqualByComparingTo(INITIAL_BALANCE_A.add(INITIAL_BALANCE_B));
+
+        // PAYMENT_SENT + PAYMENT_RECEIVED per payment, committed with the balance change
+        assertThat(outboxEventRepository.count()).isEqualTo(2L * paymentCount);
+    }
+
+    @Test
+    @DisplayName("A payment from an account to itself is rejected on R2DBC")
+    void selfPayment_isRejected() {
+        assertThatThrownBy(() -> reactiveAccountService
+                .applyPayment(accountAId, accountAId, new BigDecimal("1.00"))
+                .block(Duration.ofSeconds(30)))
+                .isInstanceOf(AccountException.class)
+                .extracting(e -> ((AccountException) e).getErrorCode())
+                .isEqualTo(ErrorCode.SELF_TRANSFER_NOT_ALLOWED);
+
+        assertThat(accountRepository.findById(accountAId).orElseThrow().getBalance())
+                .isEqualByComparingTo(INITIAL_BALANCE_A);
+        assertThat(outboxEventRepository.count()).isZero();
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.bank;
+
+import com.example.bank.entity.Account;
+import com.example.bank.enums.AccountType;
+import com.example.bank.repository.AccountRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput of account-service with platform threads versus the {@code virtual} profile,
+ * under a high number of concurrent clients.
+ *
+ * <p>Each request reads an account and then blocks for {@link #DOWNSTREAM_LATENCY_MS}, standing
+ * in for a Feign or Redis round trip. With platform threads at most
+ * {@code server.tomcat.threads.max} requests can be blocked at once; with virtual threads
+ * the blocked requests only hold a parked virtual thread, and the connection pool
+ * (held only for the read) becomes the limit.
+ *
+ * <p>Boots the service twice against the same MySQL container and prints both throughputs.
+ * Not part of the regular build; run with:
+ * <pre>
+ * mvn -pl account-service test -Dtest=VirtualThreadLoadTest -Dload.tests=true
+ * </pre>
+ */
+@Testcontainers
+@EnabledIfSystemProperty(named = "load.tests", matches = "true")
+class VirtualThreadLoadTest {
+
+    static final long DOWNSTREAM_LATENCY_MS = 50;
+    private static final int CLIENTS = 1000;
+    private static final int REQUESTS_PER_CLIENT = 10;
+    private static final int PLATFORM_THREADS = 200;
+
+    @Container
+    static final MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0")
+            .withDatabaseName("bank_accounts")
+            .withUsername("test")
+            .withPassword("test");
+
+    @Test
+    @DisplayName("virtual threads sustain more blocked requests than a bounded Tomcat pool")
+    void platformVersusVirtualThroughput() throws Exception {
+        double platform = measure(false);
+        double virtual = measure(true);
+
+        System.out.printf("%nplatform threads (max %d): %.0f req/s%nvirtual threads:           %.0f req/s (%.1fx)%n",
+                PLATFORM_THREADS, platform, virtual, virtual / platform);
+        assertThat(virtual).isPositive();
+        assertThat(platform).isPositive();
+    }
+
+    private double measure(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext ctx = new SpringApplicationBuilder(AccountServiceApplication.class, LoadProbeController.class)
+                .properties(
+                        "server.port=0",
+                        "spring.cloud.compatibility-verifier.enabled=false",
+                        "spring.kafka.bootstrap-servers=localhost:9999",
+                        "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration",
+                        "outbox.relay.enabled=false",
+                        "spring.datasource.url=" + mysql.getJdbcUrl(),
+                        "spring.datasource.username=" + mysql.getUsername(),
+                        "spring.datasource.password=" + mysql.getPassword(),
+                        "spring.datasource.hikari.maximum-pool-size=40",
+                        "spring.jpa.hibernate.ddl-auto=update",
+                        "internal.service-secret=test-secret",
+                        "user-service.url=http://localhost:9997",
+                        "server.tomcat.threads.max=" + PLATFORM_THREADS,
+                        "server.tomcat.accept-count=" + CLIENTS,
+                        "spring.threads.virtual.enabled=" + virtualThreads)
+                .run()) {
+
+            Account account = new Account();
+            account.setAccountHolderName("Load");
+            account.setBalance(BigDecimal.ZERO);
+            account.setAccountType(AccountType.SAVINGS);
+            account.setUserId(1L);
+            Long accountId = ctx.getBean(AccountRepository.class).save(account).getId();
+
+            int port = ((ServletWebServerApplicationContext) ctx).getWebServer().getPort();
+            URI uri = URI.create("http://localhost:" + port + "/internal/load-probe/" + accountId);
+            HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .header("X-Internal-Auth", "test-secret")
+                    .timeout(Duration.ofSeconds(60))
+                    .GET().build();
+
+            // Warm-up
+            for (int i = 0; i < 50; i++) {
+                client.send(request, HttpResponse.BodyHandlers.discarding());
+            }
+
+            AtomicInteger failures = new AtomicInteger();
+            long start = System.nanoTime();
+            try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int c = 0; c < CLIENTS; c++) {
+                    futures.add(clients.submit(() -> {
+                        for (int r = 0; r < REQUESTS_PER_CLIENT; r++) {
+                            try {
+                                if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() != 200) {
+                                    failures.incrementAndGet();
+                                }
+                            } catch (Exception e) {
+                                failures.incrementAndGet();
+                            }
+                        }
+                    }));
+                }
+                for (Future<?> f : futures) {
+                    f.get();
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            assertThat(failures.get()).as("failed requests").isZero();
+            return CLIENTS * REQUESTS_PER_CLIENT / seconds;
+        }
+    }
+
+    /** Reads an account, then waits as if calling another service. */
+    @RestController
+    static class LoadProbeController {
+
+        private final AccountRepository accountRepository;
+
+        LoadProbeController(AccountRepository accountRepository) {
+            this.accountRepository = accountRepository;
+        }
+
+        @GetMapping("/internal/load-probe/{id}")
+        ResponseEntity<Void> probe(@PathVariable Long id) throws InterruptedException {
+            accountRepository.findById(id);
+            Thread.sleep(DOWNSTREAM_LATENCY_MS);
+            return ResponseEntity.ok().build();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.bank.job;
+
+import com.example.bank.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link OutboxFrontier} against an in-memory stand-in for outbox_events, where a row
+ * "commits" when it is added to {@link #committed}.
+ *
+ * <h3>What This Test Proves</h3>
+ * <ul>
+ *   <li>A young gap holds back only the lanes with a later event;</li>
+ *   <li>Past the gap timeout lanes move on, and an id that commits afterwards is handed to its
+ *       lane as a late event instead of being lost;</li>
+ *   <li>A late event above the lane's mark is left to the normal relay;</li>
+ *   <li>An id that never commits is forgotten after the abandon timeout.</li>
+ * </ul>
+ */
+class OutboxFrontierTest {
+
+    private static final long GAP_TIMEOUT_MS = 30_000;
+    private static final long ABANDON_MS = 600_000;
+
+    /** id → lane of every committed row. */
+    private final NavigableMap<Long, Integer> committed = new TreeMap<>();
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    private OutboxFrontier frontier;
+
+    @BeforeEach
+    void setUp() {
+        OutboxEventRepository repository = mock(OutboxEventRepository.class);
+        when(repository.findIdsAfter(anyLong(), any(Limit.class))).thenAnswer(inv -> {
+            long after = inv.getArgument(0);
+            Limit limit = inv.getArgument(1);
+            return committed.tailMap(after, false).keySet().stream().limit(limit.max()).toList();
+        });
+        when(repository.findLanesByIdIn(anyCollection())).thenAnswer(inv -> {
+            Collection<Long> ids = inv.getArgument(0);
+            return ids.stream().filter(committed::containsKey)
+                    .map(id -> (OutboxEventRepository.IdAndLane) new Row(id, committed.get(id)))
+                    .toList();
+        });
+        when(repository.findFirstIdInLaneAfter(anyInt(), anyLong())).thenAnswer(inv -> {
+            int lane = inv.getArgument(0);
+            long after = inv.getArgument(1);
+            return committed.tailMap(after, false).entrySet().stream()
+                    .filter(e -> e.getValue() == lane)
+                    .map(e -> e.getKey())
+                    .findFirst().orElse(null);
+        });
+        frontier = new OutboxFrontier(repository, 0L, GAP_TIMEOUT_MS, ABANDON_MS, 1000, clock::get);
+    }
+
+    @Test
+    @DisplayName("A young gap holds back only lanes with a later event")
+    void youngGapHoldsBackOnlyAffectedLanes() {
+        committed.put(1L, 0);
+        committed.put(3L, 1);   // id 2 still in flight
+        committed.put(4L, 0);
+
+        frontier.refresh();
+
+        assertThat(frontier.laneFrontier(1)).isEqualTo(2);   // must not pass 3 while 2 may precede it
+        assertThat(frontier.laneFrontier(0)).isEqualTo(3);   // 4 is lane 0's first event after the gap
+        assertThat(frontier.laneFrontier(2)).isEqualTo(4);   // nothing after the gap: not held back
+    }
+
+    @Test
+    @DisplayName("An id committing after the gap timeout is relayed late on its lane")
+    void idCommittingAfterGapTimeoutIsRelayedLate() {
+        committed.put(1L, 0);
+        committed.put(3L, 0);   // id 2 still in flight
+        frontier.refresh();
+        assertThat(frontier.laneFrontier(0)).isEqualTo(2);
+
+        clock.addAndGet(GAP_TIMEOUT_MS);
+        frontier.refresh();
+        assertThat(frontier.laneFrontier(0)).isEqualTo(3);
+        long hwm = 3;           // the lane relays 3 and moves its mark past the gap
+
+        committed.put(2L, 0);   // the slow transaction finally commits
+        clock.addAndGet(1000);
+        frontier.refresh();
+
+        assertThat(frontier.missingCount()).isZero();
+        assertThat(frontier.takeLate(1, 3)).isEmpty();
+        assertThat(frontier.takeLate(0, hwm)).containsExactly(2L);
+        assertThat(frontier.takeLate(0, hwm)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("A late id above the lane's mark is left to the normal relay")
+    void lateIdAboveMarkIsNotRelayedTwice() {
+        committed.put(1L, 0);
+        committed.put(3L, 1);
+        frontier.refresh();
+
+        committed.put(2L, 0);
+        frontier.refresh();
+
+        assertThat(frontier.takeLate(0, 1)).isEmpty();
+        assertThat(frontier.laneFrontier(0)).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("An id that never commits is forgotten after the abandon timeout")
+    void neverCommittedIdIsAbandoned() {
+        committed.put(1L, 0);
+        committed.put(3L, 0);
+        frontier.refresh();
+        assertThat(frontier.missingCount()).isEqualTo(1);
+
+        clock.addAndGet(ABANDON_MS);
+        frontier.refresh();
+
+        assertThat(frontier.missingCount()).isZero();
+        assertThat(frontier.laneFrontier(0)).isEqualTo(3);
+    }
+
+    private record Row(Long id, Integer lane) implements OutboxEventRepository.IdAndLane {
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public Integer getLane() {
+            return lane;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.bank;
+
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free Bloom filter over token digests (see {@link TokenDigest}).
+ *
+ * <p>The digests are already uniformly distributed SHA-256 output, so the two base hashes
+ * for double hashing are read straight out of the digest bytes rather than rehashed.
+ * Insertions can race with lookups; a lookup that misses a concurrent insertion only
+ * returns the same answer it would have returned a moment earlier.
+ */
+class BlocklistBloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+
+    BlocklistBloomFilter(long expectedEntries, double falsePositiveRate) {
+        long n = Math.max(1, expectedEntries);
+        long bits = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (bits + 63) / 64));
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = (long) wordCount * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    void put(String digest) {
+        long[] h = baseHashes(digest);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = index(h, i);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = words.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!words.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    boolean mightContain(String digest) {
+        long[] h = baseHashes(digest);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = index(h, i);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long index(long[] h, int i) {
+        return Math.floorMod(h[0] + i * h[1], bitCount);
+    }
+
+    private static long[] baseHashes(String digest) {
+        byte[] bytes = Base64.getUrlDecoder().decode(digest);
+        long h1 = 0;
+        long h2 = 0;
+        for (int i = 0; i < 8; i++) {
+            h1 = (h1 << 8) | (bytes[i] & 0xFF);
+            h2 = (h2 << 8) | (bytes[i + 8] & 0xFF);
+        }
+        // An even step would only ever visit half of the bits.
+        return new long[]{h1, h2 | 1};
+    }
+}
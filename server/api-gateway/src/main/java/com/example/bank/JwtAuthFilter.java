@@ -2,13 +2,9 @@ package com.example.bank;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
-import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
-import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.core.Ordered;
@@ -22,8 +18,6 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
-import javax.crypto.SecretKey;
-import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
@@ -32,7 +26,7 @@ import java.util.UUID;
 @Component
 public class JwtAuthFilter implements GlobalFilter, Ordered {
 
-    private final String jwtSecret;
+    private final JwtVerifier jwtVerifier;
     private final TokenBlocklistService tokenBlocklistService;
     private final ObjectMapper objectMapper;
 
@@ -46,10 +40,10 @@ public class JwtAuthFilter implements GlobalFilter, Ordered {
             "/ws/info"
     );
 
-    public JwtAuthFilter(@Value("${jwt.secret}") String jwtSecret,
+    public JwtAuthFilter(JwtVerifier jwtVerifier,
                          TokenBlocklistService tokenBlocklistService,
                          ObjectMapper objectMapper) {
-        this.jwtSecret = jwtSecret;
+        this.jwtVerifier = jwtVerifier;
         this.tokenBlocklistService = tokenBlocklistService;
         this.objectMapper = objectMapper;
     }
@@ -113,13 +107,9 @@ public class JwtAuthFilter implements GlobalFilter, Ordered {
             }
 
             try {
-                SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
-                Claims claims = Jwts.parser().verifyWith(key).build()
-                        .parseSignedClaims(token).getPayload();
-
-                String username = claims.getSubject();
-                Object userIdClaim = claims.get("userId");
-                String userId = userIdClaim != null ? userIdClaim.toString() : "";
+                JwtVerifier.VerifiedToken verified = jwtVerifier.verify(token);
+                String username = verified.username();
+                String userId = verified.userId();
 
                 ServerHttpRequest mutated = request.mutate()
                         .headers(headers -> {
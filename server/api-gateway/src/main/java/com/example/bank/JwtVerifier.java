@@ -0,0 +1,95 @@
+package com.example.bank;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+
+/**
+ * Verifies access tokens for {@link JwtAuthFilter}.
+ *
+ * <h3>Why a cache</h3>
+ * A client sends the same access token on every request until it expires, and each
+ * verification is an HMAC over the whole token plus JSON parsing on the Netty event loop.
+ * Verified tokens are therefore remembered, keyed by a SHA-256 digest of the token (so the
+ * cache never holds a usable credential), until their own {@code exp}. Unsigned, tampered
+ * or expired tokens are never cached.
+ *
+ * <h3>Revocation</h3>
+ * The cache only short-circuits signature verification. {@link TokenBlocklistService} is
+ * still consulted before every lookup, so a revoked token is rejected even while its
+ * verified entry is still cached.
+ */
+@Component
+public class JwtVerifier {
+
+    /** Subject and userId claim of a token whose signature has already been checked. */
+    public record VerifiedToken(String username, String userId, long expiresAtMillis) {
+    }
+
+    private final JwtParser parser;
+    private final Cache<String, VerifiedToken> verified;
+
+    public JwtVerifier(@Value("${jwt.secret}") String jwtSecret,
+                       @Value("${jwt.verified-cache.maximum-size:100000}") long maximumSize,
+                       @Value("${jwt.verified-cache.max-ttl:PT1H}") Duration maxTtl) {
+        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        // JwtParser is immutable and thread-safe once built.
+        this.parser = Jwts.parser().verifyWith(key).build();
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String digest, VerifiedToken token, long currentTime) {
+                        long remaining = token.expiresAtMillis() - System.currentTimeMillis();
+                        return Duration.ofMillis(Math.max(0, Math.min(remaining, maxTtl.toMillis()))).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String digest, VerifiedToken token, long currentTime,
+                                                  long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String digest, VerifiedToken token, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Returns the verified identity carried by {@code token}.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, badly signed or expired
+     */
+    public VerifiedToken verify(String token) {
+        String digest = TokenDigest.sha256(token);
+        VerifiedToken cached = verified.getIfPresent(digest);
+        if (cached != null && cached.expiresAtMillis() > System.currentTimeMillis()) {
+            return cached;
+        }
+
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        Object userIdClaim = claims.get("userId");
+        Date exp = claims.getExpiration();
+        VerifiedToken result = new VerifiedToken(
+                claims.getSubject(),
+                userIdClaim != null ? userIdClaim.toString() : "",
+                exp != null ? exp.getTime() : Long.MAX_VALUE);
+        verified.put(digest, result);
+        return result;
+    }
+}
@@ -1,26 +1,84 @@
 package com.example.bank;
 
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
 import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
 import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
 
 import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
 /**
  * Redis-backed token blocklist.
  * Tokens are added with a TTL equal to their remaining validity (max 24h).
  * A blocked token causes the gateway to reject requests with 401 INVALID_TOKEN.
+ *
+ * <h3>Local filter</h3>
+ * Revoked tokens are a tiny fraction of traffic, so asking Redis about every request is
+ * almost always a wasted round trip. Each gateway keeps a {@link BlocklistBloomFilter} of
+ * blocked digests and only goes to Redis when the filter reports a possible hit.
+ * The filter is fed by:
+ * <ul>
+ *   <li>{@code jwt:blocklist:events} pub/sub messages, published by {@link #block} on any node;</li>
+ *   <li>a periodic full rebuild from a SCAN of the blocklist keys, which drops expired
+ *       entries and repairs anything a dropped pub/sub message missed.</li>
+ * </ul>
+ * The filter is only trusted while the subscription is up and a rebuild has completed with
+ * it up throughout; otherwise (at startup, and after the subscription drops, since messages
+ * published meanwhile are lost) every lookup goes to Redis.
+ *
+ * <h3>Keys</h3>
+ * Entries are stored under the SHA-256 digest of the token ({@link TokenDigest}) rather
+ * than the raw JWT, so Redis never holds a usable credential and keys are a fixed 43 chars.
  */
 @Service
 public class TokenBlocklistService {
 
+    private static final Logger log = LoggerFactory.getLogger(TokenBlocklistService.class);
+
     private static final String PREFIX = "jwt:blocklist:";
+    private static final String CHANNEL = "jwt:blocklist:events";
     private static final Duration DEFAULT_TTL = Duration.ofHours(24);
 
     private final ReactiveStringRedisTemplate redisTemplate;
+    private final ReactiveRedisMessageListenerContainer listenerContainer;
+    private final long expectedEntries;
+    private final double falsePositiveRate;
+    private final Duration rebuildInterval;
+
+    private volatile BlocklistBloomFilter current;
+    private volatile BlocklistBloomFilter rebuilding;
+    private volatile boolean rebuilt;
+    private volatile boolean subscribed;
+    // Bumped on every successful (re)subscription, so a rebuild can tell it spanned an outage
+    private volatile long subscriptionGeneration;
+    private Disposable subscription;
+    private Disposable rebuilds;
 
-    public TokenBlocklistService(ReactiveStringRedisTemplate redisTemplate) {
+    public TokenBlocklistService(ReactiveStringRedisTemplate redisTemplate,
+                                 ReactiveRedisConnectionFactory connectionFactory,
+                                 @Value("${jwt.blocklist.expected-entries:100000}") long expectedEntries,
+                                 @Value("${jwt.blocklist.false-positive-rate:0.001}") double falsePositiveRate,
+                                 @Value("${jwt.blocklist.rebuild-interval:PT1M}") Duration rebuildInterval) {
         this.redisTemplate = redisTemplate;
+        this.listenerContainer = new ReactiveRedisMessageListenerContainer(connectionFactory);
+        this.expectedEntries = expectedEntries;
+        this.falsePositiveRate = falsePositiveRate;
+        this.rebuildInterval = rebuildInterval;
+        this.current = new BlocklistBloomFilter(expectedEntries, falsePositiveRate);
     }
 
     /**
@@ -29,8 +87,13 @@ public class TokenBlocklistService {
      * @param ttl    remaining validity of the token
      */
     public Mono<Boolean> block(String token, Duration ttl) {
+        String digest = TokenDigest.sha256(token);
         return redisTemplate.opsForValue()
-                .set(PREFIX + token, "1", ttl);
+                .set(PREFIX + digest, "1", ttl)
+                .flatMap(stored -> {
+                    remember(digest);
+                    return redisTemplate.convertAndSend(CHANNEL, digest).thenReturn(stored);
+                });
     }
 
     /** Convenience overload — uses 24-hour TTL. */
@@ -42,6 +105,88 @@ public class TokenBlocklistService {
      * Returns true if the token has been explicitly revoked.
      */
     public Mono<Boolean> isBlocked(String token) {
-        return redisTemplate.hasKey(PREFIX + token);
+        String digest = TokenDigest.sha256(token);
+        if (filterTrusted() && !current.mightContain(digest)) {
+            return Mono.just(false);
+        }
+        return redisTemplate.hasKey(PREFIX + digest);
+    }
+
+    /** Whether {@link #isBlocked} currently answers misses from the local filter. */
+    boolean filterTrusted() {
+        return rebuilt && subscribed;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        subscription = listenerContainer.receiveLater(ChannelTopic.of(CHANNEL))
+                .doOnNext(messages -> {
+                    subscriptionGeneration++;
+                    subscribed = true;
+                })
+                .flatMapMany(Function.identity())
+                .doOnNext(message -> remember(message.getMessage()))
+                .doOnError(e -> {
+                    // Messages may have been lost; fall back to Redis until a rebuild runs subscribed.
+                    subscribed = false;
+                    rebuilt = false;
+                    log.warn("Blocklist subscription failed: {}", e.getMessage());
+                })
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+                .subscribe();
+
+        rebuilds = Flux.interval(Duration.ZERO, rebuildInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> rebuild().onErrorResume(e -> {
+                    log.warn("Blocklist filter rebuild failed: {}", e.getMessage());
+                    return Mono.empty();
+                }))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+        if (rebuilds != null) {
+            rebuilds.dispose();
+        }
+        listenerContainer.destroy();
+    }
+
+    private Mono<Void> rebuild() {
+        BlocklistBloomFilter fresh = new BlocklistBloomFilter(expectedEntries, falsePositiveRate);
+        AtomicLong count = new AtomicLong();
+        // Digests published while the scan runs go into both filters. Anything published before
+        // this assignment was already written to Redis before the SCAN starts, so the SCAN sees it.
+        rebuilding = fresh;
+        // Only a scan that ran entirely while subscribed covers everything published meanwhile
+        long generation = subscribed ? subscriptionGeneration : -1;
+        ScanOptions options = ScanOptions.scanOptions().match(PREFIX + "*").count(1000).build();
+        return redisTemplate.scan(options)
+                .doOnNext(key -> {
+                    fresh.put(key.substring(PREFIX.length()));
+                    count.incrementAndGet();
+                })
+                .then(Mono.fromRunnable(() -> {
+                    current = fresh;
+                    rebuilding = null;
+                    rebuilt = subscribed && subscriptionGeneration == generation;
+                    if (count.get() > expectedEntries) {
+                        log.warn("Blocklist holds {} entries, above jwt.blocklist.expected-entries={}; "
+                                + "false positives will rise", count.get(), expectedEntries);
+                    }
+                }));
+    }
+
+    private void remember(String digest) {
+        // Read rebuilding first: rebuild() publishes current before clearing rebuilding, so
+        // seeing null here means current is already the fresh filter (or no rebuild is running).
+        BlocklistBloomFilter pending = rebuilding;
+        if (pending != null) {
+            pending.put(digest);
+        }
+        current.put(digest);
     }
 }
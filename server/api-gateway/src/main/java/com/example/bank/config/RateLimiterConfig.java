@@ -1,24 +1,44 @@
 package com.example.bank.config;
 
+import com.example.bank.filter.RateLimitAlgorithm;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.scripting.support.ResourceScriptSource;
 
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
 @Configuration
 public class RateLimiterConfig {
 
     /**
-     * Loads the Lua script into memory at startup.
-     * Spring Data Redis will cache the script's SHA-1 digest on the Redis server
+     * Loads every rate-limit Lua script into memory at startup, one per {@link RateLimitAlgorithm}.
+     * Spring Data Redis will cache each script's SHA-1 digest on the Redis server
      * upon first execution and subsequently use EVALSHA to execute it, avoiding
      * the network overhead of sending the full script body on every request.
      */
     @Bean
-    public DefaultRedisScript<Long> slidingWindowRateLimitScript() {
+    @SuppressWarnings("rawtypes")
+    public Map<RateLimitAlgorithm, RedisScript<List>> rateLimitScripts() {
+        Map<RateLimitAlgorithm, RedisScript<List>> scripts = new EnumMap<>(RateLimitAlgorithm.class);
+        for (RateLimitAlgorithm algorithm : RateLimitAlgorithm.values()) {
+            DefaultRedisScript<List> redisScript = new DefaultRedisScript<>();
+            redisScript.setScriptSource(new ResourceScriptSource(new ClassPathResource(algorithm.getScriptPath())));
+            redisScript.setResultType(List.class);
+            scripts.put(algorithm, redisScript);
+        }
+        return scripts;
+    }
+
+    /** Grants chunks of permits from a shared token bucket to {@code LocalQuotaTier}. */
+    @Bean
+    public DefaultRedisScript<Long> tokenBucketLeaseScript() {
         DefaultRedisScript<Long> redisScript = new DefaultRedisScript<>();
-        redisScript.setScriptSource(new ResourceScriptSource(new ClassPathResource("scripts/sliding_window_rate_limit.lua")));
+        redisScript.setScriptSource(new ResourceScriptSource(new ClassPathResource("scripts/token_bucket_lease.lua")));
         redisScript.setResultType(Long.class);
         return redisScript;
     }
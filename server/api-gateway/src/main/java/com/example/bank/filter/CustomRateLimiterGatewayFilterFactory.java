@@ -7,32 +7,49 @@ import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
 import org.springframework.context.ApplicationContext;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
- * A highly-performant distributed rate limiter using the Sliding Window Log algorithm.
- * 
+ * A highly-performant distributed rate limiter backed by Lua scripts executing atomically on Redis.
+ *
  * This completely replaces the default Spring Cloud Gateway Token Bucket limiter.
- * It leverages a custom Lua script executing atomically on Redis via Sorted Sets (ZSET).
+ * The per-route {@code algorithm} selects the script (see {@link RateLimitAlgorithm}); the
+ * default is the original Sliding Window Log over a Sorted Set (ZSET). Every response
+ * carries X-RateLimit-Limit, X-RateLimit-Remaining and X-RateLimit-Reset (seconds until the
+ * limit resets, or until the next request is allowed when denied).
+ *
+ * Routes with a {@code leaseSize} above 1 are served by {@link LocalQuotaTier} instead,
+ * which spends permits leased in chunks from a Redis token bucket and only calls Redis
+ * about once per {@code leaseSize} requests.
  */
 @Component
 public class CustomRateLimiterGatewayFilterFactory extends AbstractGatewayFilterFactory<CustomRateLimiterGatewayFilterFactory.Config> {
 
     private final ReactiveRedisTemplate<String, String> redisTemplate;
-    private final RedisScript<Long> script;
+    @SuppressWarnings("rawtypes")
+    private final Map<RateLimitAlgorithm, RedisScript<List>> scripts;
+    private final LocalQuotaTier localQuotaTier;
     private final ApplicationContext applicationContext;
 
     public CustomRateLimiterGatewayFilterFactory(ReactiveRedisTemplate<String, String> redisTemplate,
-                                                 RedisScript<Long> slidingWindowRateLimitScript,
+                                                 @SuppressWarnings("rawtypes")
+                                                 Map<RateLimitAlgorithm, RedisScript<List>> rateLimitScripts,
+                                                 LocalQuotaTier localQuotaTier,
                                                  ApplicationContext applicationContext) {
         super(Config.class);
         this.redisTemplate = redisTemplate;
-        this.script = slidingWindowRateLimitScript;
+        this.scripts = rateLimitScripts;
+        this.localQuotaTier = localQuotaTier;
         this.applicationContext = applicationContext;
     }
 
@@ -52,6 +69,9 @@ public class CustomRateLimiterGatewayFilterFactory extends AbstractGatewayFilter
             resolver = applicationContext.getBean(KeyResolver.class);
         }
 
+        @SuppressWarnings("rawtypes")
+        RedisScript<List> script = scripts.get(config.getAlgorithm());
+
         return (exchange, chain) -> resolver.resolve(exchange).flatMap(key -> {
             if (!StringUtils.hasText(key)) {
                 // If the key can't be resolved (e.g. anonymous user), just pass it through
@@ -64,33 +84,69 @@ public class CustomRateLimiterGatewayFilterFactory extends AbstractGatewayFilter
                 routeId = "default";
             }
 
-            String redisKey = "rate_limit:" + routeId + ":" + key;
-            long nowMs = System.currentTimeMillis();
             long windowMs = config.getWindowSizeInSeconds() * 1000L;
             long maxRequests = config.getMaxRequests();
 
+            if (config.getLeaseSize() > 1) {
+                String bucketKey = "rate_limit:tb:" + routeId + ":" + key;
+                return localQuotaTier.tryAcquire(bucketKey, windowMs, maxRequests,
+                                config.getLeaseSize(), config.getLeaseMillis())
+                        .flatMap(allowed -> {
+                            // Leased permits are spent locally, so only the limit is known here.
+                            exchange.getResponse().getHeaders().set("X-RateLimit-Limit", String.valueOf(maxRequests));
+                            return allowed ? chain.filter(exchange) : deny(exchange);
+                        });
+            }
+
+            // Each algorithm keeps a different Redis type, so only the log keeps the original key
+            String redisKey = config.getAlgorithm() == RateLimitAlgorithm.SLIDING_LOG
+                    ? "rate_limit:" + routeId + ":" + key
+                    : "rate_limit:" + config.getAlgorithm().name().toLowerCase() + ":" + routeId + ":" + key;
+            long nowMs = System.currentTimeMillis();
+            List<String> args = config.getAlgorithm() == RateLimitAlgorithm.SLIDING_LOG
+                    // The log needs a unique ZSET member per request
+                    ? List.of(String.valueOf(nowMs), String.valueOf(windowMs), String.valueOf(maxRequests),
+                            nowMs + "-" + Long.toHexString(ThreadLocalRandom.current().nextLong()))
+                    : List.of(String.valueOf(nowMs), String.valueOf(windowMs), String.valueOf(maxRequests));
+
             // Execute the Lua script atomically
-            return redisTemplate.execute(
-                    script,
-                    Collections.singletonList(redisKey),
-                    List.of(String.valueOf(nowMs), String.valueOf(windowMs), String.valueOf(maxRequests))
-            ).next().flatMap(result -> {
-                if (result != null && result == 1L) {
-                    // Allowed
-                    return chain.filter(exchange);
-                } else {
-                    // Denied - Too Many Requests
-                    exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
-                    return exchange.getResponse().setComplete();
-                }
-            });
+            return redisTemplate.execute(script, Collections.singletonList(redisKey), args)
+                    .next().flatMap(result -> {
+                        List<?> reply = (List<?>) result;
+                        long allowed = ((Number) reply.get(0)).longValue();
+                        long remaining = ((Number) reply.get(1)).longValue();
+                        long resetMs = ((Number) reply.get(2)).longValue();
+
+                        HttpHeaders headers = exchange.getResponse().getHeaders();
+                        headers.set("X-RateLimit-Limit", String.valueOf(maxRequests));
+                        headers.set("X-RateLimit-Remaining", String.valueOf(remaining));
+                        headers.set("X-RateLimit-Reset", String.valueOf((resetMs + 999) / 1000));
+
+                        if (allowed == 1L) {
+                            // Allowed
+                            return chain.filter(exchange);
+                        } else {
+                            // Denied - Too Many Requests
+                            return deny(exchange);
+                        }
+                    });
         });
     }
 
+    private Mono<Void> deny(ServerWebExchange exchange) {
+        exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        return exchange.getResponse().setComplete();
+    }
+
     public static class Config {
         private int windowSizeInSeconds = 60;
         private int maxRequests = 100;
         private String keyResolverBeanName;
+        private RateLimitAlgorithm algorithm = RateLimitAlgorithm.SLIDING_LOG;
+        // Permits leased per Redis call; 1 keeps the exact per-request sliding window log.
+        private int leaseSize = 1;
+        // Unused leased permits are dropped after this long.
+        private long leaseMillis = 1000;
 
         public int getWindowSizeInSeconds() {
             return windowSizeInSeconds;
@@ -115,5 +171,29 @@ public class CustomRateLimiterGatewayFilterFactory extends AbstractGatewayFilter
         public void setKeyResolverBeanName(String keyResolverBeanName) {
             this.keyResolverBeanName = keyResolverBeanName;
         }
+
+        public RateLimitAlgorithm getAlgorithm() {
+            return algorithm;
+        }
+
+        public void setAlgorithm(RateLimitAlgorithm algorithm) {
+            this.algorithm = algorithm;
+        }
+
+        public int getLeaseSize() {
+            return leaseSize;
+        }
+
+        public void setLeaseSize(int leaseSize) {
+            this.leaseSize = leaseSize;
+        }
+
+        public long getLeaseMillis() {
+            return leaseMillis;
+        }
+
+        public void setLeaseMillis(long leaseMillis) {
+            this.leaseMillis = leaseMillis;
+        }
     }
 }
@@ -0,0 +1,134 @@
+package com.example.bank.filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Node-local tier of the gateway rate limiter.
+ *
+ * <p>Instead of one Redis round trip per request, each node leases a chunk of
+ * {@code leaseSize} permits from a shared token bucket ({@code token_bucket_lease.lua})
+ * and spends them with a lock-free decrement. When a lease runs low the next one is
+ * fetched in the background; requests only wait on Redis when a lease is fully spent,
+ * and concurrent waiters for the same key share a single call.
+ *
+ * <h3>Accuracy</h3>
+ * Permits are taken from the shared bucket before they are spent, so the cluster never
+ * admits more than the bucket allows. The error is in the other direction: up to
+ * {@code leaseSize} permits per node can sit unused in a local lease and are dropped
+ * after {@code leaseMillis}. {@code leaseSize} is therefore the per-node tolerance.
+ */
+@Component
+public class LocalQuotaTier {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalQuotaTier.class);
+
+    private final ReactiveRedisTemplate<String, String> redisTemplate;
+    private final RedisScript<Long> leaseScript;
+    private final Cache<String, KeyQuota> quotas;
+
+    public LocalQuotaTier(ReactiveRedisTemplate<String, String> redisTemplate,
+                          RedisScript<Long> tokenBucketLeaseScript,
+                          @Value("${rate-limit.local.maximum-keys:100000}") long maximumKeys,
+                          @Value("${rate-limit.local.idle-expiry:PT5M}") Duration idleExpiry) {
+        this.redisTemplate = redisTemplate;
+        this.leaseScript = tokenBucketLeaseScript;
+        this.quotas = Caffeine.newBuilder()
+                .maximumSize(maximumKeys)
+                .expireAfterAccess(idleExpiry)
+                .build();
+    }
+
+    /**
+     * Emits true if a permit was taken for {@code redisKey}, false if the shared bucket
+     * is empty.
+     */
+    public Mono<Boolean> tryAcquire(String redisKey, long windowMs, long maxRequests,
+                                    int leaseSize, long leaseMillis) {
+        KeyQuota quota = quotas.get(redisKey, k -> new KeyQuota());
+        if (quota.tryTake(System.currentTimeMillis())) {
+            if (quota.remaining() <= leaseSize / 4) {
+                // Running low: top up in the background so the next requests don't wait.
+                // A failure here is only logged: the request that finds the lease spent retries it.
+                refill(quota, redisKey, windowMs, maxRequests, leaseSize, leaseMillis).subscribe(
+                        null, e -> log.debug("Background lease refill for {} failed: {}", redisKey, e.getMessage()));
+            }
+            return Mono.just(true);
+        }
+        return refill(quota, redisKey, windowMs, maxRequests, leaseSize, leaseMillis)
+                .then(Mono.fromSupplier(() -> quota.tryTake(System.currentTimeMillis())));
+    }
+
+    private Mono<Void> refill(KeyQuota quota, String redisKey, long windowMs, long maxRequests,
+                              int leaseSize, long leaseMillis) {
+        Mono<Void> running = quota.inFlight.get();
+        if (running != null) {
+            return running;
+        }
+        Mono<Void> lease = Mono.defer(() -> redisTemplate.execute(
+                        leaseScript,
+                        List.of(redisKey),
+                        List.of(String.valueOf(System.currentTimeMillis()), String.valueOf(windowMs),
+                                String.valueOf(maxRequests), String.valueOf(leaseSize)))
+                        .next())
+                .doOnNext(granted -> {
+                    long nowMs = System.currentTimeMillis();
+                    quota.install(granted, nowMs, nowMs + leaseMillis);
+                })
+                .then()
+                .doFinally(signal -> quota.inFlight.set(null))
+                .cache();
+        if (quota.inFlight.compareAndSet(null, lease)) {
+            return lease;
+        }
+        Mono<Void> winner = quota.inFlight.get();
+        return winner != null ? winner : Mono.empty();
+    }
+
+    /** Permits currently leased to this node for one key. */
+    static final class KeyQuota {
+
+        private final AtomicReference<Lease> lease = new AtomicReference<>(new Lease(0, 0));
+        private final AtomicReference<Mono<Void>> inFlight = new AtomicReference<>();
+
+        boolean tryTake(long nowMs) {
+            Lease current = lease.get();
+            return current.expiresAtMs > nowMs && current.remaining.decrementAndGet() >= 0;
+        }
+
+        long remaining() {
+            return Math.max(0, lease.get().remaining.get());
+        }
+
+        void install(long granted, long nowMs, long expiresAtMs) {
+            Lease previous = lease.get();
+            // Claim whatever is left of the previous lease so it is neither lost nor spent twice.
+            long carried = previous.expiresAtMs > nowMs
+                    ? Math.max(0, previous.remaining.getAndSet(0))
+                    : 0;
+            lease.set(new Lease(carried + granted, expiresAtMs));
+        }
+    }
+
+    private static final class Lease {
+        final AtomicLong remaining;
+        final long expiresAtMs;
+
+        Lease(long remaining, long expiresAtMs) {
+            this.remaining = new AtomicLong(remaining);
+            this.expiresAtMs = expiresAtMs;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.bank.filter;
+
+/**
+ * Algorithms available to {@link CustomRateLimiterGatewayFilterFactory}. Each one is a Lua
+ * script that returns {@code {allowed, remaining, resetMillis}}.
+ */
+public enum RateLimitAlgorithm {
+
+    /** Exact sorted-set log; one ZSET member per request in the window. */
+    SLIDING_LOG("scripts/sliding_window_rate_limit.lua"),
+
+    /** One counter per aligned window; allows bursts of up to 2x across a boundary. */
+    FIXED_WINDOW("scripts/fixed_window_rate_limit.lua"),
+
+    /** Current and previous window counters, the previous one weighted by its overlap. */
+    SLIDING_WINDOW_COUNTER("scripts/sliding_window_counter_rate_limit.lua"),
+
+    /** Generic Cell Rate Algorithm; a single theoretical-arrival-time per key. */
+    GCRA("scripts/gcra_rate_limit.lua");
+
+    private final String scriptPath;
+
+    RateLimitAlgorithm(String scriptPath) {
+        this.scriptPath = scriptPath;
+    }
+
+    public String getScriptPath() {
+        return scriptPath;
+    }
+}
@@ -0,0 +1,36 @@
+-- fixed_window_rate_limit.lua
+-- Implements the Fixed Window Counter algorithm: one counter per aligned window.
+-- Cheapest option; allows up to 2x maxRequests across a window boundary.
+--
+-- KEYS[1] : Rate limit key
+-- ARGV[1] : Current timestamp in milliseconds
+-- ARGV[2] : Window size in milliseconds
+-- ARGV[3] : Maximum allowed requests in the window
+--
+-- Returns {allowed (1/0), remaining, milliseconds until the window resets}.
+
+local key = KEYS[1]
+local now_ms = tonumber(ARGV[1])
+local window_ms = tonumber(ARGV[2])
+local max_requests = tonumber(ARGV[3])
+
+local window_start = now_ms - (now_ms % window_ms)
+local reset_ms = window_start + window_ms - now_ms
+
+-- 1. The hash holds {start, count}; a counter from an earlier window is stale.
+local state = redis.call('HMGET', key, 'start', 'count')
+local count = 0
+if tonumber(state[1]) == window_start then
+    count = tonumber(state[2]) or 0
+end
+
+if count >= max_requests then
+    return {0, 0, reset_ms}
+end
+
+-- 2. Record the request and expire the key with its window.
+count = count + 1
+redis.call('HSET', key, 'start', window_start, 'count', count)
+redis.call('PEXPIRE', key, reset_ms)
+
+return {1, max_requests - count, reset_ms}
@@ -0,0 +1,37 @@
+-- gcra_rate_limit.lua
+-- Implements the Generic Cell Rate Algorithm: a single "theoretical arrival time" (TAT)
+-- per key. Requests are spaced window_ms / max_requests apart with a burst allowance of
+-- max_requests. O(1) memory and exact.
+--
+-- KEYS[1] : Rate limit key
+-- ARGV[1] : Current timestamp in milliseconds
+-- ARGV[2] : Window size in milliseconds
+-- ARGV[3] : Maximum allowed requests in the window
+--
+-- Returns {allowed (1/0), remaining, milliseconds until the next request is allowed
+--          when denied, or until the burst allowance is fully restored when allowed}.
+
+local key = KEYS[1]
+local now_ms = tonumber(ARGV[1])
+local window_ms = tonumber(ARGV[2])
+local max_requests = tonumber(ARGV[3])
+
+local interval = window_ms / max_requests
+
+-- 1. A TAT in the past means the key has been idle: start from now.
+local tat = tonumber(redis.call('GET', key))
+if tat == nil or tat < now_ms then
+    tat = now_ms
+end
+
+-- 2. The request conforms if its new TAT is no more than one window ahead of now.
+local new_tat = tat + interval
+local allow_at = new_tat - window_ms
+if now_ms < allow_at then
+    return {0, 0, math.ceil(allow_at - now_ms)}
+end
+
+redis.call('SET', key, tostring(new_tat), 'PX', math.ceil(new_tat - now_ms))
+
+local remaining = math.floor((now_ms - allow_at) / interval)
+return {1, remaining, math.ceil(new_tat - now_ms)}
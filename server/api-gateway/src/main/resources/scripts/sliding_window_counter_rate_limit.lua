@@ -0,0 +1,46 @@
+-- sliding_window_counter_rate_limit.lua
+-- Implements the Sliding Window Counter algorithm: the previous and current fixed
+-- windows are kept as two counters, and the previous one is weighted by how much of
+-- it still overlaps the sliding window. O(1) memory, close to the exact log.
+--
+-- KEYS[1] : Rate limit key
+-- ARGV[1] : Current timestamp in milliseconds
+-- ARGV[2] : Window size in milliseconds
+-- ARGV[3] : Maximum allowed requests in the window
+--
+-- Returns {allowed (1/0), remaining, milliseconds until the current window rolls over}.
+
+local key = KEYS[1]
+local now_ms = tonumber(ARGV[1])
+local window_ms = tonumber(ARGV[2])
+local max_requests = tonumber(ARGV[3])
+
+local window_start = now_ms - (now_ms % window_ms)
+local reset_ms = window_start + window_ms - now_ms
+
+-- 1. Roll the buckets forward to the current window.
+local state = redis.call('HMGET', key, 'start', 'curr', 'prev')
+local stored_start = tonumber(state[1])
+local curr = 0
+local prev = 0
+if stored_start == window_start then
+    curr = tonumber(state[2]) or 0
+    prev = tonumber(state[3]) or 0
+elseif stored_start == window_start - window_ms then
+    prev = tonumber(state[2]) or 0
+end
+
+-- 2. Weighted estimate of the requests in the last window_ms.
+local overlap = 1 - (now_ms - window_start) / window_ms
+local estimated = prev * overlap + curr
+
+if estimated + 1 > max_requests then
+    return {0, 0, reset_ms}
+end
+
+-- 3. Record the request. The key must outlive the next window, where it becomes "prev".
+curr = curr + 1
+redis.call('HSET', key, 'start', window_start, 'curr', curr, 'prev', prev)
+redis.call('PEXPIRE', key, reset_ms + window_ms)
+
+return {1, math.floor(max_requests - (estimated + 1)), reset_ms}
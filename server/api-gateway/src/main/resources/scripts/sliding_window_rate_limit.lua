@@ -1,17 +1,20 @@
 -- sliding_window_rate_limit.lua
 -- Implements the Sliding Window Log rate limiting algorithm using Redis Sorted Sets.
+-- Exact, but memory is O(maxRequests) per key; prefer sliding_window_counter or gcra.
 --
 -- KEYS[1] : Rate limit key (e.g., rate_limit:ip:192.168.1.1)
 -- ARGV[1] : Current timestamp in milliseconds
 -- ARGV[2] : Window size in milliseconds
 -- ARGV[3] : Maximum allowed requests in the window
+-- ARGV[4] : Unique id of this request (ZSET member)
 --
--- Returns 1 if allowed, 0 if denied (limit exceeded).
+-- Returns {allowed (1/0), remaining, milliseconds until the oldest request leaves the window}.
 
 local key = KEYS[1]
 local now_ms = tonumber(ARGV[1])
 local window_ms = tonumber(ARGV[2])
 local max_requests = tonumber(ARGV[3])
+local member = ARGV[4]
 
 local clear_before = now_ms - window_ms
 
@@ -21,18 +24,26 @@ redis.call('ZREMRANGEBYSCORE', key, 0, clear_before)
 -- 2. Count the remaining requests (which are perfectly within the sliding window)
 local current_count = redis.call('ZCARD', key)
 
+local allowed = 0
 if current_count < max_requests then
     -- 3a. If within limit, record this new request's timestamp.
-    -- We use the timestamp as both the score (for sorting/removing) and the member.
-    redis.call('ZADD', key, now_ms, now_ms)
-    
+    -- The member must be unique: two requests in the same millisecond would otherwise
+    -- collapse into one entry and be undercounted.
+    redis.call('ZADD', key, now_ms, member)
+    current_count = current_count + 1
+
     -- 4. Set expiration on the entire set to equal the window size.
     -- This guarantees that inactive keys are automatically garbage collected,
     -- preventing memory leaks for transient IPs/users.
     redis.call('PEXPIRE', key, window_ms)
-    
-    return 1 -- Allowed
-else
-    -- 3b. Over limit
-    return 0 -- Denied
+    allowed = 1
+end
+
+-- 5. Allowed or not, report when the oldest entry leaves the window
+local reset_ms = 0
+local oldest = redis.call('ZRANGE', key, 0, 0, 'WITHSCORES')
+if oldest[2] then
+    reset_ms = math.max(0, tonumber(oldest[2]) + window_ms - now_ms)
 end
+
+return {allowed, math.max(0, max_requests - current_count), reset_ms}
@@ -0,0 +1,43 @@
+-- token_bucket_lease.lua
+-- Grants a chunk of request permits from a shared token bucket to one gateway node,
+-- which then spends them locally (see LocalQuotaTier).
+--
+-- KEYS[1] : Bucket key (e.g., rate_limit:tb:account-service:192.168.1.1)
+-- ARGV[1] : Current timestamp in milliseconds
+-- ARGV[2] : Window size in milliseconds
+-- ARGV[3] : Maximum allowed requests in the window (bucket capacity)
+-- ARGV[4] : Permits requested
+--
+-- The bucket refills continuously at max_requests per window_ms.
+-- Returns the number of permits granted (0 .. requested).
+
+local key = KEYS[1]
+local now_ms = tonumber(ARGV[1])
+local window_ms = tonumber(ARGV[2])
+local max_requests = tonumber(ARGV[3])
+local requested = tonumber(ARGV[4])
+
+local state = redis.call('HMGET', key, 'tokens', 'ts')
+local tokens = tonumber(state[1])
+local last_ms = tonumber(state[2])
+
+if tokens == nil then
+    -- First lease for this key: start with a full bucket.
+    tokens = max_requests
+    last_ms = now_ms
+end
+
+-- 1. Refill for the time elapsed since the last lease (clock skew between nodes
+--    can make now_ms go backwards; never refill a negative amount).
+local elapsed = math.max(0, now_ms - last_ms)
+tokens = math.min(max_requests, tokens + elapsed * max_requests / window_ms)
+
+-- 2. Grant as many whole permits as are available, up to the request.
+local granted = math.min(requested, math.floor(tokens))
+tokens = tokens - granted
+
+-- 3. Two fields per key regardless of traffic; idle keys expire after a full window.
+redis.call('HSET', key, 'tokens', tostring(tokens), 'ts', tostring(math.max(now_ms, last_ms)))
+redis.call('PEXPIRE', key, window_ms)
+
+return granted
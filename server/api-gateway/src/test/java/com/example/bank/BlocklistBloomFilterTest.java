@@ -0,0 +1,58 @@
+package com.example.bank;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sizing and membership of {@link BlocklistBloomFilter}.
+ *
+ * <h3>What This Test Proves</h3>
+ * <ul>
+ *   <li>Every digest put into the filter is reported as possibly present, at and beyond the
+ *       expected entry count: a false negative would let a revoked token through;</li>
+ *   <li>At the expected entry count, absent digests are reported present at about the
+ *       configured false-positive rate, so misses really do skip Redis.</li>
+ * </ul>
+ */
+class BlocklistBloomFilterTest {
+
+    private static final int EXPECTED_ENTRIES = 50_000;
+    private static final double FALSE_POSITIVE_RATE = 0.001;
+
+    @Test
+    @DisplayName("No false negatives, even past the expected entry count")
+    void noFalseNegatives() {
+        BlocklistBloomFilter filter = new BlocklistBloomFilter(EXPECTED_ENTRIES, FALSE_POSITIVE_RATE);
+        List<String> digests = digests(EXPECTED_ENTRIES * 2);
+        digests.forEach(filter::put);
+
+        assertThat(digests).allMatch(filter::mightContain);
+    }
+
+    @Test
+    @DisplayName("False positives stay near the configured rate at the expected entry count")
+    void falsePositiveRateWithinBounds() {
+        BlocklistBloomFilter filter = new BlocklistBloomFilter(EXPECTED_ENTRIES, FALSE_POSITIVE_RATE);
+        digests(EXPECTED_ENTRIES).forEach(filter::put);
+
+        int probes = 200_000;
+        long falsePositives = digests(probes).stream().filter(filter::mightContain).count();
+
+        // Expect ~200; three times the target leaves room for hash variance without hiding a sizing bug
+        assertThat((double) falsePositives / probes).isLessThan(FALSE_POSITIVE_RATE * 3);
+    }
+
+    private static List<String> digests(int count) {
+        List<String> digests = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            digests.add(TokenDigest.sha256(UUID.randomUUID().toString()));
+        }
+        return digests;
+    }
+}
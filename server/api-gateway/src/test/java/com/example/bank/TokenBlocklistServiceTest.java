@@ -0,0 +1,179 @@
+package com.example.bank;
+
+import com.redis.testcontainers.RedisContainer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * When {@link TokenBlocklistService} answers from its local filter and when it goes to
+ * Redis, against a real Redis.
+ *
+ * <h3>What This Test Proves</h3>
+ * <ul>
+ *   <li>Before the first rebuild, every lookup goes to Redis;</li>
+ *   <li>Once subscribed and rebuilt, misses are answered locally, the next rebuild repairs a
+ *       lost message, and a token blocked on another gateway reaches this one over pub/sub;</li>
+ *   <li>While the subscription is down the filter is never trusted, however many rebuilds
+ *       complete, since pub/sub messages published meanwhile are lost;</li>
+ *   <li>A token blocked while rebuilds are running is reported blocked as soon as
+ *       {@code block} completes (the filter swap loses nothing).</li>
+ * </ul>
+ *
+ * <h3>How This Test Works</h3>
+ * Writing a blocklist key straight into Redis stands in for a lost pub/sub message: only a
+ * lookup that goes to Redis (or a later rebuild) can see it.
+ */
+@Testcontainers
+class TokenBlocklistServiceTest {
+
+    private static final String PREFIX = "jwt:blocklist:";
+    private static final double FALSE_POSITIVE_RATE = 0.001;
+    private static final Duration WAIT = Duration.ofSeconds(10);
+
+    @Container
+    static final RedisContainer redis = new RedisContainer(
+            DockerImageName.parse("redis:7-alpine"));
+
+    private final List<LettuceConnectionFactory> factories = new ArrayList<>();
+    private final List<TokenBlocklistService> services = new ArrayList<>();
+    private ReactiveStringRedisTemplate redisTemplate;
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = new ReactiveStringRedisTemplate(connect(redis.getMappedPort(6379)));
+        redisTemplate.execute(connection -> connection.serverCommands().flushAll()).blockLast();
+    }
+
+    @AfterEach
+    void tearDown() {
+        services.forEach(TokenBlocklistService::stop);
+        factories.forEach(LettuceConnectionFactory::destroy);
+    }
+
+    @Test
+    @DisplayName("Before the first rebuild, lookups go to Redis")
+    void fallsBackToRedisBeforeRebuild() {
+        TokenBlocklistService service = service(redis.getMappedPort(6379), Duration.ofHours(1));
+        String token = token();
+        writeBehindPubSub(token);
+
+        assertThat(service.filterTrusted()).isFalse();
+        assertThat(service.isBlocked(token).block()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Subscribed and rebuilt: misses are local, other gateways' blocks arrive by pub/sub")
+    void trustsFilterOnceSubscribedAndRebuilt() {
+        // The first rebuild may finish before the subscription is up, so a later one must run
+        TokenBlocklistService service = service(redis.getMappedPort(6379), Duration.ofMillis(500));
+        TokenBlocklistService otherGateway = service(redis.getMappedPort(6379), Duration.ofHours(1));
+        service.start();
+        otherGateway.start();
+        await(service::filterTrusted);
+
+        // A lost message is invisible until the next rebuild, unless one lands between write and read
+        List<String> lost = new ArrayList<>();
+        int answeredLocally = 0;
+        for (int i = 0; i < 20; i++) {
+            String token = token();
+            writeBehindPubSub(token);
+            lost.add(token);
+            if (!service.isBlocked(token).block()) {
+                answeredLocally++;
+            }
+        }
+        assertThat(answeredLocally).as("misses answered by the filter without asking Redis").isPositive();
+        await(() -> lost.stream().allMatch(token -> service.isBlocked(token).block()));
+
+        String revoked = token();
+        otherGateway.block(revoked).block();
+        await(() -> Boolean.TRUE.equals(service.isBlocked(revoked).block()));
+    }
+
+    @Test
+    @DisplayName("While unsubscribed the filter is never trusted, however many rebuilds complete")
+    void distrustsFilterWhileUnsubscribed() throws InterruptedException {
+        // Nothing listens on port 1, so the subscription keeps failing while scans succeed
+        TokenBlocklistService service = service(1, Duration.ofMillis(20));
+        service.start();
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(1).toNanos();
+        while (System.nanoTime() < deadline) {
+            String lost = token();
+            writeBehindPubSub(lost);
+            assertThat(service.filterTrusted()).isFalse();
+            assertThat(service.isBlocked(lost).block()).isTrue();
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    @DisplayName("A token blocked during a rebuild is blocked as soon as block() returns")
+    void blockDuringRebuildIsNeverLost() {
+        String filler = token();
+        for (int i = 0; i < 2_000; i++) {
+            writeBehindPubSub(filler + i);
+        }
+        TokenBlocklistService service = service(redis.getMappedPort(6379), Duration.ofMillis(5));
+        service.start();
+        await(service::filterTrusted);
+
+        for (int i = 0; i < 500; i++) {
+            String token = token();
+            service.block(token).block();
+            assertThat(service.isBlocked(token).block()).as("token %d", i).isTrue();
+        }
+    }
+
+    private TokenBlocklistService service(int listenerPort, Duration rebuildInterval) {
+        TokenBlocklistService service = new TokenBlocklistService(redisTemplate, connect(listenerPort),
+                10_000, FALSE_POSITIVE_RATE, rebuildInterval);
+        services.add(service);
+        return service;
+    }
+
+    private LettuceConnectionFactory connect(int port) {
+        LettuceConnectionFactory factory = new LettuceConnectionFactory(redis.getHost(), port);
+        // Connect on first use, so an unreachable listener fails its subscription, not construction
+        factory.setShareNativeConnection(false);
+        factory.afterPropertiesSet();
+        factories.add(factory);
+        return factory;
+    }
+
+    private void writeBehindPubSub(String token) {
+        redisTemplate.opsForValue().set(PREFIX + TokenDigest.sha256(token), "1", Duration.ofMinutes(5)).block();
+    }
+
+    private static String token() {
+        return UUID.randomUUID().toString();
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + WAIT.toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met within %s", WAIT).isLessThan(deadline);
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.bank.filter;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Hooks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Lease bookkeeping of {@link LocalQuotaTier}, with Redis mocked where it is needed at all.
+ *
+ * <h3>What This Test Proves</h3>
+ * <ul>
+ *   <li>Installing a lease carries over what is left of an unexpired one, and drops what is
+ *       left of an expired one;</li>
+ *   <li>A lease admits nothing from its expiry on;</li>
+ *   <li>Under {@code tryTake} racing repeated {@code install}s, every leased permit is spent
+ *       exactly once: none lost in the swap, none spent twice;</li>
+ *   <li>A failing background refill is handled, not dropped as an unhandled Reactor error,
+ *       and the request that triggered it is still admitted.</li>
+ * </ul>
+ */
+class LocalQuotaTierTest {
+
+    @Test
+    @DisplayName("An unexpired lease's leftovers carry over into the next one")
+    void carriesOverUnexpiredLease() {
+        LocalQuotaTier.KeyQuota quota = new LocalQuotaTier.KeyQuota();
+        quota.install(10, 0, 1_000);
+        for (int i = 0; i < 4; i++) {
+            assertThat(quota.tryTake(100)).isTrue();
+        }
+
+        quota.install(5, 200, 1_200);
+
+        assertThat(quota.remaining()).isEqualTo(11);
+        assertThat(takeAll(quota, 300)).isEqualTo(11);
+    }
+
+    @Test
+    @DisplayName("An expired lease admits nothing and is not carried over")
+    void expiredLeaseAdmitsNothing() {
+        LocalQuotaTier.KeyQuota quota = new LocalQuotaTier.KeyQuota();
+        quota.install(10, 0, 1_000);
+
+        assertThat(quota.tryTake(999)).isTrue();
+        assertThat(quota.tryTake(1_000)).isFalse();
+
+        quota.install(5, 1_500, 2_500);
+        assertThat(takeAll(quota, 1_600)).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("tryTake racing install spends every permit exactly once")
+    void concurrentTakesDuringInstall() throws InterruptedException {
+        LocalQuotaTier.KeyQuota quota = new LocalQuotaTier.KeyQuota();
+        int leases = 2_000;
+        int leaseSize = 50;
+        LongAdder taken = new LongAdder();
+        AtomicBoolean installing = new AtomicBoolean(true);
+
+        List<Thread> takers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            takers.add(Thread.ofPlatform().start(() -> {
+                while (installing.get()) {
+                    if (quota.tryTake(0)) {
+                        taken.increment();
+                    }
+                }
+            }));
+        }
+        for (int i = 0; i < leases; i++) {
+            quota.install(leaseSize, 0, Long.MAX_VALUE);
+        }
+        installing.set(false);
+        for (Thread taker : takers) {
+            taker.join();
+        }
+
+        long leftOver = takeAll(quota, 0);
+        assertThat(taken.sum() + leftOver).isEqualTo((long) leases * leaseSize);
+    }
+
+    @Test
+    @DisplayName("A failed background refill is logged, not dropped, and the request is admitted")
+    @SuppressWarnings("unchecked")
+    void backgroundRefillFailureIsHandled() {
+        ReactiveRedisTemplate<String, String> redisTemplate = mock(ReactiveRedisTemplate.class);
+        doReturn(Flux.just(8L))
+                .doReturn(Flux.error(new RedisConnectionFailureException("Redis is down")))
+                .when(redisTemplate).execute(any(RedisScript.class), anyList(), anyList());
+        LocalQuotaTier tier = new LocalQuotaTier(redisTemplate, RedisScript.of("return 0", Long.class),
+                100, Duration.ofMinutes(5));
+        List<Throwable> dropped = new CopyOnWriteArrayList<>();
+        Hooks.onErrorDropped(dropped::add);
+        try {
+            // The first call leases 8; the sixth leaves 2 (a quarter), which starts a background refill
+            for (int i = 0; i < 6; i++) {
+                assertThat(tier.tryAcquire("rate_limit:tb:test:user", 60_000, 100, 8, 60_000).block())
+                        .isTrue();
+            }
+        } finally {
+            Hooks.resetOnErrorDropped();
+        }
+
+        assertThat(dropped).isEmpty();
+    }
+
+    private static long takeAll(LocalQuotaTier.KeyQuota quota, long nowMs) {
+        long taken = 0;
+        while (quota.tryTake(nowMs)) {
+            taken++;
+        }
+        return taken;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.bank;
+
+import com.example.bank.common.ApiResponse;
+import com.example.bank.common.CursorPage;
+import com.example.bank.dto.Account.AccountDto;
+import com.example.bank.enums.AccountType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the {@link ApiResponse} envelope every REST endpoint returns: building it (which
+ * stamps the time) and writing it as JSON, as Spring MVC does for a response body.
+ *
+ * <ul>
+ *   <li>{@code singleAccount} — {@code GET /accounts/{id}}.</li>
+ *   <li>{@code accountPage} — one 20-item page of a cursor paginated listing.</li>
+ *   <li>{@code error} — the body of any handled error.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ApiResponseSerializationBenchmark {
+
+    private static final String REQUEST_ID = "3f0b6a52-8c1e-4d7a-9a57-2f1d0c6e9b14";
+
+    private ObjectMapper objectMapper;
+    private AccountDto account;
+    private CursorPage<AccountDto> page;
+
+    @Setup
+    public void setUp() {
+        objectMapper = BenchmarkJson.objectMapper();
+        LocalDateTime createdAt = LocalDateTime.of(2025, 3, 14, 9, 26, 53);
+        List<AccountDto> accounts = new ArrayList<>();
+        for (long id = 1; id <= 20; id++) {
+            accounts.add(new AccountDto(id, "Alice Example", new BigDecimal("15234.5600"),
+                    id % 2 == 0 ? AccountType.SAVINGS : AccountType.CURRENT, 42L, createdAt));
+        }
+        account = accounts.get(0);
+        page = new CursorPage<>(accounts, 20, "eyJpZCI6MjB9", true);
+    }
+
+    @Benchmark
+    public byte[] singleAccount() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(ApiResponse.success(account, REQUEST_ID));
+    }
+
+    @Benchmark
+    public byte[] accountPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(ApiResponse.successCursorPaginated(page, REQUEST_ID));
+    }
+
+    @Benchmark
+    public byte[] error() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(ApiResponse.error("ACCOUNT_NOT_FOUND",
+                "The requested account could not be found.", REQUEST_ID));
+    }
+}
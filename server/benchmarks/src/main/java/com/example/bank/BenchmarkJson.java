@@ -0,0 +1,18 @@
+package com.example.bank;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/** The services' {@link ObjectMapper}: Spring's defaults plus Spring Boot's ISO dates. */
+final class BenchmarkJson {
+
+    private BenchmarkJson() {
+    }
+
+    static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.bank;
+
+import com.example.bank.common.ApiResponse;
+import com.example.bank.dto.Payment.PaymentRequestDto;
+import com.example.bank.enums.ErrorCode;
+import com.example.bank.exception.AccountException;
+import com.example.bank.exception.GlobalExceptionHandler;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning an exception into an error response in {@link GlobalExceptionHandler},
+ * which every service registers.
+ *
+ * <ul>
+ *   <li>{@code appException} — a {@code BaseAppException} such as an unknown account.</li>
+ *   <li>{@code validation} — a request body failing two constraints.</li>
+ *   <li>{@code unexpected} — any other exception, answered with {@code INTERNAL_ERROR}.</li>
+ *   <li>{@code appExceptionToJson} — {@code appException} plus writing the body.</li>
+ * </ul>
+ * The exceptions are created once: this measures the handler, not stack trace capture. The
+ * handler's own logging is switched off in {@code logback.xml}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GlobalExceptionHandlerBenchmark {
+
+    private GlobalExceptionHandler handler;
+    private ObjectMapper objectMapper;
+    private MockHttpServletRequest request;
+    private AccountException notFound;
+    private MethodArgumentNotValidException invalid;
+    private IllegalStateException unexpected;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        handler = new GlobalExceptionHandler();
+        objectMapper = BenchmarkJson.objectMapper();
+
+        request = new MockHttpServletRequest("POST", "/api/v1/payments");
+        request.addHeader("X-Request-Id", "3f0b6a52-8c1e-4d7a-9a57-2f1d0c6e9b14");
+
+        notFound = new AccountException(ErrorCode.ACCOUNT_NOT_FOUND);
+
+        BeanPropertyBindingResult binding = new BeanPropertyBindingResult(new PaymentRequestDto(), "paymentRequestDto");
+        binding.addError(new FieldError("paymentRequestDto", "amount", null, false,
+                new String[]{"Positive"}, null, "Payment amount must be positive"));
+        binding.addError(new FieldError("paymentRequestDto", "targetAccountId", null, false,
+                new String[]{"NotNull"}, null, "Target account ID is required"));
+        MethodParameter parameter = new MethodParameter(
+                GlobalExceptionHandlerBenchmark.class.getDeclaredMethod("submit", PaymentRequestDto.class), 0);
+        invalid = new MethodArgumentNotValidException(parameter, binding);
+
+        unexpected = new IllegalStateException("Connection is closed");
+    }
+
+    @Benchmark
+    public ResponseEntity<ApiResponse<?>> appException() {
+        return handler.handleAppException(notFound, request);
+    }
+
+    @Benchmark
+    public ResponseEntity<ApiResponse<?>> validation() {
+        return handler.handleValidation(invalid, request);
+    }
+
+    @Benchmark
+    public ResponseEntity<ApiResponse<?>> unexpected() {
+        return handler.handleGeneral(unexpected, request);
+    }
+
+    @Benchmark
+    public byte[] appExceptionToJson() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(handler.handleAppException(notFound, request).getBody());
+    }
+
+    /** The controller method {@link #invalid} reports as rejecting its body. */
+    @SuppressWarnings("unused")
+    private static void submit(PaymentRequestDto request) {
+    }
+}
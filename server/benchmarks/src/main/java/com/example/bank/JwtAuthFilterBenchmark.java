@@ -0,0 +1,151 @@
+package com.example.bank;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Gateway cost of authenticating a request, first for token verification alone and then for
+ * a whole pass through {@link JwtAuthFilter}, up to the point it hands the mutated exchange
+ * to the next filter.
+ *
+ * <ul>
+ *   <li>{@code perRequestKeyAndParser} — the original code path: derive the key and build
+ *       a parser for every request, then verify.</li>
+ *   <li>{@code prebuiltParser} — verify with a parser built once.</li>
+ *   <li>{@code cachedVerifier} — {@link JwtVerifier} with a warm cache, i.e. a client
+ *       repeating the same access token.</li>
+ *   <li>{@code cachedToken} — a client repeating its access token: blocklist check, verified
+ *       cache hit, header rewrite.</li>
+ *   <li>{@code tamperedToken} — a token signed with another key: parsed and verified
+ *       on every request (failures are never cached), then the 401 body is written.</li>
+ *   <li>{@code publicPath} — a login request, which only gets its request id.</li>
+ * </ul>
+ * The blocklist answers like a started {@link TokenBlocklistService} with an empty filter,
+ * so no request reaches Redis. Each invocation gets a fresh exchange, as every request does
+ * in the gateway; a committed response could not have its error written again.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthFilterBenchmark {
+
+    private static final String SECRET = "my_super_secret_jwt_key_1234567890";
+    private static final Mono<Boolean> NOT_BLOCKED = Mono.just(false);
+
+    private String token;
+    private JwtParser parser;
+    private JwtVerifier verifier;
+    private JwtAuthFilter filter;
+    private GatewayFilterChain chain;
+    private MockServerHttpRequest cachedRequest;
+    private MockServerHttpRequest tamperedRequest;
+    private MockServerHttpRequest publicRequest;
+
+    @Setup
+    public void setUp() {
+        token = token(SECRET);
+        String tampered = token("some_other_secret_that_is_long_enough_1234");
+
+        BlocklistBloomFilter revoked = new BlocklistBloomFilter(100_000, 0.001);
+        TokenBlocklistService blocklist = new TokenBlocklistService(
+                mock(ReactiveStringRedisTemplate.class), mock(ReactiveRedisConnectionFactory.class),
+                100_000, 0.001, Duration.ofMinutes(1)) {
+            @Override
+            public Mono<Boolean> isBlocked(String candidate) {
+                return revoked.mightContain(TokenDigest.sha256(candidate)) ? Mono.just(true) : NOT_BLOCKED;
+            }
+        };
+        parser = Jwts.parser().verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8))).build();
+        verifier = new JwtVerifier(SECRET, 10_000, Duration.ofHours(1));
+        verifier.verify(token);
+
+        filter = new JwtAuthFilter(verifier, blocklist, new ObjectMapper());
+        chain = exchange -> Mono.empty();
+        cachedRequest = bearer("/api/v1/accounts", token);
+        tamperedRequest = bearer("/api/v1/accounts", tampered);
+        publicRequest = MockServerHttpRequest.post("/api/v1/users/login")
+                .header("X-Request-Id", "bench-request")
+                .build();
+    }
+
+    @Benchmark
+    public Claims perRequestKeyAndParser() {
+        SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes());
+        return Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+    }
+
+    @Benchmark
+    public Claims prebuiltParser() {
+        return parser.parseSignedClaims(token).getPayload();
+    }
+
+    @Benchmark
+    public JwtVerifier.VerifiedToken cachedVerifier() {
+        return verifier.verify(token);
+    }
+
+    @Benchmark
+    public Object cachedToken() {
+        return filter.filter(MockServerWebExchange.from(cachedRequest), chain).block();
+    }
+
+    @Benchmark
+    public Object tamperedToken() {
+        return filter.filter(MockServerWebExchange.from(tamperedRequest), chain).block();
+    }
+
+    @Benchmark
+    public Object publicPath() {
+        return filter.filter(MockServerWebExchange.from(publicRequest), chain).block();
+    }
+
+    private static String token(String secret) {
+        SecretKey key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        return Jwts.builder()
+                .subject("alice")
+                .claim("userId", 42L)
+                .claim("role", "USER")
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + Duration.ofHours(1).toMillis()))
+                .signWith(key)
+                .compact();
+    }
+
+    private static MockServerHttpRequest bearer(String path, String token) {
+        return MockServerHttpRequest.get(path)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .header("X-Request-Id", "bench-request")
+                .build();
+    }
+}
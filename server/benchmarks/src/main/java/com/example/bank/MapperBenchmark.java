@@ -0,0 +1,82 @@
+package com.example.bank;
+
+import com.example.bank.dto.Account.AccountDto;
+import com.example.bank.dto.User.UserDto;
+import com.example.bank.entity.Account;
+import com.example.bank.entity.User;
+import com.example.bank.enums.AccountType;
+import com.example.bank.mapper.AccountMapper;
+import com.example.bank.mapper.UserMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping in account-service ({@link AccountMapper}) and user-service
+ * ({@link UserMapper}), alone and over a 20-account page as the listing endpoints map it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+
+    private Account account;
+    private List<Account> accounts;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 3, 14, 9, 26, 53);
+        accounts = new ArrayList<>();
+        for (long id = 1; id <= 20; id++) {
+            Account a = new Account();
+            a.setId(id);
+            a.setAccountHolderName("Alice Example");
+            a.setBalance(new BigDecimal("15234.5600"));
+            a.setAccountType(id % 2 == 0 ? AccountType.SAVINGS : AccountType.CURRENT);
+            a.setUserId(42L);
+            a.setCreatedAt(createdAt);
+            accounts.add(a);
+        }
+        account = accounts.get(0);
+
+        user = new User();
+        user.setId(42L);
+        user.setUsername("alice");
+        user.setEmail("alice@example.com");
+        user.setPassword("$2a$12$R9h/cIPz0gi.URNNX3kh2OPST9/PgBkqquzi.Ss7KIUgO2t0jWMUW");
+        user.setEmailVerified(true);
+        user.setCreatedAt(createdAt);
+    }
+
+    @Benchmark
+    public AccountDto account() {
+        return AccountMapper.mapToAccountDto(account);
+    }
+
+    @Benchmark
+    public List<AccountDto> accountPage() {
+        return accounts.stream().map(AccountMapper::mapToAccountDto).toList();
+    }
+
+    @Benchmark
+    public UserDto user() {
+        return UserMapper.mapToUserDto(user);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.bank;
+
+import com.example.bank.kafka.PaymentTask;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON serde of the {@link PaymentTask} payment-service sends to itself through the
+ * {@code payments-topic}: written once by the producer, read once by the listener.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PaymentTaskSerdeBenchmark {
+
+    private ObjectMapper objectMapper;
+    private PaymentTask task;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = BenchmarkJson.objectMapper();
+        task = new PaymentTask("0f8fad5b-d9cb-469f-a165-70867728950e", 1001L, 2002L, new BigDecimal("1250.7500"));
+        json = objectMapper.writeValueAsBytes(task);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return objectMapper.writeValueAsBytes(task);
+    }
+
+    @Benchmark
+    public PaymentTask deserialize() throws IOException {
+        return objectMapper.readValue(json, PaymentTask.class);
+    }
+}
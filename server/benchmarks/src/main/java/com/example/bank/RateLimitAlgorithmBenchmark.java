@@ -0,0 +1,90 @@
+package com.example.bank;
+
+import com.example.bank.filter.RateLimitAlgorithm;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.sync.RedisCommands;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of one rate-limit decision per {@link RateLimitAlgorithm}, plus the Redis memory
+ * held by a single busy key (printed at tear-down).
+ *
+ * <p>The scripts are the ones the gateway ships, run through EVALSHA against a real Redis.
+ * The limit is set high enough that every call is admitted, which is the worst case for
+ * the sliding log's memory.
+ *
+ * <p>Needs a Redis, e.g. {@code docker run -p 6379:6379 redis:7-alpine}; point the forked
+ * JVM elsewhere with {@code -jvmArgsAppend -Dredis.url=redis://host:6379}. Without one the
+ * suite fails at setup and JMH carries on with the others.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RateLimitAlgorithmBenchmark {
+
+    private static final long WINDOW_MS = 60_000;
+    private static final long MAX_REQUESTS = 1_000_000;
+
+    @Param({"SLIDING_LOG", "FIXED_WINDOW", "SLIDING_WINDOW_COUNTER", "GCRA"})
+    public RateLimitAlgorithm algorithm;
+
+    private RedisClient client;
+    private StatefulRedisConnection<String, String> connection;
+    private RedisCommands<String, String> redis;
+    private String sha;
+    private String key;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        client = RedisClient.create(System.getProperty("redis.url", "redis://localhost:6379"));
+        connection = client.connect();
+        redis = connection.sync();
+        String script = new ClassPathResource(algorithm.getScriptPath())
+                .getContentAsString(StandardCharsets.UTF_8);
+        sha = redis.scriptLoad(script);
+        key = "bench:rate_limit:" + algorithm.name().toLowerCase();
+        redis.del(key);
+    }
+
+    @Benchmark
+    public List<Long> decide() {
+        long nowMs = System.currentTimeMillis();
+        String[] args = algorithm == RateLimitAlgorithm.SLIDING_LOG
+                ? new String[]{String.valueOf(nowMs), String.valueOf(WINDOW_MS), String.valueOf(MAX_REQUESTS),
+                        nowMs + "-" + Long.toHexString(ThreadLocalRandom.current().nextLong())}
+                : new String[]{String.valueOf(nowMs), String.valueOf(WINDOW_MS), String.valueOf(MAX_REQUESTS)};
+        return redis.evalsha(sha, ScriptOutputType.MULTI, new String[]{key}, args);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.printf("%n%s: one key holds %d bytes after the run%n", algorithm, redis.memoryUsage(key));
+        redis.del(key);
+        connection.close();
+        client.shutdown();
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.bank.ledger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Balance arithmetic of one transfer and of a 100-payment batch, done the two ways
+ * account-service does it: {@link BigDecimal} on the entities ({@code AccountServiceImpl})
+ * and {@code long} minor units in the ledger ({@link LedgerAmounts}).
+ *
+ * <p>Balances carry the column's scale of 4 and amounts the scale clients send (2), as they
+ * do in production, so the {@code BigDecimal} paths pay for the rescaling too. The minor unit
+ * paths include converting the request amount in and the new balances out.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BalanceArithmeticBenchmark {
+
+    private static final int BATCH = 100;
+
+    private BigDecimal fromBalance;
+    private BigDecimal toBalance;
+    private BigDecimal amount;
+    private long fromMinor;
+    private long toMinor;
+    private BigDecimal[] batchAmounts;
+
+    @Setup
+    public void setUp() {
+        fromBalance = new BigDecimal("15234.5600");
+        toBalance = new BigDecimal("804.1200");
+        amount = new BigDecimal("125.50");
+        fromMinor = LedgerAmounts.fromDecimal(fromBalance);
+        toMinor = LedgerAmounts.fromDecimal(toBalance);
+        batchAmounts = new BigDecimal[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            batchAmounts[i] = BigDecimal.valueOf(1_000 + i * 37L, 2);
+        }
+    }
+
+    @Benchmark
+    public void bigDecimalTransfer(Blackhole bh) {
+        if (fromBalance.compareTo(amount) >= 0) {
+            bh.consume(fromBalance.subtract(amount));
+            bh.consume(toBalance.add(amount));
+        }
+    }
+
+    @Benchmark
+    public void minorUnitsTransfer(Blackhole bh) {
+        long units = LedgerAmounts.toMinor(amount);
+        if (fromMinor >= units) {
+            bh.consume(LedgerAmounts.toDecimal(fromMinor - units));
+            bh.consume(LedgerAmounts.toDecimal(toMinor + units));
+        }
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalBatch() {
+        BigDecimal balance = fromBalance;
+        for (BigDecimal payment : batchAmounts) {
+            if (balance.compareTo(payment) >= 0) {
+                balance = balance.subtract(payment);
+            }
+        }
+        return balance;
+    }
+
+    @Benchmark
+    public BigDecimal minorUnitsBatch() {
+        long balance = fromMinor;
+        for (BigDecimal payment : batchAmounts) {
+            long units = LedgerAmounts.toMinor(payment);
+            if (balance >= units) {
+                balance -= units;
+            }
+        }
+        return LedgerAmounts.toDecimal(balance);
+    }
+}
@@ -33,6 +33,11 @@ public class ApiResponse<T> {
         return new ApiResponse<>(true, data, null, new Meta(requestId, Instant.now().toString(), pagination));
     }
 
+    public static <T> ApiResponse<List<T>> successCursorPaginated(CursorPage<T> page, String requestId) {
+        return new ApiResponse<>(true, page.getItems(), null,
+                new Meta(requestId, Instant.now().toString(), null, CursorPaginationMeta.of(page)));
+    }
+
     public static <T> ApiResponse<T> error(String code, String message, String requestId) {
         return new ApiResponse<>(false, null, new ErrorDetail(code, message, null), new Meta(requestId, Instant.now().toString(), null));
     }
@@ -50,11 +55,18 @@ public class ApiResponse<T> {
         private final String timestamp;
         @JsonInclude(JsonInclude.Include.NON_NULL)
         private final PaginationMeta pagination;
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private final CursorPaginationMeta cursor;
 
         public Meta(String requestId, String timestamp, PaginationMeta pagination) {
+            this(requestId, timestamp, pagination, null);
+        }
+
+        public Meta(String requestId, String timestamp, PaginationMeta pagination, CursorPaginationMeta cursor) {
             this.requestId = requestId != null ? requestId : UUID.randomUUID().toString();
             this.timestamp = timestamp;
             this.pagination = pagination;
+            this.cursor = cursor;
         }
     }
 
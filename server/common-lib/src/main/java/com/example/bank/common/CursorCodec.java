@@ -0,0 +1,55 @@
+package com.example.bank.common;
+
+import com.example.bank.enums.ErrorCode;
+import com.example.bank.exception.PaginationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.regex.Pattern;
+
+/**
+ * Encodes a keyset position (the sort-key values of the last row on a page) as an opaque,
+ * URL-safe cursor string. Clients must treat cursors as tokens; the format may change.
+ */
+public final class CursorCodec {
+
+    private static final char SEPARATOR = '\u001F';
+    private static final Pattern SPLIT = Pattern.compile(String.valueOf(SEPARATOR));
+
+    private CursorCodec() {
+    }
+
+    public static String encode(Object... parts) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                sb.append(SEPARATOR);
+            }
+            sb.append(parts[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor into exactly {@code expectedParts} values. Returns {@code null} for a
+     * null or blank cursor, which callers treat as "first page".
+     *
+     * @throws PaginationException if the cursor is not one this codec produced
+     */
+    public static String[] decode(String cursor, int expectedParts) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = SPLIT.split(raw, -1);
+            if (parts.length != expectedParts) {
+                throw new PaginationException(ErrorCode.INVALID_CURSOR);
+            }
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new PaginationException(ErrorCode.INVALID_CURSOR);
+        }
+    }
+}
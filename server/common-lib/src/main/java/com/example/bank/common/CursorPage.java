@@ -0,0 +1,54 @@
+package com.example.bank.common;
+
+import com.example.bank.enums.ErrorCode;
+import com.example.bank.exception.PaginationException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset (cursor) paginated listing. Unlike Spring's {@code Page} it carries
+ * no total count — the caller follows {@code nextCursor} until {@code hasNext} is false.
+ */
+@Getter
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    /** Largest page a client may ask for; keeps {@code size + 1} well inside an int, too. */
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private final List<T> items;
+    private final int pageSize;
+    private final String nextCursor;    // null on the last page
+    private final boolean hasNext;
+
+    /**
+     * Builds a page from a query that fetched {@code pageSize + 1} rows: the extra row only
+     * signals that another page exists and is dropped. {@code cursorOf} encodes the keyset
+     * position of the last row kept.
+     */
+    public static <T> CursorPage<T> fromOverfetch(List<T> rows, int pageSize, Function<? super T, String> cursorOf) {
+        requireValidSize(pageSize);
+        boolean hasNext = rows.size() > pageSize;
+        List<T> items = hasNext ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasNext ? cursorOf.apply(items.get(items.size() - 1)) : null;
+        return new CursorPage<>(items, pageSize, nextCursor, hasNext);
+    }
+
+    /**
+     * Rejects a requested page size outside {@code 1..MAX_PAGE_SIZE} with 400
+     * {@code INVALID_PAGE_SIZE}. Call it before querying, so a bad size never reaches the database.
+     */
+    public static int requireValidSize(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new PaginationException(ErrorCode.INVALID_PAGE_SIZE);
+        }
+        return size;
+    }
+
+    public <R> CursorPage<R> map(Function<? super T, ? extends R> mapper) {
+        return new CursorPage<>(items.stream().<R>map(mapper).toList(), pageSize, nextCursor, hasNext);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.bank.common;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class CursorPaginationMeta {
+    private final int pageSize;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private final String nextCursor;
+    private final boolean hasNext;
+
+    public static CursorPaginationMeta of(CursorPage<?> page) {
+        return new CursorPaginationMeta(page.getPageSize(), page.getNextCursor(), page.isHasNext());
+    }
+}
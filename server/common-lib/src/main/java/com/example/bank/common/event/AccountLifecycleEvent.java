@@ -0,0 +1,23 @@
+package com.example.bank.common.event;
+
+import com.example.bank.enums.AccountType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Published on {@code account-lifecycle-topic} when an account is opened or closed.
+ * eventType is either ACCOUNT_OPENED or ACCOUNT_CLOSED. accountType is null in events
+ * published before it was added.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AccountLifecycleEvent {
+    private Long accountId;
+    private Long userId;
+    private AccountType accountType;
+    private String eventType;
+    private LocalDateTime timestamp;
+}
@@ -0,0 +1,19 @@
+package com.example.bank.dto.Account;
+
+import com.example.bank.enums.AccountType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One entry of the bulk "/internal/accounts/owners" response. Ids that do not
+ * resolve to an account are simply left out of the response.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AccountOwnerDto {
+    private Long accountId;
+    private Long userId;
+    private AccountType accountType;
+}
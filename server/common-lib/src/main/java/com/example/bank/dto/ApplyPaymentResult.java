@@ -0,0 +1,27 @@
+package com.example.bank.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Per-payment outcome returned by the bulk "/internal/accounts/apply-payments" endpoint.
+ * A failed entry does not roll back the other payments in the same batch.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ApplyPaymentResult {
+    private String paymentId;
+    private boolean success;
+    private String errorCode;       // null on success
+    private String failureReason;   // null on success
+
+    public static ApplyPaymentResult success(String paymentId) {
+        return new ApplyPaymentResult(paymentId, true, null, null);
+    }
+
+    public static ApplyPaymentResult failure(String paymentId, String errorCode, String failureReason) {
+        return new ApplyPaymentResult(paymentId, false, errorCode, failureReason);
+    }
+}
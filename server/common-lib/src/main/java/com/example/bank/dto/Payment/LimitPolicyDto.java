@@ -0,0 +1,47 @@
+package com.example.bank.dto.Payment;
+
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * A set of transfer limits for payment-service's "/internal/payments/limit-policies"
+ * endpoints. 0 disables a limit. {@code version} is ignored on writes.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LimitPolicyDto {
+
+    private long version;
+
+    @NotNull
+    @PositiveOrZero
+    @Digits(integer = 11, fraction = 4)
+    private BigDecimal perTransaction;
+
+    @NotNull
+    @PositiveOrZero
+    @Digits(integer = 11, fraction = 4)
+    private BigDecimal daily;
+
+    @NotNull
+    @PositiveOrZero
+    @Digits(integer = 11, fraction = 4)
+    private BigDecimal perBeneficiary;
+
+    @NotNull
+    @PositiveOrZero
+    @Digits(integer = 11, fraction = 4)
+    private BigDecimal weekly;
+
+    @NotNull
+    @PositiveOrZero
+    @Digits(integer = 11, fraction = 4)
+    private BigDecimal monthly;
+}
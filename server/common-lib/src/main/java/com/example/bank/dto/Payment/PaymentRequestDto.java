@@ -18,6 +18,6 @@ public class PaymentRequestDto {
 
     @NotNull(message = "Payment amount is required")
     @Positive(message = "Payment amount must be positive")
-    @Digits(integer = 15, fraction = 4)
+    @Digits(integer = 11, fraction = 4)
     private BigDecimal amount;
 }
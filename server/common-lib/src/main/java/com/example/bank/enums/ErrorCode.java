@@ -18,6 +18,9 @@ public enum ErrorCode {
     MALFORMED_REQUEST(HttpStatus.BAD_REQUEST),
     IDEMPOTENCY_KEY_MISSING(HttpStatus.BAD_REQUEST),
     IDEMPOTENCY_KEY_REUSED(HttpStatus.CONFLICT),
+    IDEMPOTENCY_REQUEST_IN_PROGRESS(HttpStatus.CONFLICT),
+    INVALID_CURSOR(HttpStatus.BAD_REQUEST),
+    INVALID_PAGE_SIZE(HttpStatus.BAD_REQUEST),
 
     // Resource
     USER_NOT_FOUND(HttpStatus.NOT_FOUND),
@@ -33,6 +36,7 @@ public enum ErrorCode {
     ACCOUNT_HAS_BALANCE(HttpStatus.CONFLICT),
     PAYMENT_ALREADY_PROCESSED(HttpStatus.CONFLICT),
     DAILY_LIMIT_EXCEEDED(HttpStatus.UNPROCESSABLE_ENTITY),
+    TRANSFER_LIMIT_EXCEEDED(HttpStatus.UNPROCESSABLE_ENTITY),
 
     // Rate Limiting
     RATE_LIMITED(HttpStatus.TOO_MANY_REQUESTS),
@@ -23,6 +23,9 @@ public class ErrorMessageConstants {
         MESSAGES.put(ErrorCode.MALFORMED_REQUEST, "The request was malformed or could not be processed.");
         MESSAGES.put(ErrorCode.IDEMPOTENCY_KEY_MISSING, "An idempotency key is required for this operation.");
         MESSAGES.put(ErrorCode.IDEMPOTENCY_KEY_REUSED, "This request has already been processed.");
+        MESSAGES.put(ErrorCode.IDEMPOTENCY_REQUEST_IN_PROGRESS, "This request is still being processed. Please retry shortly.");
+        MESSAGES.put(ErrorCode.INVALID_CURSOR, "The pagination cursor is invalid. Start again from the first page.");
+        MESSAGES.put(ErrorCode.INVALID_PAGE_SIZE, "The page size must be between 1 and 100.");
 
         // Resource
         MESSAGES.put(ErrorCode.USER_NOT_FOUND, "The requested user could not be found.");
@@ -38,6 +41,7 @@ public class ErrorMessageConstants {
         MESSAGES.put(ErrorCode.ACCOUNT_HAS_BALANCE, "Cannot close an account with a non-zero balance.");
         MESSAGES.put(ErrorCode.PAYMENT_ALREADY_PROCESSED, "This payment has already been processed.");
         MESSAGES.put(ErrorCode.DAILY_LIMIT_EXCEEDED, "This transaction exceeds your daily transfer limit.");
+        MESSAGES.put(ErrorCode.TRANSFER_LIMIT_EXCEEDED, "This transaction exceeds one of your transfer limits.");
 
         // Rate Limiting
         MESSAGES.put(ErrorCode.RATE_LIMITED, "You are making too many requests. Please slow down and try again later.");
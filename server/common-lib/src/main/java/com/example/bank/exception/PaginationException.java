@@ -0,0 +1,14 @@
+package com.example.bank.exception;
+
+import com.example.bank.enums.ErrorCode;
+
+public class PaginationException extends BaseAppException {
+
+    public PaginationException(ErrorCode errorCode) {
+        super(errorCode);
+    }
+
+    public PaginationException(ErrorCode errorCode, String customMessage) {
+        super(errorCode, customMessage);
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.bank.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+
+/**
+ * The REST calls of a flow, made through the gateway the way the web client makes them,
+ * each timed into {@link LatencyReport} under its endpoint. A call that does not return
+ * 2xx is counted as an error of its endpoint and throws {@link FlowException}.
+ */
+final class BankClient {
+
+    static final String REGISTER = "POST /api/v1/users";
+    static final String LOGIN = "POST /api/v1/users/login";
+    static final String CREATE_ACCOUNT = "POST /api/v1/accounts";
+    static final String DEPOSIT = "POST /api/v1/accounts/{id}/deposit";
+    static final String INITIATE_PAYMENT = "POST /api/v1/payments";
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final URI gateway;
+    private final LatencyReport report;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    BankClient(URI gateway, LatencyReport report) {
+        this.gateway = gateway;
+        this.report = report;
+    }
+
+    void register(String username, String password) {
+        post(REGISTER, "/api/v1/users", null,
+                Map.of("username", username, "password", password, "email", username + "@loadtest.example"));
+    }
+
+    /** Returns the access token. */
+    String login(String username, String password) {
+        return post(LOGIN, "/api/v1/users/login", null, Map.of("username", username, "password", password))
+                .path("token").asText();
+    }
+
+    /** Returns the new account's id. */
+    long createAccount(String token, String holderName) {
+        return post(CREATE_ACCOUNT, "/api/v1/accounts", token,
+                Map.of("accountHolderName", holderName, "balance", BigDecimal.ZERO, "accountType", "SAVINGS"))
+                .path("id").asLong();
+    }
+
+    void deposit(String token, long accountId, BigDecimal amount) {
+        post(DEPOSIT, "/api/v1/accounts/" + accountId + "/deposit", token, Map.of("amount", amount));
+    }
+
+    /** Returns the payment id. */
+    String initiatePayment(String token, long sourceAccountId, long targetAccountId, BigDecimal amount) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("sourceAccountId", sourceAccountId);
+        body.put("targetAccountId", targetAccountId);
+        body.put("amount", amount);
+        return post(INITIATE_PAYMENT, "/api/v1/payments", token, body).path("paymentId").asText();
+    }
+
+    /** POSTs {@code body} as JSON and returns the {@code data} of the {@code ApiResponse}. */
+    private JsonNode post(String endpoint, String path, String token, Object body) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(gateway.resolve(path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .header("X-Request-Id", UUID.randomUUID().toString())
+                .POST(HttpRequest.BodyPublishers.ofString(json(body)));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        if (endpoint.equals(INITIATE_PAYMENT)) {
+            request.header("Idempotency-Key", UUID.randomUUID().toString());
+        }
+
+        long start = System.nanoTime();
+        HttpResponse<String> response;
+        try {
+            response = http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            report.error(endpoint);
+            throw new FlowException(endpoint + " failed: " + e, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FlowException(endpoint + " interrupted", e);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        if (response.statusCode() / 100 != 2) {
+            report.error(endpoint);
+            throw new FlowException(endpoint + " returned " + response.statusCode() + ": " + response.body());
+        }
+        report.record(endpoint, elapsed);
+        try {
+            return objectMapper.readTree(response.body()).path("data");
+        } catch (JsonProcessingException e) {
+            throw new FlowException(endpoint + " returned an unreadable body", e);
+        }
+    }
+
+    private String json(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+}
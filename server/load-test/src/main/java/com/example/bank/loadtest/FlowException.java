@@ -0,0 +1,13 @@
+package com.example.bank.loadtest;
+
+/** A step of a flow failed; the flow is abandoned and counted as failed. */
+final class FlowException extends RuntimeException {
+
+    FlowException(String message) {
+        super(message);
+    }
+
+    FlowException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
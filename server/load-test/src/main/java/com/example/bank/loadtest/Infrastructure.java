@@ -0,0 +1,67 @@
+package com.example.bank.loadtest;
+
+import com.redis.testcontainers.RedisContainer;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.kafka.ConfluentKafkaContainer;
+import org.testcontainers.lifecycle.Startables;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * The docker-compose infrastructure as Testcontainers, using the same images: one MySQL
+ * holding the three service databases (created on first connect), Kafka and Redis. Zipkin
+ * is left out; the services run with tracing disabled.
+ */
+final class Infrastructure implements AutoCloseable {
+
+    private static final String DB_PASSWORD = "loadtest";
+
+    private final MySQLContainer<?> mysql = new MySQLContainer<>(DockerImageName.parse("mysql:8.0"))
+            .withUsername("root")
+            .withPassword(DB_PASSWORD)
+            .withDatabaseName("bank_users");
+    private final ConfluentKafkaContainer kafka =
+            new ConfluentKafkaContainer(DockerImageName.parse("confluentinc/cp-kafka:7.4.0"));
+    private final RedisContainer redis = new RedisContainer(DockerImageName.parse("redis:7-alpine"));
+
+    void start() {
+        Startables.deepStart(mysql, kafka, redis).join();
+    }
+
+    /** JDBC URL of {@code database}, which MySQL creates if the service is the first to connect. */
+    String jdbcUrl(String database) {
+        return "jdbc:mysql://" + mysql.getHost() + ":" + mysql.getMappedPort(MySQLContainer.MYSQL_PORT)
+                + "/" + database + "?createDatabaseIfNotExist=true";
+    }
+
+    String r2dbcUrl(String database) {
+        return "r2dbc:mysql://" + mysql.getHost() + ":" + mysql.getMappedPort(MySQLContainer.MYSQL_PORT)
+                + "/" + database;
+    }
+
+    String dbUsername() {
+        return mysql.getUsername();
+    }
+
+    String dbPassword() {
+        return mysql.getPassword();
+    }
+
+    String kafkaBootstrapServers() {
+        return kafka.getBootstrapServers();
+    }
+
+    String redisHost() {
+        return redis.getHost();
+    }
+
+    int redisPort() {
+        return redis.getMappedPort(6379);
+    }
+
+    @Override
+    public void close() {
+        redis.stop();
+        kafka.stop();
+        mysql.stop();
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.bank.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency per endpoint (and per end-to-end leg), kept in HdrHistograms at microsecond
+ * resolution, and the counts of failed calls. {@link #reset()} starts a new interval, which
+ * is how the warmup is discarded.
+ */
+final class LatencyReport {
+
+    /** Row of the report; latencies in milliseconds. */
+    record Row(String name, long count, long errors, double p50, double p99, double p999, double max) {
+    }
+
+    private static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final Map<String, Recorder> recorders = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private final Map<String, Histogram> interval = new LinkedHashMap<>();
+
+    void record(String name, long nanos) {
+        long micros = Math.min(Math.max(1, TimeUnit.NANOSECONDS.toMicros(nanos)), HIGHEST_MICROS);
+        recorders.computeIfAbsent(name, n -> new Recorder(HIGHEST_MICROS, 3)).recordValue(micros);
+    }
+
+    void error(String name) {
+        errors.computeIfAbsent(name, n -> new LongAdder()).increment();
+    }
+
+    /** Discards everything recorded so far. */
+    synchronized void reset() {
+        recorders.values().forEach(Recorder::getIntervalHistogram);
+        errors.values().forEach(LongAdder::reset);
+        interval.clear();
+    }
+
+    /** Everything recorded since the last {@link #reset()}, sorted by name. */
+    synchronized List<Row> rows() {
+        recorders.forEach((name, recorder) ->
+                interval.computeIfAbsent(name, n -> new Histogram(HIGHEST_MICROS, 3)).add(recorder.getIntervalHistogram()));
+        List<String> names = new ArrayList<>(interval.keySet());
+        errors.forEach((name, count) -> {
+            if (count.sum() > 0 && !names.contains(name)) {
+                names.add(name);
+            }
+        });
+        names.sort(null);
+        List<Row> rows = new ArrayList<>();
+        for (String name : names) {
+            Histogram h = interval.getOrDefault(name, new Histogram(HIGHEST_MICROS, 3));
+            LongAdder failed = errors.get(name);
+            rows.add(new Row(name, h.getTotalCount(), failed == null ? 0 : failed.sum(),
+                    millis(h.getValueAtPercentile(50)), millis(h.getValueAtPercentile(99)),
+                    millis(h.getValueAtPercentile(99.9)), millis(h.getMaxValue())));
+        }
+        return rows;
+    }
+
+    void print(PrintStream out, List<Row> rows) {
+        out.printf("%-42s %8s %7s %9s %9s %9s %9s%n", "Endpoint", "count", "errors", "p50 ms", "p99 ms", "p99.9 ms",
+                "max ms");
+        for (Row r : rows) {
+            out.printf("%-42s %8d %7d %9.2f %9.2f %9.2f %9.2f%n", r.name(), r.count(), r.errors(), r.p50(), r.p99(),
+                    r.p999(), r.max());
+        }
+    }
+
+    void writeJson(Path file, Map<String, Object> run, List<Row> rows) throws IOException {
+        Map<String, Object> document = new LinkedHashMap<>(run);
+        document.put("endpoints", rows);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), document);
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
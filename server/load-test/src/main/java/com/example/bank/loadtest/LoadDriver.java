@@ -0,0 +1,213 @@
+package com.example.bank.loadtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives the user journey the web client makes, at a fixed arrival rate:
+ * <ol>
+ *   <li>log in as the next of the registered users;</li>
+ *   <li>open a new account and deposit into it;</li>
+ *   <li>connect to the notification WebSocket and subscribe to the account;</li>
+ *   <li>pay one of the merchant accounts and wait for the payment's notification.</li>
+ * </ol>
+ *
+ * <h3>Open loop</h3>
+ * Flows start on schedule whether or not earlier ones have finished, each on its own virtual
+ * thread, so a slow system shows up as latency rather than as a lower request rate (no
+ * coordinated omission). Only past {@code max-in-flight} running flows are arrivals dropped,
+ * and those are reported.
+ *
+ * <h3>End to end</h3>
+ * {@value #PAYMENT_TO_NOTIFICATION} runs from sending {@code initiatePayment} to the
+ * {@code PAYMENT_COMPLETED} frame arriving on the source account's topic: the dispute
+ * window, the Kafka hop to settlement, account-service, and the Kafka hop to
+ * notification-service. {@value #FLOW} is the whole journey.
+ */
+final class LoadDriver {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadDriver.class);
+
+    static final String PAYMENT_TO_NOTIFICATION = "E2E initiatePayment -> WebSocket";
+    static final String FLOW = "E2E flow (login -> notification)";
+
+    private static final String PASSWORD = "LoadTest#2024";
+    private static final BigDecimal DEPOSIT = new BigDecimal("100.00");
+    private static final BigDecimal PAYMENT = new BigDecimal("10.00");
+    private static final int SETUP_CONCURRENCY = 16;
+    private static final int FAILURES_LOGGED = 10;
+
+    private final LoadTestOptions options;
+    private final LatencyReport report;
+    private final BankClient bank;
+    private final NotificationClient notifications;
+    private final ExecutorService flows = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final List<String> users = new ArrayList<>();
+    private final List<Long> merchantAccounts = new ArrayList<>();
+    private final AtomicInteger nextUser = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder started = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final AtomicInteger failuresLogged = new AtomicInteger();
+
+    LoadDriver(LoadTestOptions options, LatencyReport report, URI gateway) {
+        this.options = options;
+        this.report = report;
+        this.bank = new BankClient(gateway, report);
+        this.notifications = new NotificationClient(gateway, report);
+    }
+
+    /** Registers the users and opens the merchant accounts. */
+    void setUp() {
+        for (int i = 0; i < options.users(); i++) {
+            users.add("loadtest-user-" + i);
+        }
+        // BCrypt dominates registration, so a few threads are enough to keep user-service busy
+        try (ExecutorService setup = Executors.newFixedThreadPool(SETUP_CONCURRENCY)) {
+            List<Future<?>> registrations = users.stream()
+                    .<Future<?>>map(user -> setup.submit(() -> bank.register(user, PASSWORD)))
+                    .toList();
+            for (Future<?> registration : registrations) {
+                registration.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not register the load-test users", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted registering the load-test users", e);
+        }
+
+        bank.register("loadtest-merchant", PASSWORD);
+        String token = bank.login("loadtest-merchant", PASSWORD);
+        for (int i = 0; i < options.merchants(); i++) {
+            merchantAccounts.add(bank.createAccount(token, "Load Test Merchant " + i));
+        }
+        log.info("Registered {} users and {} merchant accounts", users.size(), merchantAccounts.size());
+    }
+
+    /** Runs the warmup, discards it, then runs the measured phase; returns its flow counts. */
+    Map<String, Object> run() {
+        log.info("Warming up for {} at {} flows/s", options.warmup(), options.rate());
+        arrive(options.warmup());
+        drain();
+        report.reset();
+        started.reset();
+        completed.reset();
+        failed.reset();
+        dropped.reset();
+
+        log.info("Measuring for {} at {} flows/s", options.duration(), options.rate());
+        long start = System.nanoTime();
+        arrive(options.duration());
+        drain();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        Map<String, Object> counts = new LinkedHashMap<>();
+        counts.put("started", started.sum());
+        counts.put("completed", completed.sum());
+        counts.put("failed", failed.sum());
+        counts.put("dropped", dropped.sum());
+        counts.put("completedPerSecond", completed.sum() / seconds);
+        return counts;
+    }
+
+    private void arrive(Duration length) {
+        long interval = (long) (1_000_000_000L / options.rate());
+        long next = System.nanoTime();
+        long end = next + length.toNanos();
+        while (next < end) {
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (inFlight.incrementAndGet() > options.maxInFlight()) {
+                inFlight.decrementAndGet();
+                dropped.increment();
+            } else {
+                started.increment();
+                flows.execute(() -> {
+                    try {
+                        flow(users.get(Math.floorMod(nextUser.getAndIncrement(), users.size())));
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                });
+            }
+            next += interval;
+        }
+    }
+
+    /** Waits for the running flows, at most as long as the slowest could still take. */
+    private void drain() {
+        long deadline = System.nanoTime() + options.notificationTimeout().plusSeconds(60).toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(Duration.ofMillis(50).toNanos());
+        }
+        if (inFlight.get() > 0) {
+            log.warn("{} flows still running after the drain timeout", inFlight.get());
+        }
+    }
+
+    private void flow(String user) {
+        long start = System.nanoTime();
+        try {
+            String token = bank.login(user, PASSWORD);
+            long account = bank.createAccount(token, user);
+            bank.deposit(token, account, DEPOSIT);
+            long merchant = merchantAccounts.get(Math.floorMod(account, merchantAccounts.size()));
+
+            try (NotificationClient.Subscription subscription = notifications.subscribe(token, account)) {
+                long sentAt = System.nanoTime();
+                String paymentId = bank.initiatePayment(token, account, merchant, PAYMENT);
+                NotificationClient.Notification notification = awaitNotification(subscription);
+                if (!paymentId.equals(notification.paymentId())
+                        || !notification.type().equals("PAYMENT_COMPLETED")) {
+                    report.error(PAYMENT_TO_NOTIFICATION);
+                    throw new FlowException("Payment " + paymentId + " ended with " + notification);
+                }
+                report.record(PAYMENT_TO_NOTIFICATION, notification.receivedAtNanos() - sentAt);
+            }
+            report.record(FLOW, System.nanoTime() - start);
+            completed.increment();
+        } catch (RuntimeException e) {
+            failed.increment();
+            report.error(FLOW);
+            if (failuresLogged.getAndIncrement() < FAILURES_LOGGED) {
+                log.warn("Flow for {} failed: {}", user, e.getMessage());
+            }
+        }
+    }
+
+    private NotificationClient.Notification awaitNotification(NotificationClient.Subscription subscription) {
+        try {
+            return subscription.await(options.notificationTimeout());
+        } catch (TimeoutException e) {
+            report.error(PAYMENT_TO_NOTIFICATION);
+            throw new FlowException("No notification within " + options.notificationTimeout(), e);
+        }
+    }
+
+    void close() {
+        flows.shutdownNow();
+        notifications.close();
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.bank.loadtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * End-to-end load test: starts MySQL, Kafka and Redis in Testcontainers, boots the five
+ * services against them as local processes, drives {@link LoadDriver}'s flows through the
+ * gateway and reports latency per endpoint and end to end.
+ *
+ * <pre>
+ * mvn -Pload-test package -DskipTests
+ * java -jar load-test/target/load-test.jar --rate=20 --duration=PT2M
+ * </pre>
+ *
+ * Run from {@code server/} (or pass {@code --services-dir}); needs Docker. Options are
+ * listed on {@link LoadTestOptions}.
+ */
+public final class LoadTestMain {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadTestMain.class);
+
+    private LoadTestMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        LatencyReport report = new LatencyReport();
+
+        try (Infrastructure infra = new Infrastructure();
+             ServiceProcesses services = new ServiceProcesses(options)) {
+            // Ctrl-C must not leave five JVMs listening on the service ports
+            Runtime.getRuntime().addShutdownHook(new Thread(services::close, "load-test-shutdown"));
+
+            log.info("Starting MySQL, Kafka and Redis");
+            infra.start();
+            log.info("Starting the services from {}", options.servicesDir());
+            services.start(infra);
+
+            LoadDriver driver = new LoadDriver(options, report,
+                    URI.create("http://localhost:" + ServiceProcesses.GATEWAY_PORT));
+            Map<String, Object> flows;
+            try {
+                driver.setUp();
+                flows = driver.run();
+            } finally {
+                driver.close();
+            }
+
+            List<LatencyReport.Row> rows = report.rows();
+            Map<String, Object> run = new LinkedHashMap<>();
+            run.put("options", describe(options));
+            run.put("flows", flows);
+
+            System.out.println();
+            System.out.printf("rate %.1f/s for %s after %s warmup; dispute window %ds%n", options.rate(),
+                    options.duration(), options.warmup(), options.disputeWindowSeconds());
+            System.out.printf("flows: %s%n%n", flows);
+            report.print(System.out, rows);
+            report.writeJson(options.report(), run, rows);
+            log.info("Wrote {}", options.report());
+        }
+    }
+
+    private static Map<String, Object> describe(LoadTestOptions options) {
+        Map<String, Object> described = new LinkedHashMap<>();
+        described.put("rate", options.rate());
+        described.put("duration", options.duration().toString());
+        described.put("warmup", options.warmup().toString());
+        described.put("users", options.users());
+        described.put("merchants", options.merchants());
+        described.put("maxInFlight", options.maxInFlight());
+        described.put("disputeWindowSeconds", options.disputeWindowSeconds());
+        return described;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.bank.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Command line of {@link LoadTestMain}: {@code --name=value} pairs, all optional.
+ *
+ * <pre>
+ * --rate=5                      flows started per second (open loop)
+ * --duration=PT1M               measured phase
+ * --warmup=PT15S                phase run at the same rate before it, then discarded
+ * --users=200                   registered users the flows log in as, round robin
+ * --merchants=10                accounts the payments go to
+ * --max-in-flight=1000          flows running at once; arrivals beyond it are dropped
+ * --notification-timeout=PT30S  wait for a payment's WebSocket notification
+ * --dispute-window-seconds=0    payment.dispute-window-seconds of payment-service
+ * --services-dir=.              the server/ directory, holding each service's target/ jar
+ * --work-dir=load-test/target/run
+ * --service-jvm-opts=-Xmx512m   JVM options of each service process
+ * --report=load-test-result.json
+ * </pre>
+ */
+record LoadTestOptions(double rate,
+                       Duration duration,
+                       Duration warmup,
+                       int users,
+                       int merchants,
+                       int maxInFlight,
+                       Duration notificationTimeout,
+                       long disputeWindowSeconds,
+                       Path servicesDir,
+                       Path workDir,
+                       String serviceJvmOpts,
+                       Path report) {
+
+    private static final Set<String> NAMES = Set.of("rate", "duration", "warmup", "users", "merchants",
+            "max-in-flight", "notification-timeout", "dispute-window-seconds", "services-dir", "work-dir",
+            "service-jvm-opts", "report");
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0 || !NAMES.contains(arg.substring(2, eq))) {
+                throw new IllegalArgumentException("Unknown option '" + arg + "'; expected --name=value with name one of "
+                        + NAMES);
+            }
+            values.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        LoadTestOptions options = new LoadTestOptions(
+                Double.parseDouble(values.getOrDefault("rate", "5")),
+                Duration.parse(values.getOrDefault("duration", "PT1M")),
+                Duration.parse(values.getOrDefault("warmup", "PT15S")),
+                Integer.parseInt(values.getOrDefault("users", "200")),
+                Integer.parseInt(values.getOrDefault("merchants", "10")),
+                Integer.parseInt(values.getOrDefault("max-in-flight", "1000")),
+                Duration.parse(values.getOrDefault("notification-timeout", "PT30S")),
+                Long.parseLong(values.getOrDefault("dispute-window-seconds", "0")),
+                Path.of(values.getOrDefault("services-dir", ".")).toAbsolutePath().normalize(),
+                Path.of(values.getOrDefault("work-dir", "load-test/target/run")).toAbsolutePath().normalize(),
+                values.getOrDefault("service-jvm-opts", "-Xmx512m"),
+                Path.of(values.getOrDefault("report", "load-test-result.json")).toAbsolutePath().normalize());
+        if (options.rate <= 0 || options.users < 1 || options.merchants < 1 || options.maxInFlight < 1) {
+            throw new IllegalArgumentException("rate, users, merchants and max-in-flight must be positive.");
+        }
+        return options;
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.bank.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * The browser's side of notification-service: STOMP over the gateway's {@code /ws}
+ * endpoint (its raw WebSocket transport, {@code /ws/websocket}), authenticated with the
+ * {@code token} query parameter, subscribed to {@code /topic/account/{id}}.
+ */
+final class NotificationClient implements AutoCloseable {
+
+    static final String CONNECT = "WS CONNECT /ws";
+
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+
+    /** A payment outcome pushed to the source account, and when it arrived. */
+    record Notification(String type, String paymentId, long receivedAtNanos) {
+    }
+
+    private final URI gateway;
+    private final LatencyReport report;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+    private final WebSocketStompClient stompClient;
+
+    NotificationClient(URI gateway, LatencyReport report) {
+        this.gateway = gateway;
+        this.report = report;
+        scheduler.setPoolSize(2);
+        scheduler.setThreadNamePrefix("stomp-");
+        scheduler.initialize();
+        stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+        stompClient.setMessageConverter(new StringMessageConverter());
+        stompClient.setTaskScheduler(scheduler);
+    }
+
+    /**
+     * Connects as the holder of {@code token} and subscribes to {@code accountId}'s topic.
+     *
+     * <p>The simple broker sends no RECEIPT for a SUBSCRIBE, so this returns once the frame
+     * is written. The broker registers it within microseconds of reading it, long before a
+     * payment made afterwards can have been settled through Kafka and pushed back.
+     */
+    Subscription subscribe(String token, long accountId) {
+        URI uri = URI.create("ws://" + gateway.getAuthority() + "/ws/websocket?token=" + token);
+        StompSession session = timed(CONNECT, () -> stompClient.connectAsync(uri, null, null,
+                new StompSessionHandlerAdapter() {
+                }));
+
+        CompletableFuture<Notification> outcome = new CompletableFuture<>();
+        session.subscribe("/topic/account/" + accountId, new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return String.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                long receivedAt = System.nanoTime();
+                try {
+                    JsonNode notification = objectMapper.readTree((String) payload);
+                    String type = notification.path("type").asText();
+                    if (type.equals("PAYMENT_COMPLETED") || type.equals("PAYMENT_FAILED")) {
+                        outcome.complete(new Notification(type,
+                                notification.path("payload").path("paymentId").asText(), receivedAt));
+                    }
+                } catch (IOException e) {
+                    outcome.completeExceptionally(e);
+                }
+            }
+        });
+        return new Subscription(session, outcome);
+    }
+
+    /** One account's subscription; closing it disconnects the session. */
+    record Subscription(StompSession session, CompletableFuture<Notification> outcome) implements AutoCloseable {
+
+        Notification await(Duration timeout) throws TimeoutException {
+            try {
+                return outcome.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (ExecutionException e) {
+                throw new FlowException("Unreadable notification: " + e.getCause(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new FlowException("Interrupted waiting for a notification", e);
+            }
+        }
+
+        @Override
+        public void close() {
+            if (session.isConnected()) {
+                session.disconnect();
+            }
+        }
+    }
+
+    private <T> T timed(String name, Supplier<CompletableFuture<T>> call) {
+        long start = System.nanoTime();
+        CompletableFuture<T> future = call.get();
+        try {
+            T result = future.get(CONNECT_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            report.record(name, System.nanoTime() - start);
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FlowException(name + " interrupted", e);
+        } catch (ExecutionException | TimeoutException e) {
+            future.cancel(true);
+            report.error(name);
+            throw new FlowException(name + " failed: " + e, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        stompClient.stop();
+        scheduler.shutdown();
+    }
+}
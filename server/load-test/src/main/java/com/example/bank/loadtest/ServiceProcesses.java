@@ -0,0 +1,223 @@
+package com.example.bank.loadtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+/**
+ * Runs the five services as local processes from their executable jars, configured like
+ * docker-compose does but pointed at {@link Infrastructure}, and stops them again.
+ *
+ * <h3>Why processes</h3>
+ * Every service scans {@code com.example.bank}, and several define the same classes there
+ * ({@code config.SecurityConfig}, {@code config.HeaderAuthenticationFilter},
+ * {@code kafka.PaymentTask}), so they cannot share one classpath. Processes keep them as
+ * isolated as in production, on the ports docker-compose publishes.
+ *
+ * <h3>Configuration</h3>
+ * The processes inherit the harness's environment, so any service setting (e.g.
+ * {@code ACCOUNT_DATA_ACCESS_MODE=ledger}) can be set when starting it. On top of that they
+ * get the container endpoints, fresh secrets, tracing disabled, the gateway rate limits
+ * raised out of the way and {@code PAYMENT_DISPUTE_WINDOW_SECONDS}; see {@link #start}.
+ * Each writes its output to {@code <work-dir>/<service>.log}.
+ */
+final class ServiceProcesses implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ServiceProcesses.class);
+
+    static final int GATEWAY_PORT = 8080;
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(3);
+    private static final String UNLIMITED = "100000000";
+
+    private final LoadTestOptions options;
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+    private final Map<String, Process> processes = new LinkedHashMap<>();
+
+    ServiceProcesses(LoadTestOptions options) {
+        this.options = options;
+    }
+
+    /** Starts every service and returns once each reports healthy. */
+    void start(Infrastructure infra) {
+        try {
+            Files.createDirectories(options.workDir());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Map<String, String> common = commonEnv(infra);
+
+        Map<String, String> users = new HashMap<>(common);
+        users.put("SPRING_DATASOURCE_URL", infra.jdbcUrl("bank_users"));
+        Map<String, String> accounts = new HashMap<>(common);
+        accounts.put("SPRING_DATASOURCE_URL", infra.jdbcUrl("bank_accounts"));
+        accounts.put("ACCOUNT_R2DBC_URL", infra.r2dbcUrl("bank_accounts"));
+        accounts.put("ACCOUNT_LEDGER_WAL_DIR", options.workDir().resolve("ledger-wal").toString());
+        Map<String, String> payments = new HashMap<>(common);
+        payments.put("SPRING_DATASOURCE_URL", infra.jdbcUrl("bank_payments"));
+
+        launch("user-service", users);
+        launch("account-service", accounts);
+        launch("payment-service", payments);
+        launch("notification-service", common);
+        launch("api-gateway", common);
+
+        awaitHealthy("user-service", 8081);
+        awaitHealthy("account-service", 8082);
+        awaitHealthy("payment-service", 8083);
+        awaitHealthy("notification-service", 8084);
+        awaitHealthy("api-gateway", GATEWAY_PORT);
+    }
+
+    private Map<String, String> commonEnv(Infrastructure infra) {
+        Map<String, String> env = new HashMap<>();
+        env.put("DB_USERNAME", infra.dbUsername());
+        env.put("DB_PASSWORD", infra.dbPassword());
+        env.put("JWT_SECRET", randomSecret());
+        env.put("INTERNAL_SERVICE_SECRET", randomSecret());
+        env.put("KAFKA_BOOTSTRAP", infra.kafkaBootstrapServers());
+        env.put("REDIS_HOST", infra.redisHost());
+        env.put("REDIS_PORT", String.valueOf(infra.redisPort()));
+        env.put("USER_SERVICE_URL", "http://localhost:8081");
+        env.put("ACCOUNT_SERVICE_URL", "http://localhost:8082");
+        env.put("PAYMENT_SERVICE_URL", "http://localhost:8083");
+        env.put("NOTIFICATION_SERVICE_URL", "http://localhost:8084");
+        env.put("MANAGEMENT_TRACING_ENABLED", "false");
+        env.put("LOG_PATH", options.workDir().resolve("logs").toString());
+        env.put("PAYMENT_DISPUTE_WINDOW_SECONDS", String.valueOf(options.disputeWindowSeconds()));
+        // The limiter still runs on every request; it just never rejects the harness's single IP.
+        for (String route : List.of("LOGIN", "USERS", "ADMIN", "ACCOUNTS", "PAYMENTS")) {
+            env.put("RATE_LIMIT_" + route + "_MAX_REQUESTS", UNLIMITED);
+        }
+        return env;
+    }
+
+    private void launch(String service, Map<String, String> env) {
+        Path jar = executableJar(service);
+        Path dir = options.workDir().resolve(service);
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        command.addAll(Arrays.asList(options.serviceJvmOpts().trim().split("\\s+")));
+        command.add("-jar");
+        command.add(jar.toString());
+        command.removeIf(String::isEmpty);
+        try {
+            // Own working directory, so a developer's .env next to the sources is not imported.
+            Files.createDirectories(dir);
+            ProcessBuilder builder = new ProcessBuilder(command)
+                    .directory(dir.toFile())
+                    .redirectErrorStream(true)
+                    .redirectOutput(options.workDir().resolve(service + ".log").toFile());
+            builder.environment().putAll(env);
+            processes.put(service, builder.start());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start " + service, e);
+        }
+        log.info("Started {} from {}", service, jar);
+    }
+
+    private Path executableJar(String service) {
+        Path target = options.servicesDir().resolve(service).resolve("target");
+        try (Stream<Path> files = Files.list(target)) {
+            Path jar = files
+                    .filter(f -> f.getFileName().toString().startsWith(service + "-")
+                            && f.getFileName().toString().endsWith(".jar"))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException("No jar in " + target
+                            + "; build the services first (mvn -Pload-test package -DskipTests)."));
+            try (JarFile jarFile = new JarFile(jar.toFile())) {
+                if (jarFile.getManifest() == null
+                        || jarFile.getManifest().getMainAttributes().getValue("Start-Class") == null) {
+                    throw new IllegalStateException(jar + " is not an executable Spring Boot jar;"
+                            + " rebuild without -Pbenchmarks.");
+                }
+            }
+            return jar;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + target, e);
+        }
+    }
+
+    private void awaitHealthy(String service, int port) {
+        Process process = processes.get(service);
+        HttpRequest health = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/health"))
+                .timeout(Duration.ofSeconds(2))
+                .build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException(service + " exited with " + process.exitValue()
+                        + "; see " + options.workDir().resolve(service + ".log"));
+            }
+            try {
+                HttpResponse<String> response = http.send(health, HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() == 200 && response.body().contains("\"UP\"")) {
+                    log.info("{} is up on port {}", service, port);
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet.
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for " + service, e);
+            }
+            sleep(Duration.ofSeconds(1));
+        }
+        throw new IllegalStateException(service + " was not healthy after " + STARTUP_TIMEOUT
+                + "; see " + options.workDir().resolve(service + ".log"));
+    }
+
+    /** Stops the gateway first and the rest in reverse start order. Safe to call twice. */
+    @Override
+    public synchronized void close() {
+        List<Process> running = new ArrayList<>(processes.values());
+        processes.clear();
+        for (int i = running.size() - 1; i >= 0; i--) {
+            running.get(i).destroy();
+        }
+        for (Process process : running) {
+            try {
+                if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private static String randomSecret() {
+        byte[] bytes = new byte[32];
+        new SecureRandom().nextBytes(bytes);
+        return HexFormat.of().formatHex(bytes);
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted", e);
+        }
+    }
+}
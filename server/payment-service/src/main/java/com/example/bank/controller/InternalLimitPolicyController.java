@@ -0,0 +1,64 @@
+package com.example.bank.controller;
+
+import com.example.bank.dto.Payment.LimitPolicyDto;
+import com.example.bank.enums.AccountType;
+import com.example.bank.service.LimitPolicy;
+import com.example.bank.service.LimitPolicyCache;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Maintains the transfer limit policies of {@link LimitPolicyCache}. A write reaches every
+ * payment-service instance through Redis pub/sub; the response carries the version it was
+ * stored at.
+ */
+@RestController
+@RequestMapping("/internal/payments/limit-policies")
+public class InternalLimitPolicyController {
+
+    private final LimitPolicyCache policyCache;
+
+    public InternalLimitPolicyController(LimitPolicyCache policyCache) {
+        this.policyCache = policyCache;
+    }
+
+    @PutMapping("/tiers/{type}")
+    public ResponseEntity<Long> putTier(@PathVariable AccountType type, @Valid @RequestBody LimitPolicyDto policy) {
+        return ResponseEntity.ok(policyCache.putTier(type, toPolicy(policy)));
+    }
+
+    @DeleteMapping("/tiers/{type}")
+    public ResponseEntity<Long> removeTier(@PathVariable AccountType type) {
+        return ResponseEntity.ok(policyCache.removeTier(type));
+    }
+
+    @PutMapping("/accounts/{id:\\d+}")
+    public ResponseEntity<Long> putAccount(@PathVariable Long id, @Valid @RequestBody LimitPolicyDto policy) {
+        return ResponseEntity.ok(policyCache.putAccount(id, toPolicy(policy)));
+    }
+
+    @DeleteMapping("/accounts/{id:\\d+}")
+    public ResponseEntity<Long> removeAccount(@PathVariable Long id) {
+        return ResponseEntity.ok(policyCache.removeAccount(id));
+    }
+
+    /** The policy this instance currently applies to payments from the account. */
+    @GetMapping("/accounts/{id:\\d+}")
+    public ResponseEntity<LimitPolicyDto> getEffective(@PathVariable Long id) {
+        LimitPolicy policy = policyCache.resolve(id);
+        return ResponseEntity.ok(new LimitPolicyDto(policy.getVersion(), policy.getPerTransaction(),
+                policy.getDaily(), policy.getPerBeneficiary(), policy.getWeekly(), policy.getMonthly()));
+    }
+
+    private static LimitPolicy toPolicy(LimitPolicyDto dto) {
+        return new LimitPolicy(0, dto.getPerTransaction(), dto.getDaily(), dto.getPerBeneficiary(),
+                dto.getWeekly(), dto.getMonthly());
+    }
+}
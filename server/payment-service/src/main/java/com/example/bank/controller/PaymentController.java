@@ -1,17 +1,17 @@
 package com.example.bank.controller;
 
 import com.example.bank.common.ApiResponse;
+import com.example.bank.common.CursorPage;
 import com.example.bank.common.PaginationMeta;
 import com.example.bank.dto.Payment.PaymentRequestDto;
 import com.example.bank.dto.Payment.PaymentResponseDto;
 import com.example.bank.dto.Payment.PaymentStatusDto;
 import com.example.bank.enums.ErrorCode;
 import com.example.bank.exception.PaymentException;
-import com.example.bank.service.AccountServiceClient;
+import com.example.bank.service.AccountOwnershipIndex;
 import com.example.bank.service.PaymentService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -20,21 +20,19 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.security.Principal;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/payments")
 public class PaymentController {
 
     private final PaymentService paymentService;
-    private final AccountServiceClient accountServiceClient;
-    private final String internalSecret;
+    private final AccountOwnershipIndex ownershipIndex;
 
     public PaymentController(PaymentService paymentService,
-                              AccountServiceClient accountServiceClient,
-                              @Value("${internal.service-secret}") String internalSecret) {
+                              AccountOwnershipIndex ownershipIndex) {
         this.paymentService = paymentService;
-        this.accountServiceClient = accountServiceClient;
-        this.internalSecret = internalSecret;
+        this.ownershipIndex = ownershipIndex;
     }
 
     // EP-PM-01: Initiate payment
@@ -44,10 +42,10 @@ public class PaymentController {
             Principal principal,
             HttpServletRequest req) {
 
-        // Verify source account ownership via Feign
-        Boolean isOwner = accountServiceClient.isAccountOwner(
-                request.getSourceAccountId(), principal.getName(), internalSecret);
-        if (Boolean.FALSE.equals(isOwner)) {
+        // Verify source account ownership against the in-process ownership index
+        boolean isOwner = ownershipIndex.isAccountOwner(
+                request.getSourceAccountId(), principal.getName(), req.getHeader("X-Authenticated-UserId"));
+        if (!isOwner) {
             throw new PaymentException(ErrorCode.ACCOUNT_OWNERSHIP_REQUIRED,
                     "You do not own the source account.");
         }
@@ -81,8 +79,9 @@ public class PaymentController {
             HttpServletRequest req) {
 
         // Verify account ownership before returning history
-        Boolean isOwner = accountServiceClient.isAccountOwner(accountId, principal.getName(), internalSecret);
-        if (Boolean.FALSE.equals(isOwner)) {
+        boolean isOwner = ownershipIndex.isAccountOwner(
+                accountId, principal.getName(), req.getHeader("X-Authenticated-UserId"));
+        if (!isOwner) {
             throw new PaymentException(ErrorCode.ACCOUNT_OWNERSHIP_REQUIRED,
                     "You do not own this account.");
         }
@@ -95,6 +94,27 @@ public class PaymentController {
         return ResponseEntity.ok(ApiResponse.successPaginated(result, req.getHeader("X-Request-Id"), pagination));
     }
 
+    // EP-PM-03b: Payment history, keyset paginated. Selected by the presence of the
+    // "cursor" parameter; pass it empty for the first page, then the returned nextCursor.
+    @GetMapping(params = "cursor")
+    public ResponseEntity<ApiResponse<List<PaymentStatusDto>>> getPaymentHistoryByCursor(
+            @RequestParam Long accountId,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            Principal principal,
+            HttpServletRequest req) {
+
+        boolean isOwner = ownershipIndex.isAccountOwner(
+                accountId, principal.getName(), req.getHeader("X-Authenticated-UserId"));
+        if (!isOwner) {
+            throw new PaymentException(ErrorCode.ACCOUNT_OWNERSHIP_REQUIRED,
+                    "You do not own this account.");
+        }
+
+        CursorPage<PaymentStatusDto> result = paymentService.getPaymentHistory(accountId, cursor, size);
+        return ResponseEntity.ok(ApiResponse.successCursorPaginated(result, req.getHeader("X-Request-Id")));
+    }
+
     // EP-PM-04: Dispute / Cancel payment
     @PostMapping("/{paymentId}/dispute")
     public ResponseEntity<ApiResponse<PaymentStatusDto>> disputePayment(
@@ -104,10 +124,10 @@ public class PaymentController {
 
         // Get payment to check ownership
         PaymentStatusDto status = paymentService.getStatus(paymentId);
-        Boolean isOwner = accountServiceClient.isAccountOwner(
-                status.getSourceAccountId(), principal.getName(), internalSecret);
+        boolean isOwner = ownershipIndex.isAccountOwner(
+                status.getSourceAccountId(), principal.getName(), req.getHeader("X-Authenticated-UserId"));
         
-        if (Boolean.FALSE.equals(isOwner)) {
+        if (!isOwner) {
             throw new PaymentException(ErrorCode.ACCOUNT_OWNERSHIP_REQUIRED,
                     "You do not own the source account for this payment.");
         }
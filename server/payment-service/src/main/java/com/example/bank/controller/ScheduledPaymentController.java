@@ -4,11 +4,10 @@ import com.example.bank.common.ApiResponse;
 import com.example.bank.entity.ScheduledPayment;
 import com.example.bank.enums.ErrorCode;
 import com.example.bank.exception.PaymentException;
-import com.example.bank.service.AccountServiceClient;
+import com.example.bank.service.AccountOwnershipIndex;
 import com.example.bank.service.ScheduledPaymentService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -21,15 +20,12 @@ import java.util.List;
 public class ScheduledPaymentController {
 
     private final ScheduledPaymentService scheduledPaymentService;
-    private final AccountServiceClient accountServiceClient;
-    private final String internalSecret;
+    private final AccountOwnershipIndex ownershipIndex;
 
     public ScheduledPaymentController(ScheduledPaymentService scheduledPaymentService,
-                                      AccountServiceClient accountServiceClient,
-                                      @Value("${internal.service-secret}") String internalSecret) {
+                                      AccountOwnershipIndex ownershipIndex) {
         this.scheduledPaymentService = scheduledPaymentService;
-        this.accountServiceClient = accountServiceClient;
-        this.internalSecret = internalSecret;
+        this.ownershipIndex = ownershipIndex;
     }
 
     @PostMapping
@@ -38,9 +34,9 @@ public class ScheduledPaymentController {
             Principal principal,
             HttpServletRequest req) {
 
-        Boolean isOwner = accountServiceClient.isAccountOwner(
-                payment.getSourceAccountId(), principal.getName(), internalSecret);
-        if (Boolean.FALSE.equals(isOwner)) {
+        boolean isOwner = ownershipIndex.isAccountOwner(
+                payment.getSourceAccountId(), principal.getName(), req.getHeader("X-Authenticated-UserId"));
+        if (!isOwner) {
             throw new PaymentException(ErrorCode.ACCOUNT_OWNERSHIP_REQUIRED,
                     "You do not own the source account.");
         }
@@ -68,9 +64,9 @@ public class ScheduledPaymentController {
             Principal principal,
             HttpServletRequest req) {
 
-        Boolean isOwner = accountServiceClient.isAccountOwner(
-                accountId, principal.getName(), internalSecret);
-        if (Boolean.FALSE.equals(isOwner)) {
+        boolean isOwner = ownershipIndex.isAccountOwner(
+                accountId, principal.getName(), req.getHeader("X-Authenticated-UserId"));
+        if (!isOwner) {
             throw new PaymentException(ErrorCode.ACCOUNT_OWNERSHIP_REQUIRED,
                     "You do not own the source account.");
         }
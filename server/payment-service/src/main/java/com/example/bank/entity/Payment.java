@@ -13,7 +13,10 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "payments", indexes = {
-        @Index(name = "idx_payments_idempotency_key", columnList = "idempotency_key", unique = true)
+        @Index(name = "idx_payments_idempotency_key", columnList = "idempotency_key", unique = true),
+        @Index(name = "idx_payments_status_submitted_at", columnList = "status, submitted_at, id"),
+        @Index(name = "idx_payments_source_submitted_at", columnList = "source_account_id, submitted_at"),
+        @Index(name = "idx_payments_target_submitted_at", columnList = "target_account_id, submitted_at")
 })
 @Getter
 @Setter
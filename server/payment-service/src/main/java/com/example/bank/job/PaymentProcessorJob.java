@@ -7,56 +7,113 @@ import com.example.bank.kafka.PaymentTask;
 import com.example.bank.repository.PaymentRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
+/**
+ * Safety net that sweeps PENDING payments whose dispute window has elapsed onto
+ * "payments-topic". Payments are normally released on time by
+ * {@link com.example.bank.scheduling.DisputeWindowScheduler}; this job catches anything
+ * the in-memory wheel missed (crash before seeding, failed release) and so runs rarely
+ * and only looks at rows a grace period past their deadline.
+ *
+ * <h3>Chunking</h3>
+ * Due rows are claimed in chunks of {@code payment.sweeper.chunk-size}, walking a keyset
+ * cursor on {@code (submitted_at, id)}. Each chunk is its own transaction: lock the rows
+ * with {@code FOR UPDATE SKIP LOCKED}, flip them to PROCESSING with one bulk UPDATE, and
+ * enqueue the tasks after commit. A backlog after a Kafka outage is therefore drained in
+ * bounded memory, and a failure only rolls back the current chunk.
+ *
+ * <h3>Multiple replicas</h3>
+ * {@code SKIP LOCKED} makes concurrent sweepers partition the backlog between them
+ * instead of blocking; the {@code status = PENDING} guard on the UPDATE means a row is
+ * only ever claimed (and enqueued) once.
+ */
 @Component
 public class PaymentProcessorJob {
 
     private static final Logger log = LoggerFactory.getLogger(PaymentProcessorJob.class);
+    private static final LocalDateTime KEYSET_START = LocalDateTime.of(1970, 1, 1, 0, 0);
 
     private final PaymentRepository paymentRepository;
     private final PaymentProducerService paymentProducerService;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final long disputeWindowSeconds;
+    private final long graceSeconds;
 
     public PaymentProcessorJob(PaymentRepository paymentRepository,
-                               PaymentProducerService paymentProducerService) {
+                               PaymentProducerService paymentProducerService,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${payment.sweeper.chunk-size:500}") int chunkSize,
+                               @Value("${payment.dispute-window-seconds:60}") long disputeWindowSeconds,
+                               @Value("${payment.sweeper.grace-seconds:10}") long graceSeconds) {
         this.paymentRepository = paymentRepository;
         this.paymentProducerService = paymentProducerService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.disputeWindowSeconds = disputeWindowSeconds;
+        this.graceSeconds = graceSeconds;
     }
 
     /**
-     * Runs every 10 seconds.
-     * Finds PENDING payments that are older than 60 seconds,
-     * marks them as PROCESSING, and queues them to Kafka.
+     * Runs every {@code payment.sweeper.interval-ms} (default 60 seconds).
+     * Claims PENDING payments past their dispute window plus a grace period chunk by
+     * chunk, marks them as PROCESSING, and queues them to Kafka.
      */
-    @Scheduled(fixedRate = 10000)
-    @Transactional
+    @Scheduled(fixedDelayString = "${payment.sweeper.interval-ms:60000}")
     public void processPendingPayments() {
-        LocalDateTime cutoff = LocalDateTime.now().minusSeconds(60);
-        List<Payment> readyToProcess = paymentRepository.findByStatusAndSubmittedAtBefore(PaymentStatus.PENDING, cutoff);
+        LocalDateTime cutoff = LocalDateTime.now().minusSeconds(disputeWindowSeconds + graceSeconds);
+        LocalDateTime afterSubmittedAt = KEYSET_START;
+        String afterId = "";
+        int total = 0;
 
-        if (readyToProcess.isEmpty()) {
-            return;
+        while (true) {
+            List<Payment> chunk = claimChunk(cutoff, afterSubmittedAt, afterId);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            total += chunk.size();
+            Payment last = chunk.get(chunk.size() - 1);
+            afterSubmittedAt = last.getSubmittedAt();
+            afterId = last.getId();
+            if (chunk.size() < chunkSize) {
+                break;
+            }
         }
 
-        log.info("Found {} pending payments older than 60 seconds. Processing...", readyToProcess.size());
+        if (total > 0) {
+            log.warn("Safety-net sweep enqueued {} overdue pending payments.", total);
+        }
+    }
 
-        for (Payment payment : readyToProcess) {
-            payment.setStatus(PaymentStatus.PROCESSING);
-            paymentRepository.save(payment);
+    private List<Payment> claimChunk(LocalDateTime cutoff, LocalDateTime afterSubmittedAt, String afterId) {
+        return transactionTemplate.execute(status -> {
+            List<Payment> chunk = paymentRepository.lockDuePendingChunk(cutoff, afterSubmittedAt, afterId, chunkSize);
+            if (chunk.isEmpty()) {
+                return chunk;
+            }
+            paymentRepository.transitionStatus(
+                    chunk.stream().map(Payment::getId).toList(), PaymentStatus.PENDING, PaymentStatus.PROCESSING);
 
-            PaymentTask task = new PaymentTask(
-                    payment.getId(),
-                    payment.getSourceAccountId(),
-                    payment.getTargetAccountId(),
-                    payment.getAmount()
-            );
-            paymentProducerService.enqueue(task);
-            log.debug("Enqueued payment {} to Kafka.", payment.getId());
-        }
+            // enqueue() defers the send to afterCommit, so nothing reaches Kafka
+            // unless the PROCESSING flip for this chunk is durable.
+            for (Payment payment : chunk) {
+                paymentProducerService.enqueue(new PaymentTask(
+                        payment.getId(),
+                        payment.getSourceAccountId(),
+                        payment.getTargetAccountId(),
+                        payment.getAmount()
+                ));
+            }
+            log.debug("Claimed chunk of {} payments.", chunk.size());
+            return chunk;
+        });
     }
 }
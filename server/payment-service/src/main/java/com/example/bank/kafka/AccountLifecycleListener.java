@@ -0,0 +1,38 @@
+package com.example.bank.kafka;
+
+import com.example.bank.common.event.AccountLifecycleEvent;
+import com.example.bank.service.AccountOwnershipIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps {@link AccountOwnershipIndex} current from account-service lifecycle events.
+ *
+ * <p>Every replica holds its own index, so each one joins with a random consumer group
+ * and starts from the latest offset; accounts opened while it was down are picked up by
+ * cold-miss lookups instead.
+ */
+@Component
+public class AccountLifecycleListener {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountLifecycleListener.class);
+
+    private final AccountOwnershipIndex ownershipIndex;
+
+    public AccountLifecycleListener(AccountOwnershipIndex ownershipIndex) {
+        this.ownershipIndex = ownershipIndex;
+    }
+
+    @KafkaListener(topics = "account-lifecycle-topic", groupId = "payment-ownership-${random.uuid}",
+            properties = "auto.offset.reset=latest")
+    public void onLifecycleEvent(AccountLifecycleEvent event) {
+        switch (event.getEventType()) {
+            case "ACCOUNT_OPENED" -> ownershipIndex.accountOpened(
+                    event.getAccountId(), event.getUserId(), event.getAccountType());
+            case "ACCOUNT_CLOSED" -> ownershipIndex.accountClosed(event.getAccountId());
+            default -> log.debug("Ignoring account lifecycle event {}", event.getEventType());
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.bank.kafka;
+
+import com.example.bank.dto.ApplyPaymentRequest;
+import com.example.bank.dto.ApplyPaymentResult;
+import com.example.bank.entity.Payment;
+import com.example.bank.enums.PaymentStatus;
+import com.example.bank.repository.PaymentRepository;
+import com.example.bank.service.AccountServiceClient;
+import com.example.bank.service.IdempotentResponseStore;
+import com.example.bank.service.PaymentReservationService;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Batch settlement mode, enabled with {@code payment.settlement.mode=batch}.
+ *
+ * <h3>Flow</h3>
+ * Each poll delivers up to {@code payment.settlement.batch-size} tasks. The listener loads
+ * all referenced payments with one query, drops anything already settled, and groups the
+ * rest by account pair so payments between the same two accounts stay adjacent and in
+ * their original order. The whole batch is sent to account-service in a single
+ * {@code /internal/accounts/apply-payments} call, which locks each account once and
+ * reports success or failure per payment.
+ *
+ * <h3>Failure handling</h3>
+ * A per-payment failure only fails that payment. If the bulk call itself fails
+ * (timeout, open circuit, 5xx) every payment in the batch is marked FAILED, which is the
+ * same outcome the single-record listener produces for a failed Feign call.
+ */
+@Component
+@ConditionalOnProperty(name = "payment.settlement.mode", havingValue = "batch")
+public class PaymentBatchTaskListener {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentBatchTaskListener.class);
+
+    private final PaymentRepository paymentRepository;
+    private final AccountServiceClient accountServiceClient;
+    private final PaymentNotificationProducer notificationProducer;
+    private final IdempotentResponseStore responseStore;
+    private final PaymentReservationService reservationService;
+    private final String internalSecret;
+
+    public PaymentBatchTaskListener(PaymentRepository paymentRepository,
+                                    AccountServiceClient accountServiceClient,
+                                    PaymentNotificationProducer notificationProducer,
+                                    IdempotentResponseStore responseStore,
+                                    PaymentReservationService reservationService,
+                                    @Value("${internal.service-secret}") String internalSecret) {
+        this.paymentRepository = paymentRepository;
+        this.accountServiceClient = accountServiceClient;
+        this.notificationProducer = notificationProducer;
+        this.responseStore = responseStore;
+        this.reservationService = reservationService;
+        this.internalSecret = internalSecret;
+    }
+
+    @KafkaListener(topics = "payments-topic", groupId = "payment-group", batch = "true",
+            properties = "max.poll.records=${payment.settlement.batch-size:100}")
+    @Transactional
+    public void consumePaymentTasks(List<PaymentTask> tasks) {
+        Map<String, Payment> payments = paymentRepository
+                .findAllById(tasks.stream().map(PaymentTask::getPaymentId).distinct().toList())
+                .stream()
+                .collect(Collectors.toMap(Payment::getId, Function.identity()));
+
+        // Group by account pair, keeping first-seen order of pairs and of payments within a pair.
+        Map<String, List<PaymentTask>> byPair = new LinkedHashMap<>();
+        for (PaymentTask task : tasks) {
+            Payment payment = payments.get(task.getPaymentId());
+            if (payment == null) {
+                log.warn("Payment {} not found. Skipping.", task.getPaymentId());
+                continue;
+            }
+            if (payment.getStatus() != PaymentStatus.PENDING && payment.getStatus() != PaymentStatus.PROCESSING) {
+                log.info("Payment {} already processed (status={}). Skipping.", payment.getId(), payment.getStatus());
+                continue;
+            }
+            byPair.computeIfAbsent(pairKey(task), k -> new ArrayList<>()).add(task);
+        }
+
+        List<ApplyPaymentRequest> requests = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (List<PaymentTask> group : byPair.values()) {
+            for (PaymentTask task : group) {
+                if (seen.add(task.getPaymentId())) {   // redelivered duplicates in the same poll
+                    requests.add(new ApplyPaymentRequest(task.getSourceAccountId(), task.getTargetAccountId(),
+                            task.getAmount(), task.getPaymentId()));
+                }
+            }
+        }
+        if (requests.isEmpty()) {
+            return;
+        }
+
+        List<ApplyPaymentResult> results;
+        try {
+            results = accountServiceClient.applyPayments(requests, internalSecret);
+        } catch (Exception e) {
+            log.error("Batch of {} payments failed: {}", requests.size(), e.getMessage());
+            for (ApplyPaymentRequest request : requests) {
+                settle(payments.get(request.getPaymentId()), false, e.getMessage());
+            }
+            return;
+        }
+
+        for (ApplyPaymentResult result : results) {
+            Payment payment = payments.get(result.getPaymentId());
+            if (payment == null) {
+                continue;
+            }
+            if (!result.isSuccess()) {
+                log.error("Payment {} failed: {}", payment.getId(), result.getFailureReason());
+            }
+            settle(payment, result.isSuccess(), result.getFailureReason());
+        }
+        log.info("Settled batch of {} payments across {} account pairs", requests.size(), byPair.size());
+    }
+
+    private void settle(Payment payment, boolean success, String failureReason) {
+        payment.setStatus(success ? PaymentStatus.COMPLETED : PaymentStatus.FAILED);
+        payment.setFailureReason(success ? null : failureReason);
+        payment.setCompletedAt(LocalDateTime.now());
+        paymentRepository.save(payment);
+        responseStore.refreshAfterCommit(payment);
+        if (!success) {
+            reservationService.refundAfterCommit(payment);
+        }
+        notificationProducer.publish(payment, failureReason);
+    }
+
+    private static String pairKey(PaymentTask task) {
+        long a = task.getSourceAccountId();
+        long b = task.getTargetAccountId();
+        return Math.min(a, b) + ":" + Math.max(a, b);
+    }
+}
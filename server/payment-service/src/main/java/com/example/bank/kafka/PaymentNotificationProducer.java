@@ -0,0 +1,32 @@
+package com.example.bank.kafka;
+
+import com.example.bank.common.event.PaymentNotificationEvent;
+import com.example.bank.entity.Payment;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+@Service
+public class PaymentNotificationProducer {
+
+    private static final String TOPIC = "payment-notifications-topic";
+
+    private final KafkaTemplate<String, PaymentNotificationEvent> notificationTemplate;
+
+    public PaymentNotificationProducer(KafkaTemplate<String, PaymentNotificationEvent> notificationTemplate) {
+        this.notificationTemplate = notificationTemplate;
+    }
+
+    public void publish(Payment payment, String failureReason) {
+        PaymentNotificationEvent event = new PaymentNotificationEvent(
+                payment.getId(),
+                payment.getStatus(),
+                failureReason,
+                payment.getSourceAccountId(),
+                payment.getTargetAccountId(),
+                payment.getAmount(),
+                payment.getSubmittedAt(),
+                payment.getCompletedAt()
+        );
+        notificationTemplate.send(TOPIC, String.valueOf(payment.getSourceAccountId()), event);
+    }
+}
@@ -1,42 +1,50 @@
 package com.example.bank.kafka;
 
-import com.example.bank.common.event.PaymentNotificationEvent;
 import com.example.bank.dto.ApplyPaymentRequest;
 import com.example.bank.entity.Payment;
 import com.example.bank.enums.PaymentStatus;
 import com.example.bank.repository.PaymentRepository;
 import com.example.bank.service.AccountServiceClient;
-import com.example.bank.service.PaymentService;
+import com.example.bank.service.IdempotentResponseStore;
+import com.example.bank.service.PaymentReservationService;
 import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
 
+/**
+ * Settles one {@link PaymentTask} per Kafka record. This is the default mode; set
+ * {@code payment.settlement.mode=batch} to switch to {@link PaymentBatchTaskListener}.
+ */
 @Component
+@ConditionalOnProperty(name = "payment.settlement.mode", havingValue = "single", matchIfMissing = true)
 public class PaymentTaskListener {
 
     private static final Logger log = LoggerFactory.getLogger(PaymentTaskListener.class);
 
     private final PaymentRepository paymentRepository;
     private final AccountServiceClient accountServiceClient;
-    private final PaymentService paymentService;
-    private final KafkaTemplate<String, PaymentNotificationEvent> notificationTemplate;
+    private final PaymentNotificationProducer notificationProducer;
+    private final IdempotentResponseStore responseStore;
+    private final PaymentReservationService reservationService;
     private final String internalSecret;
 
     public PaymentTaskListener(PaymentRepository paymentRepository,
                                 AccountServiceClient accountServiceClient,
-                                PaymentService paymentService,
-                                KafkaTemplate<String, PaymentNotificationEvent> notificationTemplate,
+                                PaymentNotificationProducer notificationProducer,
+                                IdempotentResponseStore responseStore,
+                                PaymentReservationService reservationService,
                                 @Value("${internal.service-secret}") String internalSecret) {
         this.paymentRepository = paymentRepository;
         this.accountServiceClient = accountServiceClient;
-        this.paymentService = paymentService;
-        this.notificationTemplate = notificationTemplate;
+        this.notificationProducer = notificationProducer;
+        this.responseStore = responseStore;
+        this.reservationService = reservationService;
         this.internalSecret = internalSecret;
     }
 
@@ -60,30 +68,21 @@ public class PaymentTaskListener {
             payment.setStatus(PaymentStatus.COMPLETED);
             payment.setCompletedAt(LocalDateTime.now());
             paymentRepository.save(payment);
+            responseStore.refreshAfterCommit(payment);
 
-            publishNotification(payment, null);
+            notificationProducer.publish(payment, null);
 
         } catch (Exception e) {
             log.error("Payment {} failed: {}", payment.getId(), e.getMessage());
-            paymentService.markPaymentFailed(payment.getId(), e.getMessage());
-            Payment failed = paymentRepository.findById(payment.getId()).orElse(payment);
-            failed.setStatus(PaymentStatus.FAILED);
-            publishNotification(failed, e.getMessage());
+            // Failed in this transaction, like a completion. PaymentService.markPaymentFailed
+            // skips PROCESSING payments, and its own transaction would race this one's copy.
+            payment.setStatus(PaymentStatus.FAILED);
+            payment.setFailureReason(e.getMessage());
+            payment.setCompletedAt(LocalDateTime.now());
+            paymentRepository.save(payment);
+            responseStore.refreshAfterCommit(payment);
+            reservationService.refundAfterCommit(payment);
+            notificationProducer.publish(payment, e.getMessage());
         }
     }
-
-    private void publishNotification(Payment payment, String failureReason) {
-        PaymentNotificationEvent event = new PaymentNotificationEvent(
-                payment.getId(),
-                payment.getStatus(),
-                failureReason,
-                payment.getSourceAccountId(),
-                payment.getTargetAccountId(),
-                payment.getAmount(),
-                payment.getSubmittedAt(),
-                payment.getCompletedAt()
-        );
-        notificationTemplate.send("payment-notifications-topic",
-                String.valueOf(payment.getSourceAccountId()), event);
-    }
 }
@@ -1,11 +1,20 @@
 package com.example.bank.repository;
 
 import com.example.bank.entity.Payment;
+import com.example.bank.enums.PaymentStatus;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface PaymentRepository extends JpaRepository<Payment, String> {
 
@@ -15,5 +24,77 @@ public interface PaymentRepository extends JpaRepository<Payment, String> {
     Page<Payment> findBySourceAccountIdOrTargetAccountIdOrderBySubmittedAtDesc(
             Long sourceAccountId, Long targetAccountId, Pageable pageable);
 
-    List<Payment> findByStatusAndSubmittedAtBefore(com.example.bank.enums.PaymentStatus status, java.time.LocalDateTime date);
+    /**
+     * Keyset page of an account's history, newest first. Each UNION branch is a range scan
+     * on its own index ({@code idx_payments_source_submitted_at} /
+     * {@code idx_payments_target_submitted_at}) capped at {@code limit}, so the cost does
+     * not depend on how deep the cursor is. A payment never has source == target, so
+     * UNION ALL cannot return duplicates.
+     */
+    @Query(value = """
+            SELECT * FROM (
+                (SELECT * FROM payments
+                 WHERE source_account_id = :accountId
+                   AND (submitted_at < :beforeSubmittedAt
+                        OR (submitted_at = :beforeSubmittedAt AND id < :beforeId))
+                 ORDER BY submitted_at DESC, id DESC
+                 LIMIT :limit)
+                UNION ALL
+                (SELECT * FROM payments
+                 WHERE target_account_id = :accountId
+                   AND (submitted_at < :beforeSubmittedAt
+                        OR (submitted_at = :beforeSubmittedAt AND id < :beforeId))
+                 ORDER BY submitted_at DESC, id DESC
+                 LIMIT :limit)
+            ) history
+            ORDER BY submitted_at DESC, id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Payment> findHistoryBefore(@Param("accountId") Long accountId,
+                                    @Param("beforeSubmittedAt") LocalDateTime beforeSubmittedAt,
+                                    @Param("beforeId") String beforeId,
+                                    @Param("limit") int limit);
+
+    /**
+     * Claims the next chunk of due PENDING payments after the keyset cursor
+     * {@code (afterSubmittedAt, afterId)}. Rows already locked by another sweeper
+     * replica are skipped rather than waited on, so replicas never claim the same row.
+     * Served by {@code idx_payments_status_submitted_at}.
+     */
+    @Query(value = """
+            SELECT * FROM payments
+            WHERE status = 'PENDING'
+              AND submitted_at < :cutoff
+              AND (submitted_at > :afterSubmittedAt
+                   OR (submitted_at = :afterSubmittedAt AND id > :afterId))
+            ORDER BY submitted_at, id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<Payment> lockDuePendingChunk(@Param("cutoff") LocalDateTime cutoff,
+                                      @Param("afterSubmittedAt") LocalDateTime afterSubmittedAt,
+                                      @Param("afterId") String afterId,
+                                      @Param("limit") int limit);
+
+    @Query("select p from Payment p where p.status = :status"
+            + " and (p.submittedAt > :afterSubmittedAt or (p.submittedAt = :afterSubmittedAt and p.id > :afterId))"
+            + " order by p.submittedAt, p.id")
+    List<Payment> findByStatusAfterKeyset(@Param("status") PaymentStatus status,
+                                          @Param("afterSubmittedAt") LocalDateTime afterSubmittedAt,
+                                          @Param("afterId") String afterId,
+                                          Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from Payment p where p.id = :id")
+    Optional<Payment> findByIdForUpdate(@Param("id") String id);
+
+    @Modifying
+    @Query("update Payment p set p.status = :to where p.id in :ids and p.status = :from")
+    int transitionStatus(@Param("ids") Collection<String> ids,
+                         @Param("from") PaymentStatus from,
+                         @Param("to") PaymentStatus to);
+
+    /** Accounts that initiated a payment since {@code since}; used to warm the ownership index. */
+    @Query("select distinct p.sourceAccountId from Payment p where p.submittedAt >= :since")
+    List<Long> findSourceAccountIdsSince(@Param("since") LocalDateTime since);
 }
@@ -0,0 +1,169 @@
+package com.example.bank.scheduling;
+
+import com.example.bank.entity.Payment;
+import com.example.bank.enums.PaymentStatus;
+import com.example.bank.kafka.PaymentProducerService;
+import com.example.bank.kafka.PaymentTask;
+import com.example.bank.repository.PaymentRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Releases PENDING payments to "payments-topic" as soon as their dispute window closes.
+ *
+ * <h3>How it works</h3>
+ * {@code initiatePayment} registers each new payment's release deadline
+ * ({@code submittedAt + payment.dispute-window-seconds}) in a {@link HierarchicalTimingWheel}
+ * once its transaction commits; {@code disputePayment} cancels it. When a deadline fires
+ * the payment is claimed with a conditional {@code PENDING → PROCESSING} UPDATE and, only
+ * if that UPDATE hit the row, enqueued to Kafka.
+ *
+ * <h3>Recovery</h3>
+ * The wheel is in-memory only. On startup it is re-seeded from every PENDING row, and
+ * {@code PaymentProcessorJob} still runs as a low-frequency safety net. Because every
+ * release path uses the same conditional claim, the wheel, the sweeper and other
+ * replicas can overlap without a payment being enqueued twice.
+ */
+@Component
+public class DisputeWindowScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(DisputeWindowScheduler.class);
+    private static final LocalDateTime KEYSET_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final int SEED_CHUNK_SIZE = 1000;
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentProducerService paymentProducerService;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration disputeWindow;
+    private final ExecutorService releaseExecutor;
+    private final HierarchicalTimingWheel wheel;
+    private final Map<String, HierarchicalTimingWheel.Timeout> timeouts = new ConcurrentHashMap<>();
+
+    public DisputeWindowScheduler(PaymentRepository paymentRepository,
+                                  PaymentProducerService paymentProducerService,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${payment.dispute-window-seconds:60}") long disputeWindowSeconds,
+                                  @Value("${payment.dispute-wheel.tick-ms:100}") long tickMs,
+                                  @Value("${payment.dispute-wheel.size:64}") int wheelSize,
+                                  @Value("${payment.dispute-wheel.release-threads:2}") int releaseThreads) {
+        this.paymentRepository = paymentRepository;
+        this.paymentProducerService = paymentProducerService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.disputeWindow = Duration.ofSeconds(disputeWindowSeconds);
+        this.releaseExecutor = Executors.newFixedThreadPool(releaseThreads);
+        this.wheel = new HierarchicalTimingWheel("dispute-window-wheel", tickMs, wheelSize, releaseExecutor);
+    }
+
+    /**
+     * Registers the payment's release deadline once the surrounding transaction commits,
+     * so a rolled-back payment is never released.
+     */
+    public void register(Payment payment) {
+        PaymentTask task = new PaymentTask(payment.getId(), payment.getSourceAccountId(),
+                payment.getTargetAccountId(), payment.getAmount());
+        LocalDateTime submittedAt = payment.getSubmittedAt() != null ? payment.getSubmittedAt() : LocalDateTime.now();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    schedule(task, submittedAt);
+                }
+            });
+        } else {
+            schedule(task, submittedAt);
+        }
+    }
+
+    /** Cancels the pending release of a payment, e.g. because it was disputed. */
+    public void cancel(String paymentId) {
+        HierarchicalTimingWheel.Timeout timeout = timeouts.remove(paymentId);
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
+    /** Number of payments whose release is still tracked, i.e. waiting in the wheel. */
+    public int scheduledCount() {
+        return timeouts.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedFromDatabase() {
+        LocalDateTime afterSubmittedAt = KEYSET_START;
+        String afterId = "";
+        int seeded = 0;
+        while (true) {
+            List<Payment> chunk = paymentRepository.findByStatusAfterKeyset(
+                    PaymentStatus.PENDING, afterSubmittedAt, afterId, PageRequest.ofSize(SEED_CHUNK_SIZE));
+            for (Payment payment : chunk) {
+                schedule(new PaymentTask(payment.getId(), payment.getSourceAccountId(),
+                        payment.getTargetAccountId(), payment.getAmount()), payment.getSubmittedAt());
+            }
+            seeded += chunk.size();
+            if (chunk.size() < SEED_CHUNK_SIZE) {
+                break;
+            }
+            Payment last = chunk.get(chunk.size() - 1);
+            afterSubmittedAt = last.getSubmittedAt();
+            afterId = last.getId();
+        }
+        log.info("Seeded dispute-window wheel with {} pending payments.", seeded);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        wheel.close();
+        releaseExecutor.shutdown();
+    }
+
+    private void schedule(PaymentTask task, LocalDateTime submittedAt) {
+        long deadline = submittedAt.plus(disputeWindow).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        AtomicBoolean fired = new AtomicBoolean();
+        HierarchicalTimingWheel.Timeout timeout = wheel.schedule(deadline, () -> {
+            fired.set(true);
+            release(task);
+        });
+        timeouts.put(task.getPaymentId(), timeout);
+        // A past-due deadline runs at once, so release() may already have missed this entry
+        if (fired.get()) {
+            timeouts.remove(task.getPaymentId(), timeout);
+        }
+    }
+
+    private void release(PaymentTask task) {
+        timeouts.remove(task.getPaymentId());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                int claimed = paymentRepository.transitionStatus(
+                        List.of(task.getPaymentId()), PaymentStatus.PENDING, PaymentStatus.PROCESSING);
+                if (claimed == 1) {
+                    paymentProducerService.enqueue(task);
+                }
+            });
+        } catch (Exception e) {
+            // Left PENDING; PaymentProcessorJob will pick it up on its next sweep.
+            log.error("Failed to release payment {}: {}", task.getPaymentId(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.example.bank.scheduling;
+
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical hashed timing wheel for large numbers of short-lived timeouts.
+ *
+ * <h3>Structure</h3>
+ * The lowest wheel has {@code wheelSize} buckets of {@code tickMs} each. A timeout that
+ * falls beyond the lowest wheel's span goes into a lazily created overflow wheel whose
+ * tick is the whole span of the wheel below it, and so on. Insert and cancel are O(1).
+ *
+ * <h3>Driving the clock</h3>
+ * Only non-empty buckets are placed on a {@link DelayQueue}, so the driver thread sleeps
+ * until the next bucket actually expires instead of ticking through empty slots. When a
+ * bucket from an overflow wheel expires its timeouts are re-inserted, cascading down to
+ * finer wheels until they land in an expired bucket and are handed to the executor.
+ *
+ * <h3>Threading</h3>
+ * {@link #schedule} may be called from any thread. Expired actions run on the supplied
+ * executor, never on the driver thread, so a slow action cannot delay other timeouts.
+ */
+public class HierarchicalTimingWheel implements AutoCloseable {
+
+    private final Executor executor;
+    private final DelayQueue<Bucket> queue = new DelayQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Wheel wheel;
+    private final Thread driver;
+    private volatile boolean running = true;
+
+    public HierarchicalTimingWheel(String name, long tickMs, int wheelSize, Executor executor) {
+        this.executor = executor;
+        this.wheel = new Wheel(tickMs, wheelSize, System.currentTimeMillis());
+        this.driver = new Thread(this::drive, name);
+        this.driver.setDaemon(true);
+        this.driver.start();
+    }
+
+    /**
+     * Schedules {@code action} to run at {@code deadlineMs} (epoch millis). Deadlines
+     * already in the past run immediately.
+     */
+    public Timeout schedule(long deadlineMs, Runnable action) {
+        Timeout timeout = new Timeout(deadlineMs, action);
+        lock.readLock().lock();
+        try {
+            addOrRun(timeout);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return timeout;
+    }
+
+    /** Number of scheduled, not yet expired or cancelled, timeouts. */
+    public int size() {
+        return pending.get();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        driver.interrupt();
+    }
+
+    private void addOrRun(Timeout timeout) {
+        if (!wheel.add(timeout) && !timeout.isCancelled()) {
+            executor.execute(timeout.action);
+        }
+    }
+
+    private void drive() {
+        while (running) {
+            try {
+                Bucket bucket = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (bucket == null) {
+                    continue;
+                }
+                lock.writeLock().lock();
+                try {
+                    while (bucket != null) {
+                        wheel.advanceClock(bucket.getExpiration());
+                        bucket.flush(this::addOrRun);
+                        bucket = queue.poll();
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // ── Timeout ──────────────────────────────────────────────────────────────
+
+    public final class Timeout {
+        private final long deadlineMs;
+        private final Runnable action;
+        private volatile Bucket bucket;
+        private Timeout prev;
+        private Timeout next;
+
+        private Timeout(long deadlineMs, Runnable action) {
+            this.deadlineMs = deadlineMs;
+            this.action = action;
+        }
+
+        public long getDeadlineMs() {
+            return deadlineMs;
+        }
+
+        /**
+         * Removes the timeout from its bucket. Returns false if it already fired, or if it
+         * was mid-cascade between two wheels; callers must tolerate the action still running.
+         */
+        public boolean cancel() {
+            Bucket b = bucket;
+            while (b != null) {
+                if (b.remove(this)) {
+                    return true;
+                }
+                b = bucket;     // moved by a concurrent flush, retry against the new bucket
+            }
+            return false;
+        }
+
+        private boolean isCancelled() {
+            return bucket == null && prev == this;
+        }
+    }
+
+    // ── Bucket ───────────────────────────────────────────────────────────────
+
+    private final class Bucket implements Delayed {
+        private final AtomicLong expiration = new AtomicLong(-1L);
+        private final Timeout root = new Timeout(-1L, null);
+
+        Bucket() {
+            root.next = root;
+            root.prev = root;
+        }
+
+        /** Returns true if the expiration changed, i.e. the bucket must be (re)queued. */
+        boolean setExpiration(long expirationMs) {
+            return expiration.getAndSet(expirationMs) != expirationMs;
+        }
+
+        long getExpiration() {
+            return expiration.get();
+        }
+
+        synchronized void add(Timeout timeout) {
+            Timeout tail = root.prev;
+            timeout.next = root;
+            timeout.prev = tail;
+            tail.next = timeout;
+            root.prev = timeout;
+            timeout.bucket = this;
+            pending.incrementAndGet();
+        }
+
+        synchronized boolean remove(Timeout timeout) {
+            if (timeout.bucket != this) {
+                return false;
+            }
+            timeout.next.prev = timeout.prev;
+            timeout.prev.next = timeout.next;
+            timeout.next = null;
+            timeout.prev = timeout;     // marks the timeout as cancelled
+            timeout.bucket = null;
+            pending.decrementAndGet();
+            return true;
+        }
+
+        synchronized void flush(Consumer<Timeout> consumer) {
+            Timeout t = root.next;
+            while (t != root) {
+                Timeout next = t.next;
+                t.next = null;
+                t.prev = null;
+                t.bucket = null;
+                pending.decrementAndGet();
+                consumer.accept(t);
+                t = next;
+            }
+            root.next = root;
+            root.prev = root;
+            expiration.set(-1L);
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(Math.max(getExpiration() - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(getExpiration(), ((Bucket) other).getExpiration());
+        }
+    }
+
+    // ── Wheel ────────────────────────────────────────────────────────────────
+
+    private final class Wheel {
+        private final long tickMs;
+        private final int wheelSize;
+        private final long interval;
+        private final Bucket[] buckets;
+        private long currentTime;
+        private volatile Wheel overflow;
+
+        Wheel(long tickMs, int wheelSize, long startMs) {
+            this.tickMs = tickMs;
+            this.wheelSize = wheelSize;
+            this.interval = tickMs * wheelSize;
+            this.buckets = new Bucket[wheelSize];
+            for (int i = 0; i < wheelSize; i++) {
+                buckets[i] = new Bucket();
+            }
+            this.currentTime = startMs - (startMs % tickMs);
+        }
+
+        /** Returns false if the timeout has already expired and should run now. */
+        boolean add(Timeout timeout) {
+            long deadline = timeout.deadlineMs;
+            if (deadline < currentTime + tickMs) {
+                return false;
+            }
+            if (deadline < currentTime + interval) {
+                long virtualId = deadline / tickMs;
+                Bucket bucket = buckets[(int) (virtualId % wheelSize)];
+                bucket.add(timeout);
+                if (bucket.setExpiration(virtualId * tickMs)) {
+                    queue.offer(bucket);
+                }
+                return true;
+            }
+            return overflow().add(timeout);
+        }
+
+        void advanceClock(long timeMs) {
+            if (timeMs >= currentTime + tickMs) {
+                currentTime = timeMs - (timeMs % tickMs);
+                Wheel o = overflow;
+                if (o != null) {
+                    o.advanceClock(currentTime);
+                }
+            }
+        }
+
+        private Wheel overflow() {
+            Wheel o = overflow;
+            if (o == null) {
+                synchronized (this) {
+                    o = overflow;
+                    if (o == null) {
+                        o = new Wheel(interval, wheelSize, currentTime);
+                        overflow = o;
+                    }
+                }
+            }
+            return o;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.bank.service;
+
+import com.example.bank.dto.Account.AccountOwnerDto;
+import com.example.bank.enums.AccountType;
+import com.example.bank.repository.PaymentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process accountId → (userId, accountType) map used to authorize payment requests
+ * without a round trip to account-service (which itself calls user-service) on every call.
+ * The account type also picks the tier of the account's transfer limits
+ * ({@link LimitPolicyCache}).
+ *
+ * <h3>Consistency</h3>
+ * An account's owner never changes and account ids are never reused, so an entry can
+ * only go from "unknown" to "owned by X" to "gone". Entries are added by the startup
+ * warm-up, by ACCOUNT_OPENED events and by cold-miss lookups through the bulk
+ * "/internal/accounts/owners" endpoint, and removed by ACCOUNT_CLOSED events. A missed
+ * close event (or a lookup racing with one) leaves an entry for a deleted account
+ * behind; settlement still rejects payments against it, so that is harmless.
+ *
+ * <h3>Fallback</h3>
+ * The caller's user id comes from the {@code X-Authenticated-UserId} header the gateway
+ * injects. If a request arrives without it, the old per-request Feign check is used.
+ */
+@Component
+public class AccountOwnershipIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountOwnershipIndex.class);
+
+    private final Map<Long, AccountOwnerDto> owners = new ConcurrentHashMap<>();
+    private final AccountServiceClient accountServiceClient;
+    private final PaymentRepository paymentRepository;
+    private final String internalSecret;
+    private final int warmDays;
+    private final int warmBatchSize;
+
+    public AccountOwnershipIndex(AccountServiceClient accountServiceClient,
+                                 PaymentRepository paymentRepository,
+                                 @Value("${internal.service-secret}") String internalSecret,
+                                 @Value("${payment.ownership.warm-days:30}") int warmDays,
+                                 @Value("${payment.ownership.warm-batch-size:500}") int warmBatchSize) {
+        this.accountServiceClient = accountServiceClient;
+        this.paymentRepository = paymentRepository;
+        this.internalSecret = internalSecret;
+        this.warmDays = warmDays;
+        this.warmBatchSize = warmBatchSize;
+    }
+
+    /**
+     * @param accountId    account being acted on
+     * @param username     authenticated principal name, used only by the fallback path
+     * @param userIdHeader raw {@code X-Authenticated-UserId} header, may be null
+     */
+    public boolean isAccountOwner(Long accountId, String username, String userIdHeader) {
+        Long userId = parseUserId(userIdHeader);
+        if (userId == null) {
+            return Boolean.TRUE.equals(accountServiceClient.isAccountOwner(accountId, username, internalSecret));
+        }
+        AccountOwnerDto owner = owners.get(accountId);
+        if (owner == null) {
+            load(List.of(accountId));
+            owner = owners.get(accountId);
+        }
+        return owner != null && userId.equals(owner.getUserId());
+    }
+
+    /**
+     * The account's type if the index already knows the account, else null. Never looks
+     * the account up, so it is safe on the payment hot path.
+     */
+    public AccountType accountTypeOf(Long accountId) {
+        AccountOwnerDto owner = owners.get(accountId);
+        return owner == null ? null : owner.getAccountType();
+    }
+
+    public void accountOpened(Long accountId, Long userId, AccountType accountType) {
+        owners.put(accountId, new AccountOwnerDto(accountId, userId, accountType));
+    }
+
+    public void accountClosed(Long accountId) {
+        owners.remove(accountId);
+    }
+
+    public int size() {
+        return owners.size();
+    }
+
+    /** Pre-loads the owners of every account that has initiated a payment recently. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            List<Long> ids = paymentRepository.findSourceAccountIdsSince(LocalDateTime.now().minusDays(warmDays));
+            for (int from = 0; from < ids.size(); from += warmBatchSize) {
+                load(ids.subList(from, Math.min(from + warmBatchSize, ids.size())));
+            }
+            log.info("Ownership index warmed with {} accounts", owners.size());
+        } catch (Exception e) {
+            // Cold misses fill the index lazily, so a failed warm-up only costs latency.
+            log.warn("Ownership index warm-up failed: {}", e.getMessage());
+        }
+    }
+
+    private void load(Collection<Long> accountIds) {
+        List<AccountOwnerDto> found = accountServiceClient.getOwners(List.copyOf(accountIds), internalSecret);
+        if (found == null) {
+            return;
+        }
+        for (AccountOwnerDto dto : found) {
+            owners.put(dto.getAccountId(), dto);
+        }
+    }
+
+    private static Long parseUserId(String header) {
+        if (header == null || header.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.valueOf(header.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.bank.service;
 
+import com.example.bank.dto.Account.AccountOwnerDto;
 import com.example.bank.dto.ApplyPaymentRequest;
+import com.example.bank.dto.ApplyPaymentResult;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -9,6 +11,8 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.util.List;
+
 @FeignClient(name = "account-service", url = "${account-service.url}")
 public interface AccountServiceClient {
 
@@ -16,8 +20,16 @@ public interface AccountServiceClient {
     void applyPayment(@RequestBody ApplyPaymentRequest request,
                       @RequestHeader("X-Internal-Auth") String internalSecret);
 
+    @PostMapping("/internal/accounts/apply-payments")
+    List<ApplyPaymentResult> applyPayments(@RequestBody List<ApplyPaymentRequest> requests,
+                                           @RequestHeader("X-Internal-Auth") String internalSecret);
+
     @GetMapping("/internal/accounts/{id}/owner")
     Boolean isAccountOwner(@PathVariable("id") Long id,
                            @RequestParam("username") String username,
                            @RequestHeader("X-Internal-Auth") String internalSecret);
+
+    @PostMapping("/internal/accounts/owners")
+    List<AccountOwnerDto> getOwners(@RequestBody List<Long> accountIds,
+                                    @RequestHeader("X-Internal-Auth") String internalSecret);
 }
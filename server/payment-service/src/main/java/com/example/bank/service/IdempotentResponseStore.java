@@ -0,0 +1,163 @@
+package com.example.bank.service;
+
+import com.example.bank.dto.Payment.PaymentResponseDto;
+import com.example.bank.entity.Payment;
+import com.example.bank.enums.PaymentStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Compact copies of idempotent payment responses, kept in the payment's idempotency key so
+ * a replay is answered from Redis without reading the payment row.
+ *
+ * <h3>Format</h3>
+ * {@code version|status|paymentId|source|target|amount|submittedAt}, about 100 bytes.
+ * Until the payment commits the key holds only the bare payment id (the claim made by
+ * {@link PaymentReservationService}), which {@link #decode} reports as empty.
+ *
+ * <h3>Versions</h3>
+ * The version is the status's stage: 0 for PENDING, 1 for PROCESSING, 2 for a final
+ * status. {@link #refreshAfterCommit} rewrites the copy when a payment reaches a final
+ * status, through a compare-and-set that only accepts a newer version, so replays show
+ * the outcome and a late update cannot roll it back.
+ *
+ * <h3>Metrics</h3>
+ * {@code payment.idempotency.requests{outcome}} counts keyed requests by outcome
+ * (reserved, replayed_cache, replayed_database, in_progress); the replay rate is the
+ * replayed share. {@code payment.idempotency.response.size} records stored copies in bytes.
+ */
+@Service
+public class IdempotentResponseStore {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotentResponseStore.class);
+    private static final char SEPARATOR = '|';
+
+    private final StringRedisTemplate redisTemplate;
+    private final DefaultRedisScript<Long> refreshScript;
+    private final Counter reserved;
+    private final Counter replayedFromCache;
+    private final Counter replayedFromDatabase;
+    private final Counter inProgress;
+    private final DistributionSummary responseSize;
+
+    public IdempotentResponseStore(StringRedisTemplate redisTemplate, MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource("scripts/idempotency_refresh.lua")));
+        script.setResultType(Long.class);
+        this.refreshScript = script;
+
+        this.reserved = requests(meterRegistry, "reserved");
+        this.replayedFromCache = requests(meterRegistry, "replayed_cache");
+        this.replayedFromDatabase = requests(meterRegistry, "replayed_database");
+        this.inProgress = requests(meterRegistry, "in_progress");
+        this.responseSize = DistributionSummary.builder("payment.idempotency.response.size")
+                .description("Size of cached idempotent payment responses")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public String encode(PaymentResponseDto response) {
+        String value = version(response.getStatus()) + SEPARATOR + response.getStatus().name()
+                + SEPARATOR + response.getPaymentId()
+                + SEPARATOR + response.getSourceAccountId()
+                + SEPARATOR + response.getTargetAccountId()
+                + SEPARATOR + response.getAmount().toPlainString()
+                + SEPARATOR + response.getSubmittedAt();
+        responseSize.record(value.getBytes(StandardCharsets.UTF_8).length);
+        return value;
+    }
+
+    /** The cached response, or empty if {@code value} is still a bare claim. */
+    public Optional<PaymentResponseDto> decode(String value) {
+        if (value.indexOf(SEPARATOR) < 0) {
+            return Optional.empty();
+        }
+        String[] f = value.split("\\|", -1);
+        return Optional.of(new PaymentResponseDto(f[2], PaymentStatus.valueOf(f[1]),
+                Long.valueOf(f[3]), Long.valueOf(f[4]), new BigDecimal(f[5]), LocalDateTime.parse(f[6])));
+    }
+
+    /** The payment id in a stored value, whether a cached response or a bare claim. */
+    public static String paymentIdOf(String value) {
+        return value.indexOf(SEPARATOR) < 0 ? value : value.split("\\|", 4)[2];
+    }
+
+    /**
+     * Rewrites the cached response of a keyed payment once the surrounding transaction
+     * commits; call after changing the payment's status.
+     */
+    public void refreshAfterCommit(Payment payment) {
+        if (payment.getIdempotencyKey() == null) {
+            return;
+        }
+        String key = PaymentReservationService.IDEMPOTENCY_KEY_PREFIX + payment.getIdempotencyKey();
+        PaymentResponseDto response = new PaymentResponseDto(payment.getId(), payment.getStatus(),
+                payment.getSourceAccountId(), payment.getTargetAccountId(),
+                payment.getAmount(), payment.getSubmittedAt());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refresh(key, response);
+                }
+            });
+        } else {
+            refresh(key, response);
+        }
+    }
+
+    public void recordReserved() {
+        reserved.increment();
+    }
+
+    public void recordReplay(boolean fromCache) {
+        (fromCache ? replayedFromCache : replayedFromDatabase).increment();
+    }
+
+    public void recordInProgress() {
+        inProgress.increment();
+    }
+
+    private void refresh(String key, PaymentResponseDto response) {
+        try {
+            redisTemplate.execute(refreshScript, List.of(key),
+                    String.valueOf(version(response.getStatus())), encode(response));
+        } catch (RuntimeException e) {
+            // Replays keep showing the previous status until the key expires.
+            log.warn("Could not refresh cached response of payment {}", response.getPaymentId(), e);
+        }
+    }
+
+    private static int version(PaymentStatus status) {
+        return switch (status) {
+            case PENDING -> 0;
+            case PROCESSING -> 1;
+            case COMPLETED, FAILED, DISPUTED -> 2;
+        };
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("payment.idempotency.requests")
+                .description("Payment requests carrying an idempotency key, by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
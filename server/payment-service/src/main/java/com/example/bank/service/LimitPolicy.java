@@ -0,0 +1,84 @@
+package com.example.bank.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * One set of transfer limits (see {@link TransferLimitService} for the windows), with the
+ * version it was written at. A limit of 0 disables its window.
+ *
+ * <p>The limits are converted to {@code payment_reserve.lua} arguments once, when the
+ * policy is built, so applying a cached policy to a payment allocates nothing.
+ */
+public final class LimitPolicy {
+
+    private static final char SEPARATOR = '|';
+
+    private final long version;
+    private final BigDecimal perTransaction;
+    private final BigDecimal daily;
+    private final BigDecimal perBeneficiary;
+    private final BigDecimal weekly;
+    private final BigDecimal monthly;
+    private final List<String> scriptArgs;
+
+    public LimitPolicy(long version, BigDecimal perTransaction, BigDecimal daily,
+                       BigDecimal perBeneficiary, BigDecimal weekly, BigDecimal monthly) {
+        this.version = version;
+        this.perTransaction = perTransaction;
+        this.daily = daily;
+        this.perBeneficiary = perBeneficiary;
+        this.weekly = weekly;
+        this.monthly = monthly;
+        this.scriptArgs = List.of(
+                String.valueOf(TransferLimitService.toMinorUnits(perTransaction)),
+                String.valueOf(TransferLimitService.toMinorUnits(daily)),
+                String.valueOf(TransferLimitService.toMinorUnits(perBeneficiary)),
+                String.valueOf(TransferLimitService.toMinorUnits(weekly)),
+                String.valueOf(TransferLimitService.toMinorUnits(monthly)));
+    }
+
+    /** Parses {@code version|perTransaction|daily|perBeneficiary|weekly|monthly}, as stored in Redis. */
+    public static LimitPolicy parse(String value) {
+        String[] f = value.split("\\|", -1);
+        return new LimitPolicy(Long.parseLong(f[0]), new BigDecimal(f[1]), new BigDecimal(f[2]),
+                new BigDecimal(f[3]), new BigDecimal(f[4]), new BigDecimal(f[5]));
+    }
+
+    /** The limits without the version; the version is assigned when the policy is stored. */
+    public String encodeLimits() {
+        return perTransaction.toPlainString() + SEPARATOR + daily.toPlainString()
+                + SEPARATOR + perBeneficiary.toPlainString()
+                + SEPARATOR + weekly.toPlainString()
+                + SEPARATOR + monthly.toPlainString();
+    }
+
+    /** The per-transaction, rolling 24h, per-beneficiary, weekly and monthly limits in minor units. */
+    public List<String> scriptArgs() {
+        return scriptArgs;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public BigDecimal getPerTransaction() {
+        return perTransaction;
+    }
+
+    public BigDecimal getDaily() {
+        return daily;
+    }
+
+    public BigDecimal getPerBeneficiary() {
+        return perBeneficiary;
+    }
+
+    public BigDecimal getWeekly() {
+        return weekly;
+    }
+
+    public BigDecimal getMonthly() {
+        return monthly;
+    }
+}
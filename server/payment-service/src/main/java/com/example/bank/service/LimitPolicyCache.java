@@ -0,0 +1,219 @@
+package com.example.bank.service;
+
+import com.example.bank.enums.AccountType;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process copy of the transfer limit policies, so picking an account's limits costs
+ * no network hop and no allocation on the payment path.
+ *
+ * <h3>Resolution</h3>
+ * An account's own policy if it has one, else the policy of its {@link AccountType} tier
+ * (known from {@link AccountOwnershipIndex}), else the default policy from the
+ * {@code payment.daily-limit} and {@code payment.limits.*} properties. An account the
+ * ownership index does not know yet gets the default until it does.
+ *
+ * <h3>Storage and refresh</h3>
+ * Tier and account policies live in the {@code transfer_limit:policies} Redis hash. Every
+ * write ({@code limit_policy_put.lua}) takes the next value of a global version counter and
+ * publishes the change on {@code transfer_limit:policies:events}; each instance applies it
+ * only if it is newer than what it holds, so reordered messages are harmless. A periodic
+ * reload ({@code payment.limits.policy.reload-interval-ms}) re-reads the hash whenever the
+ * counter has moved, which repairs anything a dropped message missed. A stale message that
+ * arrives after a newer removal can bring a policy back until that reload.
+ */
+@Component
+public class LimitPolicyCache {
+
+    private static final Logger log = LoggerFactory.getLogger(LimitPolicyCache.class);
+
+    private static final String POLICIES_KEY = "transfer_limit:policies";
+    private static final String VERSION_KEY = "transfer_limit:policies:version";
+    private static final String CHANNEL = "transfer_limit:policies:events";
+    private static final String TIER = "tier:";
+    private static final String ACCOUNT = "account:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final AccountOwnershipIndex ownershipIndex;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final DefaultRedisScript<Long> putScript;
+    private final LimitPolicy defaultPolicy;
+    private final Map<AccountType, LimitPolicy> tiers = new ConcurrentHashMap<>();
+    private final Map<Long, LimitPolicy> accounts = new ConcurrentHashMap<>();
+    private volatile long loadedVersion = -1;
+
+    public LimitPolicyCache(StringRedisTemplate redisTemplate,
+                            RedisConnectionFactory connectionFactory,
+                            AccountOwnershipIndex ownershipIndex,
+                            @Value("${payment.daily-limit}") BigDecimal dailyLimit,
+                            @Value("${payment.limits.per-transaction:0}") BigDecimal perTransactionLimit,
+                            @Value("${payment.limits.per-beneficiary:0}") BigDecimal perBeneficiaryLimit,
+                            @Value("${payment.limits.weekly:0}") BigDecimal weeklyLimit,
+                            @Value("${payment.limits.monthly:0}") BigDecimal monthlyLimit) {
+        this.redisTemplate = redisTemplate;
+        this.ownershipIndex = ownershipIndex;
+        this.defaultPolicy = new LimitPolicy(0, perTransactionLimit, dailyLimit,
+                perBeneficiaryLimit, weeklyLimit, monthlyLimit);
+
+        this.listenerContainer = new RedisMessageListenerContainer();
+        this.listenerContainer.setConnectionFactory(connectionFactory);
+
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource("scripts/limit_policy_put.lua")));
+        script.setResultType(Long.class);
+        this.putScript = script;
+    }
+
+    /** The limits that apply to payments from {@code accountId}. */
+    public LimitPolicy resolve(Long accountId) {
+        LimitPolicy policy = accounts.get(accountId);
+        if (policy != null) {
+            return policy;
+        }
+        AccountType type = ownershipIndex.accountTypeOf(accountId);
+        if (type != null) {
+            policy = tiers.get(type);
+            if (policy != null) {
+                return policy;
+            }
+        }
+        return defaultPolicy;
+    }
+
+    // ── Writes ───────────────────────────────────────────────────────────────
+    // The version of the policy passed in is ignored; each write is assigned the next one.
+
+    public long putTier(AccountType type, LimitPolicy policy) {
+        return write(TIER + type.name(), policy.encodeLimits());
+    }
+
+    public long removeTier(AccountType type) {
+        return write(TIER + type.name(), "");
+    }
+
+    public long putAccount(Long accountId, LimitPolicy policy) {
+        return write(ACCOUNT + accountId, policy.encodeLimits());
+    }
+
+    public long removeAccount(Long accountId) {
+        return write(ACCOUNT + accountId, "");
+    }
+
+    // ── Refresh ──────────────────────────────────────────────────────────────
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        // Subscribe before the first load, so no change can fall between the two.
+        listenerContainer.addMessageListener(
+                (message, pattern) -> apply(new String(message.getBody(), StandardCharsets.UTF_8)),
+                ChannelTopic.of(CHANNEL));
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.start();
+        reload();
+    }
+
+    @PreDestroy
+    public void stop() throws Exception {
+        listenerContainer.destroy();
+    }
+
+    @Scheduled(fixedDelayString = "${payment.limits.policy.reload-interval-ms:30000}")
+    public void reload() {
+        try {
+            String counter = redisTemplate.opsForValue().get(VERSION_KEY);
+            long version = counter == null ? 0 : Long.parseLong(counter);
+            if (version == loadedVersion) {
+                return;
+            }
+            Set<AccountType> storedTiers = new HashSet<>();
+            Set<Long> storedAccounts = new HashSet<>();
+            for (Map.Entry<Object, Object> entry : redisTemplate.opsForHash().entries(POLICIES_KEY).entrySet()) {
+                String field = (String) entry.getKey();
+                LimitPolicy policy = LimitPolicy.parse((String) entry.getValue());
+                if (field.startsWith(TIER)) {
+                    AccountType type = AccountType.valueOf(field.substring(TIER.length()));
+                    storedTiers.add(type);
+                    tiers.merge(type, policy, LimitPolicyCache::newer);
+                } else if (field.startsWith(ACCOUNT)) {
+                    Long accountId = Long.valueOf(field.substring(ACCOUNT.length()));
+                    storedAccounts.add(accountId);
+                    accounts.merge(accountId, policy, LimitPolicyCache::newer);
+                }
+            }
+            // Gone from the hash means removed, unless written after the counter was read.
+            tiers.entrySet().removeIf(e -> !storedTiers.contains(e.getKey()) && e.getValue().getVersion() <= version);
+            accounts.entrySet().removeIf(e -> !storedAccounts.contains(e.getKey()) && e.getValue().getVersion() <= version);
+            loadedVersion = version;
+            log.info("Loaded transfer limit policies at version {} ({} tiers, {} accounts)",
+                    version, tiers.size(), accounts.size());
+        } catch (RuntimeException e) {
+            // Keep the policies we have; the next reload tries again.
+            log.warn("Transfer limit policy reload failed: {}", e.getMessage());
+        }
+    }
+
+    private long write(String field, String limits) {
+        Long version = redisTemplate.execute(putScript, List.of(POLICIES_KEY, VERSION_KEY), field, limits, CHANNEL);
+        // Apply locally right away rather than waiting for our own message.
+        apply(field + '|' + version + '|' + limits);
+        return version;
+    }
+
+    /** Applies a {@code field|version|limits} change message; empty limits remove the policy. */
+    private void apply(String message) {
+        try {
+            int fieldEnd = message.indexOf('|');
+            String field = message.substring(0, fieldEnd);
+            String value = message.substring(fieldEnd + 1);
+            int versionEnd = value.indexOf('|');
+            if (versionEnd == value.length() - 1) {
+                remove(field, Long.parseLong(value.substring(0, versionEnd)));
+                return;
+            }
+            LimitPolicy policy = LimitPolicy.parse(value);
+            if (field.startsWith(TIER)) {
+                tiers.merge(AccountType.valueOf(field.substring(TIER.length())), policy, LimitPolicyCache::newer);
+            } else if (field.startsWith(ACCOUNT)) {
+                accounts.merge(Long.valueOf(field.substring(ACCOUNT.length())), policy, LimitPolicyCache::newer);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Ignoring malformed transfer limit policy message '{}': {}", message, e.getMessage());
+        }
+    }
+
+    private void remove(String field, long version) {
+        if (field.startsWith(TIER)) {
+            tiers.computeIfPresent(AccountType.valueOf(field.substring(TIER.length())),
+                    (type, current) -> current.getVersion() < version ? null : current);
+        } else if (field.startsWith(ACCOUNT)) {
+            accounts.computeIfPresent(Long.valueOf(field.substring(ACCOUNT.length())),
+                    (accountId, current) -> current.getVersion() < version ? null : current);
+        }
+    }
+
+    private static LimitPolicy newer(LimitPolicy current, LimitPolicy candidate) {
+        return candidate.getVersion() > current.getVersion() ? candidate : current;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.bank.service;
+
+import com.example.bank.common.CursorCodec;
+import com.example.bank.enums.ErrorCode;
+import com.example.bank.exception.PaginationException;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Keyset position in an account's payment history: the {@code (submittedAt, id)} of the
+ * last row returned.
+ */
+public record PaymentHistoryCursor(LocalDateTime submittedAt, String id) {
+
+    /** Sorts after every real row, so the first page uses the same query as the rest. */
+    public static final PaymentHistoryCursor START = new PaymentHistoryCursor(LocalDateTime.of(9999, 12, 31, 0, 0), "");
+
+    public String encode() {
+        return CursorCodec.encode(submittedAt, id);
+    }
+
+    public static PaymentHistoryCursor decode(String cursor) {
+        String[] parts = CursorCodec.decode(cursor, 2);
+        if (parts == null) {
+            return START;
+        }
+        try {
+            return new PaymentHistoryCursor(LocalDateTime.parse(parts[0]), parts[1]);
+        } catch (DateTimeParseException e) {
+            throw new PaginationException(ErrorCode.INVALID_CURSOR);
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.example.bank.service;
+
+import com.example.bank.entity.Payment;
+import com.example.bank.enums.ErrorCode;
+import com.example.bank.exception.PaymentException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Admits a new payment with one Redis round trip: {@code payment_reserve.lua} claims the
+ * idempotency key and checks and records every transfer limit window (see
+ * {@link TransferLimitService}) atomically, or reports the payment that already holds the key.
+ *
+ * <h3>Claim lifecycle</h3>
+ * A claim holds the new payment's id and first lives for
+ * {@code payment.idempotency.claim-ttl}. After the payment's transaction completes,
+ * {@code payment_release.lua} either replaces it with the compact response (see
+ * {@link IdempotentResponseStore}) for {@code payment.idempotency.ttl} (commit) or deletes
+ * it and gives the amount back to the limits (rollback). If the instance dies in
+ * between, the claim simply expires. Payments without an idempotency key need no
+ * confirmation, only a rollback.
+ *
+ * <p>The claim must outlive the payment's transaction, which is bounded by
+ * {@code payment.idempotency.transaction-timeout-seconds}; otherwise a retry could claim
+ * the key while the original is still committing. Should the claim be gone anyway (Redis
+ * eviction or failover), the confirmation stores the response regardless, and only
+ * refuses if another payment has claimed the key in the meantime.
+ *
+ * <h3>Refunds</h3>
+ * A committed payment that later fails or is disputed never moved money, so
+ * {@link #refundAfterCommit} gives its amount back with the same script, as a rollback
+ * without an idempotency key.
+ */
+@Service
+public class PaymentReservationService {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentReservationService.class);
+    public static final String IDEMPOTENCY_KEY_PREFIX = "idempotency:payment:";
+
+    private static final String RESERVED = "0";
+    private static final String REPLAY = "1";
+    private static final long CONFIRM_REFUSED = 1L;
+    private static final int CONFIRM_ATTEMPTS = 3;
+
+    private final StringRedisTemplate redisTemplate;
+    private final TransferLimitService transferLimitService;
+    private final Duration idempotencyTtl;
+    private final Duration claimTtl;
+    private final DefaultRedisScript<List<String>> reserveScript;
+    private final DefaultRedisScript<Long> releaseScript;
+
+    /**
+     * Outcome of {@link #reserve}. On a replay nothing was reserved and {@code existing} is
+     * the key's value: the original payment's cached response, or its bare id while that
+     * payment is still being created. {@code amount} is in minor units.
+     */
+    public record Reservation(String paymentId, boolean replay, String existing, String idempotencyKey,
+                              TransferLimitService.Windows windows, long amount) {
+    }
+
+    @SuppressWarnings("unchecked")
+    public PaymentReservationService(StringRedisTemplate redisTemplate,
+                                     TransferLimitService transferLimitService,
+                                     @Value("${payment.idempotency.ttl:PT24H}") Duration idempotencyTtl,
+                                     @Value("${payment.idempotency.claim-ttl:PT1M}") Duration claimTtl,
+                                     @Value("${payment.idempotency.transaction-timeout-seconds:30}")
+                                     long transactionTimeoutSeconds) {
+        if (claimTtl.compareTo(Duration.ofSeconds(transactionTimeoutSeconds)) <= 0) {
+            throw new IllegalStateException("payment.idempotency.claim-ttl (" + claimTtl
+                    + ") must be longer than payment.idempotency.transaction-timeout-seconds ("
+                    + transactionTimeoutSeconds + ")");
+        }
+        this.redisTemplate = redisTemplate;
+        this.transferLimitService = transferLimitService;
+        this.idempotencyTtl = idempotencyTtl;
+        this.claimTtl = claimTtl;
+
+        DefaultRedisScript<List<String>> reserve = new DefaultRedisScript<>();
+        reserve.setScriptSource(new ResourceScriptSource(new ClassPathResource("scripts/payment_reserve.lua")));
+        reserve.setResultType((Class<List<String>>) (Class<?>) List.class);
+        this.reserveScript = reserve;
+
+        DefaultRedisScript<Long> release = new DefaultRedisScript<>();
+        release.setScriptSource(new ResourceScriptSource(new ClassPathResource("scripts/payment_release.lua")));
+        release.setResultType(Long.class);
+        this.releaseScript = release;
+    }
+
+    /**
+     * Claims {@code idempotencyKey} (if any) for {@code paymentId} and records {@code amount}
+     * against the source account's transfer limits.
+     *
+     * @throws PaymentException if any transfer limit would be exceeded
+     */
+    public Reservation reserve(String idempotencyKey, Long sourceAccountId, Long targetAccountId,
+                               BigDecimal amount, String paymentId) {
+        TransferLimitService.Windows windows =
+                transferLimitService.windows(sourceAccountId, targetAccountId, LocalDateTime.now());
+        LimitPolicy policy = transferLimitService.policyFor(sourceAccountId);
+        long units = TransferLimitService.toMinorUnits(amount);
+        String redisKey = idempotencyKey == null ? null : IDEMPOTENCY_KEY_PREFIX + idempotencyKey;
+
+        List<String> args = new ArrayList<>(List.of(
+                String.valueOf(units),
+                String.valueOf(windows.hour()),
+                paymentId,
+                String.valueOf(claimTtl.toSeconds())));
+        args.addAll(policy.scriptArgs());
+        args.addAll(transferLimitService.ttlArgs());
+        List<String> result = redisTemplate.execute(reserveScript, keys(windows, redisKey), args.toArray());
+
+        if (result == null || result.size() < 2) {
+            throw new PaymentException(ErrorCode.SERVICE_UNAVAILABLE, "Payment reservation returned no result.");
+        }
+        return switch (result.get(0)) {
+            case RESERVED -> new Reservation(paymentId, false, null, redisKey, windows, units);
+            case REPLAY -> new Reservation(IdempotentResponseStore.paymentIdOf(result.get(1)), true,
+                    result.get(1), redisKey, windows, units);
+            default -> throw transferLimitService.limitExceeded(result.get(1), policy);
+        };
+    }
+
+    /**
+     * Rolls the reservation back if the surrounding transaction does not commit. Register
+     * right after {@link #reserve}, before anything that can fail.
+     */
+    public void rollbackUnlessCommitted(Reservation reservation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    release("rollback", reservation, "", "rollback");
+                }
+            }
+        });
+    }
+
+    /**
+     * Replaces the claim with {@code response} once the surrounding transaction commits,
+     * or immediately without a transaction.
+     */
+    public void confirmOnCommit(Reservation reservation, String response) {
+        if (reservation.idempotencyKey() == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            confirm(reservation, response);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                confirm(reservation, response);
+            }
+        });
+    }
+
+    /**
+     * Gives a failed or disputed payment's amount back to its transfer limits once the
+     * surrounding transaction commits. Call only on the payment's move to FAILED or DISPUTED,
+     * which happens once.
+     */
+    public void refundAfterCommit(Payment payment) {
+        Reservation refund = new Reservation(payment.getId(), false, null, null,
+                transferLimitService.windows(payment.getSourceAccountId(), payment.getTargetAccountId(),
+                        payment.getSubmittedAt()),
+                TransferLimitService.toMinorUnits(payment.getAmount()));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            release("rollback", refund, "", "refund");
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                release("rollback", refund, "", "refund");
+            }
+        });
+    }
+
+    /**
+     * Stores the committed payment's response in its key. The script is idempotent, so a
+     * call that fails in flight is retried: until it succeeds, a retry of the original
+     * request is only answered from the database once the claim has expired.
+     */
+    private void confirm(Reservation reservation, String response) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Long result = execute("confirm", reservation, response);
+                if (result != null && result == CONFIRM_REFUSED) {
+                    // The unique idempotency_key column stops the other payment from committing.
+                    log.error("Idempotency key of committed payment {} was claimed by another payment",
+                            reservation.paymentId());
+                }
+                return;
+            } catch (RuntimeException e) {
+                if (attempt == CONFIRM_ATTEMPTS) {
+                    log.warn("Reservation confirmation of payment {} failed after {} attempts",
+                            reservation.paymentId(), attempt, e);
+                    return;
+                }
+            }
+        }
+    }
+
+    private void release(String action, Reservation reservation, String response, String what) {
+        try {
+            execute(action, reservation, response);
+        } catch (RuntimeException e) {
+            // The claim expires on its own; only the limit refund is lost.
+            log.warn("Reservation {} of payment {} failed", what, reservation.paymentId(), e);
+        }
+    }
+
+    private Long execute(String action, Reservation reservation, String response) {
+        return redisTemplate.execute(releaseScript, keys(reservation.windows(), reservation.idempotencyKey()),
+                action,
+                reservation.paymentId(),
+                String.valueOf(reservation.amount()),
+                String.valueOf(reservation.windows().hour()),
+                String.valueOf(idempotencyTtl.toSeconds()),
+                response);
+    }
+
+    private static List<String> keys(TransferLimitService.Windows windows, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return windows.keys();
+        }
+        List<String> keys = new ArrayList<>(windows.keys());
+        keys.add(idempotencyKey);
+        return keys;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.bank.service;
 
+import com.example.bank.common.CursorPage;
 import com.example.bank.dto.Payment.PaymentRequestDto;
 import com.example.bank.dto.Payment.PaymentResponseDto;
 import com.example.bank.dto.Payment.PaymentStatusDto;
@@ -13,6 +14,8 @@ public interface PaymentService {
 
     Page<PaymentStatusDto> getPaymentHistory(Long accountId, Pageable pageable);
 
+    CursorPage<PaymentStatusDto> getPaymentHistory(Long accountId, String cursor, int size);
+
     void markPaymentFailed(String paymentId, String reason);
 
     PaymentStatusDto disputePayment(String paymentId, Long userId);
@@ -2,86 +2,142 @@ package com.example.bank.service;
 
 import com.example.bank.enums.ErrorCode;
 import com.example.bank.exception.PaymentException;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.ClassPathResource;
 import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.data.redis.core.script.DefaultRedisScript;
-import org.springframework.scripting.support.ResourceScriptSource;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.temporal.IsoFields;
 import java.util.List;
+import java.util.Map;
 
 /**
- * Enforces per-account daily transfer limits using Redis.
+ * Transfer limits per source account, kept in Redis and evaluated by
+ * {@code payment_reserve.lua} (see {@link PaymentReservationService}).
  *
- * <h3>Concurrency Safety</h3>
- * The limit check and increment are performed together in a single atomic
- * Lua script executed server-side in Redis (via {@code EVAL}). This eliminates
- * the check-then-act race condition present in a plain get/set approach, where
- * two concurrent threads could both observe the limit as not exceeded and both
- * proceed, effectively doubling the allowed transfer amount.
+ * <h3>Windows</h3>
+ * <ul>
+ *   <li><b>per transaction</b>;</li>
+ *   <li><b>rolling 24h</b> — over a hash of hourly buckets, so the window is the current
+ *       hour plus the 23 before it;</li>
+ *   <li><b>per beneficiary</b> — the rolling 24h total to one target account;</li>
+ *   <li><b>weekly / monthly</b> — one counter per ISO week and calendar month.</li>
+ * </ul>
+ * The amounts come from the source account's {@link LimitPolicy}, resolved in process by
+ * {@link LimitPolicyCache}; a limit of 0 disables its window. All windows are checked and
+ * recorded in the same script call, so a payment is admitted against all of them or none.
  *
- * <p>A Lua script is the canonical Redis solution for this class of problem —
- * Redis guarantees that {@code EVAL} commands are executed atomically; no other
- * command can interleave during the script's execution.
+ * <h3>Minor units</h3>
+ * Amounts are stored as integers at the payment scale (4 decimals) and updated with
+ * {@code INCRBY}/{@code HINCRBY}, so totals are exact. Lua numbers are doubles, which keeps
+ * the sums the script compares exact up to 2<sup>53</sup> units; amounts and limits are
+ * validated to at most {@link #MAX_AMOUNT} (10<sup>15</sup> units) to stay inside that.
+ *
+ * <h3>Refunds</h3>
+ * A payment that fails or is disputed gives its amount back to the windows it was
+ * recorded in ({@link PaymentReservationService#refundAfterCommit}). The windows are found
+ * again from its {@code submittedAt}, which trails the reservation by the insert; a payment
+ * reserved just before a bucket boundary is refunded from the next bucket, floored at zero.
  */
 @Service
 public class TransferLimitService {
 
-    /** Lua script return value: transfer is within limit and has been recorded. */
-    private static final long RESULT_ALLOWED = 0L;
+    /** Scale of payment amounts; limit totals count units of 10<sup>-SCALE</sup>. */
+    public static final int SCALE = 4;
+
+    /** Largest payment amount or limit: {@code @Digits(integer = 11, fraction = 4)}. */
+    public static final BigDecimal MAX_AMOUNT = new BigDecimal("99999999999.9999");
 
-    /** Lua script return value: transfer would exceed the daily limit. */
-    private static final long RESULT_DENIED = 1L;
+    private static final long ROLLING_TTL_SECONDS = 25 * 60 * 60;
+    private static final long WEEK_TTL_SECONDS = 8 * 24 * 60 * 60;
+    private static final long MONTH_TTL_SECONDS = 32 * 24 * 60 * 60;
 
-    /** Redis TTL for limit keys: 48 hours to cover day-boundary edge cases. */
-    private static final long TTL_SECONDS = 48 * 60 * 60;
+    private static final List<String> TTL_ARGS = List.of(
+            String.valueOf(ROLLING_TTL_SECONDS),
+            String.valueOf(WEEK_TTL_SECONDS),
+            String.valueOf(MONTH_TTL_SECONDS));
 
     private final StringRedisTemplate redisTemplate;
-    private final BigDecimal dailyLimit;
-    private final DefaultRedisScript<Long> transferLimitScript;
+    private final LimitPolicyCache policyCache;
+
+    /**
+     * The Redis keys a payment is recorded under, in script order: rolling 24h, per
+     * beneficiary, week, month; and the hourly bucket it lands in.
+     */
+    public record Windows(List<String> keys, long hour) {
+    }
 
-    public TransferLimitService(StringRedisTemplate redisTemplate,
-                                @Value("${payment.daily-limit}") BigDecimal dailyLimit) {
+    public TransferLimitService(StringRedisTemplate redisTemplate, LimitPolicyCache policyCache) {
         this.redisTemplate = redisTemplate;
-        this.dailyLimit = dailyLimit;
-
-        // Load and compile the Lua script once at startup.
-        // Spring caches the SHA1 hash after the first EVALSHA call, so subsequent
-        // invocations use EVALSHA instead of EVAL — no repeated script transmission.
-        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
-        script.setScriptSource(new ResourceScriptSource(
-                new ClassPathResource("scripts/transfer_limit.lua")));
-        script.setResultType(Long.class);
-        this.transferLimitScript = script;
+        this.policyCache = policyCache;
+    }
+
+    /** The windows a payment from {@code sourceAccountId} to {@code targetAccountId} made at {@code at} counts against. */
+    public Windows windows(Long sourceAccountId, Long targetAccountId, LocalDateTime at) {
+        String prefix = "transfer_limit:" + sourceAccountId + ":";
+        String week = at.get(IsoFields.WEEK_BASED_YEAR) + "-W"
+                + String.format("%02d", at.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+        return new Windows(List.of(
+                prefix + "24h",
+                prefix + "to:" + targetAccountId + ":24h",
+                prefix + "week:" + week,
+                prefix + "month:" + YearMonth.from(at)),
+                hourOf(at));
+    }
+
+    /** The limits that apply to payments from {@code accountId}; see {@link LimitPolicyCache#resolve}. */
+    public LimitPolicy policyFor(Long accountId) {
+        return policyCache.resolve(accountId);
+    }
+
+    /** Script arguments following the policy's limits: the TTLs of the rolling, week and month keys. */
+    public List<String> ttlArgs() {
+        return TTL_ARGS;
+    }
+
+    /** The account's total over the current rolling 24h window. */
+    public BigDecimal rollingDailyTotal(Long accountId) {
+        long currentHour = hourOf(LocalDateTime.now());
+        long total = 0;
+        Map<Object, Object> buckets = redisTemplate.opsForHash().entries("transfer_limit:" + accountId + ":24h");
+        for (Map.Entry<Object, Object> bucket : buckets.entrySet()) {
+            if (Long.parseLong((String) bucket.getKey()) > currentHour - 24) {
+                total += Long.parseLong((String) bucket.getValue());
+            }
+        }
+        return fromMinorUnits(total);
+    }
+
+    /** The exception for a payment denied by {@code window}, as named by the script. */
+    public PaymentException limitExceeded(String window, LimitPolicy policy) {
+        if ("daily".equals(window)) {
+            return new PaymentException(ErrorCode.DAILY_LIMIT_EXCEEDED,
+                    "Transfer exceeds the daily limit of " + policy.getDaily() + " for this account.");
+        }
+        return new PaymentException(ErrorCode.TRANSFER_LIMIT_EXCEEDED,
+                "Transfer exceeds the " + window + " limit for this account.");
     }
 
     /**
-     * Atomically checks whether adding {@code amount} to the account's daily total
-     * would exceed the configured limit. If within bounds, the total is incremented
-     * in the same atomic operation.
+     * {@code amount} in units of 10<sup>-SCALE</sup>.
      *
-     * @param accountId the source account being charged
-     * @param amount    the transfer amount
-     * @throws PaymentException if the daily limit would be exceeded
+     * @throws PaymentException if it is above {@link #MAX_AMOUNT} or finer than the scale
      */
-    public void checkAndRecordTransfer(Long accountId, BigDecimal amount) {
-        String today = LocalDate.now().toString();
-        String key = "transfer_limit:" + accountId + ":" + today;
-
-        Long result = redisTemplate.execute(
-                transferLimitScript,
-                List.of(key),
-                amount.toPlainString(),
-                dailyLimit.toPlainString(),
-                String.valueOf(TTL_SECONDS)
-        );
-
-        if (result == null || result == RESULT_DENIED) {
-            throw new PaymentException(ErrorCode.DAILY_LIMIT_EXCEEDED,
-                    "Transfer exceeds the daily limit of " + dailyLimit + " for this account.");
+    public static long toMinorUnits(BigDecimal amount) {
+        if (amount.abs().compareTo(MAX_AMOUNT) > 0 || amount.stripTrailingZeros().scale() > SCALE) {
+            throw new PaymentException(ErrorCode.VALIDATION_FAILED,
+                    "Amount " + amount.toPlainString() + " is outside the supported range.");
         }
+        return amount.movePointRight(SCALE).longValueExact();
+    }
+
+    public static BigDecimal fromMinorUnits(long units) {
+        return BigDecimal.valueOf(units, SCALE);
+    }
+
+    private static long hourOf(LocalDateTime at) {
+        return at.atZone(ZoneId.systemDefault()).toEpochSecond() / 3600;
     }
 }
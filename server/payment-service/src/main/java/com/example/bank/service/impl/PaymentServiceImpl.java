@@ -1,5 +1,6 @@
 package com.example.bank.service.impl;
 
+import com.example.bank.common.CursorPage;
 import com.example.bank.dto.Payment.PaymentRequestDto;
 import com.example.bank.dto.Payment.PaymentResponseDto;
 import com.example.bank.dto.Payment.PaymentStatusDto;
@@ -10,65 +11,52 @@ import com.example.bank.exception.PaymentException;
 import com.example.bank.kafka.PaymentProducerService;
 import com.example.bank.kafka.PaymentTask;
 import com.example.bank.repository.PaymentRepository;
+import com.example.bank.scheduling.DisputeWindowScheduler;
+import com.example.bank.service.IdempotentResponseStore;
+import com.example.bank.service.PaymentHistoryCursor;
+import com.example.bank.service.PaymentReservationService;
+import com.example.bank.service.PaymentReservationService.Reservation;
 import com.example.bank.service.PaymentService;
-import com.example.bank.service.TransferLimitService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
 public class PaymentServiceImpl implements PaymentService {
 
     private static final Logger log = LoggerFactory.getLogger(PaymentServiceImpl.class);
-    private static final String IDEMPOTENCY_KEY_PREFIX = "idempotency:payment:";
-    private static final Duration IDEMPOTENCY_TTL = Duration.ofHours(24);
 
     private final PaymentProducerService paymentProducerService;
     private final PaymentRepository paymentRepository;
-    private final TransferLimitService transferLimitService;
-    private final StringRedisTemplate redisTemplate;
+    private final PaymentReservationService reservationService;
+    private final IdempotentResponseStore responseStore;
+    private final DisputeWindowScheduler disputeWindowScheduler;
 
     public PaymentServiceImpl(PaymentProducerService paymentProducerService,
                                PaymentRepository paymentRepository,
-                               TransferLimitService transferLimitService,
-                               StringRedisTemplate redisTemplate) {
+                               PaymentReservationService reservationService,
+                               IdempotentResponseStore responseStore,
+                               DisputeWindowScheduler disputeWindowScheduler) {
         this.paymentProducerService = paymentProducerService;
         this.paymentRepository = paymentRepository;
-        this.transferLimitService = transferLimitService;
-        this.redisTemplate = redisTemplate;
+        this.reservationService = reservationService;
+        this.responseStore = responseStore;
+        this.disputeWindowScheduler = disputeWindowScheduler;
     }
 
     @Override
-    @Transactional
+    // Bounded so the idempotency claim (payment.idempotency.claim-ttl) outlives the transaction
+    @Transactional(timeoutString = "${payment.idempotency.transaction-timeout-seconds:30}")
     public PaymentResponseDto initiatePayment(PaymentRequestDto request, String idempotencyKey) {
-        // ── Idempotency check ────────────────────────────────────────────────
-        // If this key was already used, return the original payment instead of
-        // creating a duplicate. This makes the endpoint safe to retry after
-        // network failures without risk of double-charging the user.
-        if (idempotencyKey != null && !idempotencyKey.isBlank()) {
-            String redisKey = IDEMPOTENCY_KEY_PREFIX + idempotencyKey;
-            String existingPaymentId = redisTemplate.opsForValue().get(redisKey);
-
-            if (existingPaymentId != null) {
-                log.info("Idempotency hit for key={} → returning existing payment {}", idempotencyKey, existingPaymentId);
-                return paymentRepository.findById(existingPaymentId)
-                        .map(p -> new PaymentResponseDto(p.getId(), p.getStatus(),
-                                p.getSourceAccountId(), p.getTargetAccountId(),
-                                p.getAmount(), p.getSubmittedAt()))
-                        .orElseThrow(() -> new PaymentException(ErrorCode.PAYMENT_NOT_FOUND,
-                                "Idempotent payment record missing: " + existingPaymentId));
-            }
-        }
-
         // ── Business validation ──────────────────────────────────────────────
         Long sourceId = request.getSourceAccountId();
         Long targetId = request.getTargetAccountId();
@@ -78,31 +66,68 @@ public class PaymentServiceImpl implements PaymentService {
                     "Source and target accounts must be different.");
         }
 
-        // Enforce daily limit using an atomic Redis Lua script (race-free).
-        transferLimitService.checkAndRecordTransfer(sourceId, request.getAmount());
-
-        // ── Persist PENDING record ───────────────────────────────────────────
+        // ── Idempotency claim + transfer limits, in one Redis round trip ─────
+        // If this key was already used, return the original payment instead of
+        // creating a duplicate. This makes the endpoint safe to retry after
+        // network failures without risk of double-charging the user.
+        String key = idempotencyKey == null || idempotencyKey.isBlank() ? null : idempotencyKey;
         String paymentId = UUID.randomUUID().toString();
+        Reservation reservation = reservationService.reserve(key, sourceId, targetId, request.getAmount(), paymentId);
+
+        if (reservation.replay()) {
+            log.info("Idempotency hit for key={} → returning existing payment {}", key, reservation.paymentId());
+            return replay(reservation);
+        }
+        if (key != null) {
+            responseStore.recordReserved();
+        }
 
+        // Release the claim and refund the limit if anything below fails.
+        reservationService.rollbackUnlessCommitted(reservation);
+
+        // ── Persist PENDING record ───────────────────────────────────────────
         Payment payment = new Payment();
         payment.setId(paymentId);
-        payment.setIdempotencyKey(idempotencyKey);
+        payment.setIdempotencyKey(key);
         payment.setSourceAccountId(sourceId);
         payment.setTargetAccountId(targetId);
         payment.setAmount(request.getAmount());
         payment.setStatus(PaymentStatus.PENDING);
-        paymentRepository.save(payment);
+        payment = paymentRepository.save(payment);
 
-        // ── Register idempotency key in Redis after successful DB save ────────
-        // Registered AFTER save so that if the save fails, no stale key is left
-        // in Redis pointing to a non-existent payment.
-        if (idempotencyKey != null && !idempotencyKey.isBlank()) {
-            String redisKey = IDEMPOTENCY_KEY_PREFIX + idempotencyKey;
-            redisTemplate.opsForValue().set(redisKey, paymentId, IDEMPOTENCY_TTL);
-        }
+        // Release to Kafka as soon as the dispute window closes (after this commit).
+        disputeWindowScheduler.register(payment);
 
-        return new PaymentResponseDto(paymentId, PaymentStatus.PENDING, sourceId, targetId,
+        PaymentResponseDto response = new PaymentResponseDto(paymentId, PaymentStatus.PENDING, sourceId, targetId,
                 request.getAmount(), payment.getSubmittedAt());
+        // After commit, the claim is replaced by this response for replays to return.
+        if (key != null) {
+            reservationService.confirmOnCommit(reservation, responseStore.encode(response));
+        }
+        return response;
+    }
+
+    /**
+     * Answers a replay from the response cached in the idempotency key. The key holds only
+     * the payment id until the original request commits; if the row exists anyway (a claim
+     * whose confirmation was lost) it is read, otherwise the original is still in flight.
+     */
+    private PaymentResponseDto replay(Reservation reservation) {
+        Optional<PaymentResponseDto> cached = responseStore.decode(reservation.existing());
+        if (cached.isPresent()) {
+            responseStore.recordReplay(true);
+            return cached.get();
+        }
+        Optional<Payment> payment = paymentRepository.findById(reservation.paymentId());
+        if (payment.isEmpty()) {
+            responseStore.recordInProgress();
+            throw new PaymentException(ErrorCode.IDEMPOTENCY_REQUEST_IN_PROGRESS,
+                    "Payment " + reservation.paymentId() + " for this idempotency key is still being created.");
+        }
+        responseStore.recordReplay(false);
+        Payment p = payment.get();
+        return new PaymentResponseDto(p.getId(), p.getStatus(), p.getSourceAccountId(), p.getTargetAccountId(),
+                p.getAmount(), p.getSubmittedAt());
     }
 
     @Override
@@ -120,6 +145,18 @@ public class PaymentServiceImpl implements PaymentService {
                 .map(this::toStatusDto);
     }
 
+    @Override
+    public CursorPage<PaymentStatusDto> getPaymentHistory(Long accountId, String cursor, int size) {
+        CursorPage.requireValidSize(size);
+        PaymentHistoryCursor position = PaymentHistoryCursor.decode(cursor);
+        // Fetch one extra row to learn whether another page exists without a COUNT.
+        List<Payment> rows = paymentRepository.findHistoryBefore(
+                accountId, position.submittedAt(), position.id(), size + 1);
+        return CursorPage.fromOverfetch(rows, size,
+                last -> new PaymentHistoryCursor(last.getSubmittedAt(), last.getId()).encode())
+                .map(this::toStatusDto);
+    }
+
     @Override
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void markPaymentFailed(String paymentId, String reason) {
@@ -129,6 +166,8 @@ public class PaymentServiceImpl implements PaymentService {
                 payment.setFailureReason(reason);
                 payment.setCompletedAt(LocalDateTime.now());
                 paymentRepository.save(payment);
+                responseStore.refreshAfterCommit(payment);
+                reservationService.refundAfterCommit(payment);
             }
         });
     }
@@ -136,13 +175,15 @@ public class PaymentServiceImpl implements PaymentService {
     @Override
     @Transactional
     public PaymentStatusDto disputePayment(String paymentId, Long userId) {
-        Payment payment = paymentRepository.findById(paymentId)
+        // Row lock so a concurrent release (wheel or sweeper) either sees DISPUTED
+        // or has already moved the payment to PROCESSING — never both.
+        Payment payment = paymentRepository.findByIdForUpdate(paymentId)
                 .orElseThrow(() -> new PaymentException(ErrorCode.PAYMENT_NOT_FOUND,
                         "Payment not found: " + paymentId));
 
         // We assume the caller (controller) ensures this account belongs to the user,
         // or we trust the API Gateway for basic auth. For now, we just enforce
-        // that it can only be disputed if it's still PENDING (i.e. within the 60s window).
+        // that it can only be disputed if it's still PENDING (i.e. within the dispute window).
         if (payment.getStatus() != PaymentStatus.PENDING) {
             throw new PaymentException(ErrorCode.VALIDATION_FAILED,
                     "Payment can only be disputed while it is PENDING.");
@@ -152,6 +193,9 @@ public class PaymentServiceImpl implements PaymentService {
         payment.setFailureReason("User disputed / cancelled the payment");
         payment.setCompletedAt(LocalDateTime.now());
         paymentRepository.save(payment);
+        disputeWindowScheduler.cancel(paymentId);
+        responseStore.refreshAfterCommit(payment);
+        reservationService.refundAfterCommit(payment);
 
         return toStatusDto(payment);
     }
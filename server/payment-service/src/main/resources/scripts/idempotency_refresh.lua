@@ -0,0 +1,26 @@
+-- idempotency_refresh.lua
+--
+-- Compare-and-set of a cached idempotent payment response (see IdempotentResponseStore).
+-- Values are "<version>|<response fields...>"; the write only goes through if it carries
+-- a newer version, so an out-of-order status update can never overwrite a later one.
+-- Missing keys and unconfirmed claims (a bare payment id) are left alone.
+--
+-- KEYS[1]  : idempotency key, e.g. "idempotency:payment:{key}"
+-- ARGV[1]  : version of the new value
+-- ARGV[2]  : the new value
+--
+-- Returns 1 if the value was replaced, 0 otherwise.
+
+local current = redis.call('GET', KEYS[1])
+if not current then
+    return 0
+end
+local sep = string.find(current, '|', 1, true)
+if not sep then
+    return 0
+end
+if tonumber(string.sub(current, 1, sep - 1)) >= tonumber(ARGV[1]) then
+    return 0
+end
+redis.call('SET', KEYS[1], ARGV[2], 'KEEPTTL')
+return 1
@@ -0,0 +1,23 @@
+-- limit_policy_put.lua
+--
+-- Stores or removes one transfer limit policy (see LimitPolicyCache) under a new version
+-- and announces it to every payment-service instance, atomically, so the announced
+-- version always matches the stored one.
+--
+-- KEYS[1]  : policy hash, "transfer_limit:policies"
+-- KEYS[2]  : version counter, "transfer_limit:policies:version"
+-- ARGV[1]  : policy field, "tier:{AccountType}" or "account:{accountId}"
+-- ARGV[2]  : the limits, "perTransaction|daily|perBeneficiary|weekly|monthly", or "" to remove
+-- ARGV[3]  : pub/sub channel, "transfer_limit:policies:events"
+--
+-- Stores "{version}|{limits}" and publishes "{field}|{version}|{limits}".
+-- Returns the new version.
+
+local version = redis.call('INCR', KEYS[2])
+if ARGV[2] == '' then
+    redis.call('HDEL', KEYS[1], ARGV[1])
+else
+    redis.call('HSET', KEYS[1], ARGV[1], version .. '|' .. ARGV[2])
+end
+redis.call('PUBLISH', ARGV[3], ARGV[1] .. '|' .. version .. '|' .. ARGV[2])
+return version
@@ -0,0 +1,72 @@
+-- payment_release.lua
+--
+-- Settles a reservation made by payment_reserve.lua once the payment's transaction has
+-- completed, or refunds a committed payment that later failed or was disputed. Never
+-- touches an idempotency key that another payment has claimed.
+--
+-- KEYS[1..4] : the limit windows the payment was recorded in, as in payment_reserve.lua
+-- KEYS[5]    : idempotency key (absent without a key, and for refunds)
+-- ARGV[1]    : "confirm" after a commit, "rollback" after a rollback or for a refund
+-- ARGV[2]    : id of the reserved payment
+-- ARGV[3]    : the transfer amount in minor units
+-- ARGV[4]    : the hourly bucket the amount was recorded in
+-- ARGV[5]    : idempotency key TTL in seconds, applied on confirm
+-- ARGV[6]    : on confirm, the compact response that replaces the claim
+--
+-- confirm : stores the response for the full idempotency TTL, replacing the claim, or
+--            restoring the key if the claim expired before the commit
+-- rollback: deletes the claim and gives the amount back to every window, floored at zero
+--
+-- Returns 0, or 1 for a confirm refused because another payment holds the key.
+
+local current = KEYS[5] and redis.call('GET', KEYS[5])
+
+if ARGV[1] == 'confirm' then
+    if current and current ~= ARGV[2] then
+        -- A cached response is "version|status|paymentId|..."; a claim is the bare id.
+        if string.match(current, '^[^|]*|[^|]*|([^|]*)') == ARGV[2] then
+            return 0  -- already confirmed, and possibly refreshed since
+        end
+        return 1
+    end
+    -- A committed payment owns its key, so an expired claim is restored rather than skipped.
+    redis.call('SET', KEYS[5], ARGV[6], 'EX', ARGV[5])
+    return 0
+end
+
+local claimed = current == ARGV[2]
+
+if claimed then
+    redis.call('DEL', KEYS[5])
+end
+
+-- Arguments stay strings: Lua would print large computed numbers in exponent notation.
+local amount = tonumber(ARGV[3])
+
+local function refundBucket(key)
+    local current = tonumber(redis.call('HGET', key, ARGV[4]))
+    if current then
+        if current > amount then
+            redis.call('HINCRBY', key, ARGV[4], '-' .. ARGV[3])
+        else
+            redis.call('HDEL', key, ARGV[4])
+        end
+    end
+end
+
+local function refundCounter(key)
+    local current = tonumber(redis.call('GET', key))
+    if current then
+        if current > amount then
+            redis.call('DECRBY', key, ARGV[3])
+        else
+            redis.call('SET', key, '0', 'KEEPTTL')
+        end
+    end
+end
+
+refundBucket(KEYS[1])
+refundBucket(KEYS[2])
+refundCounter(KEYS[3])
+refundCounter(KEYS[4])
+return 0
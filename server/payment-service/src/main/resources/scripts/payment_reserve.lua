@@ -0,0 +1,87 @@
+-- payment_reserve.lua
+--
+-- The single Redis round trip on the payment hot path: claims the idempotency key and
+-- checks and records every transfer limit window, atomically. Two concurrent retries with
+-- the same key can no longer both miss it, and a replay never touches the limits.
+-- Amounts are integer minor units (see TransferLimitService), updated with INCRBY/HINCRBY.
+--
+-- KEYS[1]  : rolling 24h hash of hourly buckets, e.g. "transfer_limit:{accountId}:24h"
+-- KEYS[2]  : per-beneficiary rolling 24h hash, e.g. "transfer_limit:{accountId}:to:{targetId}:24h"
+-- KEYS[3]  : weekly counter, e.g. "transfer_limit:{accountId}:week:2026-W42"
+-- KEYS[4]  : monthly counter, e.g. "transfer_limit:{accountId}:month:2026-10"
+-- KEYS[5]  : idempotency key, e.g. "idempotency:payment:{key}" (absent without a key)
+-- ARGV[1]  : the transfer amount in minor units (e.g. "2500000" for 250.00)
+-- ARGV[2]  : the current hourly bucket (epoch hours)
+-- ARGV[3]  : id of the payment about to be created
+-- ARGV[4]  : claim TTL in seconds, until payment_release.lua confirms the claim
+-- ARGV[5]  : per-transaction limit         (minor units; 0 = no limit)
+-- ARGV[6]  : rolling 24h limit
+-- ARGV[7]  : per-beneficiary rolling 24h limit
+-- ARGV[8]  : weekly limit
+-- ARGV[9]  : monthly limit
+-- ARGV[10] : TTL in seconds of the rolling hashes
+-- ARGV[11] : TTL in seconds of the weekly counter
+-- ARGV[12] : TTL in seconds of the monthly counter
+--
+-- Returns {status, detail}:
+--   {"0", ARGV[3]}   reserved; every window has been updated and the key claimed
+--   {"1", existing}  replay; the key already belongs to payment "existing"
+--   {"2", window}    denied by "transaction", "daily", "beneficiary", "weekly" or "monthly"
+
+if KEYS[5] then
+    local existing = redis.call('GET', KEYS[5])
+    if existing then
+        return {'1', existing}
+    end
+end
+
+local amount = tonumber(ARGV[1])
+local hour   = tonumber(ARGV[2])
+
+-- Sum of the buckets in the last 24 hours; older buckets are dropped on the way.
+local function rolling(key)
+    local total  = 0
+    local fields = redis.call('HGETALL', key)
+    for i = 1, #fields, 2 do
+        if tonumber(fields[i]) > hour - 24 then
+            total = total + tonumber(fields[i + 1])
+        else
+            redis.call('HDEL', key, fields[i])
+        end
+    end
+    return total
+end
+
+local function exceeds(used, limit)
+    limit = tonumber(limit)
+    return limit > 0 and used + amount > limit
+end
+
+if exceeds(0, ARGV[5]) then
+    return {'2', 'transaction'}
+end
+if exceeds(rolling(KEYS[1]), ARGV[6]) then
+    return {'2', 'daily'}
+end
+if exceeds(rolling(KEYS[2]), ARGV[7]) then
+    return {'2', 'beneficiary'}
+end
+if exceeds(tonumber(redis.call('GET', KEYS[3])) or 0, ARGV[8]) then
+    return {'2', 'weekly'}
+end
+if exceeds(tonumber(redis.call('GET', KEYS[4])) or 0, ARGV[9]) then
+    return {'2', 'monthly'}
+end
+
+redis.call('HINCRBY', KEYS[1], ARGV[2], ARGV[1])
+redis.call('EXPIRE', KEYS[1], ARGV[10])
+redis.call('HINCRBY', KEYS[2], ARGV[2], ARGV[1])
+redis.call('EXPIRE', KEYS[2], ARGV[10])
+redis.call('INCRBY', KEYS[3], ARGV[1])
+redis.call('EXPIRE', KEYS[3], ARGV[11])
+redis.call('INCRBY', KEYS[4], ARGV[1])
+redis.call('EXPIRE', KEYS[4], ARGV[12])
+if KEYS[5] then
+    redis.call('SET', KEYS[5], ARGV[3], 'NX', 'EX', ARGV[4])
+end
+return {'0', ARGV[3]}
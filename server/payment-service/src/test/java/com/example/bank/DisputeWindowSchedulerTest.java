@@ -0,0 +1,131 @@
+package com.example.bank;
+
+import com.example.bank.entity.Payment;
+import com.example.bank.enums.PaymentStatus;
+import com.example.bank.kafka.PaymentProducerService;
+import com.example.bank.kafka.PaymentTask;
+import com.example.bank.repository.PaymentRepository;
+import com.example.bank.scheduling.DisputeWindowScheduler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Release bookkeeping of {@link DisputeWindowScheduler}, against a real timing wheel with
+ * the repository, producer and transaction manager mocked.
+ *
+ * <h3>What This Test Proves</h3>
+ * <ul>
+ *   <li>A payment released on schedule leaves no tracked entry behind, including past-due
+ *       deadlines, which the wheel runs at once — possibly before {@code schedule} returns;</li>
+ *   <li>A cancelled payment is never released and is no longer tracked.</li>
+ * </ul>
+ */
+class DisputeWindowSchedulerTest {
+
+    private static final Duration WAIT = Duration.ofSeconds(10);
+
+    private PaymentRepository paymentRepository;
+    private PaymentProducerService paymentProducerService;
+    private DisputeWindowScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        paymentRepository = mock(PaymentRepository.class);
+        paymentProducerService = mock(PaymentProducerService.class);
+        when(paymentRepository.transitionStatus(anyCollection(), eq(PaymentStatus.PENDING), eq(PaymentStatus.PROCESSING)))
+                .thenReturn(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    @DisplayName("Payments released on schedule are no longer tracked")
+    void releasedOnSchedule() {
+        scheduler = scheduler(1);
+        scheduler.register(payment(LocalDateTime.now()));
+        assertThat(scheduler.scheduledCount()).isEqualTo(1);
+
+        await(() -> scheduler.scheduledCount() == 0);
+        verify(paymentProducerService, times(1)).enqueue(any(PaymentTask.class));
+    }
+
+    @Test
+    @DisplayName("Past-due payments run at once and leave no tracked entry")
+    void pastDueReleasedImmediately() {
+        scheduler = scheduler(0);
+        int payments = 500;
+        for (int i = 0; i < payments; i++) {
+            scheduler.register(payment(LocalDateTime.now().minusMinutes(5)));
+        }
+
+        await(() -> scheduler.scheduledCount() == 0);
+        verify(paymentProducerService, times(payments)).enqueue(any(PaymentTask.class));
+    }
+
+    @Test
+    @DisplayName("Cancelled payments are neither released nor tracked")
+    void cancelled() throws InterruptedException {
+        scheduler = scheduler(1);
+        Payment payment = payment(LocalDateTime.now());
+        scheduler.register(payment);
+        scheduler.cancel(payment.getId());
+
+        assertThat(scheduler.scheduledCount()).isZero();
+        Thread.sleep(1500);
+        verify(paymentProducerService, never()).enqueue(any(PaymentTask.class));
+    }
+
+    private DisputeWindowScheduler scheduler(long disputeWindowSeconds) {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        return new DisputeWindowScheduler(paymentRepository, paymentProducerService, transactionManager,
+                disputeWindowSeconds, 10, 64, 2);
+    }
+
+    private static Payment payment(LocalDateTime submittedAt) {
+        Payment payment = new Payment();
+        payment.setId(UUID.randomUUID().toString());
+        payment.setStatus(PaymentStatus.PENDING);
+        payment.setSourceAccountId(1L);
+        payment.setTargetAccountId(2L);
+        payment.setAmount(new BigDecimal("10.00"));
+        payment.setSubmittedAt(submittedAt);
+        return payment;
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + WAIT.toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met within %s", WAIT).isLessThan(deadline);
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(e);
+            }
+        }
+    }
+}
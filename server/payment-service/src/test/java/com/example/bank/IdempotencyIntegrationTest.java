@@ -2,10 +2,17 @@ package com.example.bank;
 
 import com.example.bank.dto.Payment.PaymentRequestDto;
 import com.example.bank.dto.Payment.PaymentResponseDto;
+import com.example.bank.enums.ErrorCode;
 import com.example.bank.enums.PaymentStatus;
+import com.example.bank.exception.PaymentException;
 import com.example.bank.repository.PaymentRepository;
+import com.example.bank.service.IdempotentResponseStore;
+import com.example.bank.service.PaymentReservationService;
+import com.example.bank.service.PaymentReservationService.Reservation;
 import com.example.bank.service.PaymentService;
+import com.example.bank.service.TransferLimitService;
 import com.redis.testcontainers.RedisContainer;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -21,9 +28,18 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 import org.testcontainers.utility.DockerImageName;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * Integration test for payment idempotency using real Redis and MySQL containers.
@@ -86,9 +102,21 @@ class IdempotencyIntegrationTest {
     @Autowired
     PaymentRepository paymentRepository;
 
+    @Autowired
+    TransferLimitService transferLimitService;
+
+    @Autowired
+    PaymentReservationService reservationService;
+
+    @Autowired
+    IdempotentResponseStore responseStore;
+
     @Autowired
     StringRedisTemplate redisTemplate;
 
+    @Autowired
+    MeterRegistry meterRegistry;
+
     @AfterEach
     void cleanup() {
         paymentRepository.deleteAll();
@@ -164,4 +192,147 @@ class IdempotencyIntegrationTest {
                 .as("Without an idempotency key, two separate payments are created")
                 .isEqualTo(2L);
     }
+
+    @Test
+    @DisplayName("10 concurrent retries with one Idempotency-Key → exactly one payment")
+    void concurrentRetries_createExactlyOnePayment() throws InterruptedException {
+        final int threadCount = 10;
+        String idempotencyKey = UUID.randomUUID().toString();
+        PaymentRequestDto request = new PaymentRequestDto();
+        request.setSourceAccountId(1L);
+        request.setTargetAccountId(2L);
+        request.setAmount(new BigDecimal("10.00"));
+
+        Set<String> paymentIds = new HashSet<>();
+        List<Throwable> errors = new ArrayList<>();
+        CountDownLatch startGate = new CountDownLatch(1);
+        CountDownLatch endGate = new CountDownLatch(threadCount);
+        ExecutorService pool = Executors.newFixedThreadPool(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            pool.submit(() -> {
+                try {
+                    startGate.await();
+                    String id = paymentService.initiatePayment(request, idempotencyKey).getPaymentId();
+                    synchronized (paymentIds) { paymentIds.add(id); }
+                } catch (Throwable t) {
+                    synchronized (errors) { errors.add(t); }
+                } finally {
+                    endGate.countDown();
+                }
+            });
+        }
+        startGate.countDown();
+        endGate.await();
+        pool.shutdown();
+
+        // Retries that arrive while the first request is still committing are told to retry.
+        assertThat(errors).allSatisfy(e -> assertThat(e)
+                .isInstanceOf(PaymentException.class)
+                .extracting(ex -> ((PaymentException) ex).getErrorCode())
+                .isEqualTo(ErrorCode.IDEMPOTENCY_REQUEST_IN_PROGRESS));
+        assertThat(paymentIds).hasSize(1);
+        assertThat(paymentRepository.count()).isEqualTo(1L);
+        assertThat(transferLimitService.rollingDailyTotal(1L))
+                .as("Only the first request is counted against the daily limit")
+                .isEqualByComparingTo("10.00");
+    }
+
+    @Test
+    @DisplayName("A payment that fails to commit releases its key and refunds the daily limit")
+    void rolledBackPayment_releasesReservation() {
+        String idempotencyKey = UUID.randomUUID().toString();
+        PaymentRequestDto request = new PaymentRequestDto();
+        request.setSourceAccountId(1L);
+        request.setTargetAccountId(2L);
+        request.setAmount(new BigDecimal("100.00"));
+        paymentService.initiatePayment(request, idempotencyKey);
+
+        // Simulate the Redis entry expiring: the retry reserves again, then the insert hits
+        // the unique idempotency_key index and the transaction rolls back.
+        redisTemplate.delete("idempotency:payment:" + idempotencyKey);
+        assertThatThrownBy(() -> paymentService.initiatePayment(request, idempotencyKey))
+                .isInstanceOf(RuntimeException.class);
+
+        assertThat(redisTemplate.hasKey("idempotency:payment:" + idempotencyKey)).isFalse();
+        assertThat(transferLimitService.rollingDailyTotal(1L))
+                .isEqualByComparingTo("100.00");
+        assertThat(paymentRepository.count()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("A confirmation after the claim expired still stores the response for replays")
+    void confirmAfterClaimExpiry_storesResponse() {
+        String idempotencyKey = UUID.randomUUID().toString();
+        String redisKey = "idempotency:payment:" + idempotencyKey;
+        Reservation reservation = reservationService.reserve(idempotencyKey, 1L, 2L,
+                new BigDecimal("100.00"), UUID.randomUUID().toString());
+
+        // The claim expires while the payment is committing; nothing else claims the key.
+        redisTemplate.delete(redisKey);
+        String response = responseStore.encode(response(reservation.paymentId()));
+        reservationService.confirmOnCommit(reservation, response);
+
+        assertThat(redisTemplate.opsForValue().get(redisKey)).isEqualTo(response);
+        assertThat(redisTemplate.getExpire(redisKey)).isGreaterThan(3600L);
+
+        // A retry replays the committed payment instead of creating a second one
+        PaymentRequestDto request = new PaymentRequestDto();
+        request.setSourceAccountId(1L);
+        request.setTargetAccountId(2L);
+        request.setAmount(new BigDecimal("100.00"));
+        assertThat(paymentService.initiatePayment(request, idempotencyKey).getPaymentId())
+                .isEqualTo(reservation.paymentId());
+        assertThat(paymentRepository.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("A late confirmation never overwrites another payment's claim")
+    void confirmAfterClaimExpiry_leavesOtherClaimAlone() {
+        String idempotencyKey = UUID.randomUUID().toString();
+        String redisKey = "idempotency:payment:" + idempotencyKey;
+        Reservation original = reservationService.reserve(idempotencyKey, 1L, 2L,
+                new BigDecimal("100.00"), UUID.randomUUID().toString());
+        redisTemplate.delete(redisKey);
+        Reservation retry = reservationService.reserve(idempotencyKey, 1L, 2L,
+                new BigDecimal("100.00"), UUID.randomUUID().toString());
+        assertThat(retry.replay()).isFalse();
+
+        reservationService.confirmOnCommit(original, responseStore.encode(response(original.paymentId())));
+
+        assertThat(redisTemplate.opsForValue().get(redisKey)).isEqualTo(retry.paymentId());
+    }
+
+    @Test
+    @DisplayName("Replays are served from the cached response, and reflect later status changes")
+    void replay_servedFromCacheWithStatusUpdates() {
+        String idempotencyKey = UUID.randomUUID().toString();
+        PaymentRequestDto request = new PaymentRequestDto();
+        request.setSourceAccountId(1L);
+        request.setTargetAccountId(2L);
+        request.setAmount(new BigDecimal("12.3456"));
+        PaymentResponseDto first = paymentService.initiatePayment(request, idempotencyKey);
+        double cachedBefore = replays("replayed_cache");
+
+        paymentService.disputePayment(first.getPaymentId(), 1L);
+        PaymentResponseDto afterDispute = paymentService.initiatePayment(request, idempotencyKey);
+        assertThat(afterDispute.getStatus()).isEqualTo(PaymentStatus.DISPUTED);
+
+        // Without the row, a replay can only have come from Redis.
+        paymentRepository.deleteAll();
+        PaymentResponseDto replayed = paymentService.initiatePayment(request, idempotencyKey);
+        assertThat(replayed.getPaymentId()).isEqualTo(first.getPaymentId());
+        assertThat(replayed.getAmount()).isEqualByComparingTo("12.3456");
+        assertThat(replayed.getSubmittedAt()).isEqualTo(first.getSubmittedAt());
+        assertThat(replayed.getStatus()).isEqualTo(PaymentStatus.DISPUTED);
+        assertThat(replays("replayed_cache") - cachedBefore).isEqualTo(2.0);
+    }
+
+    private static PaymentResponseDto response(String paymentId) {
+        return new PaymentResponseDto(paymentId, PaymentStatus.PENDING, 1L, 2L,
+                new BigDecimal("100.00"), LocalDateTime.now());
+    }
+
+    private double replays(String outcome) {
+        return meterRegistry.counter("payment.idempotency.requests", "outcome", outcome).count();
+    }
 }
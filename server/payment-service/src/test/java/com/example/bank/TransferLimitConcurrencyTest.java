@@ -2,6 +2,7 @@ package com.example.bank;
 
 import com.example.bank.enums.ErrorCode;
 import com.example.bank.exception.PaymentException;
+import com.example.bank.service.PaymentReservationService;
 import com.example.bank.service.TransferLimitService;
 import com.redis.testcontainers.RedisContainer;
 import org.junit.jupiter.api.AfterEach;
@@ -19,9 +20,9 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 import org.testcontainers.utility.DockerImageName;
 
 import java.math.BigDecimal;
-import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -40,7 +41,8 @@ import static org.assertj.core.api.Assertions.assertThat;
  *
  * <h3>The Fix</h3>
  * We replaced the get/set pattern with an atomic Lua script executed server-side in Redis
- * via {@code EVAL}. Redis guarantees that no other command interleaves during script execution.
+ * via {@code EVAL} ({@code payment_reserve.lua}, run by {@link PaymentReservationService}).
+ * Redis guarantees that no other command interleaves during script execution.
  *
  * <h3>How This Test Works</h3>
  * 10 concurrent threads all attempt to transfer $600 with a $5,000 daily limit.
@@ -48,7 +50,7 @@ import static org.assertj.core.api.Assertions.assertThat;
  * the limit. We verify:
  * <ul>
  *   <li>The number of allowed transfers is exactly correct (no under- or over-counting).</li>
- *   <li>The recorded Redis total never exceeds the daily limit.</li>
+ *   <li>The recorded rolling 24h total never exceeds the daily limit.</li>
  * </ul>
  */
 @SpringBootTest(properties = {
@@ -88,6 +90,9 @@ class TransferLimitConcurrencyTest {
     @MockBean
     com.example.bank.kafka.PaymentProducerService paymentProducerService;
 
+    @Autowired
+    PaymentReservationService reservationService;
+
     @Autowired
     TransferLimitService transferLimitService;
 
@@ -120,7 +125,7 @@ class TransferLimitConcurrencyTest {
             futures.add(pool.submit(() -> {
                 try {
                     startGate.await();  // All threads wait until the gate opens
-                    transferLimitService.checkAndRecordTransfer(accountId, transferAmount);
+                    reservationService.reserve(null, accountId, 1L, transferAmount, UUID.randomUUID().toString());
                     allowedCount.incrementAndGet();
                 } catch (PaymentException e) {
                     if (e.getErrorCode() == ErrorCode.DAILY_LIMIT_EXCEEDED) {
@@ -154,15 +159,13 @@ class TransferLimitConcurrencyTest {
                 .isEqualTo(2);
 
         // Verify the actual stored total in Redis is correct.
-        String today = LocalDate.now().toString();
-        String key   = "transfer_limit:" + accountId + ":" + today;
-        String storedTotal = redisTemplate.opsForValue().get(key);
+        BigDecimal storedTotal = transferLimitService.rollingDailyTotal(accountId);
 
-        assertThat(new BigDecimal(storedTotal))
+        assertThat(storedTotal)
                 .as("Redis total must not exceed the $5,000 daily limit")
                 .isLessThanOrEqualTo(new BigDecimal("5000.00"));
 
-        assertThat(new BigDecimal(storedTotal))
+        assertThat(storedTotal)
                 .as("Redis total must equal exactly 8 × $600 = $4,800")
                 .isEqualByComparingTo(new BigDecimal("4800.00"));
     }
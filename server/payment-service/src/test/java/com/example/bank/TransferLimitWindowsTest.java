@@ -0,0 +1,287 @@
+package com.example.bank;
+
+import com.example.bank.dto.Payment.PaymentRequestDto;
+import com.example.bank.enums.AccountType;
+import com.example.bank.enums.ErrorCode;
+import com.example.bank.exception.PaymentException;
+import com.example.bank.repository.PaymentRepository;
+import com.example.bank.service.AccountOwnershipIndex;
+import com.example.bank.service.LimitPolicy;
+import com.example.bank.service.LimitPolicyCache;
+import com.example.bank.service.PaymentReservationService;
+import com.example.bank.service.PaymentService;
+import com.example.bank.service.TransferLimitService;
+import com.redis.testcontainers.RedisContainer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The transfer limit windows of {@link TransferLimitService}, evaluated by
+ * {@code payment_reserve.lua} against a real Redis.
+ *
+ * <h3>What This Test Proves</h3>
+ * <ul>
+ *   <li>Totals are exact in minor units: a limit can be filled to the last 0.0001;</li>
+ *   <li>An amount too large to count in minor units is rejected as invalid, not as an
+ *       internal error;</li>
+ *   <li>Each window (per transaction, rolling 24h, per beneficiary, weekly, monthly) denies
+ *       on its own, and a denied payment records nothing;</li>
+ *   <li>Failed and disputed payments are refunded to every window;</li>
+ *   <li>Tier and account policies ({@link LimitPolicyCache}) override the defaults, and
+ *       changes made elsewhere arrive by pub/sub or by the periodic reload.</li>
+ * </ul>
+ */
+@SpringBootTest(properties = {
+        "spring.cloud.compatibility-verifier.enabled=false",
+        "spring.kafka.bootstrap-servers=localhost:9999",
+        "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration",
+        "payment.daily-limit=1000.00",
+        "payment.limits.per-transaction=400.00",
+        "payment.limits.per-beneficiary=600.00",
+        "payment.limits.weekly=5000.00",
+        "payment.limits.monthly=8000.00",
+        // the test drives reloads itself
+        "payment.limits.policy.reload-interval-ms=3600000"
+})
+@Testcontainers
+class TransferLimitWindowsTest {
+
+    @Container
+    static final MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0")
+            .withDatabaseName("bank_payments")
+            .withUsername("test")
+            .withPassword("test");
+
+    @Container
+    static final RedisContainer redis = new RedisContainer(
+            DockerImageName.parse("redis:7-alpine"));
+
+    @DynamicPropertySource
+    static void configure(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", mysql::getJdbcUrl);
+        registry.add("spring.datasource.username", mysql::getUsername);
+        registry.add("spring.datasource.password", mysql::getPassword);
+        registry.add("spring.data.redis.host", redis::getHost);
+        registry.add("spring.data.redis.port", () -> redis.getMappedPort(6379));
+        registry.add("internal.service-secret", () -> "test-secret");
+        registry.add("account-service.url", () -> "http://localhost:9998");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+    }
+
+    @MockBean
+    com.example.bank.service.AccountServiceClient accountServiceClient;
+
+    @MockBean
+    com.example.bank.kafka.PaymentProducerService paymentProducerService;
+
+    @Autowired
+    PaymentReservationService reservationService;
+
+    @Autowired
+    TransferLimitService transferLimitService;
+
+    @Autowired
+    LimitPolicyCache policyCache;
+
+    @Autowired
+    AccountOwnershipIndex ownershipIndex;
+
+    @Autowired
+    PaymentService paymentService;
+
+    @Autowired
+    PaymentRepository paymentRepository;
+
+    @Autowired
+    StringRedisTemplate redisTemplate;
+
+    @AfterEach
+    void cleanup() {
+        for (AccountType type : AccountType.values()) {
+            policyCache.removeTier(type);
+        }
+        policyCache.removeAccount(5L);
+        policyCache.removeAccount(9L);
+        paymentRepository.deleteAll();
+        redisTemplate.getConnectionFactory().getConnection().serverCommands().flushAll();
+    }
+
+    @Test
+    @DisplayName("The rolling 24h limit can be filled to the last minor unit")
+    void dailyLimit_isExactInMinorUnits() {
+        reserve(1L, 2L, "333.3333");
+        reserve(1L, 3L, "333.3333");
+        reserve(1L, 4L, "333.3333");
+        reserve(1L, 5L, "0.0001");
+
+        assertThat(transferLimitService.rollingDailyTotal(1L)).isEqualByComparingTo("1000.0000");
+        assertDenied(1L, 6L, "0.0001", ErrorCode.DAILY_LIMIT_EXCEEDED);
+        assertThat(transferLimitService.rollingDailyTotal(1L)).isEqualByComparingTo("1000.0000");
+    }
+
+    @Test
+    @DisplayName("Amounts beyond the supported range are rejected as invalid and record nothing")
+    void oversizedAmount_isRejectedAsInvalid() {
+        reserve(1L, 2L, "100.00");
+
+        assertDenied(1L, 3L, "999999999999999.9999", ErrorCode.VALIDATION_FAILED);
+        assertDenied(1L, 3L, TransferLimitService.MAX_AMOUNT.add(new BigDecimal("0.0001")).toPlainString(),
+                ErrorCode.VALIDATION_FAILED);
+        assertThat(transferLimitService.rollingDailyTotal(1L)).isEqualByComparingTo("100.00");
+        assertThat(units(TransferLimitService.MAX_AMOUNT.toPlainString())).isEqualTo("999999999999999");
+    }
+
+    @Test
+    @DisplayName("Per-transaction and per-beneficiary limits deny on their own")
+    void perTransactionAndBeneficiaryLimits() {
+        assertDenied(1L, 2L, "400.0001", ErrorCode.TRANSFER_LIMIT_EXCEEDED);
+        reserve(1L, 2L, "400.00");
+        reserve(1L, 2L, "200.00");
+
+        assertDenied(1L, 2L, "0.0001", ErrorCode.TRANSFER_LIMIT_EXCEEDED);
+        reserve(1L, 3L, "100.00");
+        assertThat(transferLimitService.rollingDailyTotal(1L)).isEqualByComparingTo("700.00");
+    }
+
+    @Test
+    @DisplayName("The rolling window counts the last 24 hourly buckets and drops older ones")
+    void rollingWindow_dropsExpiredBuckets() {
+        TransferLimitService.Windows windows = transferLimitService.windows(1L, 2L, LocalDateTime.now());
+        String rollingKey = windows.keys().get(0);
+        redisTemplate.opsForHash().put(rollingKey, String.valueOf(windows.hour() - 24), units("1000.00"));
+        redisTemplate.opsForHash().put(rollingKey, String.valueOf(windows.hour() - 23), units("900.00"));
+
+        reserve(1L, 2L, "100.00");
+        assertDenied(1L, 3L, "0.0001", ErrorCode.DAILY_LIMIT_EXCEEDED);
+        assertThat(redisTemplate.opsForHash().hasKey(rollingKey, String.valueOf(windows.hour() - 24))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Weekly and monthly counters deny once earlier days have used them up")
+    void weeklyAndMonthlyLimits() {
+        List<String> keys = transferLimitService.windows(1L, 2L, LocalDateTime.now()).keys();
+        redisTemplate.opsForValue().set(keys.get(2), units("4900.00"));
+        reserve(1L, 2L, "100.00");
+        assertDenied(1L, 3L, "0.0001", ErrorCode.TRANSFER_LIMIT_EXCEEDED);
+
+        List<String> otherKeys = transferLimitService.windows(7L, 2L, LocalDateTime.now()).keys();
+        redisTemplate.opsForValue().set(otherKeys.get(3), units("7950.00"));
+        assertDenied(7L, 2L, "50.0001", ErrorCode.TRANSFER_LIMIT_EXCEEDED);
+        assertThat(redisTemplate.opsForValue().get(otherKeys.get(2))).as("a denial records nothing").isNull();
+        reserve(7L, 2L, "50.00");
+        assertThat(redisTemplate.opsForValue().get(otherKeys.get(3))).isEqualTo(units("8000.00"));
+    }
+
+    @Test
+    @DisplayName("Failed and disputed payments are refunded to every window")
+    void failedAndDisputedPayments_areRefunded() {
+        String disputed = paymentService.initiatePayment(request(1L, 2L, "300.00"), null).getPaymentId();
+        String failed = paymentService.initiatePayment(request(1L, 3L, "250.5"), null).getPaymentId();
+        paymentService.initiatePayment(request(1L, 4L, "100.00"), null);
+        assertThat(transferLimitService.rollingDailyTotal(1L)).isEqualByComparingTo("650.50");
+
+        paymentService.disputePayment(disputed, 1L);
+        paymentService.markPaymentFailed(failed, "account closed");
+
+        List<String> keys = transferLimitService.windows(1L, 2L, LocalDateTime.now()).keys();
+        assertThat(transferLimitService.rollingDailyTotal(1L)).isEqualByComparingTo("100.00");
+        assertThat(redisTemplate.opsForHash().values(keys.get(1))).as("beneficiary 2 fully refunded").isEmpty();
+        assertThat(redisTemplate.opsForValue().get(keys.get(2))).isEqualTo(units("100.00"));
+        assertThat(redisTemplate.opsForValue().get(keys.get(3))).isEqualTo(units("100.00"));
+    }
+
+    @Test
+    @DisplayName("A tier policy applies to accounts of that type; an account policy overrides it")
+    void tierAndAccountPolicies_overrideDefaults() {
+        ownershipIndex.accountOpened(5L, 50L, AccountType.CURRENT);
+        assertDenied(5L, 2L, "1500.00", ErrorCode.TRANSFER_LIMIT_EXCEEDED);
+
+        long tierVersion = policyCache.putTier(AccountType.CURRENT, policy("0", "2000.00"));
+        reserve(5L, 2L, "1500.00");
+        assertThat(policyCache.resolve(5L).getVersion()).isEqualTo(tierVersion);
+        assertThat(policyCache.resolve(1L).getVersion()).as("unknown accounts keep the default").isZero();
+
+        policyCache.putAccount(5L, policy("0", "1600.00"));
+        assertDenied(5L, 3L, "100.01", ErrorCode.DAILY_LIMIT_EXCEEDED);
+        policyCache.removeAccount(5L);
+        reserve(5L, 3L, "100.01");
+    }
+
+    @Test
+    @DisplayName("Policy changes from other instances arrive by pub/sub, and missed ones by reload")
+    void policyChanges_reachTheCache() throws InterruptedException {
+        // Another instance's write: stored and announced, but not applied here directly.
+        redisTemplate.opsForValue().set("transfer_limit:policies:version", "41");
+        redisTemplate.convertAndSend("transfer_limit:policies:events", "account:9|41|0|3000|0|0|0");
+        long deadline = System.currentTimeMillis() + 5000;
+        while (policyCache.resolve(9L).getVersion() != 41 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(policyCache.resolve(9L).getDaily()).isEqualByComparingTo("3000");
+
+        // An older message is ignored.
+        redisTemplate.convertAndSend("transfer_limit:policies:events", "account:9|40|0|10|0|0|0");
+        Thread.sleep(200);
+        assertThat(policyCache.resolve(9L).getVersion()).isEqualTo(41);
+
+        // A change whose message was lost is picked up by the next reload.
+        redisTemplate.opsForHash().put("transfer_limit:policies", "account:9", "42|0|4000|0|0|0");
+        redisTemplate.opsForValue().set("transfer_limit:policies:version", "42");
+        policyCache.reload();
+        assertThat(policyCache.resolve(9L).getDaily()).isEqualByComparingTo("4000");
+
+        redisTemplate.opsForHash().delete("transfer_limit:policies", "account:9");
+        redisTemplate.opsForValue().set("transfer_limit:policies:version", "43");
+        policyCache.reload();
+        assertThat(policyCache.resolve(9L).getVersion()).as("removed: back to the default").isZero();
+    }
+
+    // --- helpers ---
+
+    private void reserve(Long sourceId, Long targetId, String amount) {
+        reservationService.reserve(null, sourceId, targetId, new BigDecimal(amount), UUID.randomUUID().toString());
+    }
+
+    private void assertDenied(Long sourceId, Long targetId, String amount, ErrorCode errorCode) {
+        assertThatThrownBy(() -> reserve(sourceId, targetId, amount))
+                .isInstanceOf(PaymentException.class)
+                .extracting(e -> ((PaymentException) e).getErrorCode())
+                .isEqualTo(errorCode);
+    }
+
+    private static LimitPolicy policy(String perTransaction, String daily) {
+        return new LimitPolicy(0, new BigDecimal(perTransaction), new BigDecimal(daily),
+                BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO);
+    }
+
+    private static String units(String amount) {
+        return String.valueOf(TransferLimitService.toMinorUnits(new BigDecimal(amount)));
+    }
+
+    private static PaymentRequestDto request(Long sourceId, Long targetId, String amount) {
+        PaymentRequestDto request = new PaymentRequestDto();
+        request.setSourceAccountId(sourceId);
+        request.setTargetAccountId(targetId);
+        request.setAmount(new BigDecimal(amount));
+        return request;
+    }
+}
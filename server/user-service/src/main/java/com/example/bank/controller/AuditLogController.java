@@ -1,10 +1,15 @@
 package com.example.bank.controller;
 
 import com.example.bank.common.ApiResponse;
+import com.example.bank.common.CursorCodec;
+import com.example.bank.common.CursorPage;
 import com.example.bank.common.PaginationMeta;
 import com.example.bank.entity.AuditLog;
+import com.example.bank.enums.ErrorCode;
+import com.example.bank.exception.PaginationException;
 import com.example.bank.repository.AuditLogRepository;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -16,10 +21,17 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/v1/audit")
 public class AuditLogController {
 
+    /** Later than any stored row, but still representable as a MySQL DATETIME. */
+    private static final Instant KEYSET_START = Instant.parse("9999-12-31T00:00:00Z");
+
     private final AuditLogRepository auditLogRepository;
 
     public AuditLogController(AuditLogRepository auditLogRepository) {
@@ -42,4 +54,30 @@ public class AuditLogController {
 
         return ResponseEntity.ok(ApiResponse.successPaginated(result, req.getHeader("X-Request-Id"), meta));
     }
+
+    // Keyset paginated variant, newest first (empty cursor = first page)
+    @GetMapping(params = "cursor")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<List<AuditLog>>> getAuditLogsByCursor(
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            HttpServletRequest req) {
+
+        CursorPage.requireValidSize(size);
+        String[] position = CursorCodec.decode(cursor, 2);
+        Instant beforeTimestamp;
+        long beforeId;
+        try {
+            beforeTimestamp = position == null ? KEYSET_START : Instant.parse(position[0]);
+            beforeId = position == null ? Long.MAX_VALUE : Long.parseLong(position[1]);
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new PaginationException(ErrorCode.INVALID_CURSOR);
+        }
+
+        CursorPage<AuditLog> result = CursorPage.fromOverfetch(
+                auditLogRepository.findPageBefore(beforeTimestamp, beforeId, Limit.of(size + 1)),
+                size, last -> CursorCodec.encode(last.getTimestamp(), last.getId()));
+
+        return ResponseEntity.ok(ApiResponse.successCursorPaginated(result, req.getHeader("X-Request-Id")));
+    }
 }
@@ -1,6 +1,7 @@
 package com.example.bank.controller;
 
 import com.example.bank.common.ApiResponse;
+import com.example.bank.common.CursorPage;
 import com.example.bank.common.PaginationMeta;
 import com.example.bank.dto.Login.LoginDto;
 import com.example.bank.dto.Login.LoginResponseDto;
@@ -26,6 +27,7 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import java.security.Principal;
+import java.util.List;
 import java.util.Optional;
 
 @RestController
@@ -154,6 +156,17 @@ public class UserController {
                 req.getHeader("X-Request-Id"), pagination));
     }
 
+    // EP-07b: List all users, keyset paginated — ADMIN only (empty cursor = first page)
+    @GetMapping(params = "cursor")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<List<UserDto>>> getAllUsersByCursor(
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            HttpServletRequest req) {
+        CursorPage<UserDto> result = userService.getAllUsers(cursor, size);
+        return ResponseEntity.ok(ApiResponse.successCursorPaginated(result, req.getHeader("X-Request-Id")));
+    }
+
     // ─── Admin endpoints ──────────────────────────────────────────────────────
 
     // EP-14: Lock / unlock user — ADMIN only
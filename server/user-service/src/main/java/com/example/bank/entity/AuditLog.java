@@ -8,7 +8,9 @@ import lombok.Setter;
 import java.time.Instant;
 
 @Entity
-@Table(name = "audit_logs")
+@Table(name = "audit_logs", indexes = {
+        @Index(name = "idx_audit_logs_timestamp_id", columnList = "timestamp, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
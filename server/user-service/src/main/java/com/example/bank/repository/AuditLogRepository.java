@@ -1,7 +1,21 @@
 package com.example.bank.repository;
 
 import com.example.bank.entity.AuditLog;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
 
 public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
+
+    /** Keyset page of audit logs, newest first, served by {@code idx_audit_logs_timestamp_id}. */
+    @Query("select a from AuditLog a"
+            + " where a.timestamp < :beforeTimestamp or (a.timestamp = :beforeTimestamp and a.id < :beforeId)"
+            + " order by a.timestamp desc, a.id desc")
+    List<AuditLog> findPageBefore(@Param("beforeTimestamp") Instant beforeTimestamp,
+                                  @Param("beforeId") Long beforeId,
+                                  Limit limit);
 }
@@ -1,11 +1,16 @@
 package com.example.bank.repository;
 
 import com.example.bank.entity.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
     Optional<User> findByEmail(String email);
+
+    /** Keyset page of users by primary key. */
+    List<User> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
 }
\ No newline at end of file
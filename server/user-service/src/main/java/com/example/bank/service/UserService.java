@@ -1,5 +1,6 @@
 package com.example.bank.service;
 
+import com.example.bank.common.CursorPage;
 import com.example.bank.dto.Login.LoginDto;
 import com.example.bank.dto.Login.LoginResponseDto;
 import com.example.bank.dto.User.UserCreateDto;
@@ -17,6 +18,8 @@ public interface UserService {
 
     Page<UserDto> getAllUsers(Pageable pageable);
 
+    CursorPage<UserDto> getAllUsers(String cursor, int size);
+
     UserDto updateUser(Long id, UserUpdateDto userUpdateDto, String principalName);
 
     void deleteUser(Long id);
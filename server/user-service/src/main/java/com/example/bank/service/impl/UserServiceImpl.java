@@ -1,5 +1,7 @@
 package com.example.bank.service.impl;
 
+import com.example.bank.common.CursorCodec;
+import com.example.bank.common.CursorPage;
 import com.example.bank.dto.Login.LoginDto;
 import com.example.bank.dto.Login.LoginResponseDto;
 import com.example.bank.dto.User.UserCreateDto;
@@ -8,6 +10,7 @@ import com.example.bank.dto.User.UserUpdateDto;
 import com.example.bank.entity.RefreshToken;
 import com.example.bank.entity.User;
 import com.example.bank.enums.ErrorCode;
+import com.example.bank.exception.PaginationException;
 import com.example.bank.exception.UserException;
 import com.example.bank.mapper.UserMapper;
 import com.example.bank.repository.UserRepository;
@@ -19,6 +22,7 @@ import com.example.bank.service.UserService;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -28,6 +32,7 @@ import javax.crypto.SecretKey;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -119,6 +124,22 @@ public class UserServiceImpl implements UserService {
         return userRepository.findAll(pageable).map(UserMapper::mapToUserDto);
     }
 
+    @Override
+    public CursorPage<UserDto> getAllUsers(String cursor, int size) {
+        CursorPage.requireValidSize(size);
+        String[] position = CursorCodec.decode(cursor, 1);
+        long afterId;
+        try {
+            afterId = position == null ? 0L : Long.parseLong(position[0]);
+        } catch (NumberFormatException e) {
+            throw new PaginationException(ErrorCode.INVALID_CURSOR);
+        }
+        return CursorPage.fromOverfetch(
+                        userRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(size + 1)),
+                        size, last -> CursorCodec.encode(last.getId()))
+                .map(UserMapper::mapToUserDto);
+    }
+
     // ─── Update ──────────────────────────────────────────────────────────────
 
     @Override
@@ -130,6 +151,9 @@ public class UserServiceImpl implements UserService {
                     "You do not have permission to update this user.");
         }
 
+        String oldUsername = user.getUsername();
+        String oldEmail = user.getEmail();
+
         if (dto.getUsername() != null && !dto.getUsername().equals(user.getUsername())) {
             userRepository.findByUsername(dto.getUsername()).ifPresent(u -> {
                 throw new UserException(ErrorCode.USERNAME_ALREADY_EXISTS,
@@ -168,7 +192,18 @@ public class UserServiceImpl implements UserService {
                     user.getId().toString(), "UPDATE", null);
         }
 
-        return UserMapper.mapToUserDto(userRepository.save(user));
+        User saved = userRepository.save(user);
+
+        // Published under the old username so consumers caching by username can evict it.
+        if (!oldUsername.equals(saved.getUsername()) || !Objects.equals(oldEmail, saved.getEmail())) {
+            Map<String, Object> details = new HashMap<>();
+            details.put("newUsername", saved.getUsername());
+            details.put("emailChanged", !Objects.equals(oldEmail, saved.getEmail()));
+            auditEventProducer.publish("USER_UPDATED", oldUsername, "User",
+                    saved.getId().toString(), "UPDATE", details);
+        }
+
+        return UserMapper.mapToUserDto(saved);
     }
 
     // ─── Delete ──────────────────────────────────────────────────────────────